@@ -0,0 +1,84 @@
+package uk.ac.ucl.comp0010.benchmark;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import uk.ac.ucl.comp0010.Application;
+import uk.ac.ucl.comp0010.dto.SyntheticDataSet;
+import uk.ac.ucl.comp0010.service.SyntheticDataGenerator;
+
+/**
+ * Benchmark state holding a running application context over a synthetic H2 database.
+ * One context is started per trial, so each data set size and profile is measured
+ * against its own database.
+ */
+@State(Scope.Benchmark)
+public class BenchmarkApplication {
+
+  /**
+   * Approximate number of grades to load; each student has {@value #MODULES_PER_STUDENT}
+   * registrations, most of them graded. Sizes above a million need a larger heap, e.g.
+   * {@code -jvmArgsAppend -Xmx8g}.
+   */
+  @Param({"10000"})
+  public int grades;
+
+  /**
+   * Spring profiles to activate, e.g. {@code l2cache}; empty for the default setup.
+   */
+  @Param({""})
+  public String profiles;
+
+  /**
+   * Storage of the columnar grade store: heap, direct or mapped (in a temporary directory).
+   */
+  @Param({"heap"})
+  public String columnarStorage;
+
+  static final int MODULES = 200;
+  static final int MODULES_PER_STUDENT = 20;
+  private static final long SEED = 2010L;
+
+  ConfigurableApplicationContext context;
+  SyntheticDataSet dataSet;
+
+  /**
+   * Starts the application on a random port and loads the synthetic data set.
+   */
+  @Setup(Level.Trial)
+  public void start() {
+    context = new SpringApplicationBuilder(Application.class)
+        .profiles(profiles.isEmpty() ? new String[0] : profiles.split(","))
+        // Passed as arguments so they override application.properties.
+        .run("--spring.datasource.url=jdbc:h2:mem:benchmark;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+            "--server.port=0",
+            "--spring.sql.init.mode=never",
+            "--spring.jpa.show-sql=false",
+            "--grades.columnar.enabled=true",
+            "--grades.columnar.storage=" + columnarStorage,
+            "--grades.columnar.dir=" + System.getProperty("java.io.tmpdir") + "/grades-columnar",
+            "--logging.level.root=WARN");
+    dataSet = new SyntheticDataSet(Math.max(1, grades / MODULES_PER_STUDENT), MODULES,
+        MODULES_PER_STUDENT, SEED);
+    context.getBean(SyntheticDataGenerator.class).load(dataSet);
+  }
+
+  /**
+   * Stops the application and drops its database.
+   */
+  @TearDown(Level.Trial)
+  public void stop() {
+    context.getBean(JdbcTemplate.class).execute("SHUTDOWN");
+    context.close();
+  }
+
+  <T> T getBean(Class<T> type) {
+    return context.getBean(type);
+  }
+}
@@ -0,0 +1,70 @@
+package uk.ac.ucl.comp0010.benchmark;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import uk.ac.ucl.comp0010.dto.DegreeClassification;
+import uk.ac.ucl.comp0010.dto.SyntheticDataSet;
+import uk.ac.ucl.comp0010.exception.NoGradeAvailableException;
+import uk.ac.ucl.comp0010.service.DegreeClassificationService;
+
+/**
+ * Classifying every student in one fork/join pass against classifying students one at a
+ * time, as separate requests would. Multiply the per-student time by the number of students
+ * ({@code grades / 20}) to compare with the cohort.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DegreeClassificationBenchmark {
+
+  private DegreeClassificationService classificationService;
+  private SyntheticDataSet dataSet;
+
+  /**
+   * Looks up the service under test.
+   *
+   * @param application the running application
+   */
+  @Setup(Level.Trial)
+  public void setUp(BenchmarkApplication application) {
+    classificationService = application.getBean(DegreeClassificationService.class);
+    dataSet = application.dataSet;
+  }
+
+  /**
+   * Every student of every year, classified in parallel.
+   *
+   * @return the classifications
+   */
+  @Benchmark
+  public List<DegreeClassification> classifyCohort() {
+    return classificationService.classifyCohort(null);
+  }
+
+  /**
+   * One student, classified alone.
+   *
+   * @return the classification
+   * @throws NoGradeAvailableException if the student has no scored grades
+   */
+  @Benchmark
+  public DegreeClassification classifyOneStudent() throws NoGradeAvailableException {
+    return classificationService.classifyStudent(
+        1 + ThreadLocalRandom.current().nextInt(dataSet.getStudents()));
+  }
+}
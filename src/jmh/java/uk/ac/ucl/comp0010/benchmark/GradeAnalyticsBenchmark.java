@@ -0,0 +1,101 @@
+package uk.ac.ucl.comp0010.benchmark;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import uk.ac.ucl.comp0010.dto.GradeDistribution;
+import uk.ac.ucl.comp0010.dto.GradeStatistics;
+import uk.ac.ucl.comp0010.dto.SyntheticDataSet;
+import uk.ac.ucl.comp0010.model.GradeAggregate;
+import uk.ac.ucl.comp0010.model.GradeHistogramBucket;
+import uk.ac.ucl.comp0010.repository.GradeRepository;
+import uk.ac.ucl.comp0010.service.ColumnarGradeStore;
+import uk.ac.ucl.comp0010.service.GradeAggregateService;
+
+/**
+ * Module statistics from the database query against a scan of the columnar grade store.
+ * Run with {@code -prof gc} (the default in the jmh profile) to compare allocation per call,
+ * and with {@code -p columnarStorage=heap,direct,mapped} to compare where the store is held.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GradeAnalyticsBenchmark {
+
+  private GradeRepository gradeRepository;
+  private ColumnarGradeStore columnarGradeStore;
+  private GradeAggregateService gradeAggregateService;
+  private SyntheticDataSet dataSet;
+
+  /**
+   * Looks up the services under test.
+   *
+   * @param application the running application
+   */
+  @Setup(Level.Trial)
+  public void setUp(BenchmarkApplication application) {
+    gradeRepository = application.getBean(GradeRepository.class);
+    columnarGradeStore = application.getBean(ColumnarGradeStore.class);
+    gradeAggregateService = application.getBean(GradeAggregateService.class);
+    dataSet = application.dataSet;
+  }
+
+  private String randomModule() {
+    return dataSet.moduleCode(ThreadLocalRandom.current().nextInt(dataSet.getModules()));
+  }
+
+  /**
+   * Module statistics computed by the database.
+   *
+   * @return the statistics
+   */
+  @Benchmark
+  public GradeStatistics databaseModuleStatistics() {
+    return gradeRepository.findStatisticsByModuleCode(randomModule());
+  }
+
+  /**
+   * Module statistics from a scan of the columnar store.
+   *
+   * @return the statistics
+   */
+  @Benchmark
+  public GradeStatistics columnarModuleStatistics() {
+    return columnarGradeStore.getStatistics(GradeAggregate.Scope.MODULE, randomModule());
+  }
+
+  /**
+   * Median module score from a histogram built by a scan of the columnar store.
+   *
+   * @return the median
+   */
+  @Benchmark
+  public int columnarModuleMedian() {
+    return ColumnarGradeStore.percentile(
+        columnarGradeStore.getHistogram(GradeAggregate.Scope.MODULE, randomModule()), 50);
+  }
+
+  /**
+   * Median module score from the histogram maintained with the grades.
+   *
+   * @return the median
+   */
+  @Benchmark
+  public int maintainedModuleMedian() {
+    return GradeDistribution.percentile(
+        gradeAggregateService.getHistogram(GradeHistogramBucket.forModule(randomModule())), 50);
+  }
+}
@@ -0,0 +1,147 @@
+package uk.ac.ucl.comp0010.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.luben.zstd.ZstdOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import uk.ac.ucl.comp0010.dto.GradeSummary;
+import uk.ac.ucl.comp0010.dto.GradeView;
+import uk.ac.ucl.comp0010.dto.SyntheticDataSet;
+import uk.ac.ucl.comp0010.model.Grade;
+import uk.ac.ucl.comp0010.model.Module;
+import uk.ac.ucl.comp0010.model.Student;
+
+/**
+ * Encoding a grade listing in each view, format and content coding, as the grade endpoints
+ * would write it. Needs no database: the grades are built in memory. The encoded size of each
+ * combination is reported as the {@code encode:bytes} counter, so the time per listing can be
+ * weighed against the bytes sent.
+ * Narrow the combinations with e.g. {@code -p view=summary,columns -p encoding=gzip,zstd}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GradeSerializationBenchmark {
+
+  @Param({"10000"})
+  public int grades;
+
+  @Param({"full", "summary", "ids", "columns"})
+  public String view;
+
+  @Param({"json", "cbor"})
+  public String format;
+
+  @Param({"identity", "gzip", "zstd"})
+  public String encoding;
+
+  private ObjectMapper mapper;
+  private Object body;
+  private ByteArrayOutputStream buffer;
+
+  /**
+   * Encoded size of one listing, reported alongside the time.
+   */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class EncodedSize {
+
+    public long bytes;
+  }
+
+  /**
+   * Builds the listing.
+   */
+  @Setup(Level.Trial)
+  public void setUp() {
+    mapper = "cbor".equals(format)
+        ? Jackson2ObjectMapperBuilder.cbor().build()
+        : Jackson2ObjectMapperBuilder.json().build();
+    GradeView shape = GradeView.valueOf(view.toUpperCase(Locale.ROOT));
+    body = shape.render(listing(shape));
+    buffer = new ByteArrayOutputStream();
+  }
+
+  /**
+   * One listing, serialised and compressed.
+   *
+   * @param size receives the encoded size
+   * @return the encoded size
+   * @throws IOException if encoding fails
+   */
+  @Benchmark
+  public int encode(EncodedSize size) throws IOException {
+    buffer.reset();
+    try (OutputStream out = open(buffer)) {
+      mapper.writeValue(out, body);
+    }
+    size.bytes = buffer.size();
+    return buffer.size();
+  }
+
+  private OutputStream open(OutputStream out) throws IOException {
+    switch (encoding) {
+      case "gzip":
+        return new GZIPOutputStream(out);
+      case "zstd":
+        return new ZstdOutputStream(out, 3);
+      default:
+        return out;
+    }
+  }
+
+  private List<Object> listing(GradeView shape) {
+    SyntheticDataSet dataSet = new SyntheticDataSet(Math.max(1, grades / 5), 200, 5, 42L);
+    List<Module> modules = new ArrayList<>();
+    for (int m = 0; m < dataSet.getModules(); m++) {
+      modules.add(new Module(dataSet.moduleCode(m), "Module " + m, m % 10 == 0, 15));
+    }
+    List<Object> listing = new ArrayList<>(grades);
+    for (int id = 1; id <= grades; id++) {
+      int studentId = (id - 1) / dataSet.getModulesPerStudent() + 1;
+      Student student = new Student(studentId, "First" + studentId, "Last" + studentId,
+          "user" + studentId, "user" + studentId + "@ucl.ac.uk");
+      Module module = modules.get(
+          dataSet.moduleIndex(studentId, (id - 1) % dataSet.getModulesPerStudent()));
+      Grade grade = new Grade(dataSet.random(id, 2).nextInt(40, 100),
+          dataSet.academicYear(studentId), student, module);
+      grade.setId(id);
+      switch (shape) {
+        case FULL:
+          listing.add(grade);
+          break;
+        case SUMMARY:
+          listing.add(new GradeSummary(id, grade.getScore(), grade.getAcademicYear(), studentId,
+              student.getFirstName() + " " + student.getLastName(), module.getCode(),
+              module.getName()));
+          break;
+        default:
+          listing.add(grade.toRow());
+      }
+    }
+    return listing;
+  }
+}
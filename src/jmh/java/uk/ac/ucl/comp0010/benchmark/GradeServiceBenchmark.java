@@ -0,0 +1,102 @@
+package uk.ac.ucl.comp0010.benchmark;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import uk.ac.ucl.comp0010.dto.SyntheticDataSet;
+import uk.ac.ucl.comp0010.exception.NoGradeAvailableException;
+import uk.ac.ucl.comp0010.exception.NoRegistrationException;
+import uk.ac.ucl.comp0010.model.Grade;
+import uk.ac.ucl.comp0010.service.GradeService;
+
+/**
+ * Throughput of the GradeService hot paths against a seeded database.
+ * Run with {@code -prof gc} (the default in the jmh profile) to see allocation rates.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GradeServiceBenchmark {
+
+  private GradeService gradeService;
+  private SyntheticDataSet dataSet;
+
+  /**
+   * Looks up the service under test.
+   *
+   * @param application the running application
+   */
+  @Setup(Level.Trial)
+  public void setUp(BenchmarkApplication application) {
+    gradeService = application.getBean(GradeService.class);
+    dataSet = application.dataSet;
+  }
+
+  private int randomStudent() {
+    return 1 + ThreadLocalRandom.current().nextInt(dataSet.getStudents());
+  }
+
+  private String randomModule() {
+    return dataSet.moduleCode(ThreadLocalRandom.current().nextInt(dataSet.getModules()));
+  }
+
+  /**
+   * Average of one student's grades.
+   *
+   * @return the average
+   * @throws NoGradeAvailableException if the student has no graded modules, which is
+   *     vanishingly rare with twenty registrations each
+   */
+  @Benchmark
+  public double calculateStudentAverage() throws NoGradeAvailableException {
+    return gradeService.calculateStudentAverage(randomStudent());
+  }
+
+  /**
+   * All grades of one module, with their students and modules.
+   *
+   * @return the number of grades
+   */
+  @Benchmark
+  public int getGradesByModule() {
+    return gradeService.getGradesByModule(randomModule()).size();
+  }
+
+  /**
+   * Registration check for a random student and module.
+   *
+   * @return whether the student is registered
+   */
+  @Benchmark
+  public boolean isStudentRegistered() {
+    return gradeService.isStudentRegistered(randomStudent(), randomModule());
+  }
+
+  /**
+   * Adding a validated grade for a registered student and module.
+   *
+   * @return the saved grade
+   * @throws NoRegistrationException never, the pair is always registered
+   */
+  @Benchmark
+  public Grade addGradeWithValidation() throws NoRegistrationException {
+    int student = randomStudent();
+    String module = dataSet.registeredModule(student,
+        ThreadLocalRandom.current().nextInt(dataSet.getModulesPerStudent()));
+    return gradeService.addGradeWithValidation(student, module,
+        ThreadLocalRandom.current().nextInt(101), "2024-2025");
+  }
+}
@@ -0,0 +1,118 @@
+package uk.ac.ucl.comp0010.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.FileSystemUtils;
+import uk.ac.ucl.comp0010.Application;
+import uk.ac.ucl.comp0010.dto.SyntheticDataSet;
+import uk.ac.ucl.comp0010.service.SyntheticDataGenerator;
+
+/**
+ * Time from launch until the application is ready to serve a data set of the given size,
+ * either by reopening the {@code persistent} profile's database file or by starting on an
+ * in-memory database and loading the data again.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class StartupBenchmark {
+
+  /**
+   * Approximate number of grades in the data set.
+   */
+  @Param({"100000"})
+  public int grades;
+
+  private Path directory;
+  private ConfigurableApplicationContext context;
+
+  private SyntheticDataSet dataSet() {
+    return new SyntheticDataSet(Math.max(1, grades / BenchmarkApplication.MODULES_PER_STUDENT),
+        BenchmarkApplication.MODULES, BenchmarkApplication.MODULES_PER_STUDENT, 2010L);
+  }
+
+  private static ConfigurableApplicationContext start(String profile, String datasourceArgument) {
+    return new SpringApplicationBuilder(Application.class)
+        .profiles(profile.isEmpty() ? new String[0] : new String[] {profile})
+        .run(datasourceArgument,
+            "--server.port=0",
+            "--spring.sql.init.mode=never",
+            "--spring.jpa.show-sql=false",
+            "--logging.level.root=WARN");
+  }
+
+  /**
+   * Writes the data set to a persistent database in a temporary directory.
+   *
+   * @throws IOException if the directory cannot be created
+   */
+  @Setup(Level.Trial)
+  public void createDatabase() throws IOException {
+    directory = Files.createTempDirectory("grades-startup");
+    try (ConfigurableApplicationContext loader =
+        start("persistent", "--grades.persistent.dir=" + directory)) {
+      loader.getBean(SyntheticDataGenerator.class).load(dataSet());
+    }
+  }
+
+  /**
+   * Starts the application on the existing database file.
+   *
+   * @return the running context
+   */
+  @Benchmark
+  public ConfigurableApplicationContext reopenPersistent() {
+    context = start("persistent", "--grades.persistent.dir=" + directory);
+    return context;
+  }
+
+  /**
+   * Starts the application on an empty in-memory database and loads the data set.
+   *
+   * @return the running context
+   */
+  @Benchmark
+  public ConfigurableApplicationContext reseedInMemory() {
+    context = start("", "--spring.datasource.url=jdbc:h2:mem:startup;MODE=PostgreSQL;");
+    context.getBean(SyntheticDataGenerator.class).load(dataSet());
+    return context;
+  }
+
+  /**
+   * Stops the application started by the measured call.
+   */
+  @TearDown(Level.Invocation)
+  public void stop() {
+    context.close();
+  }
+
+  /**
+   * Deletes the database directory.
+   *
+   * @throws IOException if it cannot be deleted
+   */
+  @TearDown(Level.Trial)
+  public void deleteDatabase() throws IOException {
+    FileSystemUtils.deleteRecursively(directory);
+  }
+}
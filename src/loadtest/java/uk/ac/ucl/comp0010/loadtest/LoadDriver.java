@@ -0,0 +1,426 @@
+package uk.ac.ucl.comp0010.loadtest;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import uk.ac.ucl.comp0010.dto.SyntheticDataSet;
+
+/**
+ * Replays a read/write mix against the grade endpoints of a running application and reports
+ * latency percentiles per operation. Start the application with the {@code synthetic}
+ * profile, then run the driver with the same data set options:
+ * <pre>
+ *   mvn -Ploadtest test-compile exec:exec -Dloadtest.args="--threads=16 --duration=60"
+ * </pre>
+ * Options, all as {@code --name=value}:
+ * <ul>
+ *   <li>{@code base-url}: application URL (default http://localhost:2800)</li>
+ *   <li>{@code threads}: concurrent workers (default 8)</li>
+ *   <li>{@code clients}: if set, simulates this many concurrent clients with asynchronous
+ *       requests instead of one thread per worker, so thousands of clients fit on one box;
+ *       each client sends its next request as soon as the previous one completes</li>
+ *   <li>{@code duration}, {@code warmup}: measured and unrecorded seconds (60, 10)</li>
+ *   <li>{@code rate}: total requests per second, or 0 to send as fast as responses
+ *       arrive (default 0)</li>
+ *   <li>{@code mix}: operation weights, e.g. {@code student_grades=30,add_grade=10}</li>
+ *   <li>{@code students}, {@code modules}, {@code modules-per-student}, {@code seed}: the
+ *       data set the application was started with</li>
+ * </ul>
+ * With a fixed rate, latency is measured from when each request was due rather than when it
+ * was sent, so a stalled server is not hidden by the driver waiting for it.
+ */
+public final class LoadDriver {
+
+  /**
+   * Requests the driver can send.
+   */
+  enum Operation {
+    STUDENT_GRADES(30),
+    MODULE_GRADES_PAGE(20),
+    STUDENT_AVERAGE(25),
+    MODULE_AVERAGE(15),
+    ADD_GRADE(10);
+
+    private final int defaultWeight;
+
+    Operation(int defaultWeight) {
+      this.defaultWeight = defaultWeight;
+    }
+  }
+
+  private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+  private final ExecutorService executor;
+  private final HttpClient client;
+  private final String baseUrl;
+  private final SyntheticDataSet dataSet;
+  private final Operation[] schedule;
+
+  private LoadDriver(String baseUrl, SyntheticDataSet dataSet, Map<Operation, Integer> mix) {
+    this.executor = Executors.newFixedThreadPool(
+        Math.max(2, Runtime.getRuntime().availableProcessors()));
+    this.client = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_1_1)
+        .connectTimeout(Duration.ofSeconds(10))
+        .executor(executor)
+        .build();
+    this.baseUrl = baseUrl;
+    this.dataSet = dataSet;
+    List<Operation> slots = new ArrayList<>();
+    mix.forEach((operation, weight) -> {
+      for (int i = 0; i < weight; i++) {
+        slots.add(operation);
+      }
+    });
+    if (slots.isEmpty()) {
+      throw new IllegalArgumentException("The mix must give at least one operation a weight");
+    }
+    this.schedule = slots.toArray(new Operation[0]);
+  }
+
+  /**
+   * Runs the driver.
+   *
+   * @param args options as {@code --name=value}
+   * @throws Exception if the application cannot be reached or a worker is interrupted
+   */
+  public static void main(String[] args) throws Exception {
+    Map<String, String> options = parseOptions(args);
+    SyntheticDataSet dataSet = new SyntheticDataSet(
+        intOption(options, "students", 50000),
+        intOption(options, "modules", 400),
+        intOption(options, "modules-per-student", 8),
+        Long.parseLong(options.getOrDefault("seed", "2010")));
+    LoadDriver driver = new LoadDriver(options.getOrDefault("base-url", "http://localhost:2800"),
+        dataSet, parseMix(options.get("mix")));
+
+    int threads = intOption(options, "threads", 8);
+    int clients = intOption(options, "clients", 0);
+    int warmup = intOption(options, "warmup", 10);
+    int duration = intOption(options, "duration", 60);
+    double rate = Double.parseDouble(options.getOrDefault("rate", "0"));
+
+    driver.checkReachable();
+    Map<Operation, Samples> results;
+    if (clients > 0) {
+      System.out.printf(Locale.ROOT, "%d asynchronous clients, %ds warmup, %ds measured%n",
+          clients, warmup, duration);
+      results = driver.runClients(clients, warmup, duration);
+    } else {
+      System.out.printf(Locale.ROOT, "%d threads, %ds warmup, %ds measured, %s%n", threads,
+          warmup, duration, rate > 0 ? rate + " requests/s" : "closed loop");
+      results = driver.run(threads, warmup, duration, rate);
+    }
+    report(results, duration);
+    driver.executor.shutdownNow();
+  }
+
+  private void checkReachable() throws IOException, InterruptedException {
+    try {
+      send(get("/grades/student/1/average"));
+    } catch (ConnectException e) {
+      throw new IllegalStateException("No application at " + baseUrl
+          + "; start it with the synthetic profile first", e);
+    }
+  }
+
+  private Map<Operation, Samples> run(int threads, int warmupSeconds, int durationSeconds,
+      double rate) throws InterruptedException {
+    long start = System.nanoTime();
+    long measureFrom = start + TimeUnit.SECONDS.toNanos(warmupSeconds);
+    long end = measureFrom + TimeUnit.SECONDS.toNanos(durationSeconds);
+    long interval = rate > 0 ? (long) (threads * 1e9 / rate) : 0;
+
+    List<Worker> workers = new ArrayList<>();
+    for (int t = 0; t < threads; t++) {
+      Worker worker = new Worker(new SplittableRandom(dataSet.getSeed() + t), start,
+          measureFrom, end, interval);
+      workers.add(worker);
+      worker.thread.start();
+    }
+    Map<Operation, Samples> merged = new EnumMap<>(Operation.class);
+    for (Worker worker : workers) {
+      worker.thread.join();
+      worker.samples.forEach((operation, samples) ->
+          merged.computeIfAbsent(operation, o -> new Samples()).addAll(samples));
+    }
+    return merged;
+  }
+
+  private Map<Operation, Samples> runClients(int clients, int warmupSeconds,
+      int durationSeconds) throws InterruptedException {
+    long start = System.nanoTime();
+    long measureFrom = start + TimeUnit.SECONDS.toNanos(warmupSeconds);
+    long end = measureFrom + TimeUnit.SECONDS.toNanos(durationSeconds);
+    Map<Operation, Samples> samples = new EnumMap<>(Operation.class);
+    for (Operation operation : Operation.values()) {
+      samples.put(operation, new Samples());
+    }
+    CountDownLatch finished = new CountDownLatch(clients);
+    for (int c = 0; c < clients; c++) {
+      new AsyncClient(new SplittableRandom(dataSet.getSeed() + c), measureFrom, end, samples,
+          finished).next();
+    }
+    finished.await();
+    samples.values().removeIf(s -> s.size == 0);
+    return samples;
+  }
+
+  private HttpRequest request(Operation operation, SplittableRandom random) {
+    int student = 1 + random.nextInt(dataSet.getStudents());
+    String module = dataSet.registeredModule(1 + random.nextInt(dataSet.getStudents()),
+        random.nextInt(dataSet.getModulesPerStudent()));
+    switch (operation) {
+      case STUDENT_GRADES:
+        return get("/grades/student/" + student + "?view=summary");
+      case MODULE_GRADES_PAGE:
+        return get("/grades/module/" + module + "?limit=50&view=summary");
+      case STUDENT_AVERAGE:
+        return get("/grades/student/" + student + "/average");
+      case MODULE_AVERAGE:
+        return get("/grades/module/" + module + "/average");
+      case ADD_GRADE:
+        String registered = dataSet.registeredModule(student,
+            random.nextInt(dataSet.getModulesPerStudent()));
+        String body = String.format(Locale.ROOT, "{\"student_id\":\"%d\",\"module_code\":\"%s\","
+            + "\"score\":\"%d\",\"academic_year\":\"%s\"}", student, registered,
+            random.nextInt(101), dataSet.academicYear(student));
+        return HttpRequest.newBuilder(URI.create(baseUrl + "/grades/addGradeValidated"))
+            .timeout(REQUEST_TIMEOUT)
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(body))
+            .build();
+      default:
+        throw new IllegalStateException("Unknown operation: " + operation);
+    }
+  }
+
+  private HttpRequest get(String path) {
+    return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(REQUEST_TIMEOUT).GET()
+        .build();
+  }
+
+  private int send(HttpRequest request) throws IOException, InterruptedException {
+    return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+  }
+
+  private static void report(Map<Operation, Samples> results, int durationSeconds) {
+    System.out.printf(Locale.ROOT, "%n%-20s %9s %7s %9s %9s %9s %9s %9s %9s%n", "operation",
+        "requests", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+    Samples all = new Samples();
+    results.forEach((operation, samples) -> {
+      printRow(operation.name().toLowerCase(Locale.ROOT), samples, durationSeconds);
+      all.addAll(samples);
+    });
+    printRow("all", all, durationSeconds);
+  }
+
+  private static void printRow(String name, Samples samples, int durationSeconds) {
+    long[] sorted = samples.sorted();
+    System.out.printf(Locale.ROOT, "%-20s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n", name,
+        sorted.length, samples.errors, (double) sorted.length / durationSeconds,
+        percentile(sorted, 50), percentile(sorted, 90), percentile(sorted, 99),
+        percentile(sorted, 99.9), percentile(sorted, 100));
+  }
+
+  /**
+   * Nearest-rank percentile in milliseconds.
+   */
+  static double percentile(long[] sortedNanos, double percentile) {
+    if (sortedNanos.length == 0) {
+      return Double.NaN;
+    }
+    int rank = (int) Math.ceil(percentile / 100 * sortedNanos.length);
+    return sortedNanos[Math.max(0, rank - 1)] / 1e6;
+  }
+
+  private static Map<String, String> parseOptions(String[] args) {
+    Map<String, String> options = new HashMap<>();
+    for (String arg : args) {
+      if (!arg.startsWith("--") || !arg.contains("=")) {
+        throw new IllegalArgumentException("Expected --name=value but got: " + arg);
+      }
+      int equals = arg.indexOf('=');
+      options.put(arg.substring(2, equals), arg.substring(equals + 1));
+    }
+    return options;
+  }
+
+  private static int intOption(Map<String, String> options, String name, int defaultValue) {
+    String value = options.get(name);
+    return value == null ? defaultValue : Integer.parseInt(value);
+  }
+
+  private static Map<Operation, Integer> parseMix(String mix) {
+    Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+    if (mix == null) {
+      for (Operation operation : Operation.values()) {
+        weights.put(operation, operation.defaultWeight);
+      }
+      return weights;
+    }
+    for (String entry : mix.split(",")) {
+      String[] parts = entry.split("=");
+      if (parts.length != 2) {
+        throw new IllegalArgumentException("Expected operation=weight but got: " + entry);
+      }
+      try {
+        weights.put(Operation.valueOf(parts[0].trim().toUpperCase(Locale.ROOT)),
+            Integer.parseInt(parts[1].trim()));
+      } catch (IllegalArgumentException e) {
+        throw new IllegalArgumentException("Unknown operation " + parts[0] + "; expected one of "
+            + Arrays.toString(Operation.values()).toLowerCase(Locale.ROOT), e);
+      }
+    }
+    return weights;
+  }
+
+  /**
+   * One closed- or open-loop request loop with its own latency samples.
+   */
+  private final class Worker implements Runnable {
+
+    private final Thread thread = new Thread(this);
+    private final Map<Operation, Samples> samples = new EnumMap<>(Operation.class);
+    private final SplittableRandom random;
+    private final long start;
+    private final long measureFrom;
+    private final long end;
+    private final long interval;
+
+    private Worker(SplittableRandom random, long start, long measureFrom, long end,
+        long interval) {
+      this.random = random;
+      // Spread the first requests of each worker across one interval.
+      this.start = interval > 0 ? start + random.nextLong(interval) : start;
+      this.measureFrom = measureFrom;
+      this.end = end;
+      this.interval = interval;
+      thread.setName("load-driver-" + thread.getId());
+    }
+
+    @Override
+    public void run() {
+      long due = start;
+      while (true) {
+        long now = System.nanoTime();
+        if (interval > 0) {
+          if (due > now) {
+            LockSupport.parkNanos(due - now);
+          }
+        } else {
+          due = now;
+        }
+        if (due >= end) {
+          return;
+        }
+        Operation operation = schedule[random.nextInt(schedule.length)];
+        boolean failed;
+        try {
+          failed = send(request(operation, random)) >= 400;
+        } catch (IOException e) {
+          failed = true;
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          return;
+        }
+        if (due >= measureFrom) {
+          samples.computeIfAbsent(operation, o -> new Samples()).add(System.nanoTime() - due,
+              failed);
+        }
+        due += interval;
+      }
+    }
+  }
+
+  /**
+   * One simulated client keeping a single asynchronous request in flight.
+   */
+  private final class AsyncClient {
+
+    private final SplittableRandom random;
+    private final long measureFrom;
+    private final long end;
+    private final Map<Operation, Samples> samples;
+    private final CountDownLatch finished;
+
+    private AsyncClient(SplittableRandom random, long measureFrom, long end,
+        Map<Operation, Samples> samples, CountDownLatch finished) {
+      this.random = random;
+      this.measureFrom = measureFrom;
+      this.end = end;
+      this.samples = samples;
+      this.finished = finished;
+    }
+
+    private void next() {
+      long sent = System.nanoTime();
+      if (sent >= end) {
+        finished.countDown();
+        return;
+      }
+      Operation operation = schedule[random.nextInt(schedule.length)];
+      client.sendAsync(request(operation, random), HttpResponse.BodyHandlers.discarding())
+          .whenComplete((response, error) -> {
+            if (sent >= measureFrom) {
+              Samples target = samples.get(operation);
+              synchronized (target) {
+                target.add(System.nanoTime() - sent,
+                    error != null || response.statusCode() >= 400);
+              }
+            }
+            next();
+          });
+    }
+  }
+
+  /**
+   * Growable list of latencies in nanoseconds, with an error count.
+   */
+  private static final class Samples {
+
+    private long[] latencies = new long[1024];
+    private int size;
+    private long errors;
+
+    private void add(long latency, boolean failed) {
+      if (size == latencies.length) {
+        latencies = Arrays.copyOf(latencies, size * 2);
+      }
+      latencies[size++] = latency;
+      if (failed) {
+        errors++;
+      }
+    }
+
+    private void addAll(Samples other) {
+      for (int i = 0; i < other.size; i++) {
+        add(other.latencies[i], false);
+      }
+      errors += other.errors;
+    }
+
+    private long[] sorted() {
+      long[] copy = Arrays.copyOf(latencies, size);
+      Arrays.sort(copy);
+      return copy;
+    }
+  }
+}
@@ -2,12 +2,14 @@ package uk.ac.ucl.comp0010;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Main application class for the Student Grade Management System.
  * This class bootstraps the Spring Boot application.
  */
 @SpringBootApplication
+@EnableScheduling
 public class Application {
 
   /**
@@ -0,0 +1,100 @@
+package uk.ac.ucl.comp0010.config;
+
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CachingConfigurer;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration for the in-memory cache of student and module reference data.
+ * Entries are held in bounded Caffeine caches; puts and evictions made inside a transaction
+ * are applied only once it commits, so a rolled back change never reaches the cache.
+ * The caches store and hand out copies of the entities, so an entity a caller edits is never
+ * the one other callers read.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig implements CachingConfigurer {
+
+  /**
+   * Cache of students by ID.
+   */
+  public static final String STUDENTS = "students";
+
+  /**
+   * Cache of modules by code.
+   */
+  public static final String MODULES = "modules";
+
+  @Value("${grades.cache.spec}")
+  private String cacheSpec;
+
+  /**
+   * Creates the Caffeine caches. Registered as a bean so actuator publishes their hit and
+   * miss counts as {@code cache.gets} metrics.
+   *
+   * @return the Caffeine cache manager
+   */
+  @Bean
+  public CaffeineCacheManager caffeineCacheManager() {
+    CaffeineCacheManager cacheManager = new CaffeineCacheManager(STUDENTS, MODULES) {
+      @Override
+      protected Cache adaptCaffeineCache(String name,
+          com.github.benmanes.caffeine.cache.Cache<Object, Object> cache) {
+        return new SnapshotCache(name, cache, isAllowNullValues());
+      }
+    };
+    cacheManager.setCacheSpecification(cacheSpec);
+    cacheManager.setAllowNullValues(false);
+    return cacheManager;
+  }
+
+  /**
+   * Cache manager used by the caching annotations.
+   *
+   * @return the Caffeine caches, synchronised with the current transaction
+   */
+  @Override
+  public CacheManager cacheManager() {
+    return new TransactionAwareCacheManagerProxy(caffeineCacheManager());
+  }
+
+  /**
+   * Caffeine cache of entities that stores a copy of each entity put and returns a copy on
+   * each hit. A Spring Data REST update edits the entity it looks up before saving it; with
+   * copies, neither concurrent readers nor, if the save fails, later ones see the edit.
+   */
+  static class SnapshotCache extends CaffeineCache {
+
+    SnapshotCache(String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> cache,
+        boolean allowNullValues) {
+      super(name, cache, allowNullValues);
+    }
+
+    @Override
+    protected Object toStoreValue(Object userValue) {
+      return super.toStoreValue(copy(userValue));
+    }
+
+    @Override
+    protected Object fromStoreValue(Object storeValue) {
+      return copy(super.fromStoreValue(storeValue));
+    }
+
+    private static Object copy(Object entity) {
+      if (entity == null) {
+        return null;
+      }
+      Object copy = BeanUtils.instantiateClass(entity.getClass());
+      BeanUtils.copyProperties(entity, copy);
+      return copy;
+    }
+  }
+}
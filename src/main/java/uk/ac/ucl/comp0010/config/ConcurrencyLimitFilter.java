@@ -0,0 +1,95 @@
+package uk.ac.ucl.comp0010.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Caps the number of {@code /grades} requests running at once.
+ * Requests over the cap wait in arrival order for up to the queue timeout and are then
+ * refused with 503 and a Retry-After header, instead of all queueing for a pool connection.
+ * With virtual threads a waiting request costs no platform thread, so the cap can sit just
+ * above the connection pool size while thousands of clients stay connected.
+ * Enabled by setting {@code grades.concurrency.max-in-flight}.
+ */
+@Component
+@ConditionalOnProperty("grades.concurrency.max-in-flight")
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+  private final int maxInFlight;
+  private final Semaphore permits;
+  private final Duration queueTimeout;
+  private final Counter rejected;
+
+  /**
+   * Constructor for dependency injection.
+   *
+   * @param maxInFlight number of requests allowed to run at once
+   * @param queueTimeout how long a request waits for a slot before it is refused
+   * @param registry registry for the in-flight gauge and rejection counter
+   */
+  @Autowired
+  public ConcurrencyLimitFilter(@Value("${grades.concurrency.max-in-flight}") int maxInFlight,
+      @Value("${grades.concurrency.queue-timeout:5s}") Duration queueTimeout,
+      MeterRegistry registry) {
+    if (maxInFlight < 1) {
+      throw new IllegalArgumentException("grades.concurrency.max-in-flight must be positive");
+    }
+    this.maxInFlight = maxInFlight;
+    this.permits = new Semaphore(maxInFlight, true);
+    this.queueTimeout = queueTimeout;
+    Gauge.builder("grades.concurrency.in.flight", permits, p -> maxInFlight - p.availablePermits())
+        .description("Grade requests currently running")
+        .register(registry);
+    Gauge.builder("grades.concurrency.queued", permits, Semaphore::getQueueLength)
+        .description("Grade requests waiting for a slot")
+        .register(registry);
+    this.rejected = Counter.builder("grades.concurrency.rejected")
+        .description("Grade requests refused after waiting for a slot")
+        .register(registry);
+  }
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    String path = request.getRequestURI().substring(request.getContextPath().length());
+    return !path.equals("/grades") && !path.startsWith("/grades/");
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+      FilterChain chain) throws ServletException, IOException {
+    boolean acquired;
+    try {
+      acquired = permits.tryAcquire(queueTimeout.toNanos(), TimeUnit.NANOSECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      acquired = false;
+    }
+    if (!acquired) {
+      rejected.increment();
+      response.setHeader("Retry-After", "1");
+      response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(),
+          "More than " + maxInFlight + " grade requests in progress");
+      return;
+    }
+    try {
+      chain.doFilter(request, response);
+    } finally {
+      permits.release();
+    }
+  }
+}
@@ -0,0 +1,86 @@
+package uk.ac.ucl.comp0010.config;
+
+import io.r2dbc.h2.H2ConnectionConfiguration;
+import io.r2dbc.h2.H2ConnectionFactory;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+/**
+ * R2DBC access for the reactive read API.
+ * Connects to the same database as the JDBC datasource: an H2 URL is converted directly, and
+ * any other database needs an R2DBC URL in {@code grades.reactive.url}, e.g.
+ * {@code r2dbc:postgresql://host/db}. Only a {@link DatabaseClient} is published, not a
+ * connection factory, so Spring Boot keeps initialising the schema and seed data over JDBC.
+ */
+@Configuration
+public class ReactiveDataConfig implements DisposableBean {
+
+  private static final String H2_JDBC_PREFIX = "jdbc:h2:";
+
+  private final DataSourceProperties dataSourceProperties;
+  private final String reactiveUrl;
+  private final int poolSize;
+  private ConnectionPool pool;
+
+  /**
+   * Constructor for dependency injection.
+   *
+   * @param dataSourceProperties the JDBC datasource settings
+   * @param reactiveUrl an R2DBC URL, or empty to derive one from an H2 datasource
+   * @param poolSize maximum number of R2DBC connections
+   */
+  @Autowired
+  public ReactiveDataConfig(DataSourceProperties dataSourceProperties,
+      @Value("${grades.reactive.url:}") String reactiveUrl,
+      @Value("${grades.reactive.pool-size:10}") int poolSize) {
+    this.dataSourceProperties = dataSourceProperties;
+    this.reactiveUrl = reactiveUrl;
+    this.poolSize = poolSize;
+  }
+
+  /**
+   * Client for reactive queries, backed by a connection pool.
+   *
+   * @return the database client
+   */
+  @Bean
+  public DatabaseClient reactiveDatabaseClient() {
+    pool = new ConnectionPool(ConnectionPoolConfiguration.builder(connectionFactory())
+        .initialSize(1)
+        .maxSize(poolSize)
+        .build());
+    return DatabaseClient.create(pool);
+  }
+
+  private ConnectionFactory connectionFactory() {
+    if (!reactiveUrl.isEmpty()) {
+      return ConnectionFactories.get(reactiveUrl);
+    }
+    String jdbcUrl = dataSourceProperties.determineUrl();
+    if (jdbcUrl == null || !jdbcUrl.startsWith(H2_JDBC_PREFIX)) {
+      throw new IllegalStateException(
+          "Set grades.reactive.url to an R2DBC URL for the datasource " + jdbcUrl);
+    }
+    return new H2ConnectionFactory(H2ConnectionConfiguration.builder()
+        .url(jdbcUrl.substring(H2_JDBC_PREFIX.length()))
+        .username(dataSourceProperties.determineUsername())
+        .password(dataSourceProperties.determinePassword())
+        .build());
+  }
+
+  @Override
+  public void destroy() {
+    if (pool != null) {
+      pool.dispose();
+    }
+  }
+}
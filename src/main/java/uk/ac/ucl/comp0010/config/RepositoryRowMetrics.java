@@ -0,0 +1,99 @@
+package uk.ac.ucl.comp0010.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.repository.Repository;
+import org.springframework.stereotype.Component;
+import uk.ac.ucl.comp0010.dto.GradePage;
+
+/**
+ * Records how many rows each repository finder returns, as the
+ * {@value #ROWS} distribution summary tagged by repository and method.
+ * Call counts and timings come from Spring Boot's {@code spring.data.repository.invocations}
+ * timer; this adds the result sizes, which show when a path such as a REST collection
+ * endpoint reads a whole table.
+ */
+@Aspect
+@Component
+public class RepositoryRowMetrics {
+
+  /**
+   * Name of the rows-returned distribution summary.
+   */
+  public static final String ROWS = "grades.repository.rows";
+
+  private final MeterRegistry registry;
+  private final Map<Class<?>, String> repositoryNames = new ConcurrentHashMap<>();
+
+  /**
+   * Constructor for dependency injection.
+   *
+   * @param registry registry the summaries are registered with
+   */
+  @Autowired
+  public RepositoryRowMetrics(MeterRegistry registry) {
+    this.registry = registry;
+  }
+
+  /**
+   * Records the size of a finder's result when it returns several rows.
+   *
+   * @param joinPoint the repository call
+   * @return the finder's result
+   * @throws Throwable whatever the finder throws
+   */
+  @Around("this(org.springframework.data.repository.Repository) && execution(* find*(..))")
+  public Object recordRows(ProceedingJoinPoint joinPoint) throws Throwable {
+    Object result = joinPoint.proceed();
+    long rows = rowCount(result);
+    if (rows >= 0) {
+      DistributionSummary.builder(ROWS)
+          .description("Rows returned by repository finder methods")
+          .baseUnit("rows")
+          .tag("repository", repositoryName(joinPoint.getTarget().getClass()))
+          .tag("method", joinPoint.getSignature().getName())
+          .register(registry)
+          .record(rows);
+    }
+    return result;
+  }
+
+  /**
+   * Number of rows in a multi-row result, or -1 for single results.
+   */
+  private static long rowCount(Object result) {
+    if (result instanceof Collection<?> collection) {
+      return collection.size();
+    }
+    if (result instanceof Slice<?> slice) {
+      return slice.getNumberOfElements();
+    }
+    if (result instanceof GradePage<?> page) {
+      return page.getContent().size();
+    }
+    return -1;
+  }
+
+  /**
+   * Simple name of the application's repository interface behind a proxy.
+   */
+  private String repositoryName(Class<?> proxyClass) {
+    return repositoryNames.computeIfAbsent(proxyClass, type -> {
+      for (Class<?> candidate : type.getInterfaces()) {
+        if (Repository.class.isAssignableFrom(candidate)
+            && !candidate.getName().startsWith("org.springframework.")) {
+          return candidate.getSimpleName();
+        }
+      }
+      return type.getSimpleName();
+    });
+  }
+}
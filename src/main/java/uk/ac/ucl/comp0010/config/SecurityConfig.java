@@ -45,6 +45,7 @@ public class SecurityConfig {
     config.setAllowedOriginPatterns(Arrays.asList("*"));
     config.setAllowedHeaders(Arrays.asList("*"));
     config.setAllowedMethods(Arrays.asList("*"));
+    config.setExposedHeaders(Arrays.asList("X-Next-Cursor", "Link"));
     config.setAllowCredentials(false);
     config.applyPermitDefaultValues();
 
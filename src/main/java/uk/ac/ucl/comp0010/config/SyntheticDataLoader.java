@@ -0,0 +1,47 @@
+package uk.ac.ucl.comp0010.config;
+
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import uk.ac.ucl.comp0010.dto.SyntheticDataSet;
+import uk.ac.ucl.comp0010.service.SyntheticDataGenerator;
+
+/**
+ * Replaces the seed data with a synthetic data set on startup when the {@code synthetic}
+ * profile is active. The size and seed come from the {@code grades.synthetic.*} properties.
+ * Loading runs once every bean is ready but before the web server starts, so no request
+ * sees a partly loaded database.
+ */
+@Component
+@Profile("synthetic")
+public class SyntheticDataLoader implements SmartInitializingSingleton {
+
+  private final SyntheticDataGenerator generator;
+  private final SyntheticDataSet dataSet;
+
+  /**
+   * Constructor for dependency injection.
+   *
+   * @param generator generator used to load the data
+   * @param students number of students
+   * @param modules number of modules
+   * @param modulesPerStudent number of modules each student is registered for
+   * @param seed seed for every generated value
+   */
+  @Autowired
+  public SyntheticDataLoader(SyntheticDataGenerator generator,
+      @Value("${grades.synthetic.students}") int students,
+      @Value("${grades.synthetic.modules}") int modules,
+      @Value("${grades.synthetic.modules-per-student}") int modulesPerStudent,
+      @Value("${grades.synthetic.seed}") long seed) {
+    this.generator = generator;
+    this.dataSet = new SyntheticDataSet(students, modules, modulesPerStudent, seed);
+  }
+
+  @Override
+  public void afterSingletonsInstantiated() {
+    generator.load(dataSet);
+  }
+}
@@ -0,0 +1,318 @@
+package uk.ac.ucl.comp0010.config;
+
+import com.github.luben.zstd.ZstdOutputStream;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.boot.web.server.Compression;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.WebUtils;
+
+/**
+ * Compresses responses with zstd for clients whose {@code Accept-Encoding} allows it.
+ * The embedded server's own compression only offers gzip; zstd compresses grade JSON as well
+ * or better for a fraction of the CPU time. The same {@code server.compression} settings
+ * decide which responses are compressed: a listed MIME type, at least the minimum size when
+ * the length is known, and no encoding already set. Other clients get gzip from the server,
+ * which leaves responses this filter has encoded alone.
+ * The body is compressed as it is written, so streamed responses are never buffered, and an
+ * asynchronous response is finished in the dispatch that completes it. The zstd stream only
+ * blocks, so a response written without blocking through a {@link WriteListener} is sent
+ * uncompressed.
+ */
+@Component
+@ConditionalOnProperty("server.compression.enabled")
+public class ZstdCompressionFilter extends OncePerRequestFilter {
+
+  /**
+   * Content coding of zstd.
+   */
+  public static final String ZSTD = "zstd";
+
+  private final List<MediaType> mimeTypes;
+  private final long minResponseSize;
+  private final int level;
+
+  /**
+   * Constructor for dependency injection.
+   *
+   * @param serverProperties server settings holding the compressed MIME types and size
+   * @param level zstd compression level, from 1 (fastest) to 22
+   */
+  @Autowired
+  public ZstdCompressionFilter(ServerProperties serverProperties,
+      @Value("${grades.compression.zstd-level:3}") int level) {
+    Compression compression = serverProperties.getCompression();
+    this.mimeTypes = Arrays.stream(compression.getMimeTypes())
+        .map(MediaType::parseMediaType)
+        .toList();
+    this.minResponseSize = compression.getMinResponseSize().toBytes();
+    this.level = level;
+  }
+
+  /**
+   * Whether a request's {@code Accept-Encoding} allows zstd.
+   *
+   * @param request the request
+   * @return true unless zstd is missing or given a quality of zero
+   */
+  static boolean acceptsZstd(HttpServletRequest request) {
+    for (String header : Collections.list(request.getHeaders(HttpHeaders.ACCEPT_ENCODING))) {
+      for (String coding : header.split(",")) {
+        String[] parts = coding.split(";");
+        if (parts[0].trim().equalsIgnoreCase(ZSTD)) {
+          for (int i = 1; i < parts.length; i++) {
+            String parameter = parts[i].trim();
+            if (parameter.startsWith("q=") && isZero(parameter.substring(2))) {
+              return false;
+            }
+          }
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  private static boolean isZero(String quality) {
+    try {
+      return Double.parseDouble(quality) == 0;
+    } catch (NumberFormatException e) {
+      return true;
+    }
+  }
+
+  @Override
+  protected boolean shouldNotFilterAsyncDispatch() {
+    return false;
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+      FilterChain chain) throws ServletException, IOException {
+    CompressingResponse compressing =
+        WebUtils.getNativeResponse(response, CompressingResponse.class);
+    if (compressing == null && !isAsyncDispatch(request) && acceptsZstd(request)) {
+      compressing = new CompressingResponse(response);
+      response = compressing;
+    }
+    chain.doFilter(request, response);
+    if (compressing != null && !isAsyncStarted(request)) {
+      compressing.finish();
+    }
+  }
+
+  /**
+   * Response that decides on compression when its body is first written or its length
+   * first set, and then writes the body through a zstd stream.
+   */
+  private final class CompressingResponse extends HttpServletResponseWrapper {
+
+    private Boolean compress;
+    private Long contentLength;
+    private OutputStream zstd;
+    private ServletOutputStream outputStream;
+    private ServletOutputStream nonBlocking;
+    private PrintWriter writer;
+
+    private CompressingResponse(HttpServletResponse response) {
+      super(response);
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+      if (writer != null) {
+        throw new IllegalStateException("getWriter() has already been called");
+      }
+      return stream();
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+      if (writer == null) {
+        if (outputStream != null) {
+          throw new IllegalStateException("getOutputStream() has already been called");
+        }
+        writer = new PrintWriter(new OutputStreamWriter(stream(), getCharacterEncoding()));
+      }
+      return writer;
+    }
+
+    @Override
+    public void setContentLength(int length) {
+      setContentLengthLong(length);
+    }
+
+    @Override
+    public void setContentLengthLong(long length) {
+      if (compress == null) {
+        contentLength = length;
+      } else if (!compress) {
+        super.setContentLengthLong(length);
+      }
+    }
+
+    @Override
+    public void setHeader(String name, String value) {
+      if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+        setContentLengthLong(Long.parseLong(value));
+      } else {
+        super.setHeader(name, value);
+      }
+    }
+
+    @Override
+    public void addHeader(String name, String value) {
+      if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+        setContentLengthLong(Long.parseLong(value));
+      } else {
+        super.addHeader(name, value);
+      }
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+      if (writer != null) {
+        writer.flush();
+      }
+      target().flush();
+      super.flushBuffer();
+    }
+
+    @Override
+    public void reset() {
+      super.reset();
+      compress = null;
+      contentLength = null;
+      zstd = null;
+    }
+
+    private ServletOutputStream stream() {
+      if (outputStream == null) {
+        outputStream = new CompressingStream(this);
+      }
+      return outputStream;
+    }
+
+    private OutputStream target() throws IOException {
+      if (compress == null) {
+        compress = isCompressible();
+        if (compress) {
+          super.setHeader(HttpHeaders.CONTENT_ENCODING, ZSTD);
+          super.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+          zstd = new ZstdOutputStream(super.getOutputStream(), level);
+        } else if (contentLength != null) {
+          super.setContentLengthLong(contentLength);
+        }
+      }
+      return compress ? zstd : super.getOutputStream();
+    }
+
+    /**
+     * Leaves the body uncompressed, so it can be written without blocking.
+     */
+    private ServletOutputStream bypass() {
+      if (Boolean.TRUE.equals(compress)) {
+        throw new IllegalStateException("Non-blocking writes cannot follow compressed output");
+      }
+      if (compress == null) {
+        compress = false;
+        if (contentLength != null) {
+          super.setContentLengthLong(contentLength);
+        }
+      }
+      try {
+        nonBlocking = super.getOutputStream();
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      return nonBlocking;
+    }
+
+    private boolean isCompressible() {
+      int status = getStatus();
+      if (status < 200 || status >= 300 || status == SC_NO_CONTENT
+          || status == SC_PARTIAL_CONTENT || getHeader(HttpHeaders.CONTENT_ENCODING) != null
+          || getContentType() == null
+          || (contentLength != null && contentLength < minResponseSize)) {
+        return false;
+      }
+      try {
+        MediaType contentType = MediaType.parseMediaType(getContentType());
+        return mimeTypes.stream().anyMatch(contentType::equalsTypeAndSubtype);
+      } catch (InvalidMediaTypeException e) {
+        return false;
+      }
+    }
+
+    private void finish() throws IOException {
+      if (writer != null) {
+        writer.flush();
+      }
+      if (compress == null) {
+        if (contentLength != null) {
+          super.setContentLengthLong(contentLength);
+        }
+      } else if (compress) {
+        zstd.close();
+      }
+    }
+  }
+
+  /**
+   * Body stream that writes through the response's current target.
+   */
+  private static final class CompressingStream extends ServletOutputStream {
+
+    private final CompressingResponse response;
+
+    private CompressingStream(CompressingResponse response) {
+      this.response = response;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      response.target().write(b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      response.target().write(b, off, len);
+    }
+
+    @Override
+    public void flush() throws IOException {
+      response.target().flush();
+    }
+
+    @Override
+    public boolean isReady() {
+      return response.nonBlocking == null || response.nonBlocking.isReady();
+    }
+
+    @Override
+    public void setWriteListener(WriteListener writeListener) {
+      response.bypass().setWriteListener(writeListener);
+    }
+  }
+}
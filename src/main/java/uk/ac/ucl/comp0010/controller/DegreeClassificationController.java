@@ -0,0 +1,78 @@
+package uk.ac.ucl.comp0010.controller;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import uk.ac.ucl.comp0010.dto.DegreeClassification;
+import uk.ac.ucl.comp0010.dto.DegreeClassification.DegreeClass;
+import uk.ac.ucl.comp0010.exception.NoGradeAvailableException;
+import uk.ac.ucl.comp0010.service.DegreeClassificationService;
+
+/**
+ * REST controller for degree classifications, for a whole cohort at once or one student.
+ */
+@RestController
+@RequestMapping("/grades/classifications")
+public class DegreeClassificationController {
+
+  private final DegreeClassificationService classificationService;
+
+  /**
+   * Constructor for dependency injection.
+   *
+   * @param classificationService service computing weighted averages and degree classes
+   */
+  @Autowired
+  public DegreeClassificationController(DegreeClassificationService classificationService) {
+    this.classificationService = classificationService;
+  }
+
+  /**
+   * Classifies every student of a cohort.
+   *
+   * @param academicYear the academic year whose grades are counted; omit for every year
+   * @return map containing the number of students in each class and every classification
+   */
+  @GetMapping
+  public ResponseEntity<Map<String, Object>> classifyCohort(
+      @RequestParam(name = "academic_year", required = false) String academicYear) {
+    List<DegreeClassification> classifications =
+        classificationService.classifyCohort(academicYear);
+    Map<DegreeClass, Integer> classes = new EnumMap<>(DegreeClass.class);
+    for (DegreeClass degreeClass : DegreeClass.values()) {
+      classes.put(degreeClass, 0);
+    }
+    classifications.forEach(c -> classes.merge(c.getDegreeClass(), 1, Integer::sum));
+
+    Map<String, Object> response = new LinkedHashMap<>();
+    response.put("academic_year", academicYear);
+    response.put("students", classifications.size());
+    response.put("classes", classes);
+    response.put("classifications", classifications);
+    return ResponseEntity.ok(response);
+  }
+
+  /**
+   * Classifies one student from their grades in every year.
+   *
+   * @param studentId the student ID
+   * @return the student's classification, or 404 if they have no scored grades
+   */
+  @GetMapping("/student/{studentId}")
+  public ResponseEntity<?> classifyStudent(@PathVariable Integer studentId) {
+    try {
+      return ResponseEntity.ok(classificationService.classifyStudent(studentId));
+    } catch (NoGradeAvailableException e) {
+      return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+    }
+  }
+}
@@ -0,0 +1,58 @@
+package uk.ac.ucl.comp0010.controller;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import uk.ac.ucl.comp0010.service.GradeAggregateService;
+
+/**
+ * REST controller for checking and rebuilding the running grade totals.
+ */
+@RestController
+@RequestMapping("/grades/aggregates")
+public class GradeAggregateController {
+
+  private final GradeAggregateService gradeAggregateService;
+
+  /**
+   * Constructor for dependency injection.
+   *
+   * @param gradeAggregateService service holding running score totals
+   */
+  @Autowired
+  public GradeAggregateController(GradeAggregateService gradeAggregateService) {
+    this.gradeAggregateService = gradeAggregateService;
+  }
+
+  /**
+   * Compares the running totals with the grade table.
+   *
+   * @return map containing the IDs of drifted aggregates
+   */
+  @GetMapping("/verify")
+  public ResponseEntity<Map<String, Object>> verify() {
+    List<String> drifted = gradeAggregateService.verify();
+    Map<String, Object> response = new HashMap<>();
+    response.put("consistent", drifted.isEmpty());
+    response.put("drifted", drifted);
+    return ResponseEntity.ok(response);
+  }
+
+  /**
+   * Recomputes every running total from the grade table.
+   *
+   * @return map containing the number of aggregates written
+   */
+  @PostMapping("/rebuild")
+  public ResponseEntity<Map<String, Object>> rebuild() {
+    Map<String, Object> response = new HashMap<>();
+    response.put("aggregates", gradeAggregateService.rebuild());
+    return ResponseEntity.ok(response);
+  }
+}
@@ -0,0 +1,103 @@
+package uk.ac.ucl.comp0010.controller;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import uk.ac.ucl.comp0010.dto.GradeStatistics;
+import uk.ac.ucl.comp0010.model.GradeAggregate.Scope;
+import uk.ac.ucl.comp0010.service.ColumnarGradeStore;
+
+/**
+ * REST controller for score statistics, percentiles and histograms computed from the
+ * columnar grade store. Enabled by {@code grades.columnar.enabled}.
+ */
+@RestController
+@RequestMapping("/grades/analytics")
+@ConditionalOnProperty(value = "grades.columnar.enabled", havingValue = "true")
+public class GradeAnalyticsController {
+
+  private static final int[] PERCENTILES = {10, 25, 50, 75, 90};
+
+  private final ColumnarGradeStore columnarGradeStore;
+
+  /**
+   * Constructor for dependency injection.
+   *
+   * @param columnarGradeStore columnar copy of the grade table
+   */
+  @Autowired
+  public GradeAnalyticsController(ColumnarGradeStore columnarGradeStore) {
+    this.columnarGradeStore = columnarGradeStore;
+  }
+
+  /**
+   * Gets the score statistics of a student, module or academic year.
+   *
+   * @param scope student, module or academic-year
+   * @param key the student ID, module code or academic year
+   * @return map containing count, average, min, max, standard deviation, the 10th to 90th
+   *     percentiles and the number of grades at each score from 0 to 100, or 503 while the
+   *     store is over its memory cap
+   */
+  @GetMapping("/{scope}/{key}")
+  public ResponseEntity<?> getAnalytics(@PathVariable String scope, @PathVariable String key) {
+    Scope parsedScope;
+    Object parsedKey;
+    try {
+      parsedScope = Scope.valueOf(scope.toUpperCase().replace('-', '_'));
+      parsedKey = parsedScope == Scope.STUDENT ? Integer.valueOf(key) : key;
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().body("Invalid scope or key: " + scope + "/" + key);
+    }
+
+    if (!columnarGradeStore.isAvailable()) {
+      return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+          .body("Columnar grade store is not loaded or exceeds grades.columnar.max-size");
+    }
+    GradeStatistics statistics = columnarGradeStore.getStatistics(parsedScope, parsedKey);
+    if (statistics.getCount() == 0) {
+      return ResponseEntity.status(HttpStatus.NOT_FOUND)
+          .body("No grades available for " + scope + ": " + key);
+    }
+    long[] histogram = columnarGradeStore.getHistogram(parsedScope, parsedKey);
+    Map<String, Integer> percentiles = new LinkedHashMap<>();
+    for (int percentile : PERCENTILES) {
+      percentiles.put("p" + percentile, ColumnarGradeStore.percentile(histogram, percentile));
+    }
+
+    Map<String, Object> response = new LinkedHashMap<>();
+    response.put("scope", scope);
+    response.put("key", key);
+    response.put("count", statistics.getCount());
+    response.put("average", statistics.getAverage());
+    response.put("min", statistics.getMin());
+    response.put("max", statistics.getMax());
+    response.put("standard_deviation", statistics.getStandardDeviation());
+    response.put("percentiles", percentiles);
+    response.put("histogram", histogram);
+    return ResponseEntity.ok(response);
+  }
+
+  /**
+   * Reloads the columnar store from the grade table.
+   *
+   * @return map containing the number of grades loaded, whether they fit in the memory cap
+   *     and the bytes their segments take
+   */
+  @PostMapping("/reload")
+  public ResponseEntity<Map<String, Object>> reload() {
+    Map<String, Object> response = new LinkedHashMap<>();
+    response.put("grades", columnarGradeStore.reload());
+    response.put("available", columnarGradeStore.isAvailable());
+    response.put("segment_bytes", columnarGradeStore.getSegmentBytes());
+    return ResponseEntity.ok(response);
+  }
+}
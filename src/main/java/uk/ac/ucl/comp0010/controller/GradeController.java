@@ -1,10 +1,14 @@
 package uk.ac.ucl.comp0010.controller;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -14,47 +18,56 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import uk.ac.ucl.comp0010.dto.GradeBatchResult;
+import uk.ac.ucl.comp0010.dto.GradeCursor;
+import uk.ac.ucl.comp0010.dto.GradeDistribution;
+import uk.ac.ucl.comp0010.dto.GradePage;
+import uk.ac.ucl.comp0010.dto.GradeStatistics;
+import uk.ac.ucl.comp0010.dto.GradeSubmission;
+import uk.ac.ucl.comp0010.dto.GradeView;
+import uk.ac.ucl.comp0010.dto.StudentRank;
 import uk.ac.ucl.comp0010.exception.NoGradeAvailableException;
 import uk.ac.ucl.comp0010.exception.NoRegistrationException;
 import uk.ac.ucl.comp0010.model.Grade;
-import uk.ac.ucl.comp0010.model.Module;
-import uk.ac.ucl.comp0010.model.Student;
-import uk.ac.ucl.comp0010.repository.GradeRepository;
-import uk.ac.ucl.comp0010.repository.ModuleRepository;
-import uk.ac.ucl.comp0010.repository.StudentRepository;
 import uk.ac.ucl.comp0010.service.GradeService;
+import uk.ac.ucl.comp0010.service.GradeVersionService;
 
 /**
  * REST controller for managing grade operations.
  * Provides endpoints for adding, retrieving, updating, and calculating grades.
+ * Grade reads carry a weak {@code ETag} from {@link GradeVersionService} and answer
+ * {@code 304 Not Modified}, without reading the grades, when {@code If-None-Match} holds the
+ * current tag. Responses are JSON, or CBOR when {@code Accept: application/cbor} is sent.
+ * Both share a tag, so tagged responses carry {@code Vary: Accept} to keep caches from
+ * answering one format with the other.
  */
 @RestController
 @RequestMapping("/grades")
 public class GradeController {
 
-  private final StudentRepository studentRepository;
-  private final ModuleRepository moduleRepository;
-  private final GradeRepository gradeRepository;
+  /**
+   * Response header carrying the cursor of the next page of a paged listing.
+   */
+  public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
   private final GradeService gradeService;
+  private final GradeVersionService gradeVersionService;
 
   /**
    * Constructor for dependency injection.
    *
-   * @param studentRepository repository for student operations
-   * @param moduleRepository repository for module operations
-   * @param gradeRepository repository for grade operations
    * @param gradeService service for grade business logic
+   * @param gradeVersionService versions of the grades, used as entity tags
    */
   @Autowired
-  public GradeController(StudentRepository studentRepository,
-      ModuleRepository moduleRepository,
-      GradeRepository gradeRepository,
-      GradeService gradeService) {
-    this.studentRepository = studentRepository;
-    this.moduleRepository = moduleRepository;
-    this.gradeRepository = gradeRepository;
+  public GradeController(GradeService gradeService,
+      GradeVersionService gradeVersionService) {
     this.gradeService = gradeService;
+    this.gradeVersionService = gradeVersionService;
   }
 
   /**
@@ -80,34 +93,10 @@ public class GradeController {
       Integer studentId = Integer.parseInt(studentIdStr);
       Integer score = Integer.parseInt(scoreStr);
 
-      // Find the student by using student_id
-      Optional<Student> studentOpt = studentRepository.findById(studentId);
-      if (studentOpt.isEmpty()) {
-        return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
-      }
-      Student student = studentOpt.get();
-
-      // Find the module by using the module_code
-      Optional<Module> moduleOpt = moduleRepository.findById(moduleCode);
-      if (moduleOpt.isEmpty()) {
-        return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
-      }
-      Module module = moduleOpt.get();
-
-      // Create a Grade object and set all values
-      Grade grade = new Grade();
-      grade.setScore(score);
-      grade.setStudent(student);
-      grade.setModule(module);
-      if (academicYear != null) {
-        grade.setAcademicYear(academicYear);
-      }
-
-      // Save the Grade object
-      Grade savedGrade = gradeRepository.save(grade);
-
-      // Return the saved Grade object
-      return ResponseEntity.ok(savedGrade);
+      // Save the grade; empty when the student or module does not exist
+      return gradeService.addGrade(studentId, moduleCode, score, academicYear)
+          .map(ResponseEntity::ok)
+          .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).build());
 
     } catch (NumberFormatException e) {
       return ResponseEntity.badRequest().build();
@@ -149,43 +138,235 @@ public class GradeController {
   }
 
   /**
-   * Gets all grades for a specific student.
+   * Adds many grades in a single request.
+   * Each row uses the same keys as {@code /addGradeValidated}; rows that cannot be parsed
+   * or validated are reported individually and the remaining rows are still saved.
+   *
+   * @param rows list of maps containing student_id, module_code, score, and academic_year
+   * @return ResponseEntity containing the accepted count and the rejected rows
+   */
+  @PostMapping(value = "/batch")
+  public ResponseEntity<?> addGradesBatch(@RequestBody List<Map<String, String>> rows) {
+    if (rows.size() > GradeService.MAX_BATCH_SIZE) {
+      return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE)
+          .body("Batch size exceeds maximum of " + GradeService.MAX_BATCH_SIZE);
+    }
+
+    List<GradeSubmission> submissions = new ArrayList<>(rows.size());
+    GradeBatchResult parseErrors = new GradeBatchResult();
+    for (int i = 0; i < rows.size(); i++) {
+      try {
+        submissions.add(GradeSubmission.fromParams(i + 1, rows.get(i)));
+      } catch (IllegalArgumentException e) {
+        parseErrors.reject(i + 1, e.getMessage());
+      }
+    }
+
+    GradeBatchResult result = gradeService.addGradesInBatch(submissions);
+    result.merge(parseErrors);
+    return ResponseEntity.ok(result);
+  }
+
+  /**
+   * Gets the grades for a specific student.
+   * Without paging parameters every grade is returned. With any of cursor, limit, sort or
+   * order, one keyset page is returned; when more grades follow, the cursor for the next
+   * page is sent in the {@value #NEXT_CURSOR_HEADER} and {@code Link} headers.
+   * The view parameter selects the response shape: full entities (default), a summary with
+   * the student and module names only, flat rows with the student and module IDs only, or
+   * those rows as {@link uk.ac.ucl.comp0010.dto.GradeColumns}, one array per field.
    *
    * @param studentId the student ID
+   * @param cursor the cursor returned with the previous page
+   * @param limit the page size (default 50, maximum 500)
+   * @param sort the sort key: id (default), score or academic_year
+   * @param order the sort order: asc (default) or desc
+   * @param view the response shape: full (default), summary, ids or columns
+   * @param request the request, checked for a current {@code If-None-Match} tag
    * @return list of grades for the student
    */
   @GetMapping("/student/{studentId}")
-  public ResponseEntity<List<Grade>> getGradesByStudent(@PathVariable Integer studentId) {
-    List<Grade> grades = gradeService.getGradesByStudent(studentId);
-    return ResponseEntity.ok(grades);
+  public ResponseEntity<?> getGradesByStudent(@PathVariable Integer studentId,
+      @RequestParam(required = false) String cursor,
+      @RequestParam(required = false) Integer limit,
+      @RequestParam(required = false) String sort,
+      @RequestParam(required = false) String order,
+      @RequestParam(required = false) String view,
+      WebRequest request) {
+    try {
+      GradeView shape = GradeView.fromParameter(view);
+      GradeCursor page = cursor == null && limit == null && sort == null && order == null
+          ? null : GradeCursor.of(sort, order, cursor, limit);
+      if (request.checkNotModified(gradeVersionService.studentTag(studentId))) {
+        return notModified(gradeVersionService.revalidate());
+      }
+      if (page == null) {
+        return tagged(gradeVersionService.revalidate())
+            .body(shape.render(gradeService.getGradesByStudent(studentId, shape)));
+      }
+      return pageResponse(gradeService.getGradesByStudent(studentId, page, shape), shape,
+          gradeVersionService.revalidate());
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().body(e.getMessage());
+    }
   }
 
   /**
-   * Gets all grades for a specific module.
+   * Gets the grades for a specific module.
+   * Paging and views work as for {@link #getGradesByStudent}.
    *
    * @param moduleCode the module code
+   * @param cursor the cursor returned with the previous page
+   * @param limit the page size (default 50, maximum 500)
+   * @param sort the sort key: id (default), score or academic_year
+   * @param order the sort order: asc (default) or desc
+   * @param view the response shape: full (default), summary, ids or columns
+   * @param request the request, checked for a current {@code If-None-Match} tag
    * @return list of grades for the module
    */
   @GetMapping("/module/{moduleCode}")
-  public ResponseEntity<List<Grade>> getGradesByModule(@PathVariable String moduleCode) {
-    List<Grade> grades = gradeService.getGradesByModule(moduleCode);
-    return ResponseEntity.ok(grades);
+  public ResponseEntity<?> getGradesByModule(@PathVariable String moduleCode,
+      @RequestParam(required = false) String cursor,
+      @RequestParam(required = false) Integer limit,
+      @RequestParam(required = false) String sort,
+      @RequestParam(required = false) String order,
+      @RequestParam(required = false) String view,
+      WebRequest request) {
+    try {
+      GradeView shape = GradeView.fromParameter(view);
+      GradeCursor page = cursor == null && limit == null && sort == null && order == null
+          ? null : GradeCursor.of(sort, order, cursor, limit);
+      if (request.checkNotModified(gradeVersionService.moduleTag(moduleCode))) {
+        return notModified(gradeVersionService.revalidate());
+      }
+      if (page == null) {
+        return tagged(gradeVersionService.revalidate())
+            .body(shape.render(gradeService.getGradesByModule(moduleCode, shape)));
+      }
+      return pageResponse(gradeService.getGradesByModule(moduleCode, page, shape), shape,
+          gradeVersionService.revalidate());
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().body(e.getMessage());
+    }
+  }
+
+  /**
+   * Gets the grades and average of several students at once, for pages that show many
+   * students. Grades and averages are each read with one query for the whole batch.
+   *
+   * @param studentIds the student IDs, comma separated or repeated (at most 500)
+   * @param view the response shape of the grades: full (default), summary, ids or columns
+   * @param request the request, checked for a current {@code If-None-Match} tag
+   * @return one entry per distinct student ID, in the order requested
+   */
+  @GetMapping("/students")
+  public ResponseEntity<?> getGradesByStudents(@RequestParam("ids") List<Integer> studentIds,
+      @RequestParam(required = false) String view,
+      WebRequest request) {
+    try {
+      GradeView shape = GradeView.fromParameter(view);
+      if (request.checkNotModified(gradeVersionService.studentsTag(studentIds))) {
+        return notModified(gradeVersionService.revalidate());
+      }
+      Map<Integer, List<?>> grades = gradeService.getGradesByStudents(studentIds, shape);
+      Map<Integer, Double> averages = gradeService.calculateStudentAverages(grades.keySet());
+      List<Map<String, Object>> response = new ArrayList<>(grades.size());
+      grades.forEach((studentId, studentGrades) -> {
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("student_id", studentId);
+        entry.put("average", averages.get(studentId));
+        entry.put("grades", shape.render(studentGrades));
+        response.add(entry);
+      });
+      return tagged(gradeVersionService.revalidate()).body(response);
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().body(e.getMessage());
+    }
+  }
+
+  /**
+   * Gets the grades and average of several modules at once, each read with one query for
+   * the whole batch.
+   *
+   * @param moduleCodes the module codes, comma separated or repeated (at most 500)
+   * @param view the response shape of the grades: full (default), summary, ids or columns
+   * @param request the request, checked for a current {@code If-None-Match} tag
+   * @return one entry per distinct module code, in the order requested
+   */
+  @GetMapping("/modules")
+  public ResponseEntity<?> getGradesByModules(@RequestParam("codes") List<String> moduleCodes,
+      @RequestParam(required = false) String view,
+      WebRequest request) {
+    try {
+      GradeView shape = GradeView.fromParameter(view);
+      if (request.checkNotModified(gradeVersionService.modulesTag(moduleCodes))) {
+        return notModified(gradeVersionService.revalidate());
+      }
+      Map<String, List<?>> grades = gradeService.getGradesByModules(moduleCodes, shape);
+      Map<String, Double> averages = gradeService.calculateModuleAverages(grades.keySet());
+      List<Map<String, Object>> response = new ArrayList<>(grades.size());
+      grades.forEach((moduleCode, moduleGrades) -> {
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("module_code", moduleCode);
+        entry.put("average", averages.get(moduleCode));
+        entry.put("grades", shape.render(moduleGrades));
+        response.add(entry);
+      });
+      return tagged(gradeVersionService.revalidate()).body(response);
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().body(e.getMessage());
+    }
+  }
+
+  private static ResponseEntity<Object> pageResponse(GradePage<?> page, GradeView view,
+      CacheControl cacheControl) {
+    ResponseEntity.BodyBuilder response = tagged(cacheControl);
+    if (page.hasNext()) {
+      String link = ServletUriComponentsBuilder.fromCurrentRequest()
+          .replaceQueryParam("cursor", page.getNextCursor())
+          .build()
+          .toUriString();
+      response.header(NEXT_CURSOR_HEADER, page.getNextCursor())
+          .header(HttpHeaders.LINK, "<" + link + ">; rel=\"next\"");
+    }
+    return response.body(view.render(page.getContent()));
+  }
+
+  /**
+   * Starts a full response to a tagged read.
+   */
+  private static ResponseEntity.BodyBuilder tagged(CacheControl cacheControl) {
+    return ResponseEntity.ok().cacheControl(cacheControl).varyBy(HttpHeaders.ACCEPT);
+  }
+
+  /**
+   * Answers a read whose tag matched. {@link WebRequest#checkNotModified} has already set
+   * the status and the {@code ETag} header; the tag is also sent with full responses.
+   */
+  private static ResponseEntity<?> notModified(CacheControl cacheControl) {
+    return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(cacheControl)
+        .varyBy(HttpHeaders.ACCEPT).build();
   }
 
   /**
    * Calculates and returns the average grade for a student.
    *
    * @param studentId the student ID
+   * @param request the request, checked for a current {@code If-None-Match} tag
    * @return map containing the average grade
    */
   @GetMapping("/student/{studentId}/average")
-  public ResponseEntity<?> getStudentAverage(@PathVariable Integer studentId) {
+  public ResponseEntity<?> getStudentAverage(@PathVariable Integer studentId,
+      WebRequest request) {
     try {
+      if (request.checkNotModified(gradeVersionService.studentTag(studentId))) {
+        return notModified(gradeVersionService.revalidate());
+      }
       double average = gradeService.calculateStudentAverage(studentId);
       Map<String, Object> response = new HashMap<>();
       response.put("student_id", studentId);
       response.put("average", average);
-      return ResponseEntity.ok(response);
+      return tagged(gradeVersionService.revalidate()).body(response);
     } catch (NoGradeAvailableException e) {
       return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
     }
@@ -195,16 +376,141 @@ public class GradeController {
    * Calculates and returns the average grade for a module.
    *
    * @param moduleCode the module code
+   * @param request the request, checked for a current {@code If-None-Match} tag
    * @return map containing the average grade
    */
   @GetMapping("/module/{moduleCode}/average")
-  public ResponseEntity<?> getModuleAverage(@PathVariable String moduleCode) {
+  public ResponseEntity<?> getModuleAverage(@PathVariable String moduleCode,
+      WebRequest request) {
     try {
+      if (request.checkNotModified(gradeVersionService.moduleTag(moduleCode))) {
+        return notModified(gradeVersionService.revalidate());
+      }
       double average = gradeService.calculateModuleAverage(moduleCode);
       Map<String, Object> response = new HashMap<>();
       response.put("module_code", moduleCode);
       response.put("average", average);
-      return ResponseEntity.ok(response);
+      return tagged(gradeVersionService.revalidate()).body(response);
+    } catch (NoGradeAvailableException e) {
+      return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+    }
+  }
+
+  /**
+   * Calculates and returns the average grade for an academic year.
+   *
+   * @param academicYear the academic year (e.g., "2024-2025")
+   * @param request the request, checked for a current {@code If-None-Match} tag
+   * @return map containing the average grade
+   */
+  @GetMapping("/academic-year/{academicYear}/average")
+  public ResponseEntity<?> getAcademicYearAverage(@PathVariable String academicYear,
+      WebRequest request) {
+    try {
+      CacheControl cacheControl = gradeVersionService.academicYearCacheControl(academicYear);
+      if (request.checkNotModified(gradeVersionService.academicYearTag(academicYear))) {
+        return notModified(cacheControl);
+      }
+      double average = gradeService.calculateAcademicYearAverage(academicYear);
+      Map<String, Object> response = new HashMap<>();
+      response.put("academic_year", academicYear);
+      response.put("average", average);
+      return tagged(cacheControl).body(response);
+    } catch (NoGradeAvailableException e) {
+      return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+    }
+  }
+
+  /**
+   * Returns score statistics for a module, scanned from the columnar grade store when it is
+   * enabled and otherwise computed in a single database query.
+   *
+   * @param moduleCode the module code
+   * @param request the request, checked for a current {@code If-None-Match} tag
+   * @return map containing count, average, min, max and standard deviation
+   */
+  @GetMapping("/module/{moduleCode}/stats")
+  public ResponseEntity<?> getModuleStatistics(@PathVariable String moduleCode,
+      WebRequest request) {
+    try {
+      if (request.checkNotModified(gradeVersionService.moduleTag(moduleCode))) {
+        return notModified(gradeVersionService.revalidate());
+      }
+      GradeStatistics statistics = gradeService.getModuleStatistics(moduleCode);
+      Map<String, Object> response = new HashMap<>();
+      response.put("module_code", moduleCode);
+      response.put("count", statistics.getCount());
+      response.put("average", statistics.getAverage());
+      response.put("min", statistics.getMin());
+      response.put("max", statistics.getMax());
+      response.put("standard_deviation", statistics.getStandardDeviation());
+      return tagged(gradeVersionService.revalidate()).body(response);
+    } catch (NoGradeAvailableException e) {
+      return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+    }
+  }
+
+  /**
+   * Returns the distribution of scores awarded in a module: deciles and the 0 to 100
+   * histogram they are read from.
+   *
+   * @param moduleCode the module code
+   * @param request the request, checked for a current {@code If-None-Match} tag
+   * @return map containing count, average, percentiles and histogram
+   */
+  @GetMapping("/module/{moduleCode}/distribution")
+  public ResponseEntity<?> getModuleDistribution(@PathVariable String moduleCode,
+      WebRequest request) {
+    try {
+      if (request.checkNotModified(gradeVersionService.moduleTag(moduleCode))) {
+        return notModified(gradeVersionService.revalidate());
+      }
+      GradeDistribution distribution = gradeService.getModuleDistribution(moduleCode);
+      Map<String, Integer> percentiles = new LinkedHashMap<>();
+      for (int percentile = 10; percentile < 100; percentile += 10) {
+        percentiles.put("p" + percentile, distribution.percentile(percentile));
+      }
+      Map<String, Object> response = new HashMap<>();
+      response.put("module_code", moduleCode);
+      response.put("count", distribution.getCount());
+      response.put("average", distribution.getAverage());
+      response.put("percentiles", percentiles);
+      response.put("histogram", distribution.getHistogram());
+      return tagged(gradeVersionService.revalidate()).body(response);
+    } catch (NoGradeAvailableException e) {
+      return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+    }
+  }
+
+  /**
+   * Returns a student's rank by average score among all students, or by best score among
+   * the grades of one module.
+   *
+   * @param studentId the student ID
+   * @param module the module to rank in; omit to rank by average over all modules
+   * @param request the request, checked for a current {@code If-None-Match} tag
+   * @return map containing the score, rank, cohort size and percentile
+   */
+  @GetMapping("/student/{studentId}/rank")
+  public ResponseEntity<?> getStudentRank(@PathVariable Integer studentId,
+      @RequestParam(required = false) String module,
+      WebRequest request) {
+    try {
+      if (request.checkNotModified(module == null ? gradeVersionService.allTag()
+          : gradeVersionService.moduleTag(module))) {
+        return notModified(gradeVersionService.revalidate());
+      }
+      StudentRank rank = module == null
+          ? gradeService.getStudentRank(studentId)
+          : gradeService.getStudentRank(studentId, module);
+      Map<String, Object> response = new HashMap<>();
+      response.put("student_id", studentId);
+      response.put("module_code", rank.getModuleCode());
+      response.put(module == null ? "average" : "score", rank.getScore());
+      response.put("rank", rank.getRank());
+      response.put("cohort_size", rank.getCohortSize());
+      response.put("percentile", rank.getPercentile());
+      return tagged(gradeVersionService.revalidate()).body(response);
     } catch (NoGradeAvailableException e) {
       return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
     }
@@ -0,0 +1,91 @@
+package uk.ac.ucl.comp0010.controller;
+
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import uk.ac.ucl.comp0010.service.GradeExportService;
+
+/**
+ * REST controller for exporting grades as CSV or NDJSON.
+ * Rows are streamed straight to the response output stream as they are read.
+ */
+@RestController
+@RequestMapping("/grades")
+public class GradeExportController {
+
+  private final GradeExportService gradeExportService;
+
+  /**
+   * Constructor for dependency injection.
+   *
+   * @param gradeExportService service for streaming exports
+   */
+  @Autowired
+  public GradeExportController(GradeExportService gradeExportService) {
+    this.gradeExportService = gradeExportService;
+  }
+
+  /**
+   * Exports all grades of a module.
+   *
+   * @param moduleCode the module code
+   * @param format the output format, "ndjson" (default) or "csv"
+   * @param response the HTTP response the rows are written to
+   * @throws IOException if the response cannot be written
+   */
+  @GetMapping("/module/{moduleCode}/export")
+  public void exportModule(@PathVariable String moduleCode,
+      @RequestParam(defaultValue = "ndjson") String format,
+      HttpServletResponse response) throws IOException {
+    GradeExportService.Format exportFormat = parseFormat(format, response);
+    if (exportFormat != null) {
+      prepare(response, exportFormat, moduleCode);
+      gradeExportService.exportModule(moduleCode, exportFormat, response.getOutputStream());
+    }
+  }
+
+  /**
+   * Exports all grades of an academic year cohort.
+   *
+   * @param academicYear the academic year (e.g., "2024-2025")
+   * @param format the output format, "ndjson" (default) or "csv"
+   * @param response the HTTP response the rows are written to
+   * @throws IOException if the response cannot be written
+   */
+  @GetMapping("/export")
+  public void exportAcademicYear(@RequestParam("academic_year") String academicYear,
+      @RequestParam(defaultValue = "ndjson") String format,
+      HttpServletResponse response) throws IOException {
+    GradeExportService.Format exportFormat = parseFormat(format, response);
+    if (exportFormat != null) {
+      prepare(response, exportFormat, academicYear);
+      gradeExportService.exportAcademicYear(academicYear, exportFormat,
+          response.getOutputStream());
+    }
+  }
+
+  private static GradeExportService.Format parseFormat(String format,
+      HttpServletResponse response) throws IOException {
+    try {
+      return GradeExportService.Format.fromName(format);
+    } catch (IllegalArgumentException e) {
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+      return null;
+    }
+  }
+
+  private static void prepare(HttpServletResponse response, GradeExportService.Format format,
+      String name) {
+    response.setContentType(format.getMediaType());
+    response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+    response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"grades-"
+        + name.replaceAll("[^A-Za-z0-9_-]", "_") + "." + format.name().toLowerCase() + "\"");
+  }
+}
@@ -0,0 +1,67 @@
+package uk.ac.ucl.comp0010.controller;
+
+import java.io.IOException;
+import java.io.InputStream;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import uk.ac.ucl.comp0010.dto.GradeImportReport;
+import uk.ac.ucl.comp0010.service.GradeImportService;
+
+/**
+ * REST controller for importing exam board grade files.
+ * The request body is streamed straight into the import service, so files of any size
+ * can be posted without being buffered in memory.
+ */
+@RestController
+@RequestMapping("/grades")
+public class GradeImportController {
+
+  /**
+   * Media type for newline-delimited JSON.
+   */
+  public static final String APPLICATION_NDJSON = "application/x-ndjson";
+
+  /**
+   * Media type for comma-separated values.
+   */
+  public static final String TEXT_CSV = "text/csv";
+
+  private final GradeImportService gradeImportService;
+
+  /**
+   * Constructor for dependency injection.
+   *
+   * @param gradeImportService service for streaming imports
+   */
+  @Autowired
+  public GradeImportController(GradeImportService gradeImportService) {
+    this.gradeImportService = gradeImportService;
+  }
+
+  /**
+   * Imports grades from a CSV request body.
+   *
+   * @param body the raw request body
+   * @return ResponseEntity containing the import report
+   * @throws IOException if the request body cannot be read
+   */
+  @PostMapping(value = "/import", consumes = TEXT_CSV)
+  public ResponseEntity<GradeImportReport> importCsv(InputStream body) throws IOException {
+    return ResponseEntity.ok(gradeImportService.importCsv(body));
+  }
+
+  /**
+   * Imports grades from an NDJSON request body.
+   *
+   * @param body the raw request body
+   * @return ResponseEntity containing the import report
+   * @throws IOException if the request body cannot be read
+   */
+  @PostMapping(value = "/import", consumes = APPLICATION_NDJSON)
+  public ResponseEntity<GradeImportReport> importNdjson(InputStream body) throws IOException {
+    return ResponseEntity.ok(gradeImportService.importNdjson(body));
+  }
+}
@@ -0,0 +1,88 @@
+package uk.ac.ucl.comp0010.controller;
+
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.RejectedExecutionException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import uk.ac.ucl.comp0010.dto.SubmissionStatus;
+import uk.ac.ucl.comp0010.exception.NoRegistrationException;
+import uk.ac.ucl.comp0010.service.GradeWriteBehindService;
+
+/**
+ * REST controller for asynchronous grade submission.
+ * A submission is parsed, checked against the student, module and registration, and queued,
+ * then acknowledged with 202 Accepted and a tracking ID before the insert has run; the outcome
+ * is polled from the URL in the {@code Location} header.
+ * Enabled by {@code grades.write-behind.enabled}.
+ */
+@RestController
+@RequestMapping("/grades/async")
+@ConditionalOnProperty(value = "grades.write-behind.enabled", havingValue = "true")
+public class GradeSubmissionController {
+
+  private final GradeWriteBehindService writeBehindService;
+
+  /**
+   * Constructor for dependency injection.
+   *
+   * @param writeBehindService service queueing the submissions
+   */
+  @Autowired
+  public GradeSubmissionController(GradeWriteBehindService writeBehindService) {
+    this.writeBehindService = writeBehindService;
+  }
+
+  /**
+   * Checks a grade and queues it to be saved in the background.
+   *
+   * @param params map containing student_id, module_code, score, and optionally academic_year
+   * @return 202 with the tracking ID, 400 for bad parameters, 404 for an unknown student or
+   *     module, 403 if the student is not registered, or 503 when the queue is full
+   */
+  @PostMapping
+  public ResponseEntity<?> submitGrade(@RequestBody Map<String, String> params) {
+    try {
+      SubmissionStatus status = writeBehindService.submit(params);
+      return ResponseEntity.accepted()
+          .location(ServletUriComponentsBuilder.fromCurrentRequest()
+              .path("/{trackingId}").buildAndExpand(status.getTrackingId()).toUri())
+          .body(status);
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().body(e.getMessage());
+    } catch (NoSuchElementException e) {
+      return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+    } catch (NoRegistrationException e) {
+      return ResponseEntity.status(HttpStatus.FORBIDDEN).body(e.getMessage());
+    } catch (RejectedExecutionException | UncheckedIOException e) {
+      return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+          .header(HttpHeaders.RETRY_AFTER, "1")
+          .body(e.getMessage());
+    }
+  }
+
+  /**
+   * Gets the progress of a queued grade.
+   *
+   * @param trackingId the ID returned when the grade was queued
+   * @return the status, or 404 if the ID is unknown or has expired
+   */
+  @GetMapping("/{trackingId}")
+  public ResponseEntity<?> getSubmissionStatus(@PathVariable String trackingId) {
+    return writeBehindService.getStatus(trackingId)
+        .<ResponseEntity<?>>map(ResponseEntity::ok)
+        .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND)
+            .body("Unknown tracking ID: " + trackingId));
+  }
+}
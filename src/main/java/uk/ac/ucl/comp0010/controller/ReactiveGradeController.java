@@ -0,0 +1,114 @@
+package uk.ac.ucl.comp0010.controller;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import uk.ac.ucl.comp0010.dto.GradeSummary;
+import uk.ac.ucl.comp0010.exception.NoGradeAvailableException;
+import uk.ac.ucl.comp0010.service.ReactiveGradeService;
+
+/**
+ * Non-blocking variant of the {@link GradeController} read endpoints.
+ * Grade listings are streamed as newline-delimited JSON (or server-sent events when
+ * requested) one summary at a time; the next row is only read once the previous one has been
+ * written, so slow clients apply backpressure instead of buffering whole result sets.
+ * Responses are completed asynchronously, so a waiting client does not hold a request thread.
+ */
+@RestController
+@RequestMapping("/reactive/grades")
+public class ReactiveGradeController {
+
+  private final ReactiveGradeService reactiveGradeService;
+
+  /**
+   * Constructor for dependency injection.
+   *
+   * @param reactiveGradeService service for reactive grade reads
+   */
+  @Autowired
+  public ReactiveGradeController(ReactiveGradeService reactiveGradeService) {
+    this.reactiveGradeService = reactiveGradeService;
+  }
+
+  /**
+   * Streams the grades of a student.
+   *
+   * @param studentId the student ID
+   * @return grade summaries ordered by grade ID
+   */
+  @GetMapping(value = "/student/{studentId}",
+      produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+  public Flux<GradeSummary> getGradesByStudent(@PathVariable Integer studentId) {
+    return reactiveGradeService.getGradesByStudent(studentId);
+  }
+
+  /**
+   * Streams the grades of a module.
+   *
+   * @param moduleCode the module code
+   * @return grade summaries ordered by grade ID
+   */
+  @GetMapping(value = "/module/{moduleCode}",
+      produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+  public Flux<GradeSummary> getGradesByModule(@PathVariable String moduleCode) {
+    return reactiveGradeService.getGradesByModule(moduleCode);
+  }
+
+  /**
+   * Returns the average grade for a student.
+   *
+   * @param studentId the student ID
+   * @return map containing the average grade, or 404 if the student has no grades
+   */
+  @GetMapping("/student/{studentId}/average")
+  public Mono<ResponseEntity<?>> getStudentAverage(@PathVariable Integer studentId) {
+    return averageResponse("student_id", studentId,
+        reactiveGradeService.calculateStudentAverage(studentId));
+  }
+
+  /**
+   * Returns the average grade for a module.
+   *
+   * @param moduleCode the module code
+   * @return map containing the average grade, or 404 if the module has no grades
+   */
+  @GetMapping("/module/{moduleCode}/average")
+  public Mono<ResponseEntity<?>> getModuleAverage(@PathVariable String moduleCode) {
+    return averageResponse("module_code", moduleCode,
+        reactiveGradeService.calculateModuleAverage(moduleCode));
+  }
+
+  /**
+   * Returns the average grade for an academic year.
+   *
+   * @param academicYear the academic year (e.g., "2024-2025")
+   * @return map containing the average grade, or 404 if the year has no grades
+   */
+  @GetMapping("/academic-year/{academicYear}/average")
+  public Mono<ResponseEntity<?>> getAcademicYearAverage(@PathVariable String academicYear) {
+    return averageResponse("academic_year", academicYear,
+        reactiveGradeService.calculateAcademicYearAverage(academicYear));
+  }
+
+  private static Mono<ResponseEntity<?>> averageResponse(String keyName, Object key,
+      Mono<Double> average) {
+    return average
+        .<ResponseEntity<?>>map(value -> {
+          Map<String, Object> response = new HashMap<>();
+          response.put(keyName, key);
+          response.put("average", value);
+          return ResponseEntity.ok(response);
+        })
+        .onErrorResume(NoGradeAvailableException.class,
+            e -> Mono.just(ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage())));
+  }
+}
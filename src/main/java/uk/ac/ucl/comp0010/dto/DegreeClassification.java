@@ -0,0 +1,103 @@
+package uk.ac.ucl.comp0010.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.List;
+
+/**
+ * Degree class of one student, from the credit-weighted average of their best score in
+ * each module and the modules they failed.
+ */
+public class DegreeClassification {
+
+  /**
+   * Honours degree classes, best first, with the lowest weighted average of each.
+   */
+  public enum DegreeClass {
+    FIRST(70),
+    UPPER_SECOND(60),
+    LOWER_SECOND(50),
+    THIRD(40),
+    FAIL(Double.NEGATIVE_INFINITY);
+
+    private final double minimumAverage;
+
+    DegreeClass(double minimumAverage) {
+      this.minimumAverage = minimumAverage;
+    }
+
+    public double getMinimumAverage() {
+      return minimumAverage;
+    }
+
+    /**
+     * Finds the class awarded for a weighted average when no module failure stands.
+     *
+     * @param average the credit-weighted average
+     * @return the best class whose minimum the average reaches
+     */
+    public static DegreeClass forAverage(double average) {
+      for (DegreeClass degreeClass : values()) {
+        if (average >= degreeClass.minimumAverage) {
+          return degreeClass;
+        }
+      }
+      return FAIL;
+    }
+  }
+
+  private final Integer studentId;
+  private final double weightedAverage;
+  private final int credits;
+  private final int condonedCredits;
+  private final List<String> failedModules;
+  private final DegreeClass degreeClass;
+
+  /**
+   * Constructor with all fields.
+   *
+   * @param studentId the student ID
+   * @param weightedAverage the credit-weighted average of the student's best module scores
+   * @param credits the credits of the modules counted
+   * @param condonedCredits the credits of failed modules that were condoned
+   * @param failedModules codes of failed modules that could not be condoned
+   * @param degreeClass the class awarded
+   */
+  public DegreeClassification(Integer studentId, double weightedAverage, int credits,
+      int condonedCredits, List<String> failedModules, DegreeClass degreeClass) {
+    this.studentId = studentId;
+    this.weightedAverage = weightedAverage;
+    this.credits = credits;
+    this.condonedCredits = condonedCredits;
+    this.failedModules = List.copyOf(failedModules);
+    this.degreeClass = degreeClass;
+  }
+
+  @JsonProperty("student_id")
+  public Integer getStudentId() {
+    return studentId;
+  }
+
+  @JsonProperty("weighted_average")
+  public double getWeightedAverage() {
+    return weightedAverage;
+  }
+
+  public int getCredits() {
+    return credits;
+  }
+
+  @JsonProperty("condoned_credits")
+  public int getCondonedCredits() {
+    return condonedCredits;
+  }
+
+  @JsonProperty("failed_modules")
+  public List<String> getFailedModules() {
+    return failedModules;
+  }
+
+  @JsonProperty("degree_class")
+  public DegreeClass getDegreeClass() {
+    return degreeClass;
+  }
+}
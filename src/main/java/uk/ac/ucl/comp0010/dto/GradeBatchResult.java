@@ -0,0 +1,87 @@
+package uk.ac.ucl.comp0010.dto;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Outcome of a bulk grade submission.
+ * Counts the grades that were saved and lists every rejected row with its reason.
+ */
+public class GradeBatchResult {
+
+  private long accepted;
+  private final List<RejectedRow> rejected = new ArrayList<>();
+
+  /**
+   * Records that a number of grades were saved.
+   *
+   * @param count the number of grades saved
+   */
+  public void accept(long count) {
+    accepted += count;
+  }
+
+  /**
+   * Records that a row was rejected.
+   *
+   * @param row the 1-based position of the row in the submission
+   * @param reason why the row was rejected
+   */
+  public void reject(long row, String reason) {
+    rejected.add(new RejectedRow(row, reason));
+  }
+
+  /**
+   * Adds the counts and rejections of another result to this one.
+   *
+   * @param other the result to merge into this one
+   */
+  public void merge(GradeBatchResult other) {
+    accepted += other.accepted;
+    rejected.addAll(other.rejected);
+  }
+
+  public long getAccepted() {
+    return accepted;
+  }
+
+  /**
+   * Gets the rejected rows in submission order.
+   *
+   * @return the rejected rows sorted by row number
+   */
+  public List<RejectedRow> getRejected() {
+    List<RejectedRow> sorted = new ArrayList<>(rejected);
+    sorted.sort(Comparator.comparingLong(RejectedRow::getRow));
+    return sorted;
+  }
+
+  /**
+   * A row of a bulk submission that could not be saved.
+   */
+  public static class RejectedRow {
+
+    private final long row;
+    private final String reason;
+
+    /**
+     * Constructor with all fields.
+     *
+     * @param row the 1-based position of the row in the submission
+     * @param reason why the row was rejected
+     */
+    public RejectedRow(long row, String reason) {
+      this.row = row;
+      this.reason = reason;
+    }
+
+    public long getRow() {
+      return row;
+    }
+
+    public String getReason() {
+      return reason;
+    }
+  }
+}
@@ -0,0 +1,80 @@
+package uk.ac.ucl.comp0010.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import java.util.List;
+
+/**
+ * Grade rows transposed into one array per field, for bulk listings. Each key is written
+ * once rather than once per grade, and a column of like values compresses and encodes in
+ * CBOR better than interleaved objects. Grade {@code i} is the {@code i}th entry of every
+ * column.
+ */
+@JsonPropertyOrder({"size", "id", "student_id", "module_code", "score", "academic_year"})
+public class GradeColumns {
+
+  private final int[] id;
+  private final int[] studentId;
+  private final String[] moduleCode;
+  private final Integer[] score;
+  private final String[] academicYear;
+
+  private GradeColumns(int size) {
+    this.id = new int[size];
+    this.studentId = new int[size];
+    this.moduleCode = new String[size];
+    this.score = new Integer[size];
+    this.academicYear = new String[size];
+  }
+
+  /**
+   * Transposes grade rows.
+   *
+   * @param rows the {@link GradeRow}s, in listing order
+   * @return the columns
+   */
+  public static GradeColumns of(List<?> rows) {
+    GradeColumns columns = new GradeColumns(rows.size());
+    for (int i = 0; i < rows.size(); i++) {
+      GradeRow row = (GradeRow) rows.get(i);
+      columns.id[i] = row.getId();
+      columns.studentId[i] = row.getStudentId();
+      columns.moduleCode[i] = row.getModuleCode();
+      columns.score[i] = row.getScore();
+      columns.academicYear[i] = row.getAcademicYear();
+    }
+    return columns;
+  }
+
+  /**
+   * Number of grades.
+   *
+   * @return the length of every column
+   */
+  public int getSize() {
+    return id.length;
+  }
+
+  public int[] getId() {
+    return id;
+  }
+
+  @JsonProperty("student_id")
+  public int[] getStudentId() {
+    return studentId;
+  }
+
+  @JsonProperty("module_code")
+  public String[] getModuleCode() {
+    return moduleCode;
+  }
+
+  public Integer[] getScore() {
+    return score;
+  }
+
+  @JsonProperty("academic_year")
+  public String[] getAcademicYear() {
+    return academicYear;
+  }
+}
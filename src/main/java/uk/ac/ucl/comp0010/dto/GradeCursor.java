@@ -0,0 +1,184 @@
+package uk.ac.ucl.comp0010.dto;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keyset pagination request for grade listings.
+ * A cursor is an opaque, URL-safe token holding the sort key and ID of the last grade on
+ * the previous page; the next page starts strictly after that grade.
+ */
+public class GradeCursor {
+
+  /**
+   * Page size used when the client does not ask for one.
+   */
+  public static final int DEFAULT_LIMIT = 50;
+
+  /**
+   * Largest page size a client may ask for.
+   */
+  public static final int MAX_LIMIT = 500;
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  /**
+   * Orderings supported by grade listings. The grade ID always breaks ties.
+   */
+  public enum SortKey {
+    ID("id", Integer.class),
+    SCORE("score", Integer.class),
+    ACADEMIC_YEAR("academic_year", String.class);
+
+    private final String parameter;
+    private final Class<?> keyType;
+
+    SortKey(String parameter, Class<?> keyType) {
+      this.parameter = parameter;
+      this.keyType = keyType;
+    }
+
+    public String getParameter() {
+      return parameter;
+    }
+
+    /**
+     * Looks up a sort key by its request parameter value.
+     *
+     * @param parameter the parameter value (e.g., "score")
+     * @return the matching sort key
+     * @throws IllegalArgumentException if the sort key is not supported
+     */
+    public static SortKey fromParameter(String parameter) {
+      for (SortKey key : values()) {
+        if (key.parameter.equals(parameter)) {
+          return key;
+        }
+      }
+      throw new IllegalArgumentException("Unsupported sort: " + parameter);
+    }
+  }
+
+  private final SortKey sort;
+  private final boolean descending;
+  private final Object afterKey;
+  private final Integer afterId;
+  private final int limit;
+
+  private GradeCursor(SortKey sort, boolean descending, Object afterKey, Integer afterId,
+      int limit) {
+    this.sort = sort;
+    this.descending = descending;
+    this.afterKey = afterKey;
+    this.afterId = afterId;
+    this.limit = limit;
+  }
+
+  /**
+   * Parses pagination request parameters.
+   *
+   * @param sort the sort key: "id" (default), "score" or "academic_year"
+   * @param order the sort order: "asc" (default) or "desc"
+   * @param cursor the cursor returned with the previous page, or null for the first page
+   * @param limit the page size, or null for {@link #DEFAULT_LIMIT}
+   * @return the parsed request
+   * @throws IllegalArgumentException if any parameter is invalid
+   */
+  public static GradeCursor of(String sort, String order, String cursor, Integer limit) {
+    SortKey sortKey = sort == null ? SortKey.ID : SortKey.fromParameter(sort);
+
+    boolean descending;
+    if (order == null || order.equalsIgnoreCase("asc")) {
+      descending = false;
+    } else if (order.equalsIgnoreCase("desc")) {
+      descending = true;
+    } else {
+      throw new IllegalArgumentException("Unsupported order: " + order);
+    }
+
+    int pageSize = limit == null ? DEFAULT_LIMIT : limit;
+    if (pageSize < 1 || pageSize > MAX_LIMIT) {
+      throw new IllegalArgumentException("Limit must be between 1 and " + MAX_LIMIT);
+    }
+
+    if (cursor == null) {
+      return new GradeCursor(sortKey, descending, null, null, pageSize);
+    }
+
+    Map<String, Object> token = decode(cursor);
+    if (!sortKey.parameter.equals(token.get("sort"))
+        || !(token.get("id") instanceof Integer id)) {
+      throw new IllegalArgumentException("Cursor does not match the requested sort");
+    }
+    Object key = token.get("key");
+    if (sortKey != SortKey.ID && !sortKey.keyType.isInstance(key)) {
+      throw new IllegalArgumentException("Invalid cursor");
+    }
+    return new GradeCursor(sortKey, descending, key, id, pageSize);
+  }
+
+  /**
+   * Builds the cursor token for the page that follows a given grade.
+   *
+   * @param sort the ordering of the listing
+   * @param key the sort key value of the last grade on the page
+   * @param id the ID of the last grade on the page
+   * @return the cursor token
+   */
+  public static String encode(SortKey sort, Object key, Integer id) {
+    Map<String, Object> token = new LinkedHashMap<>();
+    token.put("sort", sort.parameter);
+    token.put("key", key);
+    token.put("id", id);
+    try {
+      byte[] json = MAPPER.writeValueAsBytes(token);
+      return Base64.getUrlEncoder().withoutPadding().encodeToString(json);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Could not encode cursor", e);
+    }
+  }
+
+  private static Map<String, Object> decode(String cursor) {
+    try {
+      String json = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+      return MAPPER.readValue(json, new TypeReference<LinkedHashMap<String, Object>>() { });
+    } catch (IllegalArgumentException | JsonProcessingException e) {
+      throw new IllegalArgumentException("Invalid cursor", e);
+    }
+  }
+
+  public SortKey getSort() {
+    return sort;
+  }
+
+  public boolean isDescending() {
+    return descending;
+  }
+
+  /**
+   * Gets the sort key value of the last grade on the previous page.
+   *
+   * @return the sort key value, or null on the first page
+   */
+  public Object getAfterKey() {
+    return afterKey;
+  }
+
+  /**
+   * Gets the ID of the last grade on the previous page.
+   *
+   * @return the grade ID, or null on the first page
+   */
+  public Integer getAfterId() {
+    return afterId;
+  }
+
+  public int getLimit() {
+    return limit;
+  }
+}
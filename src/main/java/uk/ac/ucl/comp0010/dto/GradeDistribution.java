@@ -0,0 +1,132 @@
+package uk.ac.ucl.comp0010.dto;
+
+import uk.ac.ucl.comp0010.model.GradeHistogramBucket;
+
+/**
+ * Distribution of whole scores from 0 to 100, read from a maintained histogram.
+ * Every query walks the {@value GradeHistogramBucket#BUCKETS} buckets once, however many
+ * grades were counted.
+ */
+public class GradeDistribution {
+
+  private final long[] histogram;
+  private final long count;
+
+  /**
+   * Constructor with the histogram.
+   *
+   * @param histogram counts indexed by score
+   */
+  public GradeDistribution(long[] histogram) {
+    this.histogram = histogram.clone();
+    long total = 0;
+    for (long bucket : histogram) {
+      total += bucket;
+    }
+    this.count = total;
+  }
+
+  /**
+   * Counts indexed by score.
+   *
+   * @return a copy of the histogram
+   */
+  public long[] getHistogram() {
+    return histogram.clone();
+  }
+
+  public long getCount() {
+    return count;
+  }
+
+  /**
+   * Mean of the counted scores.
+   *
+   * @return the average, or null if nothing was counted
+   */
+  public Double getAverage() {
+    if (count == 0) {
+      return null;
+    }
+    double sum = 0;
+    for (int score = 0; score < histogram.length; score++) {
+      sum += (double) score * histogram[score];
+    }
+    return sum / count;
+  }
+
+  /**
+   * Nearest-rank percentile of the distribution.
+   *
+   * @param percentile the percentile, from 0 to 100
+   * @return the smallest score with at least that share of the counts at or below it, or -1
+   *     if nothing was counted
+   * @throws IllegalArgumentException if the percentile is outside 0 to 100
+   */
+  public int percentile(double percentile) {
+    return percentile(histogram, percentile);
+  }
+
+  /**
+   * Nearest-rank percentile of a score histogram.
+   *
+   * @param histogram counts indexed by score
+   * @param percentile the percentile, from 0 to 100
+   * @return the smallest score with at least that share of the counts at or below it, or -1
+   *     if the histogram is empty
+   * @throws IllegalArgumentException if the percentile is outside 0 to 100
+   */
+  public static int percentile(long[] histogram, double percentile) {
+    if (percentile < 0 || percentile > 100) {
+      throw new IllegalArgumentException("Percentile must be between 0 and 100");
+    }
+    long total = 0;
+    for (long count : histogram) {
+      total += count;
+    }
+    if (total == 0) {
+      return -1;
+    }
+    long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+    long seen = 0;
+    for (int score = 0; score < histogram.length; score++) {
+      seen += histogram[score];
+      if (seen >= rank) {
+        return score;
+      }
+    }
+    return histogram.length - 1;
+  }
+
+  /**
+   * Rank of a score, where 1 is the highest; equal scores share a rank.
+   *
+   * @param score the score, counted in its bucket
+   * @return one more than the number of counts in higher buckets
+   */
+  public long rankOf(double score) {
+    long above = 0;
+    for (int bucket = GradeHistogramBucket.bucket(score) + 1; bucket < histogram.length;
+        bucket++) {
+      above += histogram[bucket];
+    }
+    return above + 1;
+  }
+
+  /**
+   * Percentile rank of a score: the share of counts in its bucket or below.
+   *
+   * @param score the score, counted in its bucket
+   * @return the percentage, from 0 to 100, or 0 if nothing was counted
+   */
+  public double percentileRankOf(double score) {
+    if (count == 0) {
+      return 0;
+    }
+    long atOrBelow = 0;
+    for (int bucket = 0; bucket <= GradeHistogramBucket.bucket(score); bucket++) {
+      atOrBelow += histogram[bucket];
+    }
+    return 100.0 * atOrBelow / count;
+  }
+}
@@ -0,0 +1,86 @@
+package uk.ac.ucl.comp0010.dto;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Progress and outcome of a streaming grade import.
+ * Only the first {@link #MAX_REPORTED_REJECTS} rejected rows are kept so that a file
+ * full of bad rows cannot exhaust memory; the total is always counted.
+ */
+public class GradeImportReport {
+
+  /**
+   * Largest number of rejected rows listed individually in a report.
+   */
+  public static final int MAX_REPORTED_REJECTS = 1000;
+
+  private long rowsRead;
+  private long accepted;
+  private long rejectedCount;
+  private int chunksCommitted;
+  private final List<GradeBatchResult.RejectedRow> rejected = new ArrayList<>();
+
+  /**
+   * Records that a data row was read from the input.
+   */
+  public void rowRead() {
+    rowsRead++;
+  }
+
+  /**
+   * Records a row that was rejected before reaching the database.
+   *
+   * @param row the line number of the row
+   * @param reason why the row was rejected
+   */
+  public void reject(long row, String reason) {
+    rejectedCount++;
+    if (rejected.size() < MAX_REPORTED_REJECTS) {
+      rejected.add(new GradeBatchResult.RejectedRow(row, reason));
+    }
+  }
+
+  /**
+   * Records the outcome of a committed chunk.
+   *
+   * @param chunkResult the result of writing the chunk
+   */
+  public void chunkCommitted(GradeBatchResult chunkResult) {
+    chunksCommitted++;
+    accepted += chunkResult.getAccepted();
+    chunkResult.getRejected().forEach(r -> reject(r.getRow(), r.getReason()));
+  }
+
+  public long getRowsRead() {
+    return rowsRead;
+  }
+
+  public long getAccepted() {
+    return accepted;
+  }
+
+  public long getRejectedCount() {
+    return rejectedCount;
+  }
+
+  public int getChunksCommitted() {
+    return chunksCommitted;
+  }
+
+  /**
+   * Gets the rejected rows sorted by line number.
+   *
+   * @return up to {@link #MAX_REPORTED_REJECTS} rejected rows
+   */
+  public List<GradeBatchResult.RejectedRow> getRejected() {
+    List<GradeBatchResult.RejectedRow> sorted = new ArrayList<>(rejected);
+    sorted.sort(Comparator.comparingLong(GradeBatchResult.RejectedRow::getRow));
+    return sorted;
+  }
+
+  public boolean isRejectedTruncated() {
+    return rejectedCount > rejected.size();
+  }
+}
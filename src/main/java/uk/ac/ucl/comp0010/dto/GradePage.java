@@ -0,0 +1,37 @@
+package uk.ac.ucl.comp0010.dto;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated grade listing.
+ *
+ * @param <T> the type of the listed items
+ */
+public class GradePage<T> {
+
+  private final List<T> content;
+  private final String nextCursor;
+
+  /**
+   * Constructor with all fields.
+   *
+   * @param content the items on this page
+   * @param nextCursor the cursor of the following page, or null if this is the last page
+   */
+  public GradePage(List<T> content, String nextCursor) {
+    this.content = content;
+    this.nextCursor = nextCursor;
+  }
+
+  public List<T> getContent() {
+    return content;
+  }
+
+  public String getNextCursor() {
+    return nextCursor;
+  }
+
+  public boolean hasNext() {
+    return nextCursor != null;
+  }
+}
@@ -0,0 +1,80 @@
+package uk.ac.ucl.comp0010.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.Objects;
+
+/**
+ * Flat view of a grade that refers to its student and module by ID only.
+ * Built from JPQL constructor expressions so no entities are hydrated, and serialised
+ * with the same keys accepted by the grade submission endpoints.
+ */
+public class GradeRow {
+
+  private final Integer id;
+  private final Integer studentId;
+  private final String moduleCode;
+  private final Integer score;
+  private final String academicYear;
+
+  /**
+   * Constructor with all fields.
+   *
+   * @param id the grade ID
+   * @param studentId the ID of the student who received the grade
+   * @param moduleCode the code of the module the grade was awarded for
+   * @param score the grade score
+   * @param academicYear the academic year, may be null
+   */
+  public GradeRow(Integer id, Integer studentId, String moduleCode, Integer score,
+      String academicYear) {
+    this.id = id;
+    this.studentId = studentId;
+    this.moduleCode = moduleCode;
+    this.score = score;
+    this.academicYear = academicYear;
+  }
+
+  public Integer getId() {
+    return id;
+  }
+
+  @JsonProperty("student_id")
+  public Integer getStudentId() {
+    return studentId;
+  }
+
+  @JsonProperty("module_code")
+  public String getModuleCode() {
+    return moduleCode;
+  }
+
+  public Integer getScore() {
+    return score;
+  }
+
+  @JsonProperty("academic_year")
+  public String getAcademicYear() {
+    return academicYear;
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    if (this == other) {
+      return true;
+    }
+    if (!(other instanceof GradeRow)) {
+      return false;
+    }
+    GradeRow row = (GradeRow) other;
+    return Objects.equals(id, row.id)
+        && Objects.equals(studentId, row.studentId)
+        && Objects.equals(moduleCode, row.moduleCode)
+        && Objects.equals(score, row.score)
+        && Objects.equals(academicYear, row.academicYear);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(id, studentId, moduleCode, score, academicYear);
+  }
+}
@@ -0,0 +1,62 @@
+package uk.ac.ucl.comp0010.dto;
+
+/**
+ * Summary statistics over a set of grade scores.
+ * Built directly from an aggregate query so no Grade entities are loaded.
+ */
+public class GradeStatistics {
+
+  private final long count;
+  private final Double average;
+  private final Integer min;
+  private final Integer max;
+  private final Double standardDeviation;
+
+  /**
+   * Constructor used by JPQL constructor expressions.
+   *
+   * @param count the number of grades
+   * @param average the mean score, or null if there are no grades
+   * @param min the lowest score, or null if there are no grades
+   * @param max the highest score, or null if there are no grades
+   * @param sumOfSquares the sum of squared scores, or null if there are no grades
+   */
+  public GradeStatistics(Long count, Double average, Integer min, Integer max,
+      Long sumOfSquares) {
+    this.count = count == null ? 0 : count;
+    this.average = average;
+    this.min = min;
+    this.max = max;
+    this.standardDeviation = populationStandardDeviation(this.count, average, sumOfSquares);
+  }
+
+  private static Double populationStandardDeviation(long count, Double average,
+      Long sumOfSquares) {
+    if (count == 0 || average == null || sumOfSquares == null) {
+      return null;
+    }
+    double variance = (double) sumOfSquares / count - average * average;
+    // Guard against tiny negative values caused by floating point rounding.
+    return Math.sqrt(Math.max(0.0, variance));
+  }
+
+  public long getCount() {
+    return count;
+  }
+
+  public Double getAverage() {
+    return average;
+  }
+
+  public Integer getMin() {
+    return min;
+  }
+
+  public Integer getMax() {
+    return max;
+  }
+
+  public Double getStandardDeviation() {
+    return standardDeviation;
+  }
+}
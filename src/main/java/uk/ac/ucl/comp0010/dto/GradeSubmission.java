@@ -0,0 +1,84 @@
+package uk.ac.ucl.comp0010.dto;
+
+import java.util.Map;
+
+/**
+ * A single grade submitted as part of a bulk request.
+ * Carries the position of the row in the submission so failures can be reported per row.
+ */
+public class GradeSubmission {
+
+  private final long row;
+  private final Integer studentId;
+  private final String moduleCode;
+  private final Integer score;
+  private final String academicYear;
+
+  /**
+   * Constructor with all fields.
+   *
+   * @param row the 1-based position of the row in the submission
+   * @param studentId the student ID
+   * @param moduleCode the module code
+   * @param score the grade score
+   * @param academicYear the academic year, may be null
+   */
+  public GradeSubmission(long row, Integer studentId, String moduleCode, Integer score,
+      String academicYear) {
+    this.row = row;
+    this.studentId = studentId;
+    this.moduleCode = moduleCode;
+    this.score = score;
+    this.academicYear = academicYear;
+  }
+
+  /**
+   * Parses a submission from request parameters using the same keys as
+   * {@code POST /grades/addGradeValidated}.
+   *
+   * @param row the 1-based position of the row in the submission
+   * @param params map containing student_id, module_code, score, and optionally academic_year
+   * @return the parsed submission
+   * @throws IllegalArgumentException if a required parameter is missing or not a number
+   */
+  public static GradeSubmission fromParams(long row, Map<String, ?> params) {
+    Object studentId = params.get("student_id");
+    Object moduleCode = params.get("module_code");
+    Object score = params.get("score");
+    Object academicYear = params.get("academic_year");
+
+    if (studentId == null || moduleCode == null || score == null) {
+      throw new IllegalArgumentException("Missing required parameters");
+    }
+
+    try {
+      return new GradeSubmission(row,
+          Integer.parseInt(studentId.toString().trim()),
+          moduleCode.toString().trim(),
+          Integer.parseInt(score.toString().trim()),
+          academicYear == null ? null : academicYear.toString().trim());
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Invalid number format", e);
+    }
+  }
+
+  public long getRow() {
+    return row;
+  }
+
+  public Integer getStudentId() {
+    return studentId;
+  }
+
+  public String getModuleCode() {
+    return moduleCode;
+  }
+
+  public Integer getScore() {
+    return score;
+  }
+
+  public String getAcademicYear() {
+    return academicYear;
+  }
+}
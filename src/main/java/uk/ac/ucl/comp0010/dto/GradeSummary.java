@@ -0,0 +1,74 @@
+package uk.ac.ucl.comp0010.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Compact view of a grade with the display names of its student and module.
+ * Built from JPQL constructor expressions, so only the listed columns are read and no
+ * entities are hydrated.
+ */
+public class GradeSummary {
+
+  private final Integer id;
+  private final Integer score;
+  private final String academicYear;
+  private final Integer studentId;
+  private final String studentName;
+  private final String moduleCode;
+  private final String moduleName;
+
+  /**
+   * Constructor with all fields.
+   *
+   * @param id the grade ID
+   * @param score the grade score
+   * @param academicYear the academic year, may be null
+   * @param studentId the ID of the student who received the grade
+   * @param studentName the student's full name
+   * @param moduleCode the code of the module the grade was awarded for
+   * @param moduleName the module name
+   */
+  public GradeSummary(Integer id, Integer score, String academicYear, Integer studentId,
+      String studentName, String moduleCode, String moduleName) {
+    this.id = id;
+    this.score = score;
+    this.academicYear = academicYear;
+    this.studentId = studentId;
+    this.studentName = studentName;
+    this.moduleCode = moduleCode;
+    this.moduleName = moduleName;
+  }
+
+  public Integer getId() {
+    return id;
+  }
+
+  public Integer getScore() {
+    return score;
+  }
+
+  @JsonProperty("academic_year")
+  public String getAcademicYear() {
+    return academicYear;
+  }
+
+  @JsonProperty("student_id")
+  public Integer getStudentId() {
+    return studentId;
+  }
+
+  @JsonProperty("student_name")
+  public String getStudentName() {
+    return studentName;
+  }
+
+  @JsonProperty("module_code")
+  public String getModuleCode() {
+    return moduleCode;
+  }
+
+  @JsonProperty("module_name")
+  public String getModuleName() {
+    return moduleName;
+  }
+}
@@ -0,0 +1,16 @@
+package uk.ac.ucl.comp0010.dto;
+
+/**
+ * Projection of score totals for one grouping key.
+ * Used both for stored aggregates and for totals recomputed from the grade table.
+ */
+public interface GradeTotals {
+
+  String getKey();
+
+  Long getCount();
+
+  Long getSum();
+
+  Long getSumOfSquares();
+}
@@ -0,0 +1,76 @@
+package uk.ac.ucl.comp0010.dto;
+
+import java.util.List;
+import uk.ac.ucl.comp0010.model.Grade;
+
+/**
+ * Response shapes offered by the grade listing endpoints.
+ */
+public enum GradeView {
+
+  /**
+   * Grade entities with their full student and module objects.
+   */
+  FULL("full", Grade.class),
+
+  /**
+   * {@link GradeSummary} rows with student and module names only.
+   */
+  SUMMARY("summary", GradeSummary.class),
+
+  /**
+   * {@link GradeRow} rows referring to the student and module by ID only.
+   */
+  IDS("ids", GradeRow.class),
+
+  /**
+   * {@link GradeRow} fields as {@link GradeColumns}, one array per field.
+   */
+  COLUMNS("columns", GradeRow.class);
+
+  private final String parameter;
+  private final Class<?> type;
+
+  GradeView(String parameter, Class<?> type) {
+    this.parameter = parameter;
+    this.type = type;
+  }
+
+  public String getParameter() {
+    return parameter;
+  }
+
+  public Class<?> getType() {
+    return type;
+  }
+
+  /**
+   * Shapes grades read for this view into the response body: the list itself, or for
+   * {@link #COLUMNS} the rows transposed.
+   *
+   * @param grades grades of {@link #getType()}
+   * @return the response body
+   */
+  public Object render(List<?> grades) {
+    return this == COLUMNS ? GradeColumns.of(grades) : grades;
+  }
+
+  /**
+   * Looks up a view by its request parameter value.
+   *
+   * @param parameter the parameter value, or null for {@link #FULL}
+   * @return the matching view
+   * @throws IllegalArgumentException if the view is not supported
+   */
+  public static GradeView fromParameter(String parameter) {
+    if (parameter == null) {
+      return FULL;
+    }
+    for (GradeView view : values()) {
+      if (view.parameter.equals(parameter)) {
+        return view;
+      }
+    }
+    throw new IllegalArgumentException("Unsupported view: " + parameter);
+  }
+}
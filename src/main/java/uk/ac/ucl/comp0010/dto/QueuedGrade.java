@@ -0,0 +1,35 @@
+package uk.ac.ucl.comp0010.dto;
+
+/**
+ * A grade submission waiting in the write-behind queue.
+ * The submission row holds the queue sequence number, which identifies the submission in
+ * the journal and in the batch result.
+ */
+public class QueuedGrade {
+
+  private final String trackingId;
+  private final GradeSubmission submission;
+
+  /**
+   * Constructor with all fields.
+   *
+   * @param trackingId the ID returned to the client
+   * @param submission the grade, with the queue sequence number as its row
+   */
+  public QueuedGrade(String trackingId, GradeSubmission submission) {
+    this.trackingId = trackingId;
+    this.submission = submission;
+  }
+
+  public String getTrackingId() {
+    return trackingId;
+  }
+
+  public GradeSubmission getSubmission() {
+    return submission;
+  }
+
+  public long getSequence() {
+    return submission.getRow();
+  }
+}
@@ -0,0 +1,12 @@
+package uk.ac.ucl.comp0010.dto;
+
+/**
+ * Projection of a registration onto its (student, module) key.
+ * Used to validate many submissions at once without loading Registration entities.
+ */
+public interface RegistrationKey {
+
+  Integer getStudentId();
+
+  String getModuleCode();
+}
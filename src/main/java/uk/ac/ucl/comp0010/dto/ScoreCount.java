@@ -0,0 +1,38 @@
+package uk.ac.ucl.comp0010.dto;
+
+/**
+ * Number of grades at one score of one histogram.
+ * Built from JPQL constructor expressions, both for stored histogram buckets and for counts
+ * recomputed from the grade table, so no proxy is created per row.
+ */
+public class ScoreCount {
+
+  private final String key;
+  private final int score;
+  private final long count;
+
+  /**
+   * Constructor used by JPQL constructor expressions.
+   *
+   * @param key the histogram name or grouping key
+   * @param score the score counted
+   * @param count the number of grades at that score
+   */
+  public ScoreCount(String key, Integer score, Long count) {
+    this.key = key;
+    this.score = score == null ? 0 : score;
+    this.count = count == null ? 0 : count;
+  }
+
+  public String getKey() {
+    return key;
+  }
+
+  public int getScore() {
+    return score;
+  }
+
+  public long getCount() {
+    return count;
+  }
+}
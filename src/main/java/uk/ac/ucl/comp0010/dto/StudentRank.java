@@ -0,0 +1,58 @@
+package uk.ac.ucl.comp0010.dto;
+
+/**
+ * Position of a student's score within a cohort, overall or in one module.
+ */
+public class StudentRank {
+
+  private final Integer studentId;
+  private final String moduleCode;
+  private final double score;
+  private final long rank;
+  private final long cohortSize;
+  private final double percentile;
+
+  /**
+   * Constructor with all fields.
+   *
+   * @param studentId the student ID
+   * @param moduleCode the module ranked in, or null for the average over all modules
+   * @param score the student's score or average score
+   * @param rank the rank, where 1 is the highest
+   * @param cohortSize the number of scores ranked
+   * @param percentile the share of the cohort at or below the student's score, in percent
+   */
+  public StudentRank(Integer studentId, String moduleCode, double score, long rank,
+      long cohortSize, double percentile) {
+    this.studentId = studentId;
+    this.moduleCode = moduleCode;
+    this.score = score;
+    this.rank = rank;
+    this.cohortSize = cohortSize;
+    this.percentile = percentile;
+  }
+
+  public Integer getStudentId() {
+    return studentId;
+  }
+
+  public String getModuleCode() {
+    return moduleCode;
+  }
+
+  public double getScore() {
+    return score;
+  }
+
+  public long getRank() {
+    return rank;
+  }
+
+  public long getCohortSize() {
+    return cohortSize;
+  }
+
+  public double getPercentile() {
+    return percentile;
+  }
+}
@@ -0,0 +1,69 @@
+package uk.ac.ucl.comp0010.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Progress of a grade submitted to the write-behind queue.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SubmissionStatus {
+
+  /**
+   * Stage a queued submission has reached.
+   */
+  public enum State {
+
+    /**
+     * Accepted and waiting to be written.
+     */
+    QUEUED,
+
+    /**
+     * Written to the database.
+     */
+    SAVED,
+
+    /**
+     * Not written because it failed validation.
+     */
+    REJECTED,
+
+    /**
+     * Could not be written, even on its own after the batch holding it failed. It is not
+     * retried, on restart or otherwise.
+     */
+    FAILED
+  }
+
+  private final String trackingId;
+  private final State state;
+  private final String reason;
+
+  /**
+   * Constructor with all fields.
+   *
+   * @param trackingId the ID returned when the submission was accepted
+   * @param state the current stage
+   * @param reason why the submission was rejected or failed, null otherwise
+   */
+  public SubmissionStatus(String trackingId, State state, String reason) {
+    this.trackingId = trackingId;
+    this.state = state;
+    this.reason = reason;
+  }
+
+  @JsonProperty("tracking_id")
+  public String getTrackingId() {
+    return trackingId;
+  }
+
+  @JsonProperty("status")
+  public State getState() {
+    return state;
+  }
+
+  public String getReason() {
+    return reason;
+  }
+}
@@ -0,0 +1,136 @@
+package uk.ac.ucl.comp0010.dto;
+
+import java.util.SplittableRandom;
+
+/**
+ * Shape of a synthetic university data set: how many students and modules there are, how
+ * many modules each student takes, and the seed every generated value derives from.
+ * The same spec always describes the same data, so load drivers and benchmarks can pick
+ * registered students and modules without reading them back from the database.
+ */
+public class SyntheticDataSet {
+
+  private static final String[] DEPARTMENTS = {"COMP", "MATH", "STAT", "PHYS", "ECON"};
+  private static final String[] ACADEMIC_YEARS = {"2022-2023", "2023-2024", "2024-2025"};
+
+  private final int students;
+  private final int modules;
+  private final int modulesPerStudent;
+  private final long seed;
+  private final int stride;
+
+  /**
+   * Creates a data set spec.
+   *
+   * @param students number of students, with IDs 1 to students
+   * @param modules number of modules
+   * @param modulesPerStudent number of modules each student is registered for
+   * @param seed seed for every generated value
+   * @throws IllegalArgumentException if a count is not positive, there are more modules than
+   *     module codes, or students take more modules than exist
+   */
+  public SyntheticDataSet(int students, int modules, int modulesPerStudent, long seed) {
+    if (students < 1 || modules < 1 || modulesPerStudent < 1) {
+      throw new IllegalArgumentException("Counts must be positive");
+    }
+    if (modules > DEPARTMENTS.length * 9000) {
+      throw new IllegalArgumentException("At most " + DEPARTMENTS.length * 9000 + " modules");
+    }
+    if (modulesPerStudent > modules) {
+      throw new IllegalArgumentException("Modules per student exceeds the number of modules");
+    }
+    this.students = students;
+    this.modules = modules;
+    this.modulesPerStudent = modulesPerStudent;
+    this.seed = seed;
+    this.stride = strideFor(modules, modulesPerStudent);
+  }
+
+  public int getStudents() {
+    return students;
+  }
+
+  public int getModules() {
+    return modules;
+  }
+
+  public int getModulesPerStudent() {
+    return modulesPerStudent;
+  }
+
+  public long getSeed() {
+    return seed;
+  }
+
+  /**
+   * Code of the module with the given index, spread across departments, e.g. COMP1000.
+   *
+   * @param module index from 0 to modules - 1
+   * @return the module code
+   */
+  public String moduleCode(int module) {
+    return DEPARTMENTS[module % DEPARTMENTS.length] + (1000 + module / DEPARTMENTS.length);
+  }
+
+  /**
+   * Index of the i-th module a student is registered for. A student's modules are distinct
+   * and start from a skewed offset, so low-index modules are the most popular.
+   *
+   * @param student student ID from 1 to students
+   * @param i from 0 to modulesPerStudent - 1
+   * @return the module index
+   */
+  public int moduleIndex(int student, int i) {
+    double u = random(student, 0).nextDouble();
+    int offset = (int) (modules * u * u);
+    return (int) ((offset + (long) i * stride) % modules);
+  }
+
+  /**
+   * Code of the i-th module a student is registered for.
+   *
+   * @param student student ID from 1 to students
+   * @param i from 0 to modulesPerStudent - 1
+   * @return the module code
+   */
+  public String registeredModule(int student, int i) {
+    return moduleCode(moduleIndex(student, i));
+  }
+
+  /**
+   * Academic year of a student's cohort, which all of their grades are recorded against.
+   *
+   * @param student student ID from 1 to students
+   * @return the academic year
+   */
+  public String academicYear(int student) {
+    return ACADEMIC_YEARS[random(student, 1).nextInt(ACADEMIC_YEARS.length)];
+  }
+
+  /**
+   * Independent random stream for one entity, so values do not depend on generation order.
+   *
+   * @param id the student ID or module index
+   * @param stream distinguishes streams for the same entity
+   * @return a random generator
+   */
+  public SplittableRandom random(int id, int stream) {
+    return new SplittableRandom(seed * 0x9E3779B97F4A7C15L + id * 31L + stream);
+  }
+
+  /**
+   * Smallest step of at least modules / modulesPerStudent that is coprime with modules,
+   * so stepping from any offset visits distinct modules.
+   */
+  private static int strideFor(int modules, int modulesPerStudent) {
+    int stride = Math.max(1, modules / modulesPerStudent);
+    while (gcd(stride, modules) != 1) {
+      stride++;
+    }
+    return stride;
+  }
+
+  private static int gcd(int a, int b) {
+    return b == 0 ? a : gcd(b, a % b);
+  }
+}
@@ -0,0 +1,41 @@
+package uk.ac.ucl.comp0010.event;
+
+import uk.ac.ucl.comp0010.dto.GradeRow;
+
+/**
+ * Published when a grade is added, changed or removed through a repository save or delete.
+ * Carries the grade's state before and after the change so listeners can apply the
+ * difference without reading the grade table.
+ */
+public class GradeChangedEvent {
+
+  private final GradeRow before;
+  private final GradeRow after;
+
+  /**
+   * Constructor with both states.
+   *
+   * @param before the grade as last saved, or null if the grade is new
+   * @param after the grade as now saved, or null if the grade was removed
+   */
+  public GradeChangedEvent(GradeRow before, GradeRow after) {
+    this.before = before;
+    this.after = after;
+  }
+
+  public GradeRow getBefore() {
+    return before;
+  }
+
+  public GradeRow getAfter() {
+    return after;
+  }
+
+  public boolean isAdded() {
+    return before == null;
+  }
+
+  public boolean isRemoved() {
+    return after == null;
+  }
+}
@@ -1,24 +1,44 @@
 package uk.ac.ucl.comp0010.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PreRemove;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import jakarta.persistence.UniqueConstraint;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.domain.AfterDomainEventPublication;
+import org.springframework.data.domain.DomainEvents;
+import uk.ac.ucl.comp0010.dto.GradeRow;
+import uk.ac.ucl.comp0010.event.GradeChangedEvent;
 
 /**
  * Represents a grade assigned to a student for a specific module.
  * Links students and modules with their corresponding scores.
  */
 @Entity
-@Table(name = "grade")
+@Table(name = "grade", indexes = {
+    @Index(name = "idx_grade_student_id", columnList = "student_id"),
+    @Index(name = "idx_grade_module_code", columnList = "module_code")
+}, uniqueConstraints = @UniqueConstraint(name = "uk_grade_tracking_id",
+    columnNames = "tracking_id"))
 public class Grade {
 
+  // A pooled sequence (rather than IDENTITY) lets Hibernate batch grade inserts.
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "grade_seq")
+  @SequenceGenerator(name = "grade_seq", sequenceName = "grade_seq", allocationSize = 50)
   @Column(name = "id")
   private Integer id;
 
@@ -28,14 +48,29 @@ public class Grade {
   @Column(name = "academic_year")
   private String academicYear;
 
-  @ManyToOne
+  // Set for grades saved through the write-behind queue, so a replayed submission is
+  // recognised as already saved.
+  @JsonIgnore
+  @Column(name = "tracking_id", length = 36)
+  private String trackingId;
+
+  // Lazy so grade rows do not trigger a select per student and module; queries that
+  // render them fetch both with an entity graph or a fetch join.
+  @ManyToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "student_id", referencedColumnName = "id")
   private Student student;
 
-  @ManyToOne
+  @ManyToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "module_code", referencedColumnName = "code")
   private Module module;
 
+  // State as of the last load or published save, used to describe the next change.
+  @Transient
+  private GradeRow savedState;
+
+  @Transient
+  private boolean removed;
+
   /**
    * Default constructor for JPA.
    */
@@ -109,4 +144,53 @@ public class Grade {
   public void setAcademicYear(String academicYear) {
     this.academicYear = academicYear;
   }
+
+  public String getTrackingId() {
+    return trackingId;
+  }
+
+  public void setTrackingId(String trackingId) {
+    this.trackingId = trackingId;
+  }
+
+  /**
+   * Flat copy of the grade's current state.
+   *
+   * @return the grade as a row
+   */
+  public GradeRow toRow() {
+    return new GradeRow(id, student == null ? null : student.getId(),
+        module == null ? null : module.getCode(), score, academicYear);
+  }
+
+  /**
+   * Events published by Spring Data after this grade is passed to a repository save or
+   * delete method.
+   */
+  @DomainEvents
+  Collection<GradeChangedEvent> domainEvents() {
+    GradeRow current = removed ? null : toRow();
+    if (current != null && current.equals(savedState)) {
+      return List.of();
+    }
+    if (current == null && savedState == null) {
+      return List.of();
+    }
+    return List.of(new GradeChangedEvent(savedState, current));
+  }
+
+  @AfterDomainEventPublication
+  void clearDomainEvents() {
+    savedState = removed ? null : toRow();
+  }
+
+  @PostLoad
+  void recordLoadedState() {
+    savedState = toRow();
+  }
+
+  @PreRemove
+  void markRemoved() {
+    removed = true;
+  }
 }
@@ -0,0 +1,136 @@
+package uk.ac.ucl.comp0010.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import org.springframework.data.domain.Persistable;
+
+/**
+ * Running totals of the scores of one student, module or academic year.
+ * Kept up to date as grades change so averages can be read without scanning the grade
+ * table.
+ */
+@Entity
+@Table(name = "grade_aggregate")
+public class GradeAggregate implements Persistable<String> {
+
+  /**
+   * What the grades of an aggregate have in common.
+   */
+  public enum Scope {
+    STUDENT,
+    MODULE,
+    ACADEMIC_YEAR
+  }
+
+  @Id
+  @Column(name = "id", length = 80)
+  private String id;
+
+  @Enumerated(EnumType.STRING)
+  @Column(name = "scope", length = 20)
+  private Scope scope;
+
+  @Column(name = "scope_key", length = 50)
+  private String key;
+
+  @Column(name = "grade_count")
+  private long count;
+
+  @Column(name = "score_sum")
+  private long sum;
+
+  @Column(name = "score_sum_of_squares")
+  private long sumOfSquares;
+
+  // Lets Spring Data persist new aggregates directly instead of merging them.
+  @Transient
+  private boolean isNew;
+
+  /**
+   * Default constructor for JPA.
+   */
+  public GradeAggregate() {
+  }
+
+  /**
+   * Constructor with all fields.
+   *
+   * @param scope what the grades have in common
+   * @param key the student ID, module code or academic year
+   * @param count the number of scored grades
+   * @param sum the sum of their scores
+   * @param sumOfSquares the sum of their squared scores
+   */
+  public GradeAggregate(Scope scope, String key, long count, long sum, long sumOfSquares) {
+    this.id = id(scope, key);
+    this.scope = scope;
+    this.key = key;
+    this.count = count;
+    this.sum = sum;
+    this.sumOfSquares = sumOfSquares;
+    this.isNew = true;
+  }
+
+  /**
+   * Builds the ID of the aggregate for a scope and key.
+   *
+   * @param scope what the grades have in common
+   * @param key the student ID, module code or academic year
+   * @return the aggregate ID
+   */
+  public static String id(Scope scope, Object key) {
+    return scope.name() + ":" + key;
+  }
+
+  @Override
+  public String getId() {
+    return id;
+  }
+
+  @Override
+  public boolean isNew() {
+    return isNew;
+  }
+
+  @PostLoad
+  @PostPersist
+  void markNotNew() {
+    isNew = false;
+  }
+
+  public Scope getScope() {
+    return scope;
+  }
+
+  public String getKey() {
+    return key;
+  }
+
+  public long getCount() {
+    return count;
+  }
+
+  public long getSum() {
+    return sum;
+  }
+
+  public long getSumOfSquares() {
+    return sumOfSquares;
+  }
+
+  /**
+   * Mean score of the grades.
+   *
+   * @return the average, or null if there are no scored grades
+   */
+  public Double getAverage() {
+    return count == 0 ? null : (double) sum / count;
+  }
+}
@@ -0,0 +1,130 @@
+package uk.ac.ucl.comp0010.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import org.springframework.data.domain.Persistable;
+import uk.ac.ucl.comp0010.model.GradeAggregate.Scope;
+
+/**
+ * Number of grades at one whole score of a fixed 0 to 100 histogram.
+ * Kept up to date as grades change so percentiles and ranks can be read from
+ * {@value #BUCKETS} counts instead of sorting the grades.
+ */
+@Entity
+@Table(name = "grade_histogram", indexes = @Index(columnList = "histogram"))
+public class GradeHistogramBucket implements Persistable<String> {
+
+  /**
+   * Number of buckets in a histogram, one per whole score from 0 to 100.
+   */
+  public static final int BUCKETS = 101;
+
+  /**
+   * Histogram of the average score of every student with a scored grade.
+   */
+  public static final String STUDENT_AVERAGES = "STUDENT_AVERAGES";
+
+  @Id
+  @Column(name = "id", length = 90)
+  private String id;
+
+  @Column(name = "histogram", length = 80)
+  private String histogram;
+
+  @Column(name = "score")
+  private int score;
+
+  @Column(name = "grade_count")
+  private long count;
+
+  // Lets Spring Data persist new buckets directly instead of merging them.
+  @Transient
+  private boolean isNew;
+
+  /**
+   * Default constructor for JPA.
+   */
+  public GradeHistogramBucket() {
+  }
+
+  /**
+   * Constructor with all fields.
+   *
+   * @param histogram the histogram the bucket belongs to
+   * @param score the whole score counted, from 0 to 100
+   * @param count the number of grades at that score
+   */
+  public GradeHistogramBucket(String histogram, int score, long count) {
+    this.id = id(histogram, score);
+    this.histogram = histogram;
+    this.score = score;
+    this.count = count;
+    this.isNew = true;
+  }
+
+  /**
+   * Builds the ID of a bucket.
+   *
+   * @param histogram the histogram the bucket belongs to
+   * @param score the whole score counted
+   * @return the bucket ID
+   */
+  public static String id(String histogram, int score) {
+    return histogram + "#" + score;
+  }
+
+  /**
+   * Names the histogram of the scores awarded in a module.
+   *
+   * @param moduleCode the module code
+   * @return the histogram name
+   */
+  public static String forModule(String moduleCode) {
+    return GradeAggregate.id(Scope.MODULE, moduleCode);
+  }
+
+  /**
+   * Finds the bucket counting a score. Scores are rounded to the nearest whole score, and
+   * scores below 0 or above 100 are counted in the first or last bucket.
+   *
+   * @param score the score or average score
+   * @return the bucket index, from 0 to 100
+   */
+  public static int bucket(double score) {
+    return (int) Math.min(BUCKETS - 1, Math.max(0, Math.round(score)));
+  }
+
+  @Override
+  public String getId() {
+    return id;
+  }
+
+  @Override
+  public boolean isNew() {
+    return isNew;
+  }
+
+  @PostLoad
+  @PostPersist
+  void markNotNew() {
+    isNew = false;
+  }
+
+  public String getHistogram() {
+    return histogram;
+  }
+
+  public int getScore() {
+    return score;
+  }
+
+  public long getCount() {
+    return count;
+  }
+}
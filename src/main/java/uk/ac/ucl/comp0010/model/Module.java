@@ -1,18 +1,29 @@
 package uk.ac.ucl.comp0010.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 /**
  * Represents a course module in the grade management system.
  * Contains module information including code, name, and whether it is mandatory non-condonable.
  */
 @Entity
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "modules")
 @Table(name = "module")
 public class Module {
 
+  /**
+   * Credit value assumed for modules whose credits are not recorded.
+   */
+  public static final int DEFAULT_CREDITS = 15;
+
   @Id
   @Column(name = "code", length = 10)
   private String code;
@@ -23,6 +34,9 @@ public class Module {
   @Column(name = "mnc")
   private Boolean mnc;
 
+  @Column(name = "credits")
+  private Integer credits;
+
   /**
    * Default constructor for JPA.
    */
@@ -42,6 +56,19 @@ public class Module {
     this.mnc = mnc;
   }
 
+  /**
+   * Constructor with all fields and a credit value.
+   *
+   * @param code the module code (e.g., COMP0010)
+   * @param name the module name
+   * @param mnc whether the module is mandatory non-condonable
+   * @param credits the credit value of the module, weighting its grades in degree averages
+   */
+  public Module(String code, String name, Boolean mnc, Integer credits) {
+    this(code, name, mnc);
+    this.credits = credits;
+  }
+
   public String getCode() {
     return code;
   }
@@ -65,4 +92,22 @@ public class Module {
   public void setMnc(Boolean mnc) {
     this.mnc = mnc;
   }
+
+  public Integer getCredits() {
+    return credits;
+  }
+
+  public void setCredits(Integer credits) {
+    this.credits = credits;
+  }
+
+  /**
+   * Credit value used to weight the module's grades.
+   *
+   * @return the recorded credits, or {@value #DEFAULT_CREDITS} if none are recorded
+   */
+  @JsonIgnore
+  public int getCreditsOrDefault() {
+    return credits == null ? DEFAULT_CREDITS : credits;
+  }
 }
@@ -2,19 +2,24 @@ package uk.ac.ucl.comp0010.model;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 
 /**
  * Represents a student's registration for a module.
  * Links students to the modules they are enrolled in.
  */
 @Entity
-@Table(name = "registration")
+@Table(name = "registration", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_registration_student_module",
+        columnNames = {"student_id", "module_code"})
+})
 public class Registration {
 
   @Id
@@ -22,11 +27,11 @@ public class Registration {
   @Column(name = "id")
   private Integer id;
 
-  @ManyToOne
+  @ManyToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "student_id", referencedColumnName = "id")
   private Student student;
 
-  @ManyToOne
+  @ManyToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "module_code", referencedColumnName = "code")
   private Module module;
 
@@ -0,0 +1,120 @@
+package uk.ac.ucl.comp0010.repository;
+
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.data.rest.core.annotation.RepositoryRestResource;
+import uk.ac.ucl.comp0010.dto.GradeTotals;
+import uk.ac.ucl.comp0010.model.GradeAggregate;
+
+/**
+ * Repository interface for GradeAggregate entity.
+ * Not exported over REST; aggregates are maintained by GradeAggregateService.
+ */
+@RepositoryRestResource(exported = false)
+public interface GradeAggregateRepository extends CrudRepository<GradeAggregate, String> {
+
+  /**
+   * Reads the totals of one aggregate without loading the entity, so the result always
+   * reflects the latest {@link #applyDelta} in the current transaction.
+   *
+   * @param id the aggregate ID
+   * @return the totals keyed by aggregate ID, or null if there is no such aggregate
+   */
+  @Query("SELECT a.id AS key, a.count AS count, a.sum AS sum, a.sumOfSquares AS sumOfSquares "
+      + "FROM GradeAggregate a WHERE a.id = :id")
+  GradeTotals findTotalsById(@Param("id") String id);
+
+  /**
+   * Reads the totals of several aggregates in one query, without loading the entities.
+   *
+   * @param ids the aggregate IDs
+   * @return the totals keyed by aggregate ID, for the aggregates that exist
+   */
+  @Query("SELECT a.id AS key, a.count AS count, a.sum AS sum, a.sumOfSquares AS sumOfSquares "
+      + "FROM GradeAggregate a WHERE a.id IN :ids")
+  List<GradeTotals> findTotalsByIdIn(@Param("ids") Collection<String> ids);
+
+  /**
+   * Reads the totals of every aggregate.
+   *
+   * @return the totals keyed by aggregate ID
+   */
+  @Query("SELECT a.id AS key, a.count AS count, a.sum AS sum, a.sumOfSquares AS sumOfSquares "
+      + "FROM GradeAggregate a")
+  List<GradeTotals> findAllTotals();
+
+  /**
+   * Adds a change to an aggregate in a single UPDATE, so concurrent writers do not lose
+   * each other's increments.
+   *
+   * @param id the aggregate ID
+   * @param count change in the number of scored grades
+   * @param sum change in the sum of scores
+   * @param sumOfSquares change in the sum of squared scores
+   * @return the number of rows updated; zero if the aggregate does not exist yet
+   */
+  @Modifying
+  @Query("UPDATE GradeAggregate a SET a.count = a.count + :count, a.sum = a.sum + :sum, "
+      + "a.sumOfSquares = a.sumOfSquares + :sumOfSquares WHERE a.id = :id")
+  int applyDelta(@Param("id") String id, @Param("count") long count, @Param("sum") long sum,
+      @Param("sumOfSquares") long sumOfSquares);
+
+  /**
+   * Inserts an aggregate with no grades unless one with the same ID already exists. A
+   * concurrent transaction inserting the same aggregate makes this wait for it to finish and
+   * then do nothing, so two first grades for a new aggregate cannot both insert it. Followed
+   * by {@link #applyDelta}, this adds to an aggregate whether or not it existed.
+   *
+   * @param id the aggregate ID
+   * @param scope the scope name
+   * @param key the student ID, module code or academic year
+   * @return the number of rows inserted
+   */
+  @Modifying
+  @Query(value = "INSERT INTO grade_aggregate (id, scope, scope_key, grade_count, score_sum, "
+      + "score_sum_of_squares) VALUES (:id, :scope, :key, 0, 0, 0) ON CONFLICT DO NOTHING",
+      nativeQuery = true)
+  int insertIfAbsent(@Param("id") String id, @Param("scope") String scope,
+      @Param("key") String key);
+
+  /**
+   * Deletes every aggregate in one statement and detaches any loaded aggregates.
+   */
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("DELETE FROM GradeAggregate")
+  void deleteAllInBulk();
+
+  /**
+   * Recomputes the totals of every student from the grade table.
+   *
+   * @return the totals keyed by student ID
+   */
+  @Query("SELECT CAST(g.student.id AS String) AS key, COUNT(g.score) AS count, "
+      + "SUM(g.score) AS sum, SUM(g.score * g.score) AS sumOfSquares "
+      + "FROM Grade g GROUP BY g.student.id")
+  List<GradeTotals> computeStudentTotals();
+
+  /**
+   * Recomputes the totals of every module from the grade table.
+   *
+   * @return the totals keyed by module code
+   */
+  @Query("SELECT g.module.code AS key, COUNT(g.score) AS count, "
+      + "SUM(g.score) AS sum, SUM(g.score * g.score) AS sumOfSquares "
+      + "FROM Grade g GROUP BY g.module.code")
+  List<GradeTotals> computeModuleTotals();
+
+  /**
+   * Recomputes the totals of every academic year from the grade table.
+   *
+   * @return the totals keyed by academic year
+   */
+  @Query("SELECT g.academicYear AS key, COUNT(g.score) AS count, "
+      + "SUM(g.score) AS sum, SUM(g.score * g.score) AS sumOfSquares "
+      + "FROM Grade g WHERE g.academicYear IS NOT NULL GROUP BY g.academicYear")
+  List<GradeTotals> computeAcademicYearTotals();
+}
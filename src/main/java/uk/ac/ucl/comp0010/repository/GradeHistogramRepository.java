@@ -0,0 +1,81 @@
+package uk.ac.ucl.comp0010.repository;
+
+import java.util.List;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.data.rest.core.annotation.RepositoryRestResource;
+import uk.ac.ucl.comp0010.dto.ScoreCount;
+import uk.ac.ucl.comp0010.model.GradeHistogramBucket;
+
+/**
+ * Repository interface for GradeHistogramBucket entity.
+ * Not exported over REST; histograms are maintained by GradeAggregateService.
+ */
+@RepositoryRestResource(exported = false)
+public interface GradeHistogramRepository extends CrudRepository<GradeHistogramBucket, String> {
+
+  /**
+   * Reads the buckets of one histogram without loading the entities, so the result always
+   * reflects the latest {@link #applyDelta} in the current transaction.
+   *
+   * @param histogram the histogram name
+   * @return the counts keyed by histogram name, one row per stored bucket
+   */
+  @Query("SELECT new uk.ac.ucl.comp0010.dto.ScoreCount(b.histogram, b.score, b.count) "
+      + "FROM GradeHistogramBucket b WHERE b.histogram = :histogram")
+  List<ScoreCount> findCountsByHistogram(@Param("histogram") String histogram);
+
+  /**
+   * Reads the buckets of every histogram.
+   *
+   * @return the counts keyed by histogram name, one row per stored bucket
+   */
+  @Query("SELECT new uk.ac.ucl.comp0010.dto.ScoreCount(b.histogram, b.score, b.count) "
+      + "FROM GradeHistogramBucket b")
+  List<ScoreCount> findAllCounts();
+
+  /**
+   * Adds a change to a bucket in a single UPDATE, so concurrent writers do not lose each
+   * other's increments.
+   *
+   * @param id the bucket ID
+   * @param count change in the number of grades
+   * @return the number of rows updated; zero if the bucket does not exist yet
+   */
+  @Modifying
+  @Query("UPDATE GradeHistogramBucket b SET b.count = b.count + :count WHERE b.id = :id")
+  int applyDelta(@Param("id") String id, @Param("count") long count);
+
+  /**
+   * Inserts an empty bucket unless one with the same ID already exists, waiting for a
+   * concurrent transaction inserting the same bucket rather than failing on its key.
+   *
+   * @param id the bucket ID
+   * @param histogram the histogram name
+   * @param score the whole score counted
+   * @return the number of rows inserted
+   */
+  @Modifying
+  @Query(value = "INSERT INTO grade_histogram (id, histogram, score, grade_count) "
+      + "VALUES (:id, :histogram, :score, 0) ON CONFLICT DO NOTHING", nativeQuery = true)
+  int insertIfAbsent(@Param("id") String id, @Param("histogram") String histogram,
+      @Param("score") int score);
+
+  /**
+   * Deletes every bucket in one statement and detaches any loaded buckets.
+   */
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("DELETE FROM GradeHistogramBucket")
+  void deleteAllInBulk();
+
+  /**
+   * Recomputes the number of grades at each score of every module from the grade table.
+   *
+   * @return the counts keyed by module code
+   */
+  @Query("SELECT new uk.ac.ucl.comp0010.dto.ScoreCount(g.module.code, g.score, COUNT(g)) "
+      + "FROM Grade g WHERE g.score IS NOT NULL GROUP BY g.module.code, g.score")
+  List<ScoreCount> computeModuleScoreCounts();
+}
@@ -1,7 +1,22 @@
 package uk.ac.ucl.comp0010.repository;
 
+import jakarta.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.PagingAndSortingRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.data.rest.core.annotation.RepositoryRestResource;
+import org.springframework.data.rest.core.annotation.RestResource;
+import uk.ac.ucl.comp0010.dto.GradeRow;
+import uk.ac.ucl.comp0010.dto.GradeStatistics;
+import uk.ac.ucl.comp0010.dto.GradeSummary;
 import uk.ac.ucl.comp0010.model.Grade;
 
 /**
@@ -9,5 +24,233 @@ import uk.ac.ucl.comp0010.model.Grade;
  * Provides CRUD operations and is automatically exposed as a REST endpoint.
  */
 @RepositoryRestResource
-public interface GradeRepository extends CrudRepository<Grade, Integer> {
+public interface GradeRepository extends CrudRepository<Grade, Integer>,
+    PagingAndSortingRepository<Grade, Integer>, GradeRepositoryCustom {
+
+  /**
+   * Number of rows the JDBC driver fetches per round trip when streaming grades.
+   */
+  String STREAM_FETCH_SIZE = "500";
+
+  /**
+   * Finds a grade by ID together with its student and module in one query.
+   *
+   * @param id the grade ID
+   * @return the grade, if it exists
+   */
+  @Override
+  @EntityGraph(attributePaths = {"student", "module"})
+  Optional<Grade> findById(Integer id);
+
+  /**
+   * Finds all grades awarded to a student, fetching their students and modules in the same
+   * query. Resolved through the index on {@code grade.student_id}.
+   *
+   * @param studentId the student ID
+   * @return list of grades for the student
+   */
+  @EntityGraph(attributePaths = {"student", "module"})
+  List<Grade> findByStudentId(Integer studentId);
+
+  /**
+   * Finds all grades awarded in a module, fetching their students and modules in the same
+   * query. Resolved through the index on {@code grade.module_code}.
+   *
+   * @param moduleCode the module code
+   * @return list of grades for the module
+   */
+  @EntityGraph(attributePaths = {"student", "module"})
+  List<Grade> findByModuleCode(String moduleCode);
+
+  /**
+   * Finds all grades awarded to any of several students in one query, fetching their
+   * students and modules in the same query.
+   *
+   * @param studentIds the student IDs
+   * @return grades for the students, ordered by grade ID
+   */
+  @EntityGraph(attributePaths = {"student", "module"})
+  List<Grade> findByStudentIdInOrderById(Collection<Integer> studentIds);
+
+  /**
+   * Finds all grades awarded in any of several modules in one query, fetching their
+   * students and modules in the same query.
+   *
+   * @param moduleCodes the module codes
+   * @return grades for the modules, ordered by grade ID
+   */
+  @EntityGraph(attributePaths = {"student", "module"})
+  List<Grade> findByModuleCodeInOrderById(Collection<String> moduleCodes);
+
+  /**
+   * Finds a student's grades as summaries carrying only the student and module names.
+   *
+   * @param studentId the student ID
+   * @return grade summaries ordered by grade ID
+   */
+  @Query("SELECT new uk.ac.ucl.comp0010.dto.GradeSummary(g.id, g.score, g.academicYear, "
+      + "s.id, CONCAT(s.firstName, ' ', s.lastName), m.code, m.name) "
+      + "FROM Grade g JOIN g.student s JOIN g.module m WHERE s.id = :studentId ORDER BY g.id")
+  List<GradeSummary> findSummariesByStudentId(@Param("studentId") Integer studentId);
+
+  /**
+   * Finds a module's grades as summaries carrying only the student and module names.
+   *
+   * @param moduleCode the module code
+   * @return grade summaries ordered by grade ID
+   */
+  @Query("SELECT new uk.ac.ucl.comp0010.dto.GradeSummary(g.id, g.score, g.academicYear, "
+      + "s.id, CONCAT(s.firstName, ' ', s.lastName), m.code, m.name) "
+      + "FROM Grade g JOIN g.student s JOIN g.module m WHERE m.code = :moduleCode ORDER BY g.id")
+  List<GradeSummary> findSummariesByModuleCode(@Param("moduleCode") String moduleCode);
+
+  /**
+   * Finds the grades of several students as summaries in one query.
+   *
+   * @param studentIds the student IDs
+   * @return grade summaries ordered by grade ID
+   */
+  @Query("SELECT new uk.ac.ucl.comp0010.dto.GradeSummary(g.id, g.score, g.academicYear, "
+      + "s.id, CONCAT(s.firstName, ' ', s.lastName), m.code, m.name) "
+      + "FROM Grade g JOIN g.student s JOIN g.module m WHERE s.id IN :studentIds ORDER BY g.id")
+  List<GradeSummary> findSummariesByStudentIdIn(
+      @Param("studentIds") Collection<Integer> studentIds);
+
+  /**
+   * Finds the grades of several modules as summaries in one query.
+   *
+   * @param moduleCodes the module codes
+   * @return grade summaries ordered by grade ID
+   */
+  @Query("SELECT new uk.ac.ucl.comp0010.dto.GradeSummary(g.id, g.score, g.academicYear, "
+      + "s.id, CONCAT(s.firstName, ' ', s.lastName), m.code, m.name) "
+      + "FROM Grade g JOIN g.student s JOIN g.module m WHERE m.code IN :moduleCodes "
+      + "ORDER BY g.id")
+  List<GradeSummary> findSummariesByModuleCodeIn(
+      @Param("moduleCodes") Collection<String> moduleCodes);
+
+  /**
+   * Finds a student's grades as flat rows referring to the student and module by ID.
+   * Reads only the grade table.
+   *
+   * @param studentId the student ID
+   * @return grade rows ordered by grade ID
+   */
+  @Query("SELECT new uk.ac.ucl.comp0010.dto.GradeRow(g.id, g.student.id, g.module.code, "
+      + "g.score, g.academicYear) FROM Grade g WHERE g.student.id = :studentId ORDER BY g.id")
+  List<GradeRow> findRowsByStudentId(@Param("studentId") Integer studentId);
+
+  /**
+   * Finds a module's grades as flat rows referring to the student and module by ID.
+   * Reads only the grade table.
+   *
+   * @param moduleCode the module code
+   * @return grade rows ordered by grade ID
+   */
+  @Query("SELECT new uk.ac.ucl.comp0010.dto.GradeRow(g.id, g.student.id, g.module.code, "
+      + "g.score, g.academicYear) FROM Grade g WHERE g.module.code = :moduleCode ORDER BY g.id")
+  List<GradeRow> findRowsByModuleCode(@Param("moduleCode") String moduleCode);
+
+  /**
+   * Finds the grades of several students as flat rows in one query.
+   * Reads only the grade table.
+   *
+   * @param studentIds the student IDs
+   * @return grade rows ordered by grade ID
+   */
+  @Query("SELECT new uk.ac.ucl.comp0010.dto.GradeRow(g.id, g.student.id, g.module.code, "
+      + "g.score, g.academicYear) FROM Grade g WHERE g.student.id IN :studentIds ORDER BY g.id")
+  List<GradeRow> findRowsByStudentIdIn(@Param("studentIds") Collection<Integer> studentIds);
+
+  /**
+   * Finds the grades of several modules as flat rows in one query.
+   * Reads only the grade table.
+   *
+   * @param moduleCodes the module codes
+   * @return grade rows ordered by grade ID
+   */
+  @Query("SELECT new uk.ac.ucl.comp0010.dto.GradeRow(g.id, g.student.id, g.module.code, "
+      + "g.score, g.academicYear) FROM Grade g WHERE g.module.code IN :moduleCodes "
+      + "ORDER BY g.id")
+  List<GradeRow> findRowsByModuleCodeIn(@Param("moduleCodes") Collection<String> moduleCodes);
+
+  /**
+   * Computes score statistics for a student in a single aggregate query. Grades without a
+   * score are not counted, as AVG and SUM skip them too.
+   *
+   * @param studentId the student ID
+   * @return the statistics; the count is zero if the student has no scored grades
+   */
+  @Query("SELECT new uk.ac.ucl.comp0010.dto.GradeStatistics(COUNT(g.score), AVG(g.score), "
+      + "MIN(g.score), MAX(g.score), SUM(g.score * g.score)) "
+      + "FROM Grade g WHERE g.student.id = :studentId")
+  GradeStatistics findStatisticsByStudentId(@Param("studentId") Integer studentId);
+
+  /**
+   * Computes score statistics for a module in a single aggregate query. Grades without a
+   * score are not counted.
+   *
+   * @param moduleCode the module code
+   * @return the statistics; the count is zero if the module has no scored grades
+   */
+  @Query("SELECT new uk.ac.ucl.comp0010.dto.GradeStatistics(COUNT(g.score), AVG(g.score), "
+      + "MIN(g.score), MAX(g.score), SUM(g.score * g.score)) "
+      + "FROM Grade g WHERE g.module.code = :moduleCode")
+  GradeStatistics findStatisticsByModuleCode(@Param("moduleCode") String moduleCode);
+
+  /**
+   * Finds which of the given write-behind tracking IDs are already on a saved grade.
+   *
+   * @param trackingIds the tracking IDs to look for
+   * @return the tracking IDs that are saved
+   */
+  @RestResource(exported = false)
+  @Query("SELECT g.trackingId FROM Grade g WHERE g.trackingId IN :trackingIds")
+  List<String> findSavedTrackingIds(@Param("trackingIds") Collection<String> trackingIds);
+
+  /**
+   * Streams the grades of a module as flat rows, ordered by grade ID.
+   * Must be consumed inside a transaction and closed after use, so it is not exported over
+   * REST.
+   *
+   * @param moduleCode the module code
+   * @return a stream of grade rows backed by an open cursor
+   */
+  @RestResource(exported = false)
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+  @Query("SELECT new uk.ac.ucl.comp0010.dto.GradeRow(g.id, g.student.id, g.module.code, "
+      + "g.score, g.academicYear) FROM Grade g WHERE g.module.code = :moduleCode ORDER BY g.id")
+  Stream<GradeRow> streamRowsByModuleCode(@Param("moduleCode") String moduleCode);
+
+  /**
+   * Streams the grades of an academic year cohort as flat rows, ordered by grade ID.
+   * Must be consumed inside a transaction and closed after use, so it is not exported over
+   * REST.
+   *
+   * @param academicYear the academic year (e.g., "2024-2025")
+   * @return a stream of grade rows backed by an open cursor
+   */
+  @RestResource(exported = false)
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+  @Query("SELECT new uk.ac.ucl.comp0010.dto.GradeRow(g.id, g.student.id, g.module.code, "
+      + "g.score, g.academicYear) FROM Grade g WHERE g.academicYear = :academicYear "
+      + "ORDER BY g.id")
+  Stream<GradeRow> streamRowsByAcademicYear(@Param("academicYear") String academicYear);
+
+  /**
+   * Streams the scored grades of an academic year cohort, or of every year, as flat rows
+   * grouped by student and then by module, so each student's grades are contiguous.
+   * Must be consumed inside a transaction and closed after use, so it is not exported over
+   * REST.
+   *
+   * @param academicYear the academic year (e.g., "2024-2025"), or null for every year
+   * @return a stream of grade rows backed by an open cursor
+   */
+  @RestResource(exported = false)
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+  @Query("SELECT new uk.ac.ucl.comp0010.dto.GradeRow(g.id, g.student.id, g.module.code, "
+      + "g.score, g.academicYear) FROM Grade g WHERE g.score IS NOT NULL "
+      + "AND (:academicYear IS NULL OR g.academicYear = :academicYear) "
+      + "ORDER BY g.student.id, g.module.code")
+  Stream<GradeRow> streamScoredRowsByStudent(@Param("academicYear") String academicYear);
 }
@@ -0,0 +1,32 @@
+package uk.ac.ucl.comp0010.repository;
+
+import uk.ac.ucl.comp0010.dto.GradeCursor;
+import uk.ac.ucl.comp0010.dto.GradePage;
+
+/**
+ * Custom queries for the Grade repository that Spring Data cannot derive.
+ */
+public interface GradeRepositoryCustom {
+
+  /**
+   * Finds one keyset page of a student's grades, selecting only the columns of a view.
+   *
+   * @param studentId the student ID
+   * @param cursor the page to fetch
+   * @param type {@code Grade}, {@code GradeSummary} or {@code GradeRow}
+   * @param <T> the row type
+   * @return the page of rows
+   */
+  <T> GradePage<T> findPageByStudentId(Integer studentId, GradeCursor cursor, Class<T> type);
+
+  /**
+   * Finds one keyset page of a module's grades, selecting only the columns of a view.
+   *
+   * @param moduleCode the module code
+   * @param cursor the page to fetch
+   * @param type {@code Grade}, {@code GradeSummary} or {@code GradeRow}
+   * @param <T> the row type
+   * @return the page of rows
+   */
+  <T> GradePage<T> findPageByModuleCode(String moduleCode, GradeCursor cursor, Class<T> type);
+}
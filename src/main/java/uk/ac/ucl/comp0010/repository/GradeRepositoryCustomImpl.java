@@ -0,0 +1,152 @@
+package uk.ac.ucl.comp0010.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import java.util.ArrayList;
+import java.util.List;
+import uk.ac.ucl.comp0010.dto.GradeCursor;
+import uk.ac.ucl.comp0010.dto.GradePage;
+import uk.ac.ucl.comp0010.dto.GradeRow;
+import uk.ac.ucl.comp0010.dto.GradeSummary;
+import uk.ac.ucl.comp0010.model.Grade;
+import uk.ac.ucl.comp0010.model.Module;
+import uk.ac.ucl.comp0010.model.Student;
+
+/**
+ * Keyset pagination queries for grades.
+ * Pages are found with a "strictly after the last row" predicate on (sort key, id) rather
+ * than an offset, so the cost of a page depends on its size, not on how deep it is.
+ */
+public class GradeRepositoryCustomImpl implements GradeRepositoryCustom {
+
+  /**
+   * Sort key used for grades without a score, so they still have a position in the ordering.
+   */
+  static final int MISSING_SCORE = -1;
+
+  /**
+   * Sort key used for grades without an academic year.
+   */
+  static final String MISSING_ACADEMIC_YEAR = "";
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  @Override
+  public <T> GradePage<T> findPageByStudentId(Integer studentId, GradeCursor cursor,
+      Class<T> type) {
+    return findPage("student", "id", studentId, cursor, type);
+  }
+
+  @Override
+  public <T> GradePage<T> findPageByModuleCode(String moduleCode, GradeCursor cursor,
+      Class<T> type) {
+    return findPage("module", "code", moduleCode, cursor, type);
+  }
+
+  @SuppressWarnings({"rawtypes", "unchecked"})
+  private <T> GradePage<T> findPage(String association, String attribute, Object value,
+      GradeCursor cursor, Class<T> type) {
+    CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+    CriteriaQuery<Tuple> query = cb.createTupleQuery();
+    Root<Grade> grade = query.from(Grade.class);
+    Path<Integer> id = grade.get("id");
+    Expression<Comparable> key = sortKey(cb, grade, cursor.getSort());
+
+    List<Predicate> where = new ArrayList<>();
+    where.add(cb.equal(grade.get(association).get(attribute), value));
+    if (cursor.getAfterId() != null) {
+      Predicate idAfter = cursor.isDescending()
+          ? cb.lessThan(id, cursor.getAfterId())
+          : cb.greaterThan(id, cursor.getAfterId());
+      if (cursor.getSort() == GradeCursor.SortKey.ID) {
+        where.add(idAfter);
+      } else {
+        Comparable afterKey = (Comparable) cursor.getAfterKey();
+        Predicate keyAfter = cursor.isDescending()
+            ? cb.lessThan(key, afterKey)
+            : cb.greaterThan(key, afterKey);
+        where.add(cb.or(keyAfter, cb.and(cb.equal(key, afterKey), idAfter)));
+      }
+    }
+
+    query.multiselect(selection(cb, grade, type), key, id)
+        .where(where.toArray(new Predicate[0]))
+        .orderBy(order(cb, key, cursor), order(cb, id, cursor));
+
+    // Fetch one extra row to learn whether another page follows.
+    List<Tuple> rows = entityManager.createQuery(query)
+        .setMaxResults(cursor.getLimit() + 1)
+        .getResultList();
+
+    boolean hasNext = rows.size() > cursor.getLimit();
+    List<Tuple> pageRows = hasNext ? rows.subList(0, cursor.getLimit()) : rows;
+    List<T> content = new ArrayList<>(pageRows.size());
+    for (Tuple row : pageRows) {
+      content.add(row.get(0, type));
+    }
+
+    String nextCursor = null;
+    if (hasNext) {
+      Tuple last = pageRows.get(pageRows.size() - 1);
+      nextCursor = GradeCursor.encode(cursor.getSort(), last.get(1), last.get(2, Integer.class));
+    }
+    return new GradePage<>(content, nextCursor);
+  }
+
+  /**
+   * Builds the first column of a page query: the entity itself, or a constructor expression
+   * that reads only the columns a DTO needs.
+   */
+  private static Selection<?> selection(CriteriaBuilder cb, Root<Grade> grade, Class<?> type) {
+    if (type == Grade.class) {
+      // The entity view renders the student and module, so load them in the same query.
+      grade.fetch("student");
+      grade.fetch("module");
+      return grade;
+    }
+    if (type == GradeRow.class) {
+      return cb.construct(GradeRow.class, grade.get("id"), grade.get("student").get("id"),
+          grade.get("module").get("code"), grade.get("score"), grade.get("academicYear"));
+    }
+    if (type == GradeSummary.class) {
+      Join<Grade, Student> student = grade.join("student");
+      Join<Grade, Module> module = grade.join("module");
+      Expression<String> name = cb.concat(
+          cb.concat(student.<String>get("firstName"), " "), student.<String>get("lastName"));
+      return cb.construct(GradeSummary.class, grade.get("id"), grade.get("score"),
+          grade.get("academicYear"), student.get("id"), name, module.get("code"),
+          module.get("name"));
+    }
+    throw new IllegalArgumentException("Unsupported grade projection: " + type.getName());
+  }
+
+  @SuppressWarnings({"rawtypes", "unchecked"})
+  private static Expression<Comparable> sortKey(CriteriaBuilder cb, Root<Grade> grade,
+      GradeCursor.SortKey sort) {
+    switch (sort) {
+      case SCORE:
+        return (Expression) cb.coalesce(grade.<Integer>get("score"), MISSING_SCORE);
+      case ACADEMIC_YEAR:
+        return (Expression) cb.coalesce(grade.<String>get("academicYear"),
+            MISSING_ACADEMIC_YEAR);
+      default:
+        return (Expression) grade.get("id");
+    }
+  }
+
+  private static Order order(CriteriaBuilder cb, Expression<?> expression,
+      GradeCursor cursor) {
+    return cursor.isDescending() ? cb.desc(expression) : cb.asc(expression);
+  }
+}
@@ -1,13 +1,51 @@
 package uk.ac.ucl.comp0010.repository;
 
+import java.util.Optional;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.rest.core.annotation.RepositoryRestResource;
+import uk.ac.ucl.comp0010.config.CacheConfig;
 import uk.ac.ucl.comp0010.model.Module;
 
 /**
  * Repository interface for Module entity.
  * Provides CRUD operations and is automatically exposed as a REST endpoint.
+ * Lookups by code are served from the {@value CacheConfig#MODULES} cache; every write,
+ * including those made through the REST endpoint, evicts the affected entries.
  */
 @RepositoryRestResource
 public interface ModuleRepository extends CrudRepository<Module, String> {
+
+  @Override
+  @Cacheable(cacheNames = CacheConfig.MODULES, unless = "#result == null")
+  Optional<Module> findById(String code);
+
+  @Override
+  @CacheEvict(cacheNames = CacheConfig.MODULES, key = "#p0.code")
+  <S extends Module> S save(S entity);
+
+  @Override
+  @CacheEvict(cacheNames = CacheConfig.MODULES, allEntries = true)
+  <S extends Module> Iterable<S> saveAll(Iterable<S> entities);
+
+  @Override
+  @CacheEvict(cacheNames = CacheConfig.MODULES)
+  void deleteById(String code);
+
+  @Override
+  @CacheEvict(cacheNames = CacheConfig.MODULES, key = "#p0.code")
+  void delete(Module entity);
+
+  @Override
+  @CacheEvict(cacheNames = CacheConfig.MODULES, allEntries = true)
+  void deleteAllById(Iterable<? extends String> codes);
+
+  @Override
+  @CacheEvict(cacheNames = CacheConfig.MODULES, allEntries = true)
+  void deleteAll(Iterable<? extends Module> entities);
+
+  @Override
+  @CacheEvict(cacheNames = CacheConfig.MODULES, allEntries = true)
+  void deleteAll();
 }
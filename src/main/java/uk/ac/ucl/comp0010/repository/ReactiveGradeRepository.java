@@ -0,0 +1,87 @@
+package uk.ac.ucl.comp0010.repository;
+
+import io.r2dbc.spi.Readable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import uk.ac.ucl.comp0010.dto.GradeSummary;
+
+/**
+ * Non-blocking reads of grades and grade aggregates over R2DBC.
+ * Rows are emitted as they are read, so a slow subscriber holds a cursor rather than a
+ * thread and a fully materialised list. Only committed data is visible.
+ */
+@Repository
+public class ReactiveGradeRepository {
+
+  // The student name is joined in SQL with the same expression Hibernate renders for the
+  // JPQL CONCAT of the blocking summaries, so both give the same name, or null when a part
+  // is missing.
+  private static final String SUMMARY_SELECT = "SELECT g.id, g.score, g.academic_year, "
+      + "s.id AS student_id, s.first_name || ' ' || s.last_name AS student_name, m.code, "
+      + "m.name "
+      + "FROM grade g JOIN student s ON s.id = g.student_id "
+      + "JOIN module m ON m.code = g.module_code ";
+
+  private final DatabaseClient databaseClient;
+
+  /**
+   * Constructor for dependency injection.
+   *
+   * @param databaseClient the reactive database client
+   */
+  @Autowired
+  public ReactiveGradeRepository(DatabaseClient databaseClient) {
+    this.databaseClient = databaseClient;
+  }
+
+  /**
+   * Streams a student's grades as summaries.
+   *
+   * @param studentId the student ID
+   * @return grade summaries ordered by grade ID
+   */
+  public Flux<GradeSummary> findSummariesByStudentId(Integer studentId) {
+    return databaseClient.sql(SUMMARY_SELECT + "WHERE g.student_id = :studentId ORDER BY g.id")
+        .bind("studentId", studentId)
+        .map(ReactiveGradeRepository::toSummary)
+        .all();
+  }
+
+  /**
+   * Streams a module's grades as summaries.
+   *
+   * @param moduleCode the module code
+   * @return grade summaries ordered by grade ID
+   */
+  public Flux<GradeSummary> findSummariesByModuleCode(String moduleCode) {
+    return databaseClient.sql(SUMMARY_SELECT + "WHERE g.module_code = :moduleCode ORDER BY g.id")
+        .bind("moduleCode", moduleCode)
+        .map(ReactiveGradeRepository::toSummary)
+        .all();
+  }
+
+  /**
+   * Reads the average score of one grade aggregate.
+   *
+   * @param id the aggregate ID
+   * @return the average, or empty if the aggregate does not exist or has no scored grades
+   */
+  public Mono<Double> findAverageById(String id) {
+    return databaseClient.sql("SELECT score_sum, grade_count FROM grade_aggregate "
+        + "WHERE id = :id AND grade_count > 0")
+        .bind("id", id)
+        .map(row -> (double) row.get("score_sum", Long.class)
+            / row.get("grade_count", Long.class))
+        .one();
+  }
+
+  private static GradeSummary toSummary(Readable row) {
+    return new GradeSummary(row.get("id", Integer.class), row.get("score", Integer.class),
+        row.get("academic_year", String.class), row.get("student_id", Integer.class),
+        row.get("student_name", String.class),
+        row.get("code", String.class), row.get("name", String.class));
+  }
+}
@@ -1,7 +1,12 @@
 package uk.ac.ucl.comp0010.repository;
 
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.data.rest.core.annotation.RepositoryRestResource;
+import uk.ac.ucl.comp0010.dto.RegistrationKey;
 import uk.ac.ucl.comp0010.model.Registration;
 
 /**
@@ -10,4 +15,27 @@ import uk.ac.ucl.comp0010.model.Registration;
  */
 @RepositoryRestResource
 public interface RegistrationRepository extends CrudRepository<Registration, Integer> {
+
+  /**
+   * Checks whether a student is registered for a module.
+   * Answered by a single probe of the unique (student_id, module_code) index.
+   *
+   * @param studentId the student ID
+   * @param moduleCode the module code
+   * @return true if a registration exists, false otherwise
+   */
+  boolean existsByStudentIdAndModuleCode(Integer studentId, String moduleCode);
+
+  /**
+   * Finds the (student, module) keys of all registrations matching any of the
+   * given students and modules in a single query.
+   *
+   * @param studentIds the student IDs to look up
+   * @param moduleCodes the module codes to look up
+   * @return the matching registration keys
+   */
+  @Query("SELECT r.student.id AS studentId, r.module.code AS moduleCode FROM Registration r "
+      + "WHERE r.student.id IN :studentIds AND r.module.code IN :moduleCodes")
+  List<RegistrationKey> findKeys(@Param("studentIds") Collection<Integer> studentIds,
+      @Param("moduleCodes") Collection<String> moduleCodes);
 }
@@ -1,13 +1,51 @@
 package uk.ac.ucl.comp0010.repository;
 
+import java.util.Optional;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.rest.core.annotation.RepositoryRestResource;
+import uk.ac.ucl.comp0010.config.CacheConfig;
 import uk.ac.ucl.comp0010.model.Student;
 
 /**
  * Repository interface for Student entity.
  * Provides CRUD operations and is automatically exposed as a REST endpoint.
+ * Lookups by ID are served from the {@value CacheConfig#STUDENTS} cache; every write,
+ * including those made through the REST endpoint, evicts the affected entries.
  */
 @RepositoryRestResource
 public interface StudentRepository extends CrudRepository<Student, Integer> {
+
+  @Override
+  @Cacheable(cacheNames = CacheConfig.STUDENTS, unless = "#result == null")
+  Optional<Student> findById(Integer id);
+
+  @Override
+  @CacheEvict(cacheNames = CacheConfig.STUDENTS, key = "#p0.id")
+  <S extends Student> S save(S entity);
+
+  @Override
+  @CacheEvict(cacheNames = CacheConfig.STUDENTS, allEntries = true)
+  <S extends Student> Iterable<S> saveAll(Iterable<S> entities);
+
+  @Override
+  @CacheEvict(cacheNames = CacheConfig.STUDENTS)
+  void deleteById(Integer id);
+
+  @Override
+  @CacheEvict(cacheNames = CacheConfig.STUDENTS, key = "#p0.id")
+  void delete(Student entity);
+
+  @Override
+  @CacheEvict(cacheNames = CacheConfig.STUDENTS, allEntries = true)
+  void deleteAllById(Iterable<? extends Integer> ids);
+
+  @Override
+  @CacheEvict(cacheNames = CacheConfig.STUDENTS, allEntries = true)
+  void deleteAll(Iterable<? extends Student> entities);
+
+  @Override
+  @CacheEvict(cacheNames = CacheConfig.STUDENTS, allEntries = true)
+  void deleteAll();
 }
@@ -0,0 +1,247 @@
+package uk.ac.ucl.comp0010.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Allocates the int columns of the {@link ColumnarGradeStore} as segments, one buffer per
+ * column, on the Java heap, in direct buffers outside it, or in files mapped into memory.
+ * Direct and mapped segments are not scanned or copied by the garbage collector, and mapped
+ * segments are paged in and out by the operating system and outlive the process.
+ * Off-heap segments are little-endian, so mapped files can be moved between machines.
+ */
+public class ColumnStorage {
+
+  /**
+   * Largest number of ints in one segment; a buffer is addressed by an int byte offset.
+   */
+  public static final int MAX_CAPACITY = Integer.MAX_VALUE / Integer.BYTES;
+
+  /**
+   * Where segments are allocated.
+   */
+  public enum Mode {
+    /**
+     * Heap buffers.
+     */
+    HEAP,
+    /**
+     * Direct buffers outside the heap, freed when the buffer is collected.
+     */
+    DIRECT,
+    /**
+     * Memory-mapped files in the storage directory.
+     */
+    MAPPED
+  }
+
+  private static final String PREFIX = "column-";
+  private static final String SUFFIX = ".bin";
+
+  private final Mode mode;
+  private final Path directory;
+
+  /**
+   * Creates storage of the given kind.
+   *
+   * @param mode where segments are allocated
+   * @param directory directory holding the files of mapped segments; unused otherwise
+   */
+  public ColumnStorage(Mode mode, Path directory) {
+    this.mode = mode;
+    this.directory = directory;
+  }
+
+  /**
+   * Where segments are allocated.
+   *
+   * @return the mode
+   */
+  public Mode getMode() {
+    return mode;
+  }
+
+  /**
+   * Allocates a zero-filled segment.
+   *
+   * @param capacity number of ints
+   * @return the segment
+   * @throws UncheckedIOException if the file of a mapped segment cannot be created
+   */
+  public Segment allocate(int capacity) {
+    checkCapacity(capacity);
+    switch (mode) {
+      case HEAP:
+        return new Segment(IntBuffer.allocate(capacity), null, null);
+      case DIRECT:
+        return new Segment(ByteBuffer.allocateDirect(capacity * Integer.BYTES)
+            .order(ByteOrder.LITTLE_ENDIAN).asIntBuffer(), null, null);
+      default:
+        try {
+          Files.createDirectories(directory);
+          Path file = Files.createTempFile(directory, PREFIX, SUFFIX);
+          return mapped(file, capacity);
+        } catch (IOException e) {
+          throw new UncheckedIOException("Could not create column segment", e);
+        }
+    }
+  }
+
+  /**
+   * Enlarges a segment, keeping its contents. A mapped segment is remapped over its
+   * extended file; others are copied into a new buffer.
+   *
+   * @param segment the segment, which must not be used afterwards
+   * @param capacity new number of ints, at least the current capacity
+   * @return the enlarged segment
+   * @throws UncheckedIOException if the file of a mapped segment cannot be extended
+   */
+  public Segment grow(Segment segment, int capacity) {
+    checkCapacity(capacity);
+    if (mode == Mode.MAPPED) {
+      try {
+        return mapped(directory.resolve(segment.name), capacity);
+      } catch (IOException e) {
+        throw new UncheckedIOException("Could not extend column segment " + segment.name, e);
+      }
+    }
+    Segment grown = allocate(capacity);
+    grown.ints.put(0, segment.ints, 0, segment.capacity());
+    return grown;
+  }
+
+  /**
+   * Maps the file of a segment written by an earlier process.
+   *
+   * @param name the segment name
+   * @param capacity number of ints
+   * @return the segment
+   * @throws IOException if the file is missing or shorter than the capacity
+   */
+  public Segment open(String name, int capacity) throws IOException {
+    checkCapacity(capacity);
+    Path file = directory.resolve(name);
+    if (Files.size(file) < (long) capacity * Integer.BYTES) {
+      throw new IOException("Column segment " + name + " is shorter than expected");
+    }
+    return mapped(file, capacity);
+  }
+
+  /**
+   * Gives up a segment. The file of a mapped segment is deleted; its memory, like that of a
+   * direct segment, is returned once the buffer is collected.
+   *
+   * @param segment the segment, which must not be used afterwards
+   */
+  public void release(Segment segment) {
+    if (segment.name != null) {
+      try {
+        Files.deleteIfExists(directory.resolve(segment.name));
+      } catch (IOException e) {
+        throw new UncheckedIOException("Could not delete column segment " + segment.name, e);
+      }
+    }
+  }
+
+  /**
+   * Writes the changes to a mapped segment through to its file.
+   *
+   * @param segment the segment
+   */
+  public void force(Segment segment) {
+    if (segment.mapped != null) {
+      segment.mapped.force();
+    }
+  }
+
+  /**
+   * Deletes every segment file in the storage directory except the given ones.
+   *
+   * @param kept names of the segments to keep
+   * @throws IOException if the directory cannot be listed or a file cannot be deleted
+   */
+  public void deleteSegmentsExcept(Set<String> kept) throws IOException {
+    if (mode != Mode.MAPPED || !Files.isDirectory(directory)) {
+      return;
+    }
+    try (Stream<Path> files = Files.list(directory)) {
+      for (Path file : files.toList()) {
+        String name = file.getFileName().toString();
+        if (name.startsWith(PREFIX) && name.endsWith(SUFFIX) && !kept.contains(name)) {
+          Files.delete(file);
+        }
+      }
+    }
+  }
+
+  private static Segment mapped(Path file, int capacity) throws IOException {
+    try (FileChannel channel = FileChannel.open(file,
+        StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+      MappedByteBuffer buffer =
+          channel.map(MapMode.READ_WRITE, 0, (long) capacity * Integer.BYTES);
+      return new Segment(buffer.order(ByteOrder.LITTLE_ENDIAN).asIntBuffer(), buffer,
+          file.getFileName().toString());
+    }
+  }
+
+  private static void checkCapacity(int capacity) {
+    if (capacity < 0 || capacity > MAX_CAPACITY) {
+      throw new IllegalArgumentException("Segment capacity must be between 0 and "
+          + MAX_CAPACITY);
+    }
+  }
+
+  /**
+   * A column of ints backed by one buffer, read and written by absolute index.
+   */
+  public static final class Segment {
+
+    private final IntBuffer ints;
+    private final MappedByteBuffer mapped;
+    private final String name;
+
+    private Segment(IntBuffer ints, MappedByteBuffer mapped, String name) {
+      this.ints = ints;
+      this.mapped = mapped;
+      this.name = name;
+    }
+
+    /**
+     * The ints of the segment.
+     *
+     * @return a view over the whole segment
+     */
+    public IntBuffer ints() {
+      return ints;
+    }
+
+    /**
+     * Number of ints the segment holds.
+     *
+     * @return the capacity
+     */
+    public int capacity() {
+      return ints.capacity();
+    }
+
+    /**
+     * Name of the file of a mapped segment, relative to the storage directory.
+     *
+     * @return the file name, or null if the segment is not mapped
+     */
+    public String getName() {
+      return name;
+    }
+  }
+}
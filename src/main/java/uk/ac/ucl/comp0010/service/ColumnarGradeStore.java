@@ -0,0 +1,917 @@
+package uk.ac.ucl.comp0010.service;
+
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.unit.DataSize;
+import uk.ac.ucl.comp0010.dto.GradeDistribution;
+import uk.ac.ucl.comp0010.dto.GradeRow;
+import uk.ac.ucl.comp0010.dto.GradeStatistics;
+import uk.ac.ucl.comp0010.event.GradeChangedEvent;
+import uk.ac.ucl.comp0010.model.GradeAggregate.Scope;
+import uk.ac.ucl.comp0010.service.ColumnStorage.Mode;
+import uk.ac.ucl.comp0010.service.ColumnStorage.Segment;
+
+/**
+ * Columnar copy of the grade table for analytical scans.
+ * Each grade is one row across parallel int columns: grade ID, student ID, score, and
+ * module code and academic year encoded as indexes into per-column dictionaries. Queries
+ * scan the filter column and the score column in a single loop without allocating per grade.
+ * Deleted rows are filled by moving the last row into their place, so the columns stay dense.
+ *
+ * <p>The copy is loaded from the grade table when the application is ready and then follows
+ * committed {@link GradeChangedEvent}s, so rolled-back changes never reach it. Changes that
+ * bypass the repositories, such as bulk loads, need a {@link #reload()}. Committed changes to
+ * the same grade can arrive in a different order from their commits, so {@link #reconcile()}
+ * compares the copy with the grade table on the schedule set by
+ * {@code grades.columnar.verify-cron} and reloads it when they differ.
+ * Enabled by {@code grades.columnar.enabled}.
+ *
+ * <p>The columns and the index from grade ID to row are {@link ColumnStorage} segments, on
+ * the heap, off the heap or in memory-mapped files under {@code grades.columnar.dir}, as set
+ * by {@code grades.columnar.storage}. Mapped files are kept on a clean shutdown and reopened
+ * on the next start instead of reading the grade table, provided their grade count and
+ * checksum still match the database. The segments of one copy may not exceed
+ * {@code grades.columnar.max-size}; a copy that outgrows it is dropped and the store stays
+ * unavailable, so callers read from the database, until a reload fits again.
+ */
+@Service
+@ConditionalOnProperty(value = "grades.columnar.enabled", havingValue = "true")
+public class ColumnarGradeStore {
+
+  /**
+   * Number of histogram buckets, one per whole score from 0 to 100.
+   */
+  public static final int HISTOGRAM_SIZE = 101;
+
+  private static final Logger LOG = LoggerFactory.getLogger(ColumnarGradeStore.class);
+  private static final int NO_SCORE = Integer.MIN_VALUE;
+  private static final int MISSING = -1;
+  private static final String MANIFEST = "columnar.properties";
+  // Grade count and the sum of a hash of each grade's columns, in the form Columns.checksum()
+  // hashes them: the first 8 bytes of the SHA-256 of "id|student|module|score|year".
+  private static final String CHECKSUM_SQL = "SELECT COUNT(*), COALESCE(SUM(CAST(SUBSTRING("
+      + "HASH('SHA-256', CONCAT(id, '|', COALESCE(CAST(student_id AS VARCHAR), ''), '|', "
+      + "COALESCE(module_code, ''), '|', COALESCE(CAST(score AS VARCHAR), ''), '|', "
+      + "COALESCE(academic_year, ''))) FROM 1 FOR 8) AS BIGINT)), 0) FROM grade";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final ColumnStorage storage;
+  private final Path directory;
+  private final long maxBytes;
+  private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+  private final Object reloading = new Object();
+  private Columns columns = emptyColumns();
+  private List<GradeChangedEvent> deferred = new ArrayList<>();
+  private volatile boolean loaded;
+  private volatile boolean overflowed;
+
+  /**
+   * Constructor for dependency injection.
+   *
+   * @param jdbcTemplate template used to read the grade table
+   * @param mode where the column segments are allocated
+   * @param directory directory of the mapped segment files; required for mapped storage
+   * @param maxSize largest total size of the segments of one copy
+   */
+  @Autowired
+  public ColumnarGradeStore(JdbcTemplate jdbcTemplate,
+      @Value("${grades.columnar.storage:heap}") Mode mode,
+      @Value("${grades.columnar.dir:}") String directory,
+      @Value("${grades.columnar.max-size:1GB}") DataSize maxSize) {
+    if (mode == Mode.MAPPED && directory.isEmpty()) {
+      throw new IllegalArgumentException("grades.columnar.dir is required for mapped storage");
+    }
+    this.jdbcTemplate = jdbcTemplate;
+    this.directory = directory.isEmpty() ? null : Path.of(directory);
+    this.storage = new ColumnStorage(mode, this.directory);
+    this.maxBytes = maxSize.toBytes();
+  }
+
+  /**
+   * Makes the store available when the application is ready: from the mapped files of the
+   * last clean shutdown when they still match the grade table, otherwise by a
+   * {@link #reload()}. Changes committed before this are applied on top of reopened files.
+   *
+   * @return the number of grades held
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public int open() {
+    if (storage.getMode() == Mode.MAPPED && !loaded) {
+      synchronized (reloading) {
+        final long started = System.nanoTime();
+        Columns restored = null;
+        try {
+          restored = restore();
+        } catch (IOException | RuntimeException e) {
+          LOG.warn("Could not reopen the columnar store files in {}; reloading", directory, e);
+        }
+        if (restored != null && install(restored)) {
+          LOG.info("Reopened {} grades from the columnar store files in {} ms", restored.size,
+              (System.nanoTime() - started) / 1_000_000);
+        }
+      }
+    }
+    return loaded ? size() : reload();
+  }
+
+  /**
+   * Replaces the copy with the current contents of the grade table.
+   * Queries keep using the previous copy until the new one is complete, and changes committed
+   * while it loads are applied to both.
+   *
+   * @return the number of grades loaded, or 0 if they do not fit in
+   *     {@code grades.columnar.max-size}
+   */
+  public int reload() {
+    synchronized (reloading) {
+      final long started = System.nanoTime();
+      lock.writeLock().lock();
+      try {
+        deferred = new ArrayList<>();
+      } finally {
+        lock.writeLock().unlock();
+      }
+
+      Columns fresh = null;
+      try {
+        fresh = new Columns(storage, maxBytes, 1024);
+        Columns target = fresh;
+        jdbcTemplate.query(
+            "SELECT id, student_id, module_code, score, academic_year FROM grade", rs -> {
+              int score = rs.getInt(4);
+              target.upsert(rs.getInt(1), rs.getInt(2), rs.getString(3),
+                  rs.wasNull() ? NO_SCORE : score, rs.getString(5));
+            });
+      } catch (RuntimeException e) {
+        if (fresh != null) {
+          fresh.release();
+        }
+        lock.writeLock().lock();
+        try {
+          deferred = null;
+          if (e instanceof OverCapacityException) {
+            overflow();
+            return 0;
+          }
+        } finally {
+          lock.writeLock().unlock();
+        }
+        throw e;
+      }
+
+      if (!install(fresh)) {
+        return 0;
+      }
+      LOG.info("Loaded {} grades into the columnar store ({}) in {} ms", fresh.size,
+          storage.getMode(), (System.nanoTime() - started) / 1_000_000);
+      return fresh.size;
+    }
+  }
+
+  /**
+   * Writes mapped segments through to their files and records what they hold, so the next
+   * start can reopen them. Does nothing for other storage or while the store is unavailable.
+   */
+  @PreDestroy
+  public void close() {
+    if (storage.getMode() != Mode.MAPPED) {
+      return;
+    }
+    synchronized (reloading) {
+      lock.writeLock().lock();
+      try {
+        if (!isAvailable()) {
+          return;
+        }
+        columns.force();
+        Path written = directory.resolve(MANIFEST + ".tmp");
+        try (Writer writer = Files.newBufferedWriter(written)) {
+          columns.describe().store(writer, "Columnar grade store segments");
+        }
+        Files.move(written, directory.resolve(MANIFEST), StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+        LOG.info("Saved {} grades in the columnar store files in {}", columns.size, directory);
+      } catch (IOException e) {
+        LOG.warn("Could not save the columnar store files; they will be reloaded", e);
+      } finally {
+        lock.writeLock().unlock();
+      }
+    }
+  }
+
+  /**
+   * Reloads the copy when its grade count or checksum disagrees with the grade table.
+   * Runs on the schedule set by {@code grades.columnar.verify-cron}. A change committed while
+   * the two are compared may cause a reload that was not needed.
+   *
+   * @return true if the copy had drifted and was reloaded
+   */
+  @Scheduled(cron = "${grades.columnar.verify-cron}")
+  public boolean reconcile() {
+    if (!isAvailable()) {
+      return false;
+    }
+    long[] expected = gradeTableChecksum();
+    long[] actual;
+    lock.readLock().lock();
+    try {
+      actual = columns.checksum();
+    } finally {
+      lock.readLock().unlock();
+    }
+    if (Arrays.equals(expected, actual)) {
+      return false;
+    }
+    LOG.warn("The columnar store drifted from the grade table ({} grades held, {} in the "
+        + "table); reloading", actual[0], expected[0]);
+    reload();
+    return true;
+  }
+
+  /**
+   * Applies a committed grade change.
+   *
+   * @param event the change
+   */
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onGradeChanged(GradeChangedEvent event) {
+    lock.writeLock().lock();
+    try {
+      if (deferred != null) {
+        deferred.add(event);
+      }
+      if (!overflowed) {
+        try {
+          columns.apply(event);
+        } catch (OverCapacityException e) {
+          overflow();
+        }
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Notes that the current transaction has changed a grade, so until it completes the store
+   * does not show what the transaction sees.
+   *
+   * @param event the change
+   */
+  @EventListener
+  public void onGradeChangedInTransaction(GradeChangedEvent event) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()
+        || TransactionSynchronizationManager.hasResource(this)) {
+      return;
+    }
+    TransactionSynchronizationManager.bindResource(this, Boolean.TRUE);
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCompletion(int status) {
+        TransactionSynchronizationManager.unbindResourceIfPossible(ColumnarGradeStore.this);
+      }
+    });
+  }
+
+  /**
+   * Whether the store holds the whole grade table: it has been loaded and fits in
+   * {@code grades.columnar.max-size}.
+   *
+   * @return true if queries can be answered from the store
+   */
+  public boolean isAvailable() {
+    return loaded && !overflowed;
+  }
+
+  /**
+   * Whether the calling thread can be answered from the store: it is available and the
+   * current transaction, if any, has no uncommitted grade changes.
+   *
+   * @return true if the store shows every grade the caller can see
+   */
+  public boolean isCurrent() {
+    return isAvailable() && !TransactionSynchronizationManager.hasResource(this);
+  }
+
+  /**
+   * Number of grades held.
+   *
+   * @return the row count
+   */
+  public int size() {
+    lock.readLock().lock();
+    try {
+      return columns.size;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Total size of the column and index segments, as counted against
+   * {@code grades.columnar.max-size}.
+   *
+   * @return the size in bytes
+   */
+  public long getSegmentBytes() {
+    lock.readLock().lock();
+    try {
+      return columns.bytes;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Count, average, minimum, maximum and standard deviation of the scored grades of a
+   * student, module or academic year.
+   *
+   * @param scope what the grades have in common
+   * @param key the student ID, module code or academic year
+   * @return the statistics; the count is zero and the rest null when there are no grades
+   */
+  public GradeStatistics getStatistics(Scope scope, Object key) {
+    lock.readLock().lock();
+    try {
+      Columns c = columns;
+      IntBuffer filter = c.column(scope);
+      int code = c.code(scope, key);
+      long count = 0;
+      long sum = 0;
+      long sumOfSquares = 0;
+      int min = Integer.MAX_VALUE;
+      int max = Integer.MIN_VALUE;
+      if (code != MISSING) {
+        IntBuffer scores = c.scores.ints();
+        for (int i = 0; i < c.size; i++) {
+          int score = scores.get(i);
+          if (filter.get(i) == code && score != NO_SCORE) {
+            count++;
+            sum += score;
+            sumOfSquares += (long) score * score;
+            min = Math.min(min, score);
+            max = Math.max(max, score);
+          }
+        }
+      }
+      if (count == 0) {
+        return new GradeStatistics(0L, null, null, null, null);
+      }
+      return new GradeStatistics(count, (double) sum / count, min, max, sumOfSquares);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Number of grades at each whole score of a student, module or academic year.
+   * Scores below 0 or above 100 are counted in the first or last bucket.
+   *
+   * @param scope what the grades have in common
+   * @param key the student ID, module code or academic year
+   * @return {@value #HISTOGRAM_SIZE} counts, indexed by score
+   */
+  public long[] getHistogram(Scope scope, Object key) {
+    long[] histogram = new long[HISTOGRAM_SIZE];
+    lock.readLock().lock();
+    try {
+      Columns c = columns;
+      IntBuffer filter = c.column(scope);
+      int code = c.code(scope, key);
+      if (code == MISSING) {
+        return histogram;
+      }
+      IntBuffer scores = c.scores.ints();
+      for (int i = 0; i < c.size; i++) {
+        int score = scores.get(i);
+        if (filter.get(i) == code && score != NO_SCORE) {
+          histogram[Math.min(HISTOGRAM_SIZE - 1, Math.max(0, score))]++;
+        }
+      }
+      return histogram;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Nearest-rank percentile of a score histogram.
+   *
+   * @param histogram counts indexed by score, as returned by {@link #getHistogram}
+   * @param percentile the percentile, from 0 to 100
+   * @return the smallest score with at least that share of grades at or below it, or -1 if
+   *     the histogram is empty
+   * @throws IllegalArgumentException if the percentile is outside 0 to 100
+   */
+  public static int percentile(long[] histogram, double percentile) {
+    return GradeDistribution.percentile(histogram, percentile);
+  }
+
+  /**
+   * Empty heap copy, used before the first load and after the cap is exceeded.
+   */
+  private static Columns emptyColumns() {
+    return new Columns(new ColumnStorage(Mode.HEAP, null), Long.MAX_VALUE, 16);
+  }
+
+  /**
+   * Swaps in a complete copy after applying the changes committed while it was built, and
+   * deletes segment files no longer in use.
+   *
+   * @return false if those changes took it over the cap
+   */
+  private boolean install(Columns fresh) {
+    lock.writeLock().lock();
+    try {
+      try {
+        if (deferred != null) {
+          deferred.forEach(fresh::apply);
+        }
+      } catch (OverCapacityException e) {
+        fresh.release();
+        deferred = null;
+        overflow();
+        return false;
+      }
+      deferred = null;
+      columns.release();
+      columns = fresh;
+      loaded = true;
+      overflowed = false;
+      try {
+        storage.deleteSegmentsExcept(fresh.segmentNames());
+      } catch (IOException e) {
+        LOG.warn("Could not delete unused columnar store files in {}", directory, e);
+      }
+      return true;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Drops the current copy once it has outgrown the cap. Called with the write lock held.
+   */
+  private void overflow() {
+    LOG.warn("The columnar store needs more than grades.columnar.max-size ({} bytes); "
+        + "statistics are read from the database until it is reloaded", maxBytes);
+    columns.release();
+    columns = emptyColumns();
+    overflowed = true;
+  }
+
+  /**
+   * Maps the files named by the manifest of the last clean shutdown, applies the changes
+   * committed since startup and checks the result against the grade table. The manifest is
+   * deleted first, so the files are not trusted again without another clean shutdown.
+   *
+   * @return the reopened copy, or null if there is none or it no longer fits or matches
+   */
+  private Columns restore() throws IOException {
+    Path path = directory.resolve(MANIFEST);
+    if (!Files.exists(path)) {
+      return null;
+    }
+    Properties manifest = new Properties();
+    try (Reader reader = Files.newBufferedReader(path)) {
+      manifest.load(reader);
+    }
+    Files.delete(path);
+
+    Columns restored = Columns.restore(storage, maxBytes, manifest);
+    if (restored == null) {
+      LOG.info("The columnar store files exceed grades.columnar.max-size; reloading");
+      return null;
+    }
+    // Catch up with changes committed since startup; later ones are applied by install.
+    lock.writeLock().lock();
+    try {
+      deferred.forEach(restored::apply);
+      deferred = new ArrayList<>();
+    } catch (OverCapacityException e) {
+      return null;
+    } finally {
+      lock.writeLock().unlock();
+    }
+    if (!Arrays.equals(gradeTableChecksum(), restored.checksum())) {
+      LOG.info("The columnar store files no longer match the grade table; reloading");
+      return null;
+    }
+    return restored;
+  }
+
+  private long[] gradeTableChecksum() {
+    // The sum is exact; its low 64 bits match the wrapping sum of Columns.checksum().
+    return jdbcTemplate.queryForObject(CHECKSUM_SQL,
+        (rs, row) -> new long[] {rs.getLong(1), rs.getBigDecimal(2).longValue()});
+  }
+
+  /**
+   * Thrown when a copy would need more than {@code grades.columnar.max-size}.
+   */
+  private static final class OverCapacityException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    OverCapacityException() {
+      super(null, null, false, false);
+    }
+  }
+
+  /**
+   * The column segments, their dictionaries and the index from grade ID to row, with the
+   * bytes they take counted against the cap.
+   */
+  private static final class Columns {
+
+    private static final String[] NAMES = {"ids", "students", "scores", "modules", "years"};
+
+    private final ColumnStorage storage;
+    private final long maxBytes;
+    private long bytes;
+    private int size;
+    private Segment ids;
+    private Segment students;
+    private Segment scores;
+    private Segment modules;
+    private Segment years;
+    private final Dictionary moduleCodes = new Dictionary();
+    private final Dictionary academicYears = new Dictionary();
+    private RowIndex rows;
+
+    Columns(ColumnStorage storage, long maxBytes, int capacity) {
+      this(storage, maxBytes);
+      reserve(5L * capacity);
+      ids = storage.allocate(capacity);
+      students = storage.allocate(capacity);
+      scores = storage.allocate(capacity);
+      modules = storage.allocate(capacity);
+      years = storage.allocate(capacity);
+      rows = new RowIndex(this, 64);
+    }
+
+    private Columns(ColumnStorage storage, long maxBytes) {
+      this.storage = storage;
+      this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Reopens the segments named by a manifest.
+     *
+     * @return the copy, or null if it exceeds the cap
+     */
+    static Columns restore(ColumnStorage storage, long maxBytes, Properties manifest)
+        throws IOException {
+      int capacity = Integer.parseInt(manifest.getProperty("capacity"));
+      int indexCapacity = Integer.parseInt(manifest.getProperty("index.capacity"));
+      Columns c = new Columns(storage, maxBytes);
+      if ((5L * capacity + 2L * indexCapacity) * Integer.BYTES > maxBytes) {
+        return null;
+      }
+      c.bytes = (5L * capacity + 2L * indexCapacity) * Integer.BYTES;
+      c.size = Integer.parseInt(manifest.getProperty("size"));
+      c.ids = storage.open(manifest.getProperty("segment.ids"), capacity);
+      c.students = storage.open(manifest.getProperty("segment.students"), capacity);
+      c.scores = storage.open(manifest.getProperty("segment.scores"), capacity);
+      c.modules = storage.open(manifest.getProperty("segment.modules"), capacity);
+      c.years = storage.open(manifest.getProperty("segment.years"), capacity);
+      c.rows = new RowIndex(c,
+          storage.open(manifest.getProperty("segment.index.keys"), indexCapacity),
+          storage.open(manifest.getProperty("segment.index.values"), indexCapacity),
+          Integer.parseInt(manifest.getProperty("index.size")));
+      c.moduleCodes.restore(manifest, "dictionary.module.");
+      c.academicYears.restore(manifest, "dictionary.year.");
+      return c;
+    }
+
+    Properties describe() {
+      Properties manifest = new Properties();
+      manifest.setProperty("size", Integer.toString(size));
+      manifest.setProperty("capacity", Integer.toString(ids.capacity()));
+      Segment[] segments = {ids, students, scores, modules, years};
+      for (int i = 0; i < NAMES.length; i++) {
+        manifest.setProperty("segment." + NAMES[i], segments[i].getName());
+      }
+      manifest.setProperty("index.size", Integer.toString(rows.size));
+      manifest.setProperty("index.capacity", Integer.toString(rows.keys.capacity()));
+      manifest.setProperty("segment.index.keys", rows.keys.getName());
+      manifest.setProperty("segment.index.values", rows.values.getName());
+      moduleCodes.describe(manifest, "dictionary.module.");
+      academicYears.describe(manifest, "dictionary.year.");
+      return manifest;
+    }
+
+    private List<Segment> segments() {
+      List<Segment> segments = new ArrayList<>(List.of(ids, students, scores, modules, years));
+      if (rows != null) {
+        segments.add(rows.keys);
+        segments.add(rows.values);
+      }
+      return segments;
+    }
+
+    Set<String> segmentNames() {
+      Set<String> names = new HashSet<>();
+      segments().forEach(segment -> names.add(segment.getName()));
+      names.remove(null);
+      return names;
+    }
+
+    /**
+     * Grade count and a checksum of every column of every grade, independent of row order,
+     * to compare with {@link #CHECKSUM_SQL} on the grade table.
+     */
+    long[] checksum() {
+      MessageDigest sha256;
+      try {
+        sha256 = MessageDigest.getInstance("SHA-256");
+      } catch (NoSuchAlgorithmException e) {
+        throw new IllegalStateException(e);
+      }
+      long checksum = 0;
+      for (int i = 0; i < size; i++) {
+        int studentId = students.ints().get(i);
+        int score = scores.ints().get(i);
+        String row = ids.ints().get(i) + "|" + (studentId == MISSING ? "" : studentId) + "|"
+            + moduleCodes.decode(modules.ints().get(i)) + "|"
+            + (score == NO_SCORE ? "" : score) + "|" + academicYears.decode(years.ints().get(i));
+        checksum += ByteBuffer.wrap(sha256.digest(row.getBytes(StandardCharsets.UTF_8)))
+            .getLong();
+      }
+      return new long[] {size, checksum};
+    }
+
+    void force() {
+      segments().forEach(storage::force);
+    }
+
+    void release() {
+      segments().forEach(storage::release);
+      bytes = 0;
+    }
+
+    void reserve(long ints) {
+      long needed = bytes + ints * Integer.BYTES;
+      if (needed > maxBytes) {
+        throw new OverCapacityException();
+      }
+      bytes = needed;
+    }
+
+    IntBuffer column(Scope scope) {
+      switch (scope) {
+        case STUDENT:
+          return students.ints();
+        case MODULE:
+          return modules.ints();
+        default:
+          return years.ints();
+      }
+    }
+
+    int code(Scope scope, Object key) {
+      if (key == null) {
+        return MISSING;
+      }
+      switch (scope) {
+        case STUDENT:
+          return ((Number) key).intValue();
+        case MODULE:
+          return moduleCodes.find(key.toString());
+        default:
+          return academicYears.find(key.toString());
+      }
+    }
+
+    void apply(GradeChangedEvent event) {
+      GradeRow after = event.getAfter();
+      if (after == null) {
+        remove(event.getBefore().getId());
+      } else {
+        upsert(after.getId(), after.getStudentId(), after.getModuleCode(),
+            after.getScore() == null ? NO_SCORE : after.getScore(), after.getAcademicYear());
+      }
+    }
+
+    void upsert(int id, Integer studentId, String moduleCode, int score, String academicYear) {
+      int row = rows.get(id);
+      if (row == MISSING) {
+        if (size == ids.capacity()) {
+          int capacity = (int) Math.min(2L * size, ColumnStorage.MAX_CAPACITY);
+          if (capacity == size) {
+            throw new OverCapacityException();
+          }
+          reserve(5L * (capacity - size));
+          ids = storage.grow(ids, capacity);
+          students = storage.grow(students, capacity);
+          scores = storage.grow(scores, capacity);
+          modules = storage.grow(modules, capacity);
+          years = storage.grow(years, capacity);
+        }
+        rows.put(id, size);
+        row = size++;
+        ids.ints().put(row, id);
+      }
+      students.ints().put(row, studentId == null ? MISSING : studentId);
+      scores.ints().put(row, score);
+      modules.ints().put(row, moduleCodes.encode(moduleCode));
+      years.ints().put(row, academicYears.encode(academicYear));
+    }
+
+    void remove(int id) {
+      int row = rows.remove(id);
+      if (row == MISSING) {
+        return;
+      }
+      int last = --size;
+      if (row != last) {
+        for (Segment segment : List.of(ids, students, scores, modules, years)) {
+          segment.ints().put(row, segment.ints().get(last));
+        }
+        rows.put(ids.ints().get(row), row);
+      }
+    }
+  }
+
+  /**
+   * Dictionary encoding of a string column; codes are assigned in order of first use.
+   */
+  private static final class Dictionary {
+
+    private final Map<String, Integer> codes = new HashMap<>();
+    private final List<String> values = new ArrayList<>();
+
+    int encode(String value) {
+      if (value == null) {
+        return MISSING;
+      }
+      return codes.computeIfAbsent(value, v -> {
+        values.add(v);
+        return values.size() - 1;
+      });
+    }
+
+    int find(String value) {
+      return codes.getOrDefault(value, MISSING);
+    }
+
+    String decode(int code) {
+      return code == MISSING ? "" : values.get(code);
+    }
+
+    void describe(Properties manifest, String prefix) {
+      for (int code = 0; code < values.size(); code++) {
+        manifest.setProperty(prefix + code, values.get(code));
+      }
+    }
+
+    void restore(Properties manifest, String prefix) {
+      for (int code = 0; manifest.containsKey(prefix + code); code++) {
+        encode(manifest.getProperty(prefix + code));
+      }
+    }
+  }
+
+  /**
+   * Open-addressing map from grade ID to row, stored in two int segments.
+   */
+  private static final class RowIndex {
+
+    private static final int EMPTY = Integer.MIN_VALUE;
+    private static final int MAX_SLOTS = Integer.highestOneBit(ColumnStorage.MAX_CAPACITY);
+
+    private final Columns owner;
+    private Segment keys;
+    private Segment values;
+    private int size;
+
+    RowIndex(Columns owner, int capacity) {
+      this.owner = owner;
+      owner.reserve(2L * capacity);
+      keys = emptyKeys(owner.storage, capacity);
+      values = owner.storage.allocate(capacity);
+    }
+
+    RowIndex(Columns owner, Segment keys, Segment values, int size) {
+      this.owner = owner;
+      this.keys = keys;
+      this.values = values;
+      this.size = size;
+    }
+
+    private static Segment emptyKeys(ColumnStorage storage, int capacity) {
+      Segment keys = storage.allocate(capacity);
+      for (int i = 0; i < capacity; i++) {
+        keys.ints().put(i, EMPTY);
+      }
+      return keys;
+    }
+
+    private static int home(int key, int mask) {
+      return (key * 0x9E3779B9 >>> 1) & mask;
+    }
+
+    private int slot(int key) {
+      IntBuffer k = keys.ints();
+      int mask = k.capacity() - 1;
+      int slot = home(key, mask);
+      while (k.get(slot) != EMPTY && k.get(slot) != key) {
+        slot = (slot + 1) & mask;
+      }
+      return slot;
+    }
+
+    int get(int key) {
+      int slot = slot(key);
+      return keys.ints().get(slot) == EMPTY ? MISSING : values.ints().get(slot);
+    }
+
+    void put(int key, int value) {
+      if ((size + 1) * 2L > keys.capacity()) {
+        int capacity = keys.capacity() * 2;
+        if (capacity > MAX_SLOTS) {
+          throw new OverCapacityException();
+        }
+        owner.reserve(2L * capacity);
+        final Segment oldKeys = keys;
+        final Segment oldValues = values;
+        keys = emptyKeys(owner.storage, capacity);
+        values = owner.storage.allocate(capacity);
+        size = 0;
+        for (int i = 0; i < oldKeys.capacity(); i++) {
+          int old = oldKeys.ints().get(i);
+          if (old != EMPTY) {
+            put(old, oldValues.ints().get(i));
+          }
+        }
+        owner.bytes -= 2L * oldKeys.capacity() * Integer.BYTES;
+        owner.storage.release(oldKeys);
+        owner.storage.release(oldValues);
+      }
+      int slot = slot(key);
+      if (keys.ints().get(slot) == EMPTY) {
+        keys.ints().put(slot, key);
+        size++;
+      }
+      values.ints().put(slot, value);
+    }
+
+    int remove(int key) {
+      int slot = slot(key);
+      IntBuffer k = keys.ints();
+      IntBuffer v = values.ints();
+      if (k.get(slot) == EMPTY) {
+        return MISSING;
+      }
+      final int removed = v.get(slot);
+      k.put(slot, EMPTY);
+      size--;
+      // Shift later entries of the probe run back so lookups never stop at the gap.
+      int mask = k.capacity() - 1;
+      int gap = slot;
+      int next = (slot + 1) & mask;
+      while (k.get(next) != EMPTY) {
+        if (((next - home(k.get(next), mask)) & mask) >= ((next - gap) & mask)) {
+          k.put(gap, k.get(next));
+          v.put(gap, v.get(next));
+          k.put(next, EMPTY);
+          gap = next;
+        }
+        next = (next + 1) & mask;
+      }
+      return removed;
+    }
+  }
+}
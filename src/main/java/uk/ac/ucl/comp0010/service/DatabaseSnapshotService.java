@@ -0,0 +1,106 @@
+package uk.ac.ucl.comp0010.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Takes periodic snapshots of the persistent H2 database.
+ * Each snapshot is an online {@code BACKUP} of the database file into a zip under
+ * {@code <grades.persistent.dir>/snapshots}, holding only live pages, and only the newest
+ * {@code grades.persistent.snapshots-kept} are kept. A snapshot is restored with H2's
+ * {@code org.h2.tools.Restore} while the application is stopped.
+ */
+@Service
+@Profile("persistent")
+public class DatabaseSnapshotService {
+
+  private static final Logger LOG = LoggerFactory.getLogger(DatabaseSnapshotService.class);
+  private static final String PREFIX = "grades-";
+  private static final DateTimeFormatter STAMP =
+      DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS").withZone(ZoneOffset.UTC);
+
+  private final JdbcTemplate jdbcTemplate;
+  private final Path directory;
+  private final int kept;
+
+  /**
+   * Constructor for dependency injection.
+   *
+   * @param jdbcTemplate template for the backup statement
+   * @param dataDirectory directory holding the database file
+   * @param kept number of snapshots to keep
+   */
+  @Autowired
+  public DatabaseSnapshotService(JdbcTemplate jdbcTemplate,
+      @Value("${grades.persistent.dir}") String dataDirectory,
+      @Value("${grades.persistent.snapshots-kept:4}") int kept) {
+    if (kept < 1) {
+      throw new IllegalArgumentException("grades.persistent.snapshots-kept must be positive");
+    }
+    this.jdbcTemplate = jdbcTemplate;
+    this.directory = Path.of(dataDirectory, "snapshots");
+    this.kept = kept;
+  }
+
+  /**
+   * Writes a snapshot and deletes the oldest ones beyond the number kept.
+   * Runs on the schedule set by {@code grades.persistent.snapshot-cron}.
+   *
+   * @return the snapshot file
+   */
+  @Scheduled(cron = "${grades.persistent.snapshot-cron}")
+  public Path snapshot() {
+    final long started = System.nanoTime();
+    Path target = directory.resolve(PREFIX + STAMP.format(Instant.now()) + ".zip")
+        .toAbsolutePath();
+    try {
+      Files.createDirectories(directory);
+      jdbcTemplate.execute("BACKUP TO '" + target.toString().replace("'", "''") + "'");
+      List<Path> snapshots = listSnapshots();
+      for (Path old : snapshots.subList(0, Math.max(0, snapshots.size() - kept))) {
+        Files.delete(old);
+      }
+      LOG.info("Wrote database snapshot {} ({} bytes) in {} ms", target, Files.size(target),
+          (System.nanoTime() - started) / 1_000_000);
+      return target;
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not write database snapshot", e);
+    }
+  }
+
+  /**
+   * Lists the snapshots on disk.
+   *
+   * @return snapshot files, oldest first
+   * @throws IOException if the snapshot directory cannot be read
+   */
+  public List<Path> listSnapshots() throws IOException {
+    if (!Files.isDirectory(directory)) {
+      return List.of();
+    }
+    try (Stream<Path> files = Files.list(directory)) {
+      return files
+          .filter(file -> {
+            String name = file.getFileName().toString();
+            return name.startsWith(PREFIX) && name.endsWith(".zip");
+          })
+          .sorted()
+          .toList();
+    }
+  }
+}
@@ -0,0 +1,274 @@
+package uk.ac.ucl.comp0010.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import uk.ac.ucl.comp0010.dto.DegreeClassification;
+import uk.ac.ucl.comp0010.dto.DegreeClassification.DegreeClass;
+import uk.ac.ucl.comp0010.dto.GradeRow;
+import uk.ac.ucl.comp0010.exception.NoGradeAvailableException;
+import uk.ac.ucl.comp0010.model.Module;
+import uk.ac.ucl.comp0010.repository.GradeRepository;
+import uk.ac.ucl.comp0010.repository.ModuleRepository;
+
+/**
+ * Classifies degrees from the credit-weighted average of each student's best score per
+ * module. A cohort's scored grades are read in one pass ordered by student and packed into
+ * int columns with each student's grades contiguous; the students are then classified by a
+ * fork/join task that splits them into ranges of {@value #STUDENTS_PER_TASK} across the
+ * common pool.
+ * A module scored below {@value #PASS_MARK} fails the degree unless it is condoned, which
+ * needs the module not to be mandatory non-condonable, a score of at least
+ * {@code grades.classification.condone-floor}, and no more than
+ * {@code grades.classification.max-condoned-credits} condoned in total.
+ */
+@Service
+public class DegreeClassificationService {
+
+  /**
+   * Lowest score that passes a module.
+   */
+  public static final int PASS_MARK = 40;
+
+  /**
+   * Largest number of students classified by one fork/join task without splitting it.
+   */
+  static final int STUDENTS_PER_TASK = 256;
+
+  private static final Logger LOG = LoggerFactory.getLogger(DegreeClassificationService.class);
+
+  private final GradeRepository gradeRepository;
+  private final ModuleRepository moduleRepository;
+  private final int condoneFloor;
+  private final int maxCondonedCredits;
+
+  /**
+   * Constructor for dependency injection.
+   *
+   * @param gradeRepository repository for grade operations
+   * @param moduleRepository repository for module operations
+   * @param condoneFloor lowest failing score that can be condoned
+   * @param maxCondonedCredits most credits that can be condoned for one student
+   */
+  @Autowired
+  public DegreeClassificationService(GradeRepository gradeRepository,
+      ModuleRepository moduleRepository,
+      @Value("${grades.classification.condone-floor:30}") int condoneFloor,
+      @Value("${grades.classification.max-condoned-credits:30}") int maxCondonedCredits) {
+    if (condoneFloor > PASS_MARK || maxCondonedCredits < 0) {
+      throw new IllegalArgumentException("grades.classification.condone-floor must not exceed "
+          + PASS_MARK + " and max-condoned-credits must not be negative");
+    }
+    this.gradeRepository = gradeRepository;
+    this.moduleRepository = moduleRepository;
+    this.condoneFloor = condoneFloor;
+    this.maxCondonedCredits = maxCondonedCredits;
+  }
+
+  /**
+   * Classifies every student with a scored grade in an academic year, or in any year.
+   * Only the grades of that year are counted.
+   *
+   * @param academicYear the academic year (e.g., "2024-2025"), or null for every year
+   * @return one classification per student, ordered by student ID
+   */
+  @Transactional(readOnly = true)
+  public List<DegreeClassification> classifyCohort(String academicYear) {
+    final long started = System.nanoTime();
+    Map<String, Module> modules = new HashMap<>();
+    moduleRepository.findAll().forEach(m -> modules.put(m.getCode(), m));
+    Cohort cohort;
+    try (Stream<GradeRow> rows = gradeRepository.streamScoredRowsByStudent(academicYear)) {
+      cohort = Cohort.pack(rows.iterator(), modules);
+    }
+    DegreeClassification[] classifications = new DegreeClassification[cohort.size()];
+    ForkJoinPool.commonPool().invoke(
+        new ClassifyTask(cohort, classifications, 0, cohort.size()));
+    LOG.info("Classified {} students from {} grades in {} ms", cohort.size(), cohort.rows,
+        (System.nanoTime() - started) / 1_000_000);
+    return Arrays.asList(classifications);
+  }
+
+  /**
+   * Classifies one student from their scored grades in every year.
+   *
+   * @param studentId the student ID
+   * @return the student's classification
+   * @throws NoGradeAvailableException if no scored grades are available for the student
+   */
+  public DegreeClassification classifyStudent(Integer studentId)
+      throws NoGradeAvailableException {
+    List<GradeRow> rows = gradeRepository.findRowsByStudentId(studentId).stream()
+        .filter(row -> row.getScore() != null)
+        .sorted(Comparator.comparing(GradeRow::getModuleCode))
+        .toList();
+    if (rows.isEmpty()) {
+      throw new NoGradeAvailableException("No grades available for student ID: " + studentId);
+    }
+    Set<String> codes = rows.stream().map(GradeRow::getModuleCode).collect(Collectors.toSet());
+    Map<String, Module> modules = new HashMap<>();
+    moduleRepository.findAllById(codes).forEach(m -> modules.put(m.getCode(), m));
+    return classify(Cohort.pack(rows.iterator(), modules), 0);
+  }
+
+  private DegreeClassification classify(Cohort cohort, int student) {
+    long weightedSum = 0;
+    int credits = 0;
+    int condonedCredits = 0;
+    List<String> failed = new ArrayList<>(0);
+    List<String> condoned = new ArrayList<>(0);
+    int row = cohort.starts[student];
+    int end = cohort.starts[student + 1];
+    while (row < end) {
+      // Rows are ordered by module, so the attempts at a retaken module are adjacent.
+      int module = cohort.modules[row];
+      int score = cohort.scores[row++];
+      while (row < end && cohort.modules[row] == module) {
+        score = Math.max(score, cohort.scores[row++]);
+      }
+      int moduleCredits = cohort.credits[module];
+      credits += moduleCredits;
+      weightedSum += (long) score * moduleCredits;
+      if (score < PASS_MARK) {
+        if (cohort.mnc[module] || score < condoneFloor) {
+          failed.add(cohort.codes[module]);
+        } else {
+          condoned.add(cohort.codes[module]);
+          condonedCredits += moduleCredits;
+        }
+      }
+    }
+    if (condonedCredits > maxCondonedCredits) {
+      failed.addAll(condoned);
+      condonedCredits = 0;
+    }
+    double average = credits == 0 ? 0 : (double) weightedSum / credits;
+    DegreeClass degreeClass = failed.isEmpty() ? DegreeClass.forAverage(average)
+        : DegreeClass.FAIL;
+    return new DegreeClassification(cohort.students[student], average, credits,
+        condonedCredits, failed, degreeClass);
+  }
+
+  /**
+   * Classifies a range of the cohort's students, splitting it in half until it is small
+   * enough to classify directly.
+   */
+  private final class ClassifyTask extends RecursiveAction {
+
+    private final transient Cohort cohort;
+    private final transient DegreeClassification[] classifications;
+    private final int from;
+    private final int to;
+
+    private ClassifyTask(Cohort cohort, DegreeClassification[] classifications, int from,
+        int to) {
+      this.cohort = cohort;
+      this.classifications = classifications;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from <= STUDENTS_PER_TASK) {
+        for (int student = from; student < to; student++) {
+          classifications[student] = classify(cohort, student);
+        }
+        return;
+      }
+      int middle = (from + to) >>> 1;
+      invokeAll(new ClassifyTask(cohort, classifications, from, middle),
+          new ClassifyTask(cohort, classifications, middle, to));
+    }
+  }
+
+  /**
+   * Scored grades of a cohort packed into columns. The grades of student {@code i} are rows
+   * {@code starts[i]} to {@code starts[i + 1] - 1}, and modules are referred to by index into
+   * the module columns.
+   */
+  private static final class Cohort {
+
+    private int[] students = new int[64];
+    private int[] starts = new int[65];
+    private int[] modules = new int[256];
+    private int[] scores = new int[256];
+    private String[] codes = new String[16];
+    private int[] credits = new int[16];
+    private boolean[] mnc = new boolean[16];
+    private int size;
+    private int rows;
+    private int moduleCount;
+
+    /**
+     * Packs grade rows that are ordered by student, and within a student by module.
+     */
+    private static Cohort pack(Iterator<GradeRow> rows, Map<String, Module> modules) {
+      Cohort cohort = new Cohort();
+      Map<String, Integer> moduleIndex = new HashMap<>();
+      Integer current = null;
+      while (rows.hasNext()) {
+        GradeRow row = rows.next();
+        if (!row.getStudentId().equals(current)) {
+          current = row.getStudentId();
+          cohort.addStudent(current);
+        }
+        int module = moduleIndex.computeIfAbsent(row.getModuleCode(),
+            code -> cohort.addModule(code, modules.get(code)));
+        cohort.addRow(module, row.getScore());
+      }
+      cohort.starts[cohort.size] = cohort.rows;
+      return cohort;
+    }
+
+    private int size() {
+      return size;
+    }
+
+    private void addStudent(int studentId) {
+      if (size + 1 == students.length) {
+        students = Arrays.copyOf(students, students.length * 2);
+        starts = Arrays.copyOf(starts, students.length + 1);
+      }
+      students[size] = studentId;
+      starts[size++] = rows;
+    }
+
+    private int addModule(String code, Module module) {
+      if (moduleCount == codes.length) {
+        codes = Arrays.copyOf(codes, codes.length * 2);
+        credits = Arrays.copyOf(credits, codes.length);
+        mnc = Arrays.copyOf(mnc, codes.length);
+      }
+      codes[moduleCount] = code;
+      credits[moduleCount] = module == null ? Module.DEFAULT_CREDITS
+          : module.getCreditsOrDefault();
+      mnc[moduleCount] = module != null && Boolean.TRUE.equals(module.getMnc());
+      return moduleCount++;
+    }
+
+    private void addRow(int module, int score) {
+      if (rows == modules.length) {
+        modules = Arrays.copyOf(modules, rows * 2);
+        scores = Arrays.copyOf(scores, rows * 2);
+      }
+      modules[rows] = module;
+      scores[rows++] = score;
+    }
+  }
+}
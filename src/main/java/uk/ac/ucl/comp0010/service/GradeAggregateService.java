@@ -0,0 +1,522 @@
+package uk.ac.ucl.comp0010.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.concurrent.Semaphore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import uk.ac.ucl.comp0010.dto.GradeRow;
+import uk.ac.ucl.comp0010.dto.GradeTotals;
+import uk.ac.ucl.comp0010.dto.ScoreCount;
+import uk.ac.ucl.comp0010.event.GradeChangedEvent;
+import uk.ac.ucl.comp0010.model.GradeAggregate;
+import uk.ac.ucl.comp0010.model.GradeAggregate.Scope;
+import uk.ac.ucl.comp0010.model.GradeHistogramBucket;
+import uk.ac.ucl.comp0010.repository.GradeAggregateRepository;
+import uk.ac.ucl.comp0010.repository.GradeHistogramRepository;
+
+/**
+ * Maintains per-student, per-module and per-academic-year score totals, together with
+ * 0 to 100 score histograms of every module and of the students' average scores.
+ * Grade changes made in a transaction are summed per aggregate and per histogram bucket and
+ * written just before it commits, one UPDATE per row touched, so they commit or roll back
+ * with the grades. The first change to a row inserts it with {@code ON CONFLICT DO NOTHING}
+ * before updating it, so transactions creating the same row wait for each other instead of
+ * failing on its key. A verify job compares both with the grade table and rebuilds them on
+ * drift; a rebuild waits for transactions that have written aggregates to finish, and holds
+ * off new ones until it commits.
+ */
+@Service
+public class GradeAggregateService {
+
+  private static final Logger log = LoggerFactory.getLogger(GradeAggregateService.class);
+
+  private static final int MAX_WRITERS = Integer.MAX_VALUE;
+
+  private final GradeAggregateRepository aggregateRepository;
+  private final GradeHistogramRepository histogramRepository;
+  private final TransactionTemplate transactionTemplate;
+  private final GradeVersionService versionService;
+  private final boolean rebuildOnStartup;
+  // One permit per transaction writing aggregates, all of them for a rebuild. Fair, so a
+  // waiting rebuild is not starved by a stream of new writers.
+  private final Semaphore writers = new Semaphore(MAX_WRITERS, true);
+
+  /**
+   * Constructor for dependency injection.
+   *
+   * @param aggregateRepository repository for aggregate operations
+   * @param histogramRepository repository for histogram bucket operations
+   * @param transactionManager transaction manager for changes made outside a transaction
+   * @param versionService grade versions, made stale by a rebuild
+   * @param rebuildOnStartup whether the aggregates are rebuilt when the application starts
+   */
+  @Autowired
+  public GradeAggregateService(GradeAggregateRepository aggregateRepository,
+      GradeHistogramRepository histogramRepository,
+      PlatformTransactionManager transactionManager,
+      GradeVersionService versionService,
+      @Value("${grades.aggregates.rebuild-on-startup:true}") boolean rebuildOnStartup) {
+    this.aggregateRepository = aggregateRepository;
+    this.histogramRepository = histogramRepository;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.versionService = versionService;
+    this.rebuildOnStartup = rebuildOnStartup;
+  }
+
+  /**
+   * Records a grade change against the aggregates it affects.
+   *
+   * @param event the change
+   */
+  @EventListener
+  public void onGradeChanged(GradeChangedEvent event) {
+    if (TransactionSynchronizationManager.isActualTransactionActive()) {
+      addChange(pendingChanges(), event);
+    } else {
+      Changes changes = new Changes();
+      addChange(changes, event);
+      transactionTemplate.executeWithoutResult(status -> apply(changes));
+    }
+  }
+
+  /**
+   * Reads the average score of an aggregate.
+   * Changes made earlier in the current transaction are included.
+   *
+   * @param scope what the grades have in common
+   * @param key the student ID, module code or academic year
+   * @return the average, or empty if there are no scored grades
+   */
+  public Optional<Double> getAverage(Scope scope, Object key) {
+    flushPending();
+    GradeTotals totals = aggregateRepository.findTotalsById(GradeAggregate.id(scope, key));
+    if (totals == null || totals.getCount() == 0) {
+      return Optional.empty();
+    }
+    return Optional.of((double) totals.getSum() / totals.getCount());
+  }
+
+  /**
+   * Reads the average scores of several aggregates of one scope in a single query.
+   * Changes made earlier in the current transaction are included.
+   *
+   * @param scope what the grades have in common
+   * @param keys the student IDs, module codes or academic years
+   * @param <K> the key type
+   * @return the average of each key that has scored grades
+   */
+  public <K> Map<K, Double> getAverages(Scope scope, Collection<K> keys) {
+    Map<String, K> keysById = new HashMap<>();
+    keys.forEach(key -> keysById.put(GradeAggregate.id(scope, key), key));
+    Map<K, Double> averages = new HashMap<>();
+    if (keysById.isEmpty()) {
+      return averages;
+    }
+    flushPending();
+    for (GradeTotals totals : aggregateRepository.findTotalsByIdIn(keysById.keySet())) {
+      if (valueOf(totals.getCount()) != 0) {
+        averages.put(keysById.get(totals.getKey()),
+            (double) valueOf(totals.getSum()) / totals.getCount());
+      }
+    }
+    return averages;
+  }
+
+  /**
+   * Reads a score histogram.
+   * Changes made earlier in the current transaction are included.
+   *
+   * @param histogram the histogram name, such as {@link GradeHistogramBucket#forModule}
+   *     or {@link GradeHistogramBucket#STUDENT_AVERAGES}
+   * @return {@value GradeHistogramBucket#BUCKETS} counts, indexed by score
+   */
+  public long[] getHistogram(String histogram) {
+    flushPending();
+    long[] counts = new long[GradeHistogramBucket.BUCKETS];
+    for (ScoreCount bucket : histogramRepository.findCountsByHistogram(histogram)) {
+      counts[GradeHistogramBucket.bucket(bucket.getScore())] += bucket.getCount();
+    }
+    return counts;
+  }
+
+  /**
+   * Replaces every aggregate and histogram with counts recomputed from the grade table.
+   * Rebuilds follow grade changes that bypassed the grade events, so every grade version
+   * tag is made stale too.
+   * Waits for other transactions that have written aggregates to finish, and keeps new ones
+   * from writing until the rebuild's transaction completes, so none of their changes are
+   * deleted or counted twice.
+   *
+   * @return the number of aggregates written
+   */
+  public int rebuild() {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      holdWriterPermits(MAX_WRITERS);
+      return rebuildTables();
+    }
+    writers.acquireUninterruptibly(MAX_WRITERS);
+    try {
+      return rebuildTables();
+    } finally {
+      writers.release(MAX_WRITERS);
+    }
+  }
+
+  private int rebuildTables() {
+    return transactionTemplate.execute(status -> {
+      pendingChangesIfBound().ifPresent(Changes::clear);
+      aggregateRepository.deleteAllInBulk();
+      histogramRepository.deleteAllInBulk();
+      Map<String, GradeAggregate> totals = computeTotals();
+      List<GradeAggregate> aggregates = new ArrayList<>(totals.values());
+      aggregateRepository.saveAll(aggregates);
+      List<GradeHistogramBucket> buckets = new ArrayList<>();
+      computeHistograms(totals).forEach((id, bucket) -> buckets.add(bucket));
+      histogramRepository.saveAll(buckets);
+      versionService.invalidateAll();
+      return aggregates.size();
+    });
+  }
+
+  /**
+   * Compares the stored aggregates and histograms with counts recomputed from the grade
+   * table.
+   *
+   * @return the IDs of aggregates and histogram buckets that are missing, stale or no longer
+   *     needed
+   */
+  public List<String> verify() {
+    return transactionTemplate.execute(status -> {
+      flushPending();
+      Map<String, GradeAggregate> expected = computeTotals();
+      Map<String, GradeTotals> actual = new HashMap<>();
+      aggregateRepository.findAllTotals().forEach(t -> actual.put(t.getKey(), t));
+
+      TreeSet<String> drifted = new TreeSet<>();
+      expected.forEach((id, totals) -> {
+        GradeTotals stored = actual.get(id);
+        if (stored == null || stored.getCount() != totals.getCount()
+            || stored.getSum() != totals.getSum()
+            || stored.getSumOfSquares() != totals.getSumOfSquares()) {
+          drifted.add(id);
+        }
+      });
+      actual.forEach((id, stored) -> {
+        if (!expected.containsKey(id) && stored.getCount() != 0) {
+          drifted.add(id);
+        }
+      });
+
+      Map<String, Long> expectedBuckets = new HashMap<>();
+      computeHistograms(expected).forEach((id, bucket) ->
+          expectedBuckets.put(id, bucket.getCount()));
+      Map<String, Long> actualBuckets = new HashMap<>();
+      histogramRepository.findAllCounts().forEach(c -> actualBuckets.put(
+          GradeHistogramBucket.id(c.getKey(), c.getScore()), c.getCount()));
+      TreeSet<String> bucketIds = new TreeSet<>(expectedBuckets.keySet());
+      bucketIds.addAll(actualBuckets.keySet());
+      for (String id : bucketIds) {
+        if (expectedBuckets.getOrDefault(id, 0L).longValue()
+            != actualBuckets.getOrDefault(id, 0L).longValue()) {
+          drifted.add(id);
+        }
+      }
+      return new ArrayList<>(drifted);
+    });
+  }
+
+  /**
+   * Rebuilds the aggregates when they disagree with the grade table.
+   * Runs on the schedule set by {@code grades.aggregates.verify-cron}.
+   *
+   * @return the number of drifted aggregates found
+   */
+  @Scheduled(cron = "${grades.aggregates.verify-cron}")
+  public int reconcile() {
+    List<String> drifted = verify();
+    if (!drifted.isEmpty()) {
+      log.warn("{} grade aggregates drifted from the grade table, rebuilding: {}",
+          drifted.size(), drifted);
+      rebuild();
+    }
+    return drifted.size();
+  }
+
+  /**
+   * Builds the aggregates for grades that were loaded without going through a repository,
+   * such as the seed data. Skipped when {@code grades.aggregates.rebuild-on-startup} is false,
+   * as for a persistent database whose aggregates were saved with the grades.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void rebuildOnStartup() {
+    if (rebuildOnStartup) {
+      log.info("Built {} grade aggregates", rebuild());
+    }
+  }
+
+  private Map<String, GradeAggregate> computeTotals() {
+    Map<String, GradeAggregate> totals = new HashMap<>();
+    addTotals(totals, Scope.STUDENT, aggregateRepository.computeStudentTotals());
+    addTotals(totals, Scope.MODULE, aggregateRepository.computeModuleTotals());
+    addTotals(totals, Scope.ACADEMIC_YEAR, aggregateRepository.computeAcademicYearTotals());
+    return totals;
+  }
+
+  /**
+   * Counts the grades of each module by score, and the students by rounded average score.
+   * Every bucket of the student average histogram is included, so concurrent transactions
+   * moving students between averages only ever update existing rows.
+   */
+  private Map<String, GradeHistogramBucket> computeHistograms(
+      Map<String, GradeAggregate> totals) {
+    Map<String, GradeHistogramBucket> buckets = new HashMap<>();
+    for (int score = 0; score < GradeHistogramBucket.BUCKETS; score++) {
+      addBucket(buckets, GradeHistogramBucket.STUDENT_AVERAGES, score, 0);
+    }
+    for (GradeAggregate aggregate : totals.values()) {
+      if (aggregate.getScope() == Scope.STUDENT && aggregate.getCount() != 0) {
+        addBucket(buckets, GradeHistogramBucket.STUDENT_AVERAGES,
+            GradeHistogramBucket.bucket(aggregate.getAverage()), 1);
+      }
+    }
+    for (ScoreCount row : histogramRepository.computeModuleScoreCounts()) {
+      if (row.getKey() != null) {
+        addBucket(buckets, GradeHistogramBucket.forModule(row.getKey()),
+            GradeHistogramBucket.bucket(row.getScore()), row.getCount());
+      }
+    }
+    return buckets;
+  }
+
+  private static void addBucket(Map<String, GradeHistogramBucket> buckets, String histogram,
+      int score, long count) {
+    buckets.merge(GradeHistogramBucket.id(histogram, score),
+        new GradeHistogramBucket(histogram, score, count),
+        (a, b) -> new GradeHistogramBucket(histogram, score, a.getCount() + b.getCount()));
+  }
+
+  private static void addTotals(Map<String, GradeAggregate> totals, Scope scope,
+      List<GradeTotals> rows) {
+    for (GradeTotals row : rows) {
+      if (row.getKey() != null) {
+        GradeAggregate aggregate = new GradeAggregate(scope, row.getKey(),
+            valueOf(row.getCount()), valueOf(row.getSum()), valueOf(row.getSumOfSquares()));
+        totals.put(aggregate.getId(), aggregate);
+      }
+    }
+  }
+
+  private static long valueOf(Long value) {
+    return value == null ? 0 : value;
+  }
+
+  private static void addChange(Changes changes, GradeChangedEvent event) {
+    addRow(changes, event.getBefore(), -1);
+    addRow(changes, event.getAfter(), 1);
+  }
+
+  private static void addRow(Changes changes, GradeRow row, int sign) {
+    if (row == null || row.getScore() == null) {
+      return;
+    }
+    addScore(changes.totals, Scope.STUDENT, row.getStudentId(), row.getScore(), sign);
+    addScore(changes.totals, Scope.MODULE, row.getModuleCode(), row.getScore(), sign);
+    addScore(changes.totals, Scope.ACADEMIC_YEAR, row.getAcademicYear(), row.getScore(), sign);
+    if (row.getModuleCode() != null) {
+      changes.addBucket(GradeHistogramBucket.forModule(row.getModuleCode()),
+          GradeHistogramBucket.bucket(row.getScore()), sign);
+    }
+  }
+
+  private static void addScore(Map<String, Delta> deltas, Scope scope, Object key, int score,
+      int sign) {
+    if (key != null) {
+      deltas.computeIfAbsent(GradeAggregate.id(scope, key),
+          id -> new Delta(scope, Objects.toString(key))).add(score, sign);
+    }
+  }
+
+  private void apply(Changes changes) {
+    if (changes.isEmpty()) {
+      return;
+    }
+    holdWriterPermits(1);
+    for (Map.Entry<String, Delta> entry : changes.totals.entrySet()) {
+      Delta delta = entry.getValue();
+      if (delta.isEmpty()) {
+        continue;
+      }
+      if (aggregateRepository.applyDelta(entry.getKey(), delta.count, delta.sum,
+          delta.sumOfSquares) == 0) {
+        aggregateRepository.insertIfAbsent(entry.getKey(), delta.scope.name(), delta.key);
+        aggregateRepository.applyDelta(entry.getKey(), delta.count, delta.sum,
+            delta.sumOfSquares);
+      }
+      if (delta.scope == Scope.STUDENT) {
+        // The UPDATE holds the student's row lock, so the totals read back are the ones this
+        // transaction commits and the student moves between the right average buckets.
+        GradeTotals totals = aggregateRepository.findTotalsById(entry.getKey());
+        long count = valueOf(totals.getCount());
+        long sum = valueOf(totals.getSum());
+        moveStudentAverage(changes, count - delta.count, sum - delta.sum, -1);
+        moveStudentAverage(changes, count, sum, 1);
+      }
+    }
+    for (Map.Entry<String, BucketDelta> entry : changes.buckets.entrySet()) {
+      BucketDelta delta = entry.getValue();
+      if (delta.count == 0) {
+        continue;
+      }
+      if (histogramRepository.applyDelta(entry.getKey(), delta.count) == 0) {
+        histogramRepository.insertIfAbsent(entry.getKey(), delta.histogram, delta.score);
+        histogramRepository.applyDelta(entry.getKey(), delta.count);
+      }
+    }
+    changes.clear();
+  }
+
+  /**
+   * Takes writer permits for the current transaction until it completes: one with its first
+   * grade change, before the grade rows are written, because the aggregate rows it writes stay
+   * locked until it completes; all of them for a rebuild. Permits already held are kept, so a
+   * transaction that rebuilds twice, or rebuilds after writing, does not wait for itself.
+   */
+  private void holdWriterPermits(int permits) {
+    int[] held = (int[]) TransactionSynchronizationManager.getResource(writers);
+    if (held == null) {
+      writers.acquireUninterruptibly(permits);
+      int[] acquired = {permits};
+      TransactionSynchronizationManager.bindResource(writers, acquired);
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCompletion(int status) {
+          TransactionSynchronizationManager.unbindResourceIfPossible(writers);
+          writers.release(acquired[0]);
+        }
+      });
+    } else if (held[0] < permits) {
+      writers.acquireUninterruptibly(permits - held[0]);
+      held[0] = permits;
+    }
+  }
+
+  private static void moveStudentAverage(Changes changes, long count, long sum, int sign) {
+    if (count > 0) {
+      changes.addBucket(GradeHistogramBucket.STUDENT_AVERAGES,
+          GradeHistogramBucket.bucket((double) sum / count), sign);
+    }
+  }
+
+  private void flushPending() {
+    pendingChangesIfBound().ifPresent(this::apply);
+  }
+
+  private Optional<Changes> pendingChangesIfBound() {
+    return Optional.ofNullable((Changes) TransactionSynchronizationManager.getResource(this));
+  }
+
+  private Changes pendingChanges() {
+    Optional<Changes> bound = pendingChangesIfBound();
+    if (bound.isPresent()) {
+      return bound.get();
+    }
+    holdWriterPermits(1);
+    Changes changes = new Changes();
+    TransactionSynchronizationManager.bindResource(this, changes);
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void beforeCommit(boolean readOnly) {
+        apply(changes);
+      }
+
+      @Override
+      public void afterCompletion(int status) {
+        TransactionSynchronizationManager.unbindResourceIfPossible(GradeAggregateService.this);
+      }
+    });
+    return changes;
+  }
+
+  /**
+   * Net changes to the aggregates and histogram buckets within a transaction.
+   */
+  private static final class Changes {
+
+    private final Map<String, Delta> totals = new LinkedHashMap<>();
+    private final Map<String, BucketDelta> buckets = new LinkedHashMap<>();
+
+    private void addBucket(String histogram, int score, int sign) {
+      buckets.computeIfAbsent(GradeHistogramBucket.id(histogram, score),
+          id -> new BucketDelta(histogram, score)).count += sign;
+    }
+
+    private boolean isEmpty() {
+      return totals.isEmpty() && buckets.isEmpty();
+    }
+
+    private void clear() {
+      totals.clear();
+      buckets.clear();
+    }
+  }
+
+  /**
+   * Net change to one aggregate within a transaction.
+   */
+  private static final class Delta {
+
+    private final Scope scope;
+    private final String key;
+    private long count;
+    private long sum;
+    private long sumOfSquares;
+
+    private Delta(Scope scope, String key) {
+      this.scope = scope;
+      this.key = key;
+    }
+
+    private void add(int score, int sign) {
+      count += sign;
+      sum += (long) sign * score;
+      sumOfSquares += (long) sign * score * score;
+    }
+
+    private boolean isEmpty() {
+      return count == 0 && sum == 0 && sumOfSquares == 0;
+    }
+  }
+
+  /**
+   * Net change to one histogram bucket within a transaction.
+   */
+  private static final class BucketDelta {
+
+    private final String histogram;
+    private final int score;
+    private long count;
+
+    private BucketDelta(String histogram, int score) {
+      this.histogram = histogram;
+      this.score = score;
+    }
+  }
+}
@@ -0,0 +1,269 @@
+package uk.ac.ucl.comp0010.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import uk.ac.ucl.comp0010.dto.GradeImportReport;
+import uk.ac.ucl.comp0010.dto.GradeSubmission;
+
+/**
+ * Service for importing large grade files.
+ * Reads CSV or NDJSON line by line and writes the grades in fixed-size chunks, each in
+ * its own transaction, so the whole file is never held in memory.
+ */
+@Service
+public class GradeImportService {
+
+  private static final Logger LOG = LoggerFactory.getLogger(GradeImportService.class);
+
+  /**
+   * Column order assumed for CSV files without a header row.
+   */
+  private static final String[] DEFAULT_CSV_COLUMNS = {
+      "student_id", "module_code", "score", "academic_year"
+  };
+
+  private final GradeService gradeService;
+  private final ObjectMapper objectMapper;
+  private final int chunkSize;
+
+  /**
+   * Constructor for dependency injection.
+   *
+   * @param gradeService service used to validate and save each chunk
+   * @param objectMapper mapper used to parse NDJSON rows
+   * @param chunkSize number of rows written per transaction
+   */
+  @Autowired
+  public GradeImportService(GradeService gradeService, ObjectMapper objectMapper,
+      @Value("${grades.import.chunk-size:500}") int chunkSize) {
+    if (chunkSize < 1 || chunkSize > GradeService.MAX_BATCH_SIZE) {
+      throw new IllegalArgumentException("Import chunk size must be between 1 and "
+          + GradeService.MAX_BATCH_SIZE);
+    }
+    this.gradeService = gradeService;
+    this.objectMapper = objectMapper;
+    this.chunkSize = chunkSize;
+  }
+
+  /**
+   * Imports grades from CSV.
+   * If the first line names the columns (it contains {@code student_id}) it is used as the
+   * header; otherwise columns are read as student_id, module_code, score, academic_year.
+   * Fields follow RFC 4180, as written by the export: a field in double quotes may contain
+   * commas, line breaks and doubled quotes, and a row's line number is the line it starts on.
+   *
+   * @param input the CSV input, read incrementally
+   * @return the import report
+   * @throws IOException if the input cannot be read
+   */
+  public GradeImportReport importCsv(InputStream input) throws IOException {
+    GradeImportReport report = new GradeImportReport();
+    List<GradeSubmission> chunk = new ArrayList<>(chunkSize);
+    String[] columns = DEFAULT_CSV_COLUMNS;
+
+    try (BufferedReader reader = reader(input)) {
+      CsvReader csv = new CsvReader(reader);
+      String[] fields;
+      while ((fields = csv.next()) != null) {
+        long lineNumber = csv.getRecordLine();
+        if (lineNumber == 1 && Arrays.asList(fields).contains("student_id")) {
+          columns = fields;
+          continue;
+        }
+
+        report.rowRead();
+        if (csv.isUnterminated()) {
+          report.reject(lineNumber, "Unterminated quoted field");
+          continue;
+        }
+        Map<String, String> params = new HashMap<>();
+        for (int i = 0; i < columns.length && i < fields.length; i++) {
+          if (!fields[i].isEmpty()) {
+            params.put(columns[i], fields[i]);
+          }
+        }
+        addRow(lineNumber, params, chunk, report);
+      }
+    }
+    flush(chunk, report);
+    return report;
+  }
+
+  /**
+   * Imports grades from newline-delimited JSON, one object per line using the keys of
+   * {@code POST /grades/addGradeValidated}.
+   *
+   * @param input the NDJSON input, read incrementally
+   * @return the import report
+   * @throws IOException if the input cannot be read
+   */
+  public GradeImportReport importNdjson(InputStream input) throws IOException {
+    GradeImportReport report = new GradeImportReport();
+    List<GradeSubmission> chunk = new ArrayList<>(chunkSize);
+
+    try (BufferedReader reader = reader(input)) {
+      String line;
+      long lineNumber = 0;
+      while ((line = reader.readLine()) != null) {
+        lineNumber++;
+        if (line.isBlank()) {
+          continue;
+        }
+
+        report.rowRead();
+        Map<?, ?> params;
+        try {
+          params = objectMapper.readValue(line, Map.class);
+        } catch (JsonProcessingException e) {
+          report.reject(lineNumber, "Invalid JSON");
+          continue;
+        }
+        if (params == null) {
+          report.reject(lineNumber, "Expected a JSON object");
+          continue;
+        }
+        addRow(lineNumber, params, chunk, report);
+      }
+    }
+    flush(chunk, report);
+    return report;
+  }
+
+  private void addRow(long lineNumber, Map<?, ?> params, List<GradeSubmission> chunk,
+      GradeImportReport report) {
+    try {
+      @SuppressWarnings("unchecked")
+      Map<String, ?> row = (Map<String, ?>) params;
+      chunk.add(GradeSubmission.fromParams(lineNumber, row));
+    } catch (IllegalArgumentException e) {
+      report.reject(lineNumber, e.getMessage());
+      return;
+    }
+    if (chunk.size() >= chunkSize) {
+      flush(chunk, report);
+    }
+  }
+
+  private void flush(List<GradeSubmission> chunk, GradeImportReport report) {
+    if (chunk.isEmpty()) {
+      return;
+    }
+    report.chunkCommitted(gradeService.addGradesInBatch(chunk));
+    chunk.clear();
+    LOG.info("Grade import progress: {} rows read, {} accepted, {} rejected",
+        report.getRowsRead(), report.getAccepted(), report.getRejectedCount());
+  }
+
+  private static BufferedReader reader(InputStream input) {
+    return new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Reads CSV records from lines, joining the lines of quoted fields that span line breaks.
+   * Whitespace around a field is ignored; whitespace inside quotes is kept.
+   */
+  private static final class CsvReader {
+
+    private final BufferedReader reader;
+    private long lineNumber;
+    private long recordLine;
+    private boolean unterminated;
+
+    private CsvReader(BufferedReader reader) {
+      this.reader = reader;
+    }
+
+    /**
+     * Reads the next record, skipping blank lines.
+     *
+     * @return the fields, or null at the end of the input
+     * @throws IOException if the input cannot be read
+     */
+    private String[] next() throws IOException {
+      String line;
+      do {
+        line = reader.readLine();
+        lineNumber++;
+      } while (line != null && line.isBlank());
+      if (line == null) {
+        return null;
+      }
+      recordLine = lineNumber;
+      unterminated = false;
+
+      List<String> fields = new ArrayList<>();
+      StringBuilder field = new StringBuilder();
+      boolean inQuotes = false;
+      boolean quoted = false;
+      int i = 0;
+      while (true) {
+        if (i == line.length()) {
+          if (!inQuotes) {
+            break;
+          }
+          line = reader.readLine();
+          if (line == null) {
+            unterminated = true;
+            break;
+          }
+          lineNumber++;
+          field.append('\n');
+          i = 0;
+          continue;
+        }
+        char c = line.charAt(i++);
+        if (inQuotes) {
+          if (c != '"') {
+            field.append(c);
+          } else if (i < line.length() && line.charAt(i) == '"') {
+            field.append('"');
+            i++;
+          } else {
+            inQuotes = false;
+          }
+        } else if (c == ',') {
+          fields.add(quoted ? field.toString() : field.toString().trim());
+          field.setLength(0);
+          quoted = false;
+        } else if (c == '"' && !quoted && field.toString().isBlank()) {
+          field.setLength(0);
+          inQuotes = true;
+          quoted = true;
+        } else if (!quoted || !Character.isWhitespace(c)) {
+          field.append(c);
+        }
+      }
+      fields.add(quoted ? field.toString() : field.toString().trim());
+      return fields.toArray(new String[0]);
+    }
+
+    /**
+     * Line the last record started on, counting from 1.
+     */
+    private long getRecordLine() {
+      return recordLine;
+    }
+
+    /**
+     * Whether the last record ended inside a quoted field at the end of the input.
+     */
+    private boolean isUnterminated() {
+      return unterminated;
+    }
+  }
+}
@@ -1,14 +1,42 @@
 package uk.ac.ucl.comp0010.service;
 
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import uk.ac.ucl.comp0010.dto.GradeBatchResult;
+import uk.ac.ucl.comp0010.dto.GradeCursor;
+import uk.ac.ucl.comp0010.dto.GradeDistribution;
+import uk.ac.ucl.comp0010.dto.GradePage;
+import uk.ac.ucl.comp0010.dto.GradeRow;
+import uk.ac.ucl.comp0010.dto.GradeStatistics;
+import uk.ac.ucl.comp0010.dto.GradeSubmission;
+import uk.ac.ucl.comp0010.dto.GradeSummary;
+import uk.ac.ucl.comp0010.dto.GradeView;
+import uk.ac.ucl.comp0010.dto.QueuedGrade;
+import uk.ac.ucl.comp0010.dto.StudentRank;
 import uk.ac.ucl.comp0010.exception.NoGradeAvailableException;
 import uk.ac.ucl.comp0010.exception.NoRegistrationException;
 import uk.ac.ucl.comp0010.model.Grade;
+import uk.ac.ucl.comp0010.model.GradeAggregate.Scope;
+import uk.ac.ucl.comp0010.model.GradeHistogramBucket;
 import uk.ac.ucl.comp0010.model.Module;
-import uk.ac.ucl.comp0010.model.Registration;
 import uk.ac.ucl.comp0010.model.Student;
 import uk.ac.ucl.comp0010.repository.GradeRepository;
 import uk.ac.ucl.comp0010.repository.ModuleRepository;
@@ -18,14 +46,36 @@ import uk.ac.ucl.comp0010.repository.StudentRepository;
 /**
  * Service layer for grade-related business logic.
  * Handles grade calculations, validation, and operations.
+ * Every public method is timed as {@value #TIMER}, tagged with the method name.
  */
 @Service
+@Timed(value = GradeService.TIMER, histogram = true)
 public class GradeService {
 
+  /**
+   * Name of the timer recording each service call.
+   */
+  public static final String TIMER = "grades.service";
+
+  /**
+   * Largest number of grades accepted by a single call to {@link #addGradesInBatch(List)}.
+   */
+  public static final int MAX_BATCH_SIZE = 10_000;
+
+  /**
+   * Largest number of students or modules accepted by a single batch read.
+   */
+  public static final int MAX_BATCH_READ = 500;
+
   private final GradeRepository gradeRepository;
   private final StudentRepository studentRepository;
   private final ModuleRepository moduleRepository;
   private final RegistrationRepository registrationRepository;
+  private final GradeAggregateService gradeAggregateService;
+  private final ObjectProvider<ColumnarGradeStore> columnarGradeStore;
+
+  @PersistenceContext
+  private EntityManager entityManager;
 
   /**
    * Constructor for dependency injection.
@@ -34,56 +84,191 @@ public class GradeService {
    * @param studentRepository repository for student operations
    * @param moduleRepository repository for module operations
    * @param registrationRepository repository for registration operations
+   * @param gradeAggregateService service holding running score totals
+   * @param columnarGradeStore columnar grade copy answering statistics, when enabled
    */
   @Autowired
   public GradeService(GradeRepository gradeRepository,
       StudentRepository studentRepository,
       ModuleRepository moduleRepository,
-      RegistrationRepository registrationRepository) {
+      RegistrationRepository registrationRepository,
+      GradeAggregateService gradeAggregateService,
+      ObjectProvider<ColumnarGradeStore> columnarGradeStore) {
     this.gradeRepository = gradeRepository;
     this.studentRepository = studentRepository;
     this.moduleRepository = moduleRepository;
     this.registrationRepository = registrationRepository;
+    this.gradeAggregateService = gradeAggregateService;
+    this.columnarGradeStore = columnarGradeStore;
   }
 
   /**
    * Calculates the average grade for a student across all modules.
+   * Read from the student's running totals rather than from the grade table.
    *
    * @param studentId the student ID
    * @return the average grade
    * @throws NoGradeAvailableException if no grades available for the student
    */
   public double calculateStudentAverage(Integer studentId) throws NoGradeAvailableException {
-    List<Grade> grades = getGradesByStudent(studentId);
-    if (grades.isEmpty()) {
-      throw new NoGradeAvailableException("No grades available for student ID: " + studentId);
-    }
-
-    return grades.stream()
-        .mapToInt(Grade::getScore)
-        .average()
+    return gradeAggregateService.getAverage(Scope.STUDENT, studentId)
         .orElseThrow(() -> new NoGradeAvailableException(
-            "Could not calculate average for student ID: " + studentId));
+            "No grades available for student ID: " + studentId));
   }
 
   /**
    * Calculates the average grade for a module across all students.
+   * Read from the module's running totals rather than from the grade table.
    *
    * @param moduleCode the module code
    * @return the average grade
    * @throws NoGradeAvailableException if no grades available for the module
    */
   public double calculateModuleAverage(String moduleCode) throws NoGradeAvailableException {
-    List<Grade> grades = getGradesByModule(moduleCode);
-    if (grades.isEmpty()) {
+    return gradeAggregateService.getAverage(Scope.MODULE, moduleCode)
+        .orElseThrow(() -> new NoGradeAvailableException(
+            "No grades available for module: " + moduleCode));
+  }
+
+  /**
+   * Calculates the average grade for an academic year across all students and modules.
+   *
+   * @param academicYear the academic year (e.g., "2024-2025")
+   * @return the average grade
+   * @throws NoGradeAvailableException if no grades available for the academic year
+   */
+  public double calculateAcademicYearAverage(String academicYear)
+      throws NoGradeAvailableException {
+    return gradeAggregateService.getAverage(Scope.ACADEMIC_YEAR, academicYear)
+        .orElseThrow(() -> new NoGradeAvailableException(
+            "No grades available for academic year: " + academicYear));
+  }
+
+  /**
+   * Calculates the average grades of several students with a single query.
+   *
+   * @param studentIds the student IDs, at most {@link #MAX_BATCH_READ}
+   * @return the average of each student that has scored grades
+   * @throws IllegalArgumentException if too many students are requested
+   */
+  public Map<Integer, Double> calculateStudentAverages(Collection<Integer> studentIds) {
+    return gradeAggregateService.getAverages(Scope.STUDENT, batchKeys(studentIds));
+  }
+
+  /**
+   * Calculates the average grades of several modules with a single query.
+   *
+   * @param moduleCodes the module codes, at most {@link #MAX_BATCH_READ}
+   * @return the average of each module that has scored grades
+   * @throws IllegalArgumentException if too many modules are requested
+   */
+  public Map<String, Double> calculateModuleAverages(Collection<String> moduleCodes) {
+    return gradeAggregateService.getAverages(Scope.MODULE, batchKeys(moduleCodes));
+  }
+
+  /**
+   * Gets score statistics (count, average, min, max, standard deviation) for a student.
+   * Scanned from the columnar store when it is current, otherwise computed by the database.
+   *
+   * @param studentId the student ID
+   * @return the statistics for the student
+   * @throws NoGradeAvailableException if no grades available for the student
+   */
+  public GradeStatistics getStudentStatistics(Integer studentId)
+      throws NoGradeAvailableException {
+    ColumnarGradeStore store = currentColumnarStore();
+    GradeStatistics statistics = store != null
+        ? store.getStatistics(Scope.STUDENT, studentId)
+        : gradeRepository.findStatisticsByStudentId(studentId);
+    if (statistics == null || statistics.getCount() == 0) {
+      throw new NoGradeAvailableException("No grades available for student ID: " + studentId);
+    }
+    return statistics;
+  }
+
+  /**
+   * Gets score statistics (count, average, min, max, standard deviation) for a module.
+   * Scanned from the columnar store when it is current, otherwise computed by the database.
+   *
+   * @param moduleCode the module code
+   * @return the statistics for the module
+   * @throws NoGradeAvailableException if no grades available for the module
+   */
+  public GradeStatistics getModuleStatistics(String moduleCode)
+      throws NoGradeAvailableException {
+    ColumnarGradeStore store = currentColumnarStore();
+    GradeStatistics statistics = store != null
+        ? store.getStatistics(Scope.MODULE, moduleCode)
+        : gradeRepository.findStatisticsByModuleCode(moduleCode);
+    if (statistics == null || statistics.getCount() == 0) {
       throw new NoGradeAvailableException("No grades available for module: " + moduleCode);
     }
+    return statistics;
+  }
 
-    return grades.stream()
-        .mapToInt(Grade::getScore)
-        .average()
-        .orElseThrow(() -> new NoGradeAvailableException(
-            "Could not calculate average for module: " + moduleCode));
+  /**
+   * Gets the distribution of scores awarded in a module, read from its maintained 0 to 100
+   * histogram.
+   *
+   * @param moduleCode the module code
+   * @return the distribution of the module's scores
+   * @throws NoGradeAvailableException if no grades available for the module
+   */
+  public GradeDistribution getModuleDistribution(String moduleCode)
+      throws NoGradeAvailableException {
+    GradeDistribution distribution = new GradeDistribution(
+        gradeAggregateService.getHistogram(GradeHistogramBucket.forModule(moduleCode)));
+    if (distribution.getCount() == 0) {
+      throw new NoGradeAvailableException("No grades available for module: " + moduleCode);
+    }
+    return distribution;
+  }
+
+  /**
+   * Ranks a student's average score against the averages of every student with a scored
+   * grade. Averages are compared rounded to whole scores, so close averages share a rank.
+   *
+   * @param studentId the student ID
+   * @return the student's rank
+   * @throws NoGradeAvailableException if no grades available for the student
+   */
+  public StudentRank getStudentRank(Integer studentId) throws NoGradeAvailableException {
+    double average = calculateStudentAverage(studentId);
+    GradeDistribution cohort = new GradeDistribution(
+        gradeAggregateService.getHistogram(GradeHistogramBucket.STUDENT_AVERAGES));
+    return new StudentRank(studentId, null, average, cohort.rankOf(average),
+        cohort.getCount(), cohort.percentileRankOf(average));
+  }
+
+  /**
+   * Ranks a student's best score in a module against every score awarded in it.
+   *
+   * @param studentId the student ID
+   * @param moduleCode the module code
+   * @return the student's rank in the module
+   * @throws NoGradeAvailableException if the student has no scored grade in the module
+   */
+  public StudentRank getStudentRank(Integer studentId, String moduleCode)
+      throws NoGradeAvailableException {
+    int best = gradeRepository.findRowsByStudentId(studentId).stream()
+        .filter(row -> moduleCode.equals(row.getModuleCode()) && row.getScore() != null)
+        .mapToInt(GradeRow::getScore)
+        .max()
+        .orElseThrow(() -> new NoGradeAvailableException("No grades available for student ID: "
+            + studentId + " in module: " + moduleCode));
+    GradeDistribution cohort = new GradeDistribution(
+        gradeAggregateService.getHistogram(GradeHistogramBucket.forModule(moduleCode)));
+    return new StudentRank(studentId, moduleCode, best, cohort.rankOf(best),
+        cohort.getCount(), cohort.percentileRankOf(best));
+  }
+
+  /**
+   * The columnar store, if it is enabled, within its memory cap and not missing changes made
+   * by the current transaction.
+   */
+  private ColumnarGradeStore currentColumnarStore() {
+    ColumnarGradeStore store = columnarGradeStore.getIfAvailable();
+    return store != null && store.isCurrent() ? store : null;
   }
 
   /**
@@ -93,10 +278,71 @@ public class GradeService {
    * @return list of grades for the student
    */
   public List<Grade> getGradesByStudent(Integer studentId) {
-    return ((List<Grade>) gradeRepository.findAll()).stream()
-        .filter(grade -> grade.getStudent() != null
-            && grade.getStudent().getId().equals(studentId))
-        .toList();
+    return gradeRepository.findByStudentId(studentId);
+  }
+
+  /**
+   * Gets all grades for a specific student in the requested response shape.
+   * The summary and ids views are read with constructor-expression projections, so no
+   * entities are loaded.
+   *
+   * @param studentId the student ID
+   * @param view the response shape
+   * @return list of grades, grade summaries or grade rows, depending on the view
+   */
+  public List<?> getGradesByStudent(Integer studentId, GradeView view) {
+    switch (view) {
+      case SUMMARY:
+        return gradeRepository.findSummariesByStudentId(studentId);
+      case IDS:
+      case COLUMNS:
+        return gradeRepository.findRowsByStudentId(studentId);
+      default:
+        return gradeRepository.findByStudentId(studentId);
+    }
+  }
+
+  /**
+   * Gets one page of a student's grades in the requested response shape.
+   *
+   * @param studentId the student ID
+   * @param cursor the page to fetch
+   * @param view the response shape
+   * @return the page of grades, grade summaries or grade rows
+   */
+  public GradePage<?> getGradesByStudent(Integer studentId, GradeCursor cursor,
+      GradeView view) {
+    return gradeRepository.findPageByStudentId(studentId, cursor, view.getType());
+  }
+
+  /**
+   * Gets the grades of several students in the requested response shape.
+   * Every student is read by the same IN query, so the number of queries does not grow with
+   * the number of students.
+   *
+   * @param studentIds the student IDs, at most {@link #MAX_BATCH_READ}
+   * @param view the response shape
+   * @return grades keyed by student ID in the order requested, with an empty list for
+   *     students without grades
+   * @throws IllegalArgumentException if too many students are requested
+   */
+  public Map<Integer, List<?>> getGradesByStudents(Collection<Integer> studentIds,
+      GradeView view) {
+    Set<Integer> ids = batchKeys(studentIds);
+    if (ids.isEmpty()) {
+      return new LinkedHashMap<>();
+    }
+    switch (view) {
+      case SUMMARY:
+        return group(ids, gradeRepository.findSummariesByStudentIdIn(ids),
+            GradeSummary::getStudentId);
+      case IDS:
+      case COLUMNS:
+        return group(ids, gradeRepository.findRowsByStudentIdIn(ids), GradeRow::getStudentId);
+      default:
+        return group(ids, gradeRepository.findByStudentIdInOrderById(ids),
+            grade -> grade.getStudent().getId());
+    }
   }
 
   /**
@@ -106,10 +352,88 @@ public class GradeService {
    * @return list of grades for the module
    */
   public List<Grade> getGradesByModule(String moduleCode) {
-    return ((List<Grade>) gradeRepository.findAll()).stream()
-        .filter(grade -> grade.getModule() != null
-            && grade.getModule().getCode().equals(moduleCode))
-        .toList();
+    return gradeRepository.findByModuleCode(moduleCode);
+  }
+
+  /**
+   * Gets all grades for a specific module in the requested response shape.
+   *
+   * @param moduleCode the module code
+   * @param view the response shape
+   * @return list of grades, grade summaries or grade rows, depending on the view
+   */
+  public List<?> getGradesByModule(String moduleCode, GradeView view) {
+    switch (view) {
+      case SUMMARY:
+        return gradeRepository.findSummariesByModuleCode(moduleCode);
+      case IDS:
+      case COLUMNS:
+        return gradeRepository.findRowsByModuleCode(moduleCode);
+      default:
+        return gradeRepository.findByModuleCode(moduleCode);
+    }
+  }
+
+  /**
+   * Gets one page of a module's grades in the requested response shape.
+   *
+   * @param moduleCode the module code
+   * @param cursor the page to fetch
+   * @param view the response shape
+   * @return the page of grades, grade summaries or grade rows
+   */
+  public GradePage<?> getGradesByModule(String moduleCode, GradeCursor cursor,
+      GradeView view) {
+    return gradeRepository.findPageByModuleCode(moduleCode, cursor, view.getType());
+  }
+
+  /**
+   * Gets the grades of several modules in the requested response shape, reading every
+   * module with the same IN query.
+   *
+   * @param moduleCodes the module codes, at most {@link #MAX_BATCH_READ}
+   * @param view the response shape
+   * @return grades keyed by module code in the order requested, with an empty list for
+   *     modules without grades
+   * @throws IllegalArgumentException if too many modules are requested
+   */
+  public Map<String, List<?>> getGradesByModules(Collection<String> moduleCodes,
+      GradeView view) {
+    Set<String> codes = batchKeys(moduleCodes);
+    if (codes.isEmpty()) {
+      return new LinkedHashMap<>();
+    }
+    switch (view) {
+      case SUMMARY:
+        return group(codes, gradeRepository.findSummariesByModuleCodeIn(codes),
+            GradeSummary::getModuleCode);
+      case IDS:
+      case COLUMNS:
+        return group(codes, gradeRepository.findRowsByModuleCodeIn(codes),
+            GradeRow::getModuleCode);
+      default:
+        return group(codes, gradeRepository.findByModuleCodeInOrderById(codes),
+            grade -> grade.getModule().getCode());
+    }
+  }
+
+  private static <K> Set<K> batchKeys(Collection<K> keys) {
+    Set<K> unique = new LinkedHashSet<>(keys);
+    unique.remove(null);
+    if (unique.size() > MAX_BATCH_READ) {
+      throw new IllegalArgumentException("Batch read exceeds maximum of " + MAX_BATCH_READ);
+    }
+    return unique;
+  }
+
+  private static <K, T> Map<K, List<?>> group(Set<K> keys, List<T> grades,
+      Function<T, K> keyOf) {
+    Map<K, List<T>> groups = new LinkedHashMap<>();
+    keys.forEach(key -> groups.put(key, new ArrayList<>()));
+    for (T grade : grades) {
+      groups.get(keyOf.apply(grade)).add(grade);
+    }
+    return new LinkedHashMap<>(groups);
   }
 
   /**
@@ -120,11 +444,29 @@ public class GradeService {
    * @return true if registered, false otherwise
    */
   public boolean isStudentRegistered(Integer studentId, String moduleCode) {
-    return ((List<Registration>) registrationRepository.findAll()).stream()
-        .anyMatch(reg -> reg.getStudent() != null
-            && reg.getStudent().getId().equals(studentId)
-            && reg.getModule() != null
-            && reg.getModule().getCode().equals(moduleCode));
+    return registrationRepository.existsByStudentIdAndModuleCode(studentId, moduleCode);
+  }
+
+  /**
+   * Checks that a grade could be added for a student in a module, without adding it.
+   * The student and module are looked up in their caches.
+   *
+   * @param studentId the student ID
+   * @param moduleCode the module code
+   * @throws NoSuchElementException if the student or module does not exist
+   * @throws NoRegistrationException if the student is not registered for the module
+   */
+  public void checkGrade(Integer studentId, String moduleCode) throws NoRegistrationException {
+    if (studentRepository.findById(studentId).isEmpty()) {
+      throw new NoSuchElementException("Student not found: " + studentId);
+    }
+    if (moduleRepository.findById(moduleCode).isEmpty()) {
+      throw new NoSuchElementException("Module not found: " + moduleCode);
+    }
+    if (!isStudentRegistered(studentId, moduleCode)) {
+      throw new NoRegistrationException(
+          "Student " + studentId + " is not registered for module " + moduleCode);
+    }
   }
 
   /**
@@ -137,6 +479,7 @@ public class GradeService {
    * @return the saved grade
    * @throws NoRegistrationException if student not registered for module
    */
+  @Transactional
   public Grade addGradeWithValidation(Integer studentId, String moduleCode,
       Integer score, String academicYear) throws NoRegistrationException {
     // Validate registration
@@ -145,17 +488,146 @@ public class GradeService {
           "Student " + studentId + " is not registered for module " + moduleCode);
     }
 
-    // Get student and module
-    Optional<Student> studentOpt = studentRepository.findById(studentId);
-    Optional<Module> moduleOpt = moduleRepository.findById(moduleCode);
+    return addGrade(studentId, moduleCode, score, academicYear)
+        .orElseThrow(() -> new IllegalArgumentException("Student or module not found"));
+  }
 
-    if (studentOpt.isEmpty() || moduleOpt.isEmpty()) {
-      throw new IllegalArgumentException("Student or module not found");
+  /**
+   * Adds a grade for a student in a module, without checking the registration.
+   * The student and module are looked up in their caches; the grade is written against
+   * references to them, so a warm cache saves the two selects Hibernate would otherwise run
+   * to tell whether a cached copy is a new entity. The grade returned holds the looked-up
+   * student and module.
+   *
+   * @param studentId the student ID
+   * @param moduleCode the module code
+   * @param score the grade score
+   * @param academicYear the academic year, or null
+   * @return the saved grade, or empty if the student or module does not exist
+   */
+  @Transactional
+  public Optional<Grade> addGrade(Integer studentId, String moduleCode, Integer score,
+      String academicYear) {
+    Optional<Student> student = studentRepository.findById(studentId);
+    Optional<Module> module = moduleRepository.findById(moduleCode);
+    if (student.isEmpty() || module.isEmpty()) {
+      return Optional.empty();
+    }
+
+    Grade grade = gradeRepository.save(new Grade(score, academicYear,
+        entityManager.getReference(Student.class, studentId),
+        entityManager.getReference(Module.class, moduleCode)));
+    // Write the insert now and stop tracking the grade, so it can hand out the looked-up
+    // entities instead of references that cannot be read once the transaction ends.
+    entityManager.flush();
+    entityManager.detach(grade);
+    grade.setStudent(student.get());
+    grade.setModule(module.get());
+    return Optional.of(grade);
+  }
+
+  /**
+   * Adds many grades in one transaction.
+   * Registrations, students and modules are each resolved with a single query for the
+   * whole batch, and the grades are written with batched JDBC inserts. Rows that fail
+   * validation are reported in the result and do not prevent the others from being saved.
+   *
+   * @param submissions the grades to add
+   * @return the number of grades saved and the rows that were rejected
+   * @throws IllegalArgumentException if the batch is larger than {@link #MAX_BATCH_SIZE}
+   */
+  @Transactional
+  public GradeBatchResult addGradesInBatch(List<GradeSubmission> submissions) {
+    if (submissions.size() > MAX_BATCH_SIZE) {
+      throw new IllegalArgumentException("Batch size exceeds maximum of " + MAX_BATCH_SIZE);
     }
+    return saveBatch(submissions, Map.of());
+  }
+
+  /**
+   * Adds many grades from the write-behind queue in one transaction, at most once each.
+   * Each grade is saved with its tracking ID. A grade whose tracking ID is already saved is
+   * counted as accepted without being saved again, so a batch replayed from the journal after
+   * it was committed is not added twice. Otherwise works as {@link #addGradesInBatch}.
+   *
+   * @param queued the grades to add, with their queue sequence numbers as rows
+   * @return the number of grades saved and the rows that were rejected
+   * @throws IllegalArgumentException if the batch is larger than {@link #MAX_BATCH_SIZE}
+   */
+  @Transactional
+  public GradeBatchResult addQueuedGrades(List<QueuedGrade> queued) {
+    if (queued.size() > MAX_BATCH_SIZE) {
+      throw new IllegalArgumentException("Batch size exceeds maximum of " + MAX_BATCH_SIZE);
+    }
+    if (queued.isEmpty()) {
+      return new GradeBatchResult();
+    }
+
+    Map<Long, String> trackingIds = new HashMap<>();
+    queued.forEach(grade -> trackingIds.put(grade.getSequence(), grade.getTrackingId()));
+    Set<String> saved = new HashSet<>(gradeRepository.findSavedTrackingIds(trackingIds.values()));
+    List<GradeSubmission> submissions = new ArrayList<>(queued.size());
+    for (QueuedGrade grade : queued) {
+      if (!saved.contains(grade.getTrackingId())) {
+        submissions.add(grade.getSubmission());
+      }
+    }
+
+    GradeBatchResult result = saveBatch(submissions, trackingIds);
+    result.accept(saved.size());
+    return result;
+  }
+
+  private GradeBatchResult saveBatch(List<GradeSubmission> submissions,
+      Map<Long, String> trackingIds) {
+    GradeBatchResult result = new GradeBatchResult();
+    if (submissions.isEmpty()) {
+      return result;
+    }
+
+    Set<Integer> studentIds = new HashSet<>();
+    Set<String> moduleCodes = new HashSet<>();
+    for (GradeSubmission submission : submissions) {
+      studentIds.add(submission.getStudentId());
+      moduleCodes.add(submission.getModuleCode());
+    }
+
+    Map<Integer, Student> students = new HashMap<>();
+    studentRepository.findAllById(studentIds).forEach(s -> students.put(s.getId(), s));
+    Map<String, Module> modules = new HashMap<>();
+    moduleRepository.findAllById(moduleCodes).forEach(m -> modules.put(m.getCode(), m));
+    Set<String> registrations = registrationRepository.findKeys(studentIds, moduleCodes)
+        .stream()
+        .map(key -> registrationKey(key.getStudentId(), key.getModuleCode()))
+        .collect(Collectors.toSet());
+
+    List<Grade> grades = new ArrayList<>(submissions.size());
+    for (GradeSubmission submission : submissions) {
+      Student student = students.get(submission.getStudentId());
+      Module module = modules.get(submission.getModuleCode());
+      if (student == null) {
+        result.reject(submission.getRow(), "Student not found: " + submission.getStudentId());
+      } else if (module == null) {
+        result.reject(submission.getRow(), "Module not found: " + submission.getModuleCode());
+      } else if (!registrations.contains(
+          registrationKey(submission.getStudentId(), submission.getModuleCode()))) {
+        result.reject(submission.getRow(), "Student " + submission.getStudentId()
+            + " is not registered for module " + submission.getModuleCode());
+      } else {
+        Grade grade = new Grade(submission.getScore(), submission.getAcademicYear(),
+            student, module);
+        grade.setTrackingId(trackingIds.get(submission.getRow()));
+        grades.add(grade);
+      }
+    }
+
+    gradeRepository.saveAll(grades);
+    result.accept(grades.size());
+    return result;
+  }
 
-    // Create and save grade
-    Grade grade = new Grade(score, academicYear, studentOpt.get(), moduleOpt.get());
-    return gradeRepository.save(grade);
+  private static String registrationKey(Integer studentId, String moduleCode) {
+    return studentId + "/" + moduleCode;
   }
 
   /**
@@ -164,9 +636,12 @@ public class GradeService {
    * @param gradeId the grade ID
    * @return true if deleted, false if not found
    */
+  @Transactional
   public boolean deleteGrade(Integer gradeId) {
-    if (gradeRepository.existsById(gradeId)) {
-      gradeRepository.deleteById(gradeId);
+    // Delete the loaded entity (not by ID) so the removal is published to the aggregates.
+    Optional<Grade> grade = gradeRepository.findById(gradeId);
+    if (grade.isPresent()) {
+      gradeRepository.delete(grade.get());
       return true;
     }
     return false;
@@ -179,6 +654,7 @@ public class GradeService {
    * @param newScore the new score
    * @return the updated grade
    */
+  @Transactional
   public Optional<Grade> updateGrade(Integer gradeId, Integer newScore) {
     Optional<Grade> gradeOpt = gradeRepository.findById(gradeId);
     if (gradeOpt.isPresent()) {
@@ -0,0 +1,222 @@
+package uk.ac.ucl.comp0010.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.ac.ucl.comp0010.dto.GradeSubmission;
+import uk.ac.ucl.comp0010.dto.QueuedGrade;
+
+/**
+ * Append-only file of the grades accepted by the write-behind queue.
+ * Each line is a JSON object: an {@code accept} line written before a submission is queued
+ * and a {@code commit} line once it has been saved or given up on. Submissions without a
+ * commit line are handed back by {@link #open()} so they are saved at least once across a
+ * restart. The file is rewritten on open and truncated whenever nothing is outstanding and
+ * it has grown past {@value #COMPACT_BYTES} bytes.
+ *
+ * <p>Appending only writes a line; {@link #force} puts it on disk. Whichever caller forces
+ * first covers every line appended before it, so concurrent submissions waiting on the disk
+ * share one fsync instead of taking turns.
+ */
+public class GradeSubmissionJournal implements Closeable {
+
+  private static final Logger LOG = LoggerFactory.getLogger(GradeSubmissionJournal.class);
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+  private static final long COMPACT_BYTES = 1L << 20;
+
+  private final Path path;
+  private final boolean fsync;
+  private final Object forceLock = new Object();
+  private FileChannel channel;
+  private long outstanding;
+  // Bytes appended since the journal was created, and how many of them are known to be on
+  // disk. They only grow, so truncating the file does not disturb them.
+  private long written;
+  private long forced;
+
+  /**
+   * Creates a journal; nothing is read or written until {@link #open()}.
+   *
+   * @param path the journal file, created if missing
+   * @param fsync whether {@link #force} and {@link #commit} put lines on disk
+   */
+  public GradeSubmissionJournal(Path path, boolean fsync) {
+    this.path = path;
+    this.fsync = fsync;
+  }
+
+  /**
+   * Reads the submissions accepted but never committed and opens the journal for appending.
+   * A truncated last line, left by a crash mid-write, is skipped.
+   *
+   * @return the outstanding submissions in the order they were accepted
+   * @throws IOException if the journal cannot be read or rewritten
+   */
+  public synchronized List<QueuedGrade> open() throws IOException {
+    Map<Long, QueuedGrade> pending = new LinkedHashMap<>();
+    if (Files.exists(path)) {
+      try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+        String line;
+        while ((line = reader.readLine()) != null) {
+          if (!line.isBlank()) {
+            replay(line, pending);
+          }
+        }
+      }
+    }
+
+    Path parent = path.toAbsolutePath().getParent();
+    Files.createDirectories(parent);
+    Path rewritten = Files.createTempFile(parent, path.getFileName().toString(), ".tmp");
+    try (BufferedWriter writer = Files.newBufferedWriter(rewritten, StandardCharsets.UTF_8)) {
+      for (QueuedGrade grade : pending.values()) {
+        writer.write(acceptLine(grade));
+      }
+    }
+    Files.move(rewritten, path, StandardCopyOption.REPLACE_EXISTING,
+        StandardCopyOption.ATOMIC_MOVE);
+
+    channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    outstanding = pending.size();
+    return new ArrayList<>(pending.values());
+  }
+
+  private static void replay(String line, Map<Long, QueuedGrade> pending) {
+    JsonNode entry;
+    try {
+      entry = MAPPER.readTree(line);
+    } catch (JsonProcessingException e) {
+      LOG.warn("Skipping unreadable grade journal line: {}", line);
+      return;
+    }
+    if ("commit".equals(entry.path("op").asText())) {
+      entry.path("seq").forEach(seq -> pending.remove(seq.asLong()));
+      return;
+    }
+    JsonNode year = entry.path("academic_year");
+    GradeSubmission submission = new GradeSubmission(entry.path("seq").asLong(),
+        entry.path("student_id").asInt(), entry.path("module_code").asText(),
+        entry.path("score").asInt(), year.isNull() || year.isMissingNode() ? null : year.asText());
+    pending.put(submission.getRow(), new QueuedGrade(entry.path("id").asText(), submission));
+  }
+
+  /**
+   * Records an accepted submission. The line is not on disk until {@link #force} is called
+   * with the returned position.
+   *
+   * @param grade the submission about to be queued
+   * @return the position to force
+   * @throws IOException if the line cannot be written
+   */
+  public synchronized long append(QueuedGrade grade) throws IOException {
+    write(acceptLine(grade));
+    outstanding++;
+    return written;
+  }
+
+  /**
+   * Waits until every line up to a position is on disk, forcing the file if no other caller
+   * has done so already. Does nothing unless the journal was created with fsync.
+   *
+   * @param position a position returned by {@link #append}
+   * @throws IOException if the file cannot be forced
+   */
+  public void force(long position) throws IOException {
+    if (!fsync) {
+      return;
+    }
+    synchronized (forceLock) {
+      if (forced >= position) {
+        return;
+      }
+      FileChannel target;
+      long end;
+      synchronized (this) {
+        target = channel;
+        end = written;
+      }
+      if (target == null) {
+        throw new IllegalStateException("Grade journal is not open");
+      }
+      target.force(false);
+      forced = end;
+    }
+  }
+
+  /**
+   * Records that submissions are finished with, saved or not, so they are not replayed.
+   *
+   * @param sequences the sequence numbers of the finished submissions
+   * @throws IOException if the line cannot be written
+   */
+  public void commit(Collection<Long> sequences) throws IOException {
+    if (sequences.isEmpty()) {
+      return;
+    }
+    force(appendCommit(sequences));
+  }
+
+  private synchronized long appendCommit(Collection<Long> sequences) throws IOException {
+    ObjectNode entry = MAPPER.createObjectNode().put("op", "commit");
+    ArrayNode seq = entry.putArray("seq");
+    sequences.forEach(seq::add);
+    write(entry.toString() + "\n");
+    outstanding -= sequences.size();
+    if (outstanding <= 0 && channel.size() > COMPACT_BYTES) {
+      channel.truncate(0);
+      outstanding = 0;
+    }
+    return written;
+  }
+
+  private static String acceptLine(QueuedGrade grade) {
+    GradeSubmission submission = grade.getSubmission();
+    return MAPPER.createObjectNode()
+        .put("op", "accept")
+        .put("seq", grade.getSequence())
+        .put("id", grade.getTrackingId())
+        .put("student_id", submission.getStudentId())
+        .put("module_code", submission.getModuleCode())
+        .put("score", submission.getScore())
+        .put("academic_year", submission.getAcademicYear())
+        .toString() + "\n";
+  }
+
+  private void write(String line) throws IOException {
+    if (channel == null) {
+      throw new IllegalStateException("Grade journal is not open");
+    }
+    ByteBuffer buffer = ByteBuffer.wrap(line.getBytes(StandardCharsets.UTF_8));
+    while (buffer.hasRemaining()) {
+      written += channel.write(buffer);
+    }
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    if (channel != null) {
+      channel.close();
+      channel = null;
+    }
+  }
+}
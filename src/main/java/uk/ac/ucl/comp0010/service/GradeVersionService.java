@@ -0,0 +1,241 @@
+package uk.ac.ucl.comp0010.service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.MonthDay;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.rest.core.annotation.HandleAfterCreate;
+import org.springframework.data.rest.core.annotation.HandleAfterDelete;
+import org.springframework.data.rest.core.annotation.HandleAfterSave;
+import org.springframework.data.rest.core.annotation.RepositoryEventHandler;
+import org.springframework.http.CacheControl;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import uk.ac.ucl.comp0010.dto.GradeRow;
+import uk.ac.ucl.comp0010.event.GradeChangedEvent;
+import uk.ac.ucl.comp0010.model.Module;
+import uk.ac.ucl.comp0010.model.Student;
+
+/**
+ * Version counters of the grades of each student, module and academic year, used as weak
+ * entity tags so clients can revalidate grade reads with {@code If-None-Match}.
+ * A committed grade change bumps the counters of the student, module and year it touches,
+ * before and after the change, and a count of all changes. A tag is read before the data
+ * it describes, so a change that commits in between can only make a tag older than the data,
+ * never newer.
+ * Tags also carry a generation, taken from the clock at startup and bumped after changes
+ * that bypass the grade events (plain SQL loads, aggregate rebuilds) or alter the students
+ * and modules embedded in full grade listings, so no tag outlives the data it was issued for.
+ */
+@Service
+@RepositoryEventHandler
+public class GradeVersionService {
+
+  private final Map<Integer, Long> studentVersions = new ConcurrentHashMap<>();
+  private final Map<String, Long> moduleVersions = new ConcurrentHashMap<>();
+  private final Map<String, Long> academicYearVersions = new ConcurrentHashMap<>();
+  private final AtomicLong allVersion = new AtomicLong();
+  private final AtomicLong generation = new AtomicLong(System.currentTimeMillis());
+  private final MonthDay academicYearCloses;
+  private final Duration closedYearMaxAge;
+
+  /**
+   * Constructor for dependency injection.
+   *
+   * @param academicYearCloses day of the year's final calendar year after which an academic
+   *     year is closed, as {@code --MM-dd}
+   * @param closedYearMaxAge how long clients may reuse reads of a closed academic year
+   *     without revalidating them
+   */
+  @Autowired
+  public GradeVersionService(
+      @Value("${grades.http.academic-year-closes:--10-01}") MonthDay academicYearCloses,
+      @Value("${grades.http.closed-year-max-age:7d}") Duration closedYearMaxAge) {
+    this.academicYearCloses = academicYearCloses;
+    this.closedYearMaxAge = closedYearMaxAge;
+  }
+
+  /**
+   * Bumps the versions a committed grade change affects.
+   *
+   * @param event the change
+   */
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onGradeChanged(GradeChangedEvent event) {
+    bump(event.getBefore());
+    bump(event.getAfter());
+    allVersion.incrementAndGet();
+  }
+
+  /**
+   * Bumps the generation when a student is created, changed or deleted through the REST
+   * resource, as full grade listings embed the student.
+   *
+   * @param student the student
+   */
+  @HandleAfterCreate
+  @HandleAfterSave
+  @HandleAfterDelete
+  public void onStudentChanged(Student student) {
+    invalidateAll();
+  }
+
+  /**
+   * Bumps the generation when a module is created, changed or deleted through the REST
+   * resource, as full grade listings embed the module.
+   *
+   * @param module the module
+   */
+  @HandleAfterCreate
+  @HandleAfterSave
+  @HandleAfterDelete
+  public void onModuleChanged(Module module) {
+    invalidateAll();
+  }
+
+  /**
+   * Makes every tag issued so far stale, once the current transaction commits.
+   */
+  public void invalidateAll() {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          generation.incrementAndGet();
+        }
+      });
+    } else {
+      generation.incrementAndGet();
+    }
+  }
+
+  /**
+   * Tag of reads of one student's grades.
+   *
+   * @param studentId the student ID
+   * @return a weak entity tag
+   */
+  public String studentTag(Integer studentId) {
+    return tag(studentVersions.getOrDefault(studentId, 0L));
+  }
+
+  /**
+   * Tag of reads of several students' grades. Versions only grow, so their sum changes
+   * whenever any of the students' grades do.
+   *
+   * @param studentIds the student IDs
+   * @return a weak entity tag
+   */
+  public String studentsTag(Collection<Integer> studentIds) {
+    return tag(studentIds.stream().filter(Objects::nonNull).distinct()
+        .mapToLong(id -> studentVersions.getOrDefault(id, 0L)).sum());
+  }
+
+  /**
+   * Tag of reads of one module's grades.
+   *
+   * @param moduleCode the module code
+   * @return a weak entity tag
+   */
+  public String moduleTag(String moduleCode) {
+    return tag(moduleVersions.getOrDefault(moduleCode, 0L));
+  }
+
+  /**
+   * Tag of reads of several modules' grades.
+   *
+   * @param moduleCodes the module codes
+   * @return a weak entity tag
+   */
+  public String modulesTag(Collection<String> moduleCodes) {
+    return tag(moduleCodes.stream().filter(Objects::nonNull).distinct()
+        .mapToLong(code -> moduleVersions.getOrDefault(code, 0L)).sum());
+  }
+
+  /**
+   * Tag of reads of one academic year's grades.
+   *
+   * @param academicYear the academic year
+   * @return a weak entity tag
+   */
+  public String academicYearTag(String academicYear) {
+    return tag(academicYearVersions.getOrDefault(academicYear, 0L));
+  }
+
+  /**
+   * Tag of reads that depend on every grade, such as ranks among all students.
+   *
+   * @return a weak entity tag
+   */
+  public String allTag() {
+    return tag(allVersion.get());
+  }
+
+  /**
+   * Whether an academic year, such as {@code 2024-2025}, has closed: its final calendar
+   * year has reached {@code grades.http.academic-year-closes}.
+   *
+   * @param academicYear the academic year
+   * @param today the current date
+   * @return true if the year has closed; false if it is open or not a valid year
+   */
+  public boolean isClosed(String academicYear, LocalDate today) {
+    int separator = academicYear == null ? -1 : academicYear.lastIndexOf('-');
+    try {
+      int endYear = Integer.parseInt(academicYear.substring(separator + 1));
+      return !today.isBefore(academicYearCloses.atYear(endYear));
+    } catch (RuntimeException e) {
+      return false;
+    }
+  }
+
+  /**
+   * Cache-Control of reads of one academic year's grades: clients may reuse reads of a
+   * closed year for {@code grades.http.closed-year-max-age}, and must revalidate others.
+   *
+   * @param academicYear the academic year
+   * @return the cache control
+   */
+  public CacheControl academicYearCacheControl(String academicYear) {
+    return isClosed(academicYear, LocalDate.now())
+        ? CacheControl.maxAge(closedYearMaxAge).cachePrivate()
+        : revalidate();
+  }
+
+  /**
+   * Cache-Control of grade reads that may change at any time: clients may store them but
+   * must revalidate them with their tag before each use.
+   *
+   * @return the cache control
+   */
+  public CacheControl revalidate() {
+    return CacheControl.noCache().cachePrivate();
+  }
+
+  private void bump(GradeRow row) {
+    if (row == null) {
+      return;
+    }
+    if (row.getStudentId() != null) {
+      studentVersions.merge(row.getStudentId(), 1L, Long::sum);
+    }
+    if (row.getModuleCode() != null) {
+      moduleVersions.merge(row.getModuleCode(), 1L, Long::sum);
+    }
+    if (row.getAcademicYear() != null) {
+      academicYearVersions.merge(row.getAcademicYear(), 1L, Long::sum);
+    }
+  }
+
+  private String tag(long version) {
+    return "W/\"" + Long.toString(generation.get(), 36) + "-" + version + "\"";
+  }
+}
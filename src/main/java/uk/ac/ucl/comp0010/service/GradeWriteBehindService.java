@@ -0,0 +1,358 @@
+package uk.ac.ucl.comp0010.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Service;
+import uk.ac.ucl.comp0010.dto.GradeBatchResult;
+import uk.ac.ucl.comp0010.dto.GradeSubmission;
+import uk.ac.ucl.comp0010.dto.QueuedGrade;
+import uk.ac.ucl.comp0010.dto.SubmissionStatus;
+import uk.ac.ucl.comp0010.dto.SubmissionStatus.State;
+import uk.ac.ucl.comp0010.exception.NoRegistrationException;
+
+/**
+ * Accepts grades into a bounded in-memory queue and saves them in the background.
+ * A submission for an unknown student or module, or for a module the student is not
+ * registered for, is refused before it is queued. A single batcher thread drains the queue,
+ * waiting up to the linger time for a batch to fill, and saves each batch with
+ * {@link GradeService#addQueuedGrades}, so the checks repeated at save time and the inserts
+ * are shared across many submissions. A batch that fails with a transient
+ * database error is retried; one that still fails is saved one submission at a time, so only
+ * the submissions that cannot be saved on their own are marked failed. The outcome of each
+ * submission can be looked up by its tracking ID for an hour.
+ *
+ * <p>Without a journal, submissions still queued when the process stops abruptly are lost.
+ * With {@code grades.write-behind.journal} set, every accepted submission is appended to a
+ * {@link GradeSubmissionJournal} first and replayed on the next start until it is saved,
+ * rejected or marked failed; {@code grades.write-behind.fsync} additionally forces the line
+ * to disk before the submission is acknowledged, with one fsync shared by the submissions
+ * waiting for it. Replay is at least once, but each grade is saved with its tracking ID and
+ * a replayed grade that is already saved is skipped, so a crash between saving a batch and
+ * journaling its commit does not save the batch twice.
+ */
+@Service
+@ConditionalOnProperty(value = "grades.write-behind.enabled", havingValue = "true")
+public class GradeWriteBehindService implements SmartLifecycle {
+
+  private static final Logger LOG = LoggerFactory.getLogger(GradeWriteBehindService.class);
+  private static final int SAVE_ATTEMPTS = 3;
+  private static final Duration RETRY_BACKOFF = Duration.ofMillis(100);
+
+  private final GradeService gradeService;
+  private final BlockingQueue<QueuedGrade> queue;
+  private final int batchSize;
+  private final Duration linger;
+  private final GradeSubmissionJournal journal;
+  private final DistributionSummary batchSizes;
+  private final Cache<String, SubmissionStatus> statuses = Caffeine.newBuilder()
+      .maximumSize(1_000_000)
+      .expireAfterWrite(Duration.ofHours(1))
+      .build();
+  private long sequence;
+  // Submissions journaled but not yet queued, each holding a place in the queue.
+  private int reserved;
+  private volatile boolean running;
+  private Thread batcher;
+
+  /**
+   * Constructor for dependency injection.
+   *
+   * @param gradeService service that saves each batch
+   * @param registry registry for the queue depth gauge and batch size summary
+   * @param capacity maximum number of submissions waiting to be saved
+   * @param batchSize maximum number of submissions saved in one transaction
+   * @param linger how long the batcher waits for more submissions before saving a batch
+   * @param journalPath journal file, or empty to keep submissions in memory only
+   * @param fsync whether each journal line is forced to disk before acknowledging
+   */
+  @Autowired
+  public GradeWriteBehindService(GradeService gradeService, MeterRegistry registry,
+      @Value("${grades.write-behind.capacity:10000}") int capacity,
+      @Value("${grades.write-behind.batch-size:500}") int batchSize,
+      @Value("${grades.write-behind.linger:20ms}") Duration linger,
+      @Value("${grades.write-behind.journal:}") String journalPath,
+      @Value("${grades.write-behind.fsync:false}") boolean fsync) {
+    if (batchSize < 1 || batchSize > GradeService.MAX_BATCH_SIZE) {
+      throw new IllegalArgumentException(
+          "grades.write-behind.batch-size must be between 1 and " + GradeService.MAX_BATCH_SIZE);
+    }
+    this.gradeService = gradeService;
+    this.queue = new ArrayBlockingQueue<>(capacity);
+    this.batchSize = batchSize;
+    this.linger = linger;
+    this.journal = journalPath.isEmpty() ? null
+        : new GradeSubmissionJournal(Path.of(journalPath), fsync);
+    Gauge.builder("grades.write-behind.queued", queue, BlockingQueue::size)
+        .description("Grade submissions waiting to be saved")
+        .register(registry);
+    this.batchSizes = DistributionSummary.builder("grades.write-behind.batch.size")
+        .description("Grade submissions saved per batch")
+        .register(registry);
+  }
+
+  /**
+   * Queues a grade to be saved in the background.
+   *
+   * @param params map containing student_id, module_code, score, and optionally academic_year
+   * @return the queued status, carrying the tracking ID
+   * @throws IllegalArgumentException if a required parameter is missing or not a number
+   * @throws NoSuchElementException if the student or module does not exist
+   * @throws NoRegistrationException if the student is not registered for the module
+   * @throws RejectedExecutionException if the queue is full or the service is stopped
+   */
+  public SubmissionStatus submit(Map<String, ?> params) throws NoRegistrationException {
+    GradeSubmission submission = GradeSubmission.fromParams(0, params);
+    gradeService.checkGrade(submission.getStudentId(), submission.getModuleCode());
+
+    QueuedGrade grade;
+    long position = 0;
+    synchronized (this) {
+      if (!running) {
+        throw new RejectedExecutionException("Grade queue is not accepting submissions");
+      }
+      if (queue.remainingCapacity() <= reserved) {
+        throw new RejectedExecutionException("Grade queue is full");
+      }
+      grade = new QueuedGrade(UUID.randomUUID().toString(),
+          new GradeSubmission(sequence + 1, submission.getStudentId(),
+              submission.getModuleCode(), submission.getScore(), submission.getAcademicYear()));
+      if (journal != null) {
+        try {
+          position = journal.append(grade);
+        } catch (IOException e) {
+          throw new UncheckedIOException("Could not journal grade submission", e);
+        }
+      }
+      sequence++;
+      reserved++;
+    }
+
+    // Outside the lock, so the submissions arriving meanwhile share the fsync.
+    try {
+      if (journal != null) {
+        journal.force(position);
+      }
+    } catch (IOException e) {
+      synchronized (this) {
+        reserved--;
+      }
+      commit(List.of(grade.getSequence()));
+      throw new UncheckedIOException("Could not journal grade submission", e);
+    }
+    SubmissionStatus status = new SubmissionStatus(grade.getTrackingId(), State.QUEUED, null);
+    statuses.put(grade.getTrackingId(), status);
+    synchronized (this) {
+      queue.add(grade);
+      reserved--;
+    }
+    return status;
+  }
+
+  /**
+   * Looks up the progress of a queued submission.
+   *
+   * @param trackingId the ID returned by {@link #submit}
+   * @return the status, or empty if the ID is unknown or has expired
+   */
+  public Optional<SubmissionStatus> getStatus(String trackingId) {
+    return Optional.ofNullable(statuses.getIfPresent(trackingId));
+  }
+
+  /**
+   * Replays journaled submissions that were never saved, then starts the batcher.
+   */
+  @Override
+  public synchronized void start() {
+    if (journal != null) {
+      List<QueuedGrade> pending;
+      try {
+        pending = journal.open();
+      } catch (IOException e) {
+        throw new UncheckedIOException("Could not open grade journal", e);
+      }
+      if (!pending.isEmpty()) {
+        LOG.info("Replaying {} journaled grade submissions", pending.size());
+      }
+      for (int from = 0; from < pending.size(); from += batchSize) {
+        List<QueuedGrade> batch = pending.subList(from, Math.min(from + batchSize, pending.size()));
+        batch.forEach(grade -> statuses.put(grade.getTrackingId(),
+            new SubmissionStatus(grade.getTrackingId(), State.QUEUED, null)));
+        save(batch);
+        sequence = Math.max(sequence, batch.get(batch.size() - 1).getSequence());
+      }
+    }
+    running = true;
+    batcher = new Thread(this::drain, "grade-write-behind");
+    batcher.setDaemon(true);
+    batcher.start();
+  }
+
+  /**
+   * Stops accepting submissions and waits for the queued ones to be saved.
+   */
+  @Override
+  public void stop() {
+    synchronized (this) {
+      running = false;
+    }
+    if (batcher == null) {
+      return;
+    }
+    try {
+      batcher.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    if (journal != null) {
+      try {
+        journal.close();
+      } catch (IOException e) {
+        LOG.warn("Could not close grade journal", e);
+      }
+    }
+  }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+
+  private void drain() {
+    List<QueuedGrade> batch = new ArrayList<>(batchSize);
+    while (isAccepting() || !queue.isEmpty()) {
+      try {
+        QueuedGrade first = queue.poll(100, TimeUnit.MILLISECONDS);
+        if (first == null) {
+          continue;
+        }
+        batch.add(first);
+        long deadline = System.nanoTime() + linger.toNanos();
+        while (batch.size() < batchSize) {
+          queue.drainTo(batch, batchSize - batch.size());
+          long wait = deadline - System.nanoTime();
+          if (batch.size() >= batchSize || wait <= 0) {
+            break;
+          }
+          QueuedGrade next = queue.poll(wait, TimeUnit.NANOSECONDS);
+          if (next == null) {
+            break;
+          }
+          batch.add(next);
+        }
+        save(batch);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      } finally {
+        batch.clear();
+      }
+    }
+  }
+
+  private synchronized boolean isAccepting() {
+    return running || reserved > 0;
+  }
+
+  private void save(List<QueuedGrade> batch) {
+    try {
+      record(batch, saveWithRetries(batch));
+      return;
+    } catch (RuntimeException e) {
+      if (batch.size() == 1) {
+        fail(batch.get(0), e);
+        return;
+      }
+      LOG.warn("Could not save {} queued grades together, saving them one at a time",
+          batch.size(), e);
+    }
+    for (QueuedGrade grade : batch) {
+      List<QueuedGrade> single = List.of(grade);
+      try {
+        record(single, gradeService.addQueuedGrades(single));
+      } catch (RuntimeException e) {
+        fail(grade, e);
+      }
+    }
+  }
+
+  private GradeBatchResult saveWithRetries(List<QueuedGrade> batch) {
+    for (int attempt = 1; ; attempt++) {
+      try {
+        return gradeService.addQueuedGrades(batch);
+      } catch (TransientDataAccessException | RecoverableDataAccessException e) {
+        if (attempt == SAVE_ATTEMPTS) {
+          throw e;
+        }
+        LOG.warn("Could not save {} queued grades, retrying: {}", batch.size(),
+            e.getMessage());
+        try {
+          Thread.sleep(RETRY_BACKOFF.toMillis() * attempt);
+        } catch (InterruptedException interrupted) {
+          Thread.currentThread().interrupt();
+          throw e;
+        }
+      }
+    }
+  }
+
+  private void record(List<QueuedGrade> batch, GradeBatchResult result) {
+    batchSizes.record(batch.size());
+    Map<Long, String> rejected = new HashMap<>();
+    result.getRejected().forEach(row -> rejected.put(row.getRow(), row.getReason()));
+    List<Long> sequences = new ArrayList<>(batch.size());
+    for (QueuedGrade grade : batch) {
+      String reason = rejected.get(grade.getSequence());
+      statuses.put(grade.getTrackingId(), new SubmissionStatus(grade.getTrackingId(),
+          reason == null ? State.SAVED : State.REJECTED, reason));
+      sequences.add(grade.getSequence());
+    }
+    commit(sequences);
+  }
+
+  /**
+   * Marks a submission that could not be saved on its own as failed, and journals it as
+   * finished so that a restart does not save it behind the status it reported.
+   */
+  private void fail(QueuedGrade grade, RuntimeException e) {
+    LOG.error("Could not save queued grade {}", grade.getTrackingId(), e);
+    statuses.put(grade.getTrackingId(),
+        new SubmissionStatus(grade.getTrackingId(), State.FAILED, e.getMessage()));
+    commit(List.of(grade.getSequence()));
+  }
+
+  private void commit(List<Long> sequences) {
+    if (journal != null) {
+      try {
+        journal.commit(sequences);
+      } catch (IOException e) {
+        LOG.error("Could not journal finished grades; they will be saved again on restart", e);
+      }
+    }
+  }
+}
@@ -0,0 +1,88 @@
+package uk.ac.ucl.comp0010.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import uk.ac.ucl.comp0010.dto.GradeSummary;
+import uk.ac.ucl.comp0010.exception.NoGradeAvailableException;
+import uk.ac.ucl.comp0010.model.GradeAggregate;
+import uk.ac.ucl.comp0010.model.GradeAggregate.Scope;
+import uk.ac.ucl.comp0010.repository.ReactiveGradeRepository;
+
+/**
+ * Non-blocking counterpart of the {@link GradeService} read operations.
+ * Grade listings stream as summaries and averages come from the running grade aggregates,
+ * with the same not-found errors as the blocking service.
+ */
+@Service
+public class ReactiveGradeService {
+
+  private final ReactiveGradeRepository reactiveGradeRepository;
+
+  /**
+   * Constructor for dependency injection.
+   *
+   * @param reactiveGradeRepository repository for reactive grade reads
+   */
+  @Autowired
+  public ReactiveGradeService(ReactiveGradeRepository reactiveGradeRepository) {
+    this.reactiveGradeRepository = reactiveGradeRepository;
+  }
+
+  /**
+   * Streams a student's grades.
+   *
+   * @param studentId the student ID
+   * @return grade summaries ordered by grade ID
+   */
+  public Flux<GradeSummary> getGradesByStudent(Integer studentId) {
+    return reactiveGradeRepository.findSummariesByStudentId(studentId);
+  }
+
+  /**
+   * Streams a module's grades.
+   *
+   * @param moduleCode the module code
+   * @return grade summaries ordered by grade ID
+   */
+  public Flux<GradeSummary> getGradesByModule(String moduleCode) {
+    return reactiveGradeRepository.findSummariesByModuleCode(moduleCode);
+  }
+
+  /**
+   * Average score of a student's grades.
+   *
+   * @param studentId the student ID
+   * @return the average, or a {@link NoGradeAvailableException} error if there are no grades
+   */
+  public Mono<Double> calculateStudentAverage(Integer studentId) {
+    return average(Scope.STUDENT, studentId, "No grades available for student ID: " + studentId);
+  }
+
+  /**
+   * Average score of a module's grades.
+   *
+   * @param moduleCode the module code
+   * @return the average, or a {@link NoGradeAvailableException} error if there are no grades
+   */
+  public Mono<Double> calculateModuleAverage(String moduleCode) {
+    return average(Scope.MODULE, moduleCode, "No grades available for module: " + moduleCode);
+  }
+
+  /**
+   * Average score of the grades recorded in an academic year.
+   *
+   * @param academicYear the academic year
+   * @return the average, or a {@link NoGradeAvailableException} error if there are no grades
+   */
+  public Mono<Double> calculateAcademicYearAverage(String academicYear) {
+    return average(Scope.ACADEMIC_YEAR, academicYear,
+        "No grades available for academic year: " + academicYear);
+  }
+
+  private Mono<Double> average(Scope scope, Object key, String missingMessage) {
+    return reactiveGradeRepository.findAverageById(GradeAggregate.id(scope, key))
+        .switchIfEmpty(Mono.error(() -> new NoGradeAvailableException(missingMessage)));
+  }
+}
@@ -0,0 +1,185 @@
+package uk.ac.ucl.comp0010.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import uk.ac.ucl.comp0010.config.CacheConfig;
+import uk.ac.ucl.comp0010.dto.SyntheticDataSet;
+
+/**
+ * Bulk-loads a synthetic university into the database for load tests and benchmarks.
+ * Rows are written with batched JDBC inserts rather than through JPA, replacing every
+ * student, module, registration and grade; the caches and grade aggregates are rebuilt
+ * afterwards. Scores combine a per-student ability, a per-module difficulty and noise,
+ * and a small share of registrations have no grade yet.
+ */
+@Service
+public class SyntheticDataGenerator {
+
+  private static final Logger LOG = LoggerFactory.getLogger(SyntheticDataGenerator.class);
+
+  private static final int INSERT_BATCH = 10_000;
+  private static final double GRADED_SHARE = 0.92;
+  private static final double MNC_SHARE = 0.25;
+  private static final double DOUBLE_CREDIT_SHARE = 0.2;
+
+  private static final String[] FIRST_NAMES = {
+      "Amara", "Ben", "Chen", "Daniel", "Elif", "Fatima", "George", "Hana", "Isaac", "Jia",
+      "Kofi", "Laura", "Mohammed", "Nina", "Oliver", "Priya", "Ravi", "Sofia", "Tom", "Yusuf"
+  };
+  private static final String[] LAST_NAMES = {
+      "Ahmed", "Brown", "Clarke", "Davies", "Evans", "Fernandes", "Green", "Hughes", "Ibrahim",
+      "Jones", "Khan", "Li", "Murphy", "Nguyen", "Okafor", "Patel", "Rossi", "Singh", "Taylor",
+      "Wang"
+  };
+  private static final String[] TOPICS = {
+      "Algorithms", "Databases", "Networks", "Statistics", "Calculus", "Mechanics", "Economics",
+      "Security", "Optimisation", "Probability", "Compilers", "Graphics", "Machine Learning",
+      "Linear Algebra", "Thermodynamics", "Game Theory"
+  };
+
+  private static final String MODULE_SQL =
+      "INSERT INTO module (code, name, mnc, credits) VALUES (?, ?, ?, ?)";
+  private static final String STUDENT_SQL =
+      "INSERT INTO student (id, first_name, last_name, username, email) VALUES (?, ?, ?, ?, ?)";
+  private static final String REGISTRATION_SQL =
+      "INSERT INTO registration (student_id, module_code) VALUES (?, ?)";
+  private static final String GRADE_SQL =
+      "INSERT INTO grade (id, score, academic_year, student_id, module_code) "
+      + "VALUES (NEXT VALUE FOR grade_seq, ?, ?, ?, ?)";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final CacheManager cacheManager;
+  private final GradeAggregateService aggregateService;
+  private final ObjectProvider<ColumnarGradeStore> columnarStore;
+
+  /**
+   * Constructor for dependency injection.
+   *
+   * @param jdbcTemplate template used for the batched inserts
+   * @param cacheManager cache manager whose student and module caches are cleared
+   * @param aggregateService service used to rebuild the grade aggregates
+   * @param columnarStore columnar grade copy to reload, when enabled
+   */
+  @Autowired
+  public SyntheticDataGenerator(JdbcTemplate jdbcTemplate, CacheManager cacheManager,
+      GradeAggregateService aggregateService, ObjectProvider<ColumnarGradeStore> columnarStore) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.cacheManager = cacheManager;
+    this.aggregateService = aggregateService;
+    this.columnarStore = columnarStore;
+  }
+
+  /**
+   * Replaces the database contents with the given data set.
+   * Loading the same data set twice produces the same rows, apart from grade IDs.
+   *
+   * @param dataSet the data set to load
+   * @return the number of grades written
+   */
+  public long load(SyntheticDataSet dataSet) {
+    final long started = System.nanoTime();
+    jdbcTemplate.update("DELETE FROM grade");
+    jdbcTemplate.update("DELETE FROM registration");
+    jdbcTemplate.update("DELETE FROM module");
+    jdbcTemplate.update("DELETE FROM student");
+
+    int[] difficulty = new int[dataSet.getModules()];
+    List<Object[]> rows = new ArrayList<>(INSERT_BATCH);
+    for (int m = 0; m < dataSet.getModules(); m++) {
+      SplittableRandom random = dataSet.random(m, 3);
+      difficulty[m] = (int) Math.round(5 * random.nextGaussian());
+      String name = TOPICS[random.nextInt(TOPICS.length)] + " " + (1 + m / TOPICS.length);
+      boolean mnc = random.nextDouble() < MNC_SHARE;
+      int credits = random.nextDouble() < DOUBLE_CREDIT_SHARE ? 30 : 15;
+      rows.add(new Object[] {dataSet.moduleCode(m), name, mnc, credits});
+      flushIfFull(rows, MODULE_SQL);
+    }
+    flush(rows, MODULE_SQL);
+
+    for (int s = 1; s <= dataSet.getStudents(); s++) {
+      SplittableRandom random = dataSet.random(s, 2);
+      String firstName = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+      String lastName = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+      String username = (firstName.charAt(0) + lastName).toLowerCase() + s;
+      rows.add(new Object[] {s, firstName, lastName, username, username + "@ucl.ac.uk"});
+      flushIfFull(rows, STUDENT_SQL);
+    }
+    flush(rows, STUDENT_SQL);
+
+    List<Object[]> gradeRows = new ArrayList<>(INSERT_BATCH);
+    long grades = 0;
+    for (int s = 1; s <= dataSet.getStudents(); s++) {
+      SplittableRandom random = dataSet.random(s, 4);
+      double ability = 60 + 9 * random.nextGaussian();
+      String academicYear = dataSet.academicYear(s);
+      for (int i = 0; i < dataSet.getModulesPerStudent(); i++) {
+        int module = dataSet.moduleIndex(s, i);
+        String code = dataSet.moduleCode(module);
+        rows.add(new Object[] {s, code});
+        flushIfFull(rows, REGISTRATION_SQL);
+        double score = ability + difficulty[module] + 8 * random.nextGaussian();
+        if (random.nextDouble() < GRADED_SHARE) {
+          gradeRows.add(new Object[] {clamp(score), academicYear, s, code});
+          grades++;
+          flushIfFull(gradeRows, GRADE_SQL);
+        }
+      }
+    }
+    flush(rows, REGISTRATION_SQL);
+    flush(gradeRows, GRADE_SQL);
+
+    clearCache(CacheConfig.STUDENTS);
+    clearCache(CacheConfig.MODULES);
+    aggregateService.rebuild();
+    columnarStore.ifAvailable(SyntheticDataGenerator::reloadWhenCommitted);
+    LOG.info("Loaded {} students, {} modules and {} grades in {} ms", dataSet.getStudents(),
+        dataSet.getModules(), grades, (System.nanoTime() - started) / 1_000_000);
+    return grades;
+  }
+
+  private static void reloadWhenCommitted(ColumnarGradeStore store) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          store.reload();
+        }
+      });
+    } else {
+      store.reload();
+    }
+  }
+
+  private static long clamp(double score) {
+    return Math.max(0, Math.min(100, Math.round(score)));
+  }
+
+  private void clearCache(String name) {
+    if (cacheManager.getCache(name) != null) {
+      cacheManager.getCache(name).clear();
+    }
+  }
+
+  private void flushIfFull(List<Object[]> rows, String sql) {
+    if (rows.size() >= INSERT_BATCH) {
+      flush(rows, sql);
+    }
+  }
+
+  private void flush(List<Object[]> rows, String sql) {
+    if (!rows.isEmpty()) {
+      jdbcTemplate.batchUpdate(sql, rows);
+      rows.clear();
+    }
+  }
+}
@@ -12,10 +12,10 @@ INSERT INTO student (id, first_name, last_name, username, email) VALUES
   (3, 'Alice', 'Johnson', 'ajohnson', 'alice.johnson@ucl.ac.uk');
 
 -- Insert sample modules
-INSERT INTO module (code, name, mnc) VALUES
-  ('COMP0010', 'Software Engineering', true),
-  ('COMP0011', 'Mathematics and Statistics', false),
-  ('COMP0012', 'Compilers', true);
+INSERT INTO module (code, name, mnc, credits) VALUES
+  ('COMP0010', 'Software Engineering', true, 15),
+  ('COMP0011', 'Mathematics and Statistics', false, 15),
+  ('COMP0012', 'Compilers', true, 15);
 
 -- Insert sample registrations
 INSERT INTO registration (student_id, module_code) VALUES
@@ -27,9 +27,10 @@ INSERT INTO registration (student_id, module_code) VALUES
   (3, 'COMP0012');
 
 -- Insert sample grades
-INSERT INTO grade (score, academic_year, student_id, module_code) VALUES
-  (85, '2024-2025', 1, 'COMP0010'),
-  (92, '2024-2025', 1, 'COMP0011'),
-  (78, '2024-2025', 2, 'COMP0010'),
-  (88, '2024-2025', 2, 'COMP0012'),
-  (95, '2024-2025', 3, 'COMP0011');
+-- Grade IDs come from the pooled grade_seq sequence shared with Hibernate.
+INSERT INTO grade (id, score, academic_year, student_id, module_code) VALUES
+  (NEXT VALUE FOR grade_seq, 85, '2024-2025', 1, 'COMP0010'),
+  (NEXT VALUE FOR grade_seq, 92, '2024-2025', 1, 'COMP0011'),
+  (NEXT VALUE FOR grade_seq, 78, '2024-2025', 2, 'COMP0010'),
+  (NEXT VALUE FOR grade_seq, 88, '2024-2025', 2, 'COMP0012'),
+  (NEXT VALUE FOR grade_seq, 95, '2024-2025', 3, 'COMP0011');
@@ -0,0 +1,205 @@
+package uk.ac.ucl.comp0010.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+import uk.ac.ucl.comp0010.model.Module;
+import uk.ac.ucl.comp0010.model.Student;
+import uk.ac.ucl.comp0010.repository.ModuleRepository;
+import uk.ac.ucl.comp0010.repository.StudentRepository;
+
+/**
+ * Integration tests for the student and module reference data cache.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithMockUser
+public class CacheConfigTest {
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private StudentRepository studentRepository;
+
+  @Autowired
+  private ModuleRepository moduleRepository;
+
+  @Autowired
+  private CaffeineCacheManager caffeineCacheManager;
+
+  @Autowired
+  private TransactionTemplate transactionTemplate;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  /**
+   * Set up test data before each test.
+   */
+  @BeforeEach
+  void setUp() {
+    studentRepository.save(new Student(900, "Cache", "Test", "ctest", "ctest@ucl.ac.uk"));
+    moduleRepository.save(new Module("CACHE01", "Cache Test Module", false));
+  }
+
+  /**
+   * Remove test data after each test.
+   */
+  @AfterEach
+  void tearDown() {
+    studentRepository.deleteById(900);
+    moduleRepository.deleteById("CACHE01");
+  }
+
+  @SuppressWarnings("unchecked")
+  private Cache<Object, Object> nativeCache(String name) {
+    return (Cache<Object, Object>) caffeineCacheManager.getCache(name).getNativeCache();
+  }
+
+  /**
+   * Test repeated lookups are served from the cache.
+   */
+  @Test
+  void testFindByIdIsCached() {
+    long hits = nativeCache(CacheConfig.STUDENTS).stats().hitCount();
+
+    studentRepository.findById(900);
+    studentRepository.findById(900);
+    studentRepository.findById(900);
+
+    assertEquals(hits + 2, nativeCache(CacheConfig.STUDENTS).stats().hitCount());
+    assertNotNull(nativeCache(CacheConfig.STUDENTS).getIfPresent(900));
+  }
+
+  /**
+   * Test a lookup for a missing ID is not cached.
+   */
+  @Test
+  void testMissingEntityIsNotCached() {
+    studentRepository.findById(-1);
+
+    assertNull(nativeCache(CacheConfig.STUDENTS).getIfPresent(-1));
+  }
+
+  /**
+   * Test saving through the repository evicts the cached entry.
+   */
+  @Test
+  void testSaveEvicts() {
+    moduleRepository.findById("CACHE01");
+    assertNotNull(nativeCache(CacheConfig.MODULES).getIfPresent("CACHE01"));
+
+    moduleRepository.save(new Module("CACHE01", "Renamed Module", true));
+
+    assertNull(nativeCache(CacheConfig.MODULES).getIfPresent("CACHE01"));
+    assertEquals("Renamed Module", moduleRepository.findById("CACHE01").get().getName());
+  }
+
+  /**
+   * Test updating through the Spring Data REST endpoint evicts the cached entry.
+   */
+  @Test
+  void testRestUpdateEvicts() throws Exception {
+    studentRepository.findById(900);
+
+    mockMvc.perform(patch("/students/900")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content("{\"firstName\": \"Patched\"}"))
+        .andExpect(status().is2xxSuccessful());
+
+    assertEquals("Patched", studentRepository.findById(900).get().getFirstName());
+  }
+
+  /**
+   * Test each lookup gets its own copy, so editing a cached student changes nothing for
+   * other readers.
+   */
+  @Test
+  void testCachedEntitiesAreCopies() {
+    studentRepository.findById(900);
+    Student first = studentRepository.findById(900).get();
+    first.setFirstName("Edited");
+
+    Student second = studentRepository.findById(900).get();
+
+    assertNotSame(first, second);
+    assertEquals("Cache", second.getFirstName());
+  }
+
+  /**
+   * Test a REST update that fails to save leaves the cached entry as it was.
+   */
+  @Test
+  void testFailedRestUpdateDoesNotReachCache() throws Exception {
+    studentRepository.findById(900);
+
+    mockMvc.perform(patch("/students/900")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content("{\"firstName\": \"" + "x".repeat(40) + "\"}"))
+        .andExpect(status().is4xxClientError());
+
+    assertEquals("Cache", studentRepository.findById(900).get().getFirstName());
+  }
+
+  /**
+   * Test the Hibernate second-level cache stays off outside the l2cache profile.
+   */
+  @Test
+  void testSecondLevelCacheIsOffByDefault() {
+    assertFalse(entityManagerFactory.unwrap(SessionFactory.class).getSessionFactoryOptions()
+        .isSecondLevelCacheEnabled());
+  }
+
+  /**
+   * Test entries loaded in a transaction that rolls back never reach the cache.
+   */
+  @Test
+  void testRolledBackTransactionDoesNotPopulateCache() {
+    transactionTemplate.executeWithoutResult(status -> {
+      studentRepository.save(new Student(901, "Rolled", "Back", "rback", "rback@ucl.ac.uk"));
+      studentRepository.findById(901);
+      status.setRollbackOnly();
+    });
+
+    assertNull(nativeCache(CacheConfig.STUDENTS).getIfPresent(901));
+    assertEquals(false, studentRepository.findById(901).isPresent());
+  }
+
+  /**
+   * Test hit and miss counters are published as metrics.
+   */
+  @Test
+  void testCacheMetricsArePublished() {
+    studentRepository.findById(900);
+    studentRepository.findById(900);
+
+    assertNotNull(meterRegistry.find("cache.gets")
+        .tags("cache", CacheConfig.STUDENTS, "result", "hit").functionCounter());
+    assertNotNull(meterRegistry.find("cache.gets")
+        .tags("cache", CacheConfig.STUDENTS, "result", "miss").functionCounter());
+  }
+}
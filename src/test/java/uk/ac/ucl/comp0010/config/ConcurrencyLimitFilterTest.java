@@ -0,0 +1,127 @@
+package uk.ac.ucl.comp0010.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+/**
+ * Unit tests for ConcurrencyLimitFilter.
+ */
+public class ConcurrencyLimitFilterTest {
+
+  private MeterRegistry registry;
+  private ConcurrencyLimitFilter filter;
+
+  /**
+   * Set up a filter allowing one request at a time.
+   */
+  @BeforeEach
+  void setUp() {
+    registry = new SimpleMeterRegistry();
+    filter = new ConcurrencyLimitFilter(1, Duration.ofMillis(50), registry);
+  }
+
+  private static MockHttpServletRequest request(String uri) {
+    return new MockHttpServletRequest("GET", uri);
+  }
+
+  /**
+   * Test a request under the limit passes through.
+   */
+  @Test
+  void testRequestUnderLimitPasses() throws Exception {
+    MockFilterChain chain = new MockFilterChain();
+    MockHttpServletResponse response = new MockHttpServletResponse();
+
+    filter.doFilter(request("/grades/student/1"), response, chain);
+
+    assertEquals(200, response.getStatus());
+    assertEquals("/grades/student/1",
+        ((MockHttpServletRequest) chain.getRequest()).getRequestURI());
+  }
+
+  /**
+   * Test a request over the limit is refused once the queue timeout expires.
+   */
+  @Test
+  void testRequestOverLimitRefused() throws Exception {
+    CountDownLatch running = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    Thread holder = new Thread(() -> {
+      try {
+        filter.doFilter(request("/grades/student/1"), new MockHttpServletResponse(),
+            (req, res) -> {
+              running.countDown();
+              try {
+                release.await();
+              } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+              }
+            });
+      } catch (Exception e) {
+        throw new IllegalStateException(e);
+      }
+    });
+    holder.start();
+    assertTrue(running.await(5, TimeUnit.SECONDS));
+    assertEquals(1.0, registry.get("grades.concurrency.in.flight").gauge().value());
+
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    filter.doFilter(request("/grades/student/2"), response, new MockFilterChain());
+
+    assertEquals(503, response.getStatus());
+    assertEquals("1", response.getHeader("Retry-After"));
+    assertEquals(1.0, registry.get("grades.concurrency.rejected").counter().count());
+
+    release.countDown();
+    holder.join();
+    assertEquals(0.0, registry.get("grades.concurrency.in.flight").gauge().value());
+  }
+
+  /**
+   * Test a slot is released when the request fails.
+   */
+  @Test
+  void testSlotReleasedOnFailure() throws Exception {
+    assertThrows(IllegalStateException.class, () ->
+        filter.doFilter(request("/grades/student/1"), new MockHttpServletResponse(),
+            (req, res) -> {
+              throw new IllegalStateException("boom");
+            }));
+
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    filter.doFilter(request("/grades/student/1"), response, new MockFilterChain());
+    assertEquals(200, response.getStatus());
+  }
+
+  /**
+   * Test paths outside /grades are not limited.
+   */
+  @Test
+  void testOtherPathsNotLimited() {
+    assertTrue(filter.shouldNotFilter(request("/students")));
+    assertTrue(filter.shouldNotFilter(request("/gradesheet")));
+    assertTrue(!filter.shouldNotFilter(request("/grades")));
+    assertTrue(!filter.shouldNotFilter(request("/grades/module/COMP0010")));
+  }
+
+  /**
+   * Test a non-positive limit is rejected.
+   */
+  @Test
+  void testInvalidLimit() {
+    assertThrows(IllegalArgumentException.class,
+        () -> new ConcurrencyLimitFilter(0, Duration.ofSeconds(1), registry));
+  }
+}
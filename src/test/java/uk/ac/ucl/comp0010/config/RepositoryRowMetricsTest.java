@@ -0,0 +1,118 @@
+package uk.ac.ucl.comp0010.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import uk.ac.ucl.comp0010.repository.GradeRepository;
+import uk.ac.ucl.comp0010.service.GradeService;
+
+/**
+ * Integration tests for the request, service, repository and Hibernate metrics.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+@WithMockUser
+public class RepositoryRowMetricsTest {
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private GradeRepository gradeRepository;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  private DistributionSummary rows(String repository, String method) {
+    return meterRegistry.find(RepositoryRowMetrics.ROWS)
+        .tags("repository", repository, "method", method).summary();
+  }
+
+  /**
+   * Test finder result sizes are recorded per repository and method.
+   */
+  @Test
+  void testFinderRowsRecorded() {
+    int found = gradeRepository.findByStudentId(1).size();
+
+    DistributionSummary summary = rows("GradeRepository", "findByStudentId");
+    assertNotNull(summary);
+    assertTrue(summary.count() >= 1);
+    assertTrue(summary.max() >= found);
+  }
+
+  /**
+   * Test single-row finders are not recorded as row counts.
+   */
+  @Test
+  void testSingleResultNotRecorded() {
+    gradeRepository.findById(1);
+
+    assertEquals(null, rows("GradeRepository", "findById"));
+  }
+
+  /**
+   * Test a REST collection endpoint reading a whole table shows up as a findAll.
+   */
+  @Test
+  void testRestCollectionRowsRecorded() throws Exception {
+    mockMvc.perform(get("/students")).andExpect(status().isOk());
+
+    DistributionSummary summary = rows("StudentRepository", "findAll");
+    assertNotNull(summary);
+    assertTrue(summary.totalAmount() >= 3);
+  }
+
+  /**
+   * Test a grade request is timed at the endpoint, service and repository layers.
+   */
+  @Test
+  void testRequestTimedAcrossLayers() throws Exception {
+    mockMvc.perform(get("/grades/student/1")).andExpect(status().isOk());
+
+    Timer endpoint = meterRegistry.find("http.server.requests")
+        .tags("uri", "/grades/student/{studentId}", "method", "GET").timer();
+    assertNotNull(endpoint);
+    assertTrue(endpoint.count() >= 1);
+    Timer service = meterRegistry.find(GradeService.TIMER)
+        .tags("method", "getGradesByStudent").timer();
+    assertNotNull(service);
+    assertTrue(service.count() >= 1);
+    Timer repository = meterRegistry.find("spring.data.repository.invocations")
+        .tags("repository", "GradeRepository", "method", "findByStudentId").timer();
+    assertNotNull(repository);
+    assertTrue(repository.count() >= 1);
+    assertNotNull(meterRegistry.find("hibernate.query.executions").meter());
+  }
+
+  /**
+   * Test the metrics are published in the Prometheus text format.
+   */
+  @Test
+  void testPrometheusScrape() throws Exception {
+    mockMvc.perform(get("/grades/student/1")).andExpect(status().isOk());
+
+    String body = mockMvc.perform(get("/actuator/prometheus"))
+        .andExpect(status().isOk())
+        .andReturn().getResponse().getContentAsString();
+    assertTrue(body.contains("http_server_requests_seconds_bucket"));
+    assertTrue(body.contains("grades_service_seconds_bucket"));
+    assertTrue(body.contains("grades_repository_rows"));
+    assertTrue(body.contains("spring_data_repository_invocations_seconds_count"));
+    assertTrue(body.contains("hibernate_entities_loads_total"));
+  }
+}
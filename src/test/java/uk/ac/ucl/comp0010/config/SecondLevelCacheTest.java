@@ -0,0 +1,46 @@
+package uk.ac.ucl.comp0010.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import uk.ac.ucl.comp0010.model.Module;
+
+/**
+ * Integration tests for the Hibernate second-level cache regions of the l2cache profile.
+ */
+@SpringBootTest
+@ActiveProfiles("l2cache")
+public class SecondLevelCacheTest {
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  /**
+   * Test a module loaded by one session is read from the second-level cache by the next.
+   */
+  @Test
+  void testModuleIsServedFromSecondLevelCache() {
+    Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    statistics.clear();
+
+    for (int i = 0; i < 2; i++) {
+      EntityManager entityManager = entityManagerFactory.createEntityManager();
+      try {
+        assertEquals("Compilers", entityManager.find(Module.class, "COMP0012").getName());
+      } finally {
+        entityManager.close();
+      }
+    }
+
+    assertTrue(statistics.getSecondLevelCacheHitCount() >= 1);
+    assertEquals(1, statistics.getEntityLoadCount());
+  }
+}
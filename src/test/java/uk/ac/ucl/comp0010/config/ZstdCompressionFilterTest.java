@@ -0,0 +1,182 @@
+package uk.ac.ucl.comp0010.config;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import com.github.luben.zstd.ZstdInputStream;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Unit tests for ZstdCompressionFilter.
+ */
+public class ZstdCompressionFilterTest {
+
+  private static final byte[] BODY = "[{\"score\":85}]".repeat(200).getBytes(StandardCharsets.UTF_8);
+
+  private ZstdCompressionFilter filter;
+
+  /**
+   * Set up a filter compressing JSON of at least 1KB.
+   */
+  @BeforeEach
+  void setUp() {
+    ServerProperties serverProperties = new ServerProperties();
+    serverProperties.getCompression().setMimeTypes(new String[] {"application/json"});
+    serverProperties.getCompression().setMinResponseSize(DataSize.ofKilobytes(1));
+    filter = new ZstdCompressionFilter(serverProperties, 3);
+  }
+
+  private static MockHttpServletRequest request(String acceptEncoding) {
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/grades/module/X");
+    if (acceptEncoding != null) {
+      request.addHeader(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+    }
+    return request;
+  }
+
+  private static MockFilterChain chain(String contentType, Integer contentLength) {
+    return new MockFilterChain(new HttpServlet() {
+      @Override
+      protected void service(HttpServletRequest request, HttpServletResponse response)
+          throws IOException {
+        response.setContentType(contentType);
+        if (contentLength != null) {
+          response.setContentLength(contentLength);
+        }
+        response.getOutputStream().write(BODY, 0, contentLength == null
+            ? BODY.length : contentLength);
+      }
+    });
+  }
+
+  /**
+   * Test a JSON body is zstd compressed for a client that accepts zstd.
+   */
+  @Test
+  void testCompressesWhenAccepted() throws Exception {
+    MockHttpServletResponse response = new MockHttpServletResponse();
+
+    filter.doFilter(request("gzip, deflate, br, zstd"), response,
+        chain("application/json;charset=UTF-8", null));
+
+    assertEquals(ZstdCompressionFilter.ZSTD, response.getHeader(HttpHeaders.CONTENT_ENCODING));
+    assertEquals(HttpHeaders.ACCEPT_ENCODING, response.getHeader(HttpHeaders.VARY));
+    byte[] compressed = response.getContentAsByteArray();
+    assertTrue(compressed.length < BODY.length / 10);
+    try (InputStream in = new ZstdInputStream(new ByteArrayInputStream(compressed))) {
+      assertArrayEquals(BODY, in.readAllBytes());
+    }
+  }
+
+  /**
+   * Test responses are left alone for clients that do not accept zstd.
+   */
+  @Test
+  void testLeavesOtherClientsAlone() throws Exception {
+    for (String acceptEncoding : new String[] {null, "gzip", "zstd;q=0"}) {
+      MockHttpServletResponse response = new MockHttpServletResponse();
+
+      filter.doFilter(request(acceptEncoding), response, chain("application/json", null));
+
+      assertNull(response.getHeader(HttpHeaders.CONTENT_ENCODING));
+      assertArrayEquals(BODY, response.getContentAsByteArray());
+    }
+  }
+
+  /**
+   * Test small bodies of known length and unlisted types are not compressed.
+   */
+  @Test
+  void testSkipsSmallAndUnlistedResponses() throws Exception {
+    MockHttpServletResponse small = new MockHttpServletResponse();
+    filter.doFilter(request("zstd"), small, chain("application/json", 100));
+    assertNull(small.getHeader(HttpHeaders.CONTENT_ENCODING));
+    assertEquals(100, small.getContentLength());
+
+    MockHttpServletResponse image = new MockHttpServletResponse();
+    filter.doFilter(request("zstd"), image, chain("image/png", null));
+    assertNull(image.getHeader(HttpHeaders.CONTENT_ENCODING));
+    assertArrayEquals(BODY, image.getContentAsByteArray());
+  }
+
+  /**
+   * Test the Accept-Encoding parsing.
+   */
+  @Test
+  void testAcceptsZstd() {
+    assertTrue(ZstdCompressionFilter.acceptsZstd(request("ZSTD;q=0.5")));
+    assertFalse(ZstdCompressionFilter.acceptsZstd(request("zstd;q=0.0")));
+    assertFalse(ZstdCompressionFilter.acceptsZstd(request("gzip, br")));
+  }
+
+  /**
+   * Test a body written without blocking is sent uncompressed, through the server's own
+   * non-blocking stream.
+   */
+  @Test
+  void testNonBlockingWritesBypassCompression() throws Exception {
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    List<WriteListener> listeners = new ArrayList<>();
+    HttpServletResponse server = new HttpServletResponseWrapper(response) {
+      @Override
+      public ServletOutputStream getOutputStream() {
+        return new ServletOutputStream() {
+          @Override
+          public void write(int b) throws IOException {
+            response.getOutputStream().write(b);
+          }
+
+          @Override
+          public boolean isReady() {
+            return true;
+          }
+
+          @Override
+          public void setWriteListener(WriteListener writeListener) {
+            listeners.add(writeListener);
+          }
+        };
+      }
+    };
+    WriteListener listener = mock(WriteListener.class);
+
+    filter.doFilter(request("zstd"), server, new MockFilterChain(new HttpServlet() {
+      @Override
+      protected void service(HttpServletRequest request, HttpServletResponse response)
+          throws IOException {
+        response.setContentType("application/json");
+        ServletOutputStream out = response.getOutputStream();
+        out.setWriteListener(listener);
+        assertTrue(out.isReady());
+        out.write(BODY);
+      }
+    }));
+
+    assertEquals(List.of(listener), listeners);
+    assertNull(response.getHeader(HttpHeaders.CONTENT_ENCODING));
+    assertArrayEquals(BODY, response.getContentAsByteArray());
+  }
+}
@@ -0,0 +1,55 @@
+package uk.ac.ucl.comp0010.controller;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * Integration tests for DegreeClassificationController against the seeded sample data.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithMockUser
+public class DegreeClassificationControllerTest {
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  /**
+   * Test classifying the seeded cohort.
+   */
+  @Test
+  void testClassifyCohort() throws Exception {
+    mockMvc.perform(get("/grades/classifications").param("academic_year", "2024-2025"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.academic_year").value("2024-2025"))
+        .andExpect(jsonPath("$.classes.FAIL").isNumber())
+        .andExpect(jsonPath("$.classifications[?(@.student_id == 2)].weighted_average")
+            .value(83.0))
+        .andExpect(jsonPath("$.classifications[?(@.student_id == 2)].degree_class")
+            .value("FIRST"));
+  }
+
+  /**
+   * Test classifying one student, and a student without grades.
+   */
+  @Test
+  void testClassifyStudent() throws Exception {
+    mockMvc.perform(get("/grades/classifications/student/3"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.student_id").value(3))
+        .andExpect(jsonPath("$.credits").value(15))
+        .andExpect(jsonPath("$.condoned_credits").value(0))
+        .andExpect(jsonPath("$.degree_class").value("FIRST"));
+
+    mockMvc.perform(get("/grades/classifications/student/999"))
+        .andExpect(status().isNotFound());
+  }
+}
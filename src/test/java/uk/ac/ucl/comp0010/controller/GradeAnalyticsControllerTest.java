@@ -0,0 +1,131 @@
+package uk.ac.ucl.comp0010.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import uk.ac.ucl.comp0010.model.Grade;
+import uk.ac.ucl.comp0010.model.GradeAggregate.Scope;
+import uk.ac.ucl.comp0010.model.Module;
+import uk.ac.ucl.comp0010.model.Student;
+import uk.ac.ucl.comp0010.repository.GradeRepository;
+import uk.ac.ucl.comp0010.repository.ModuleRepository;
+import uk.ac.ucl.comp0010.repository.StudentRepository;
+import uk.ac.ucl.comp0010.service.ColumnarGradeStore;
+import uk.ac.ucl.comp0010.service.GradeService;
+
+/**
+ * Integration tests for GradeAnalyticsController and the columnar store it reads.
+ */
+@SpringBootTest(properties = "grades.columnar.enabled=true")
+@AutoConfigureMockMvc
+@WithMockUser
+public class GradeAnalyticsControllerTest {
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private ColumnarGradeStore columnarGradeStore;
+
+  @Autowired
+  private GradeRepository gradeRepository;
+
+  @Autowired
+  private StudentRepository studentRepository;
+
+  @Autowired
+  private ModuleRepository moduleRepository;
+
+  @Autowired
+  private GradeService gradeService;
+
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  private Student student;
+  private Module module;
+
+  /**
+   * Set up a student and module outside the seed data.
+   */
+  @BeforeEach
+  void setUp() {
+    student = studentRepository.save(
+        new Student(600, "Analytics", "Test", "atest", "atest@ucl.ac.uk"));
+    module = moduleRepository.save(new Module("ANLT001", "Analytics Test Module", false));
+  }
+
+  /**
+   * Test module analytics against the seeded sample data.
+   */
+  @Test
+  void testModuleAnalytics() throws Exception {
+    mockMvc.perform(get("/grades/analytics/module/COMP0011"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.count").value(2))
+        .andExpect(jsonPath("$.average").value(93.5))
+        .andExpect(jsonPath("$.min").value(92))
+        .andExpect(jsonPath("$.max").value(95))
+        .andExpect(jsonPath("$.percentiles.p50").value(92))
+        .andExpect(jsonPath("$.percentiles.p90").value(95))
+        .andExpect(jsonPath("$.histogram.length()").value(101))
+        .andExpect(jsonPath("$.histogram[95]").value(1));
+  }
+
+  /**
+   * Test the scope and key are validated.
+   */
+  @Test
+  void testInvalidAndMissing() throws Exception {
+    mockMvc.perform(get("/grades/analytics/cohort/2024"))
+        .andExpect(status().isBadRequest());
+    mockMvc.perform(get("/grades/analytics/student/abc"))
+        .andExpect(status().isBadRequest());
+    mockMvc.perform(get("/grades/analytics/academic-year/1900-1901"))
+        .andExpect(status().isNotFound());
+  }
+
+  /**
+   * Test committed grade changes reach the store and rolled-back ones do not.
+   */
+  @Test
+  void testFollowsCommittedChanges() {
+    Grade grade = gradeRepository.save(new Grade(64, "2024-2025", student, module));
+    assertEquals(64.0,
+        columnarGradeStore.getStatistics(Scope.MODULE, "ANLT001").getAverage());
+
+    new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+      gradeRepository.save(new Grade(10, "2024-2025", student, module));
+      status.setRollbackOnly();
+    });
+    assertEquals(1, columnarGradeStore.getStatistics(Scope.MODULE, "ANLT001").getCount());
+
+    gradeService.deleteGrade(grade.getId());
+    assertEquals(0, columnarGradeStore.getStatistics(Scope.MODULE, "ANLT001").getCount());
+  }
+
+  /**
+   * Test the reload endpoint reports the grades loaded and that they fit in the cap.
+   */
+  @Test
+  void testReload() throws Exception {
+    mockMvc.perform(post("/grades/analytics/reload").with(csrf()))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.grades").value(columnarGradeStore.size()))
+        .andExpect(jsonPath("$.available").value(true))
+        .andExpect(jsonPath("$.segment_bytes").value(columnarGradeStore.getSegmentBytes()));
+  }
+}
@@ -1,18 +1,31 @@
 package uk.ac.ucl.comp0010.controller;
 
+import static org.hamcrest.Matchers.hasItem;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import uk.ac.ucl.comp0010.model.Module;
 import uk.ac.ucl.comp0010.model.Student;
 import uk.ac.ucl.comp0010.repository.ModuleRepository;
@@ -81,4 +94,327 @@ public class GradeControllerIntegrationTest {
         .content(jsonRequest))
         .andExpect(status().isNotFound());
   }
+
+  /**
+   * Test module statistics endpoint against the seeded sample data.
+   */
+  @Test
+  void testModuleStatisticsEndpoint() throws Exception {
+    mockMvc.perform(get("/grades/module/COMP0011/stats"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.module_code").value("COMP0011"))
+        .andExpect(jsonPath("$.count").value(2))
+        .andExpect(jsonPath("$.average").value(93.5))
+        .andExpect(jsonPath("$.min").value(92))
+        .andExpect(jsonPath("$.max").value(95));
+  }
+
+  /**
+   * Test module distribution endpoint against the seeded sample data.
+   */
+  @Test
+  void testModuleDistributionEndpoint() throws Exception {
+    mockMvc.perform(get("/grades/module/COMP0011/distribution"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.count").value(2))
+        .andExpect(jsonPath("$.average").value(93.5))
+        .andExpect(jsonPath("$.percentiles.p50").value(92))
+        .andExpect(jsonPath("$.percentiles.p90").value(95))
+        .andExpect(jsonPath("$.histogram.length()").value(101))
+        .andExpect(jsonPath("$.histogram[95]").value(1));
+  }
+
+  /**
+   * Test ranking a student within a module and for a student without grades.
+   */
+  @Test
+  void testStudentRankEndpoint() throws Exception {
+    mockMvc.perform(get("/grades/student/3/rank").param("module", "COMP0011"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.module_code").value("COMP0011"))
+        .andExpect(jsonPath("$.score").value(95.0))
+        .andExpect(jsonPath("$.rank").value(1))
+        .andExpect(jsonPath("$.cohort_size").value(2))
+        .andExpect(jsonPath("$.percentile").value(100.0));
+
+    mockMvc.perform(get("/grades/student/999/rank"))
+        .andExpect(status().isNotFound());
+  }
+
+  /**
+   * Test reading the grades and averages of several students and modules at once.
+   */
+  @Test
+  void testBatchReadEndpoints() throws Exception {
+    mockMvc.perform(get("/grades/students").param("ids", "3,999").param("view", "ids"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.length()").value(2))
+        .andExpect(jsonPath("$[0].student_id").value(3))
+        .andExpect(jsonPath("$[0].average").value(95.0))
+        .andExpect(jsonPath("$[0].grades[0].module_code").value("COMP0011"))
+        .andExpect(jsonPath("$[1].student_id").value(999))
+        .andExpect(jsonPath("$[1].average").doesNotExist())
+        .andExpect(jsonPath("$[1].grades.length()").value(0));
+
+    mockMvc.perform(get("/grades/modules").param("codes", "COMP0011").param("view", "summary"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$[0].module_code").value("COMP0011"))
+        .andExpect(jsonPath("$[0].average").value(93.5))
+        .andExpect(jsonPath("$[0].grades.length()").value(2));
+
+    mockMvc.perform(get("/grades/students").param("ids", "1").param("view", "all"))
+        .andExpect(status().isBadRequest());
+  }
+
+  /**
+   * Test module statistics endpoint for a module without grades.
+   */
+  @Test
+  void testModuleStatisticsEndpointNoGrades() throws Exception {
+    mockMvc.perform(get("/grades/module/INTEG001/stats"))
+        .andExpect(status().isNotFound());
+  }
+
+  /**
+   * Test adding grades in bulk reports rejected rows individually.
+   */
+  @Test
+  void testBatchEndpoint() throws Exception {
+    String jsonRequest = "["
+        + "{\"student_id\": \"1\", \"module_code\": \"COMP0010\", \"score\": \"70\"},"
+        + "{\"student_id\": \"1\", \"module_code\": \"COMP0012\", \"score\": \"71\"},"
+        + "{\"student_id\": \"x\", \"module_code\": \"COMP0010\", \"score\": \"72\"}"
+        + "]";
+
+    mockMvc.perform(post("/grades/batch")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(jsonRequest))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.accepted").value(1))
+        .andExpect(jsonPath("$.rejected.length()").value(2))
+        .andExpect(jsonPath("$.rejected[0].row").value(2))
+        .andExpect(jsonPath("$.rejected[1].row").value(3))
+        .andExpect(jsonPath("$.rejected[1].reason").value("Invalid number format"));
+  }
+
+  /**
+   * Test paging through a seeded module's grades with the next-page cursor header.
+   */
+  @Test
+  void testPagedModuleGrades() throws Exception {
+    MvcResult first = mockMvc.perform(get("/grades/module/COMP0011")
+        .param("limit", "1")
+        .param("sort", "score"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.length()").value(1))
+        .andExpect(jsonPath("$[0].score").value(92))
+        .andExpect(header().exists(GradeController.NEXT_CURSOR_HEADER))
+        .andReturn();
+
+    String cursor = first.getResponse().getHeader(GradeController.NEXT_CURSOR_HEADER);
+    mockMvc.perform(get("/grades/module/COMP0011")
+        .param("limit", "1")
+        .param("sort", "score")
+        .param("cursor", cursor))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.length()").value(1))
+        .andExpect(jsonPath("$[0].score").value(95));
+  }
+
+  /**
+   * Test paging with an invalid cursor.
+   */
+  @Test
+  void testPagedGradesInvalidCursor() throws Exception {
+    mockMvc.perform(get("/grades/student/1").param("cursor", "garbage!"))
+        .andExpect(status().isBadRequest());
+  }
+
+  /**
+   * Test the summary and ids views of a seeded module's grades.
+   */
+  @Test
+  void testModuleGradeViews() throws Exception {
+    mockMvc.perform(get("/grades/module/COMP0011").param("view", "summary"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.length()").value(2))
+        .andExpect(jsonPath("$[0].module_name").value("Mathematics and Statistics"))
+        .andExpect(jsonPath("$[0].student_name").value("John Doe"))
+        .andExpect(jsonPath("$[0].student").doesNotExist());
+
+    mockMvc.perform(get("/grades/module/COMP0011")
+        .param("view", "ids")
+        .param("limit", "1"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$[0].student_id").value(1))
+        .andExpect(jsonPath("$[0].module_code").value("COMP0011"))
+        .andExpect(jsonPath("$[0].module").doesNotExist())
+        .andExpect(header().exists(GradeController.NEXT_CURSOR_HEADER));
+  }
+
+  /**
+   * Test an unsupported view.
+   */
+  @Test
+  void testUnsupportedGradeView() throws Exception {
+    mockMvc.perform(get("/grades/student/1").param("view", "everything"))
+        .andExpect(status().isBadRequest());
+  }
+
+  /**
+   * Test the Data REST registration listing still links the lazily loaded associations.
+   */
+  @Test
+  void testRegistrationListingLinksAssociations() throws Exception {
+    mockMvc.perform(get("/registrations"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$._embedded.registrations[0]._links.student.href").exists());
+  }
+
+  /**
+   * Test the streaming grade finders are not exposed as Data REST searches.
+   */
+  @Test
+  void testStreamFindersNotExported() throws Exception {
+    mockMvc.perform(get("/grades/search/streamRowsByModuleCode")
+        .param("moduleCode", "COMP0010"))
+        .andExpect(status().isNotFound());
+    mockMvc.perform(get("/grades/search/streamRowsByAcademicYear")
+        .param("academicYear", "2024-2025"))
+        .andExpect(status().isNotFound());
+    mockMvc.perform(get("/grades/search/streamScoredRowsByStudent")
+        .param("academicYear", "2024-2025"))
+        .andExpect(status().isNotFound());
+  }
+
+  /**
+   * Test grade reads are answered with 304 while their tag is current, and with the changed
+   * grades once a grade is added.
+   */
+  @Test
+  void testConditionalGradeReads() throws Exception {
+    moduleRepository.save(new Module("ETAG001", "Entity Tag Module", false));
+    MvcResult first = mockMvc.perform(get("/grades/module/ETAG001"))
+        .andExpect(status().isOk())
+        .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, private"))
+        .andExpect(header().stringValues(HttpHeaders.VARY, hasItem(HttpHeaders.ACCEPT)))
+        .andExpect(jsonPath("$.length()").value(0))
+        .andReturn();
+    assertEquals(1, first.getResponse().getHeaders(HttpHeaders.ETAG).size());
+    String etag = first.getResponse().getHeader(HttpHeaders.ETAG);
+    assertTrue(etag.startsWith("W/\""));
+
+    mockMvc.perform(get("/grades/module/ETAG001").header(HttpHeaders.IF_NONE_MATCH, etag))
+        .andExpect(status().isNotModified())
+        .andExpect(header().string(HttpHeaders.ETAG, etag))
+        .andExpect(header().stringValues(HttpHeaders.VARY, hasItem(HttpHeaders.ACCEPT)))
+        .andExpect(content().string(""));
+
+    mockMvc.perform(post("/grades/addGrade")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content("{\"student_id\": \"500\", \"module_code\": \"ETAG001\", \"score\": \"70\"}"))
+        .andExpect(status().isOk());
+
+    MvcResult changed = mockMvc.perform(get("/grades/module/ETAG001")
+        .header(HttpHeaders.IF_NONE_MATCH, etag))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.length()").value(1))
+        .andReturn();
+    assertNotEquals(etag, changed.getResponse().getHeader(HttpHeaders.ETAG));
+    mockMvc.perform(get("/grades/module/ETAG001/average")
+        .header(HttpHeaders.IF_NONE_MATCH, changed.getResponse().getHeader(HttpHeaders.ETAG)))
+        .andExpect(status().isNotModified());
+  }
+
+  /**
+   * Test changing a student through the REST resource makes grade tags stale, as full grade
+   * listings embed the student.
+   */
+  @Test
+  void testStudentUpdateInvalidatesTags() throws Exception {
+    String etag = mockMvc.perform(get("/grades/student/500"))
+        .andExpect(status().isOk())
+        .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+    mockMvc.perform(patch("/students/500")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content("{\"firstName\": \"Renamed\"}"))
+        .andExpect(status().is2xxSuccessful());
+
+    mockMvc.perform(get("/grades/student/500").header(HttpHeaders.IF_NONE_MATCH, etag))
+        .andExpect(status().isOk());
+  }
+
+  /**
+   * Test reads of a closed academic year may be reused without revalidation.
+   */
+  @Test
+  void testClosedAcademicYearCacheControl() throws Exception {
+    mockMvc.perform(get("/grades/academic-year/2024-2025/average"))
+        .andExpect(status().isOk())
+        .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=604800, private"))
+        .andExpect(header().exists(HttpHeaders.ETAG));
+  }
+
+  /**
+   * Test the columns view transposes a module's grades into one array per field.
+   */
+  @Test
+  void testColumnsView() throws Exception {
+    mockMvc.perform(get("/grades/module/COMP0011").param("view", "columns"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.size").value(2))
+        .andExpect(jsonPath("$.student_id.length()").value(2))
+        .andExpect(jsonPath("$.module_code[0]").value("COMP0011"))
+        .andExpect(jsonPath("$.score[1]").value(95));
+
+    mockMvc.perform(get("/grades/modules").param("codes", "COMP0012").param("view", "columns"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$[0].grades.score[0]").value(88));
+  }
+
+  /**
+   * Test grade listings are offered as CBOR, varying on Accept since JSON shares the tag.
+   */
+  @Test
+  void testCborResponses() throws Exception {
+    ObjectMapper cbor = new CBORMapper();
+    MvcResult listing = mockMvc.perform(get("/grades/module/COMP0011")
+        .param("view", "summary")
+        .accept(MediaType.APPLICATION_CBOR))
+        .andExpect(status().isOk())
+        .andExpect(header().string(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_CBOR_VALUE))
+        .andExpect(header().stringValues(HttpHeaders.VARY, hasItem(HttpHeaders.ACCEPT)))
+        .andReturn();
+    JsonNode grades = cbor.readTree(listing.getResponse().getContentAsByteArray());
+    assertEquals(2, grades.size());
+    assertEquals("COMP0011", grades.get(0).get("module_code").asText());
+
+    MvcResult columns = mockMvc.perform(get("/grades/module/COMP0011")
+        .param("view", "columns")
+        .accept(MediaType.APPLICATION_CBOR))
+        .andExpect(status().isOk())
+        .andReturn();
+    assertEquals(95, cbor.readTree(columns.getResponse().getContentAsByteArray())
+        .get("score").get(1).asInt());
+  }
+
+  /**
+   * Test the academic year average for a year without grades.
+   */
+  @Test
+  void testAcademicYearAverageNoGrades() throws Exception {
+    mockMvc.perform(get("/grades/academic-year/1900-1901/average"))
+        .andExpect(status().isNotFound());
+  }
+
+  /**
+   * Test the running totals agree with the grade table.
+   */
+  @Test
+  void testVerifyAggregates() throws Exception {
+    mockMvc.perform(get("/grades/aggregates/verify"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.consistent").value(true));
+  }
 }
@@ -2,7 +2,6 @@ package uk.ac.ucl.comp0010.controller;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
-import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.when;
 
 import java.util.HashMap;
@@ -18,9 +17,8 @@ import org.springframework.http.ResponseEntity;
 import uk.ac.ucl.comp0010.model.Grade;
 import uk.ac.ucl.comp0010.model.Module;
 import uk.ac.ucl.comp0010.model.Student;
-import uk.ac.ucl.comp0010.repository.GradeRepository;
-import uk.ac.ucl.comp0010.repository.ModuleRepository;
-import uk.ac.ucl.comp0010.repository.StudentRepository;
+import uk.ac.ucl.comp0010.service.GradeService;
+import uk.ac.ucl.comp0010.service.GradeVersionService;
 
 /**
  * Unit tests for GradeController.
@@ -28,13 +26,10 @@ import uk.ac.ucl.comp0010.repository.StudentRepository;
 public class GradeControllerTest {
 
   @Mock
-  private StudentRepository studentRepository;
+  private GradeService gradeService;
 
   @Mock
-  private ModuleRepository moduleRepository;
-
-  @Mock
-  private GradeRepository gradeRepository;
+  private GradeVersionService gradeVersionService;
 
   @InjectMocks
   private GradeController gradeController;
@@ -66,9 +61,7 @@ public class GradeControllerTest {
     params.put("module_code", "COMP0010");
     params.put("score", "85");
 
-    when(studentRepository.findById(1)).thenReturn(Optional.of(student));
-    when(moduleRepository.findById("COMP0010")).thenReturn(Optional.of(module));
-    when(gradeRepository.save(any(Grade.class))).thenReturn(grade);
+    when(gradeService.addGrade(1, "COMP0010", 85, null)).thenReturn(Optional.of(grade));
 
     ResponseEntity<Grade> response = gradeController.addGrade(params);
 
@@ -129,7 +122,7 @@ public class GradeControllerTest {
     params.put("module_code", "COMP0010");
     params.put("score", "85");
 
-    when(studentRepository.findById(999)).thenReturn(Optional.empty());
+    when(gradeService.addGrade(999, "COMP0010", 85, null)).thenReturn(Optional.empty());
 
     ResponseEntity<Grade> response = gradeController.addGrade(params);
 
@@ -146,8 +139,7 @@ public class GradeControllerTest {
     params.put("module_code", "INVALID");
     params.put("score", "85");
 
-    when(studentRepository.findById(1)).thenReturn(Optional.of(student));
-    when(moduleRepository.findById("INVALID")).thenReturn(Optional.empty());
+    when(gradeService.addGrade(1, "INVALID", 85, null)).thenReturn(Optional.empty());
 
     ResponseEntity<Grade> response = gradeController.addGrade(params);
 
@@ -197,9 +189,7 @@ public class GradeControllerTest {
     Grade newGrade = new Grade(92, student, module);
     newGrade.setId(2);
 
-    when(studentRepository.findById(1)).thenReturn(Optional.of(student));
-    when(moduleRepository.findById("COMP0010")).thenReturn(Optional.of(module));
-    when(gradeRepository.save(any(Grade.class))).thenReturn(newGrade);
+    when(gradeService.addGrade(1, "COMP0010", 92, null)).thenReturn(Optional.of(newGrade));
 
     ResponseEntity<Grade> response = gradeController.addGrade(params);
 
@@ -0,0 +1,60 @@
+package uk.ac.ucl.comp0010.controller;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * Integration tests for GradeExportController using MockMvc.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithMockUser
+public class GradeExportControllerTest {
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  /**
+   * Test exporting a seeded module as CSV.
+   */
+  @Test
+  void testExportModuleCsv() throws Exception {
+    mockMvc.perform(get("/grades/module/COMP0011/export").param("format", "csv"))
+        .andExpect(status().isOk())
+        .andExpect(content().contentTypeCompatibleWith("text/csv"))
+        .andExpect(header().string("Content-Disposition",
+            "attachment; filename=\"grades-COMP0011.csv\""))
+        .andExpect(content().string(Matchers.startsWith("id,student_id,module_code")))
+        .andExpect(content().string(Matchers.containsString(",1,COMP0011,92,2024-2025")));
+  }
+
+  /**
+   * Test exporting a seeded academic year as NDJSON.
+   */
+  @Test
+  void testExportAcademicYearNdjson() throws Exception {
+    mockMvc.perform(get("/grades/export").param("academic_year", "2024-2025"))
+        .andExpect(status().isOk())
+        .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+        .andExpect(content().string(Matchers.containsString("\"module_code\":\"COMP0012\"")));
+  }
+
+  /**
+   * Test requesting an unsupported export format.
+   */
+  @Test
+  void testExportUnsupportedFormat() throws Exception {
+    mockMvc.perform(get("/grades/module/COMP0011/export").param("format", "xml"))
+        .andExpect(status().isBadRequest());
+  }
+}
@@ -0,0 +1,59 @@
+package uk.ac.ucl.comp0010.controller;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Integration tests for GradeImportController using MockMvc.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithMockUser
+@Transactional
+public class GradeImportControllerTest {
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  /**
+   * Test importing a CSV body against the seeded sample data.
+   */
+  @Test
+  void testImportCsvEndpoint() throws Exception {
+    String csv = "student_id,module_code,score\n"
+        + "1,COMP0010,60\n"
+        + "1,COMP0012,61\n";
+
+    mockMvc.perform(post("/grades/import")
+        .contentType(GradeImportController.TEXT_CSV)
+        .content(csv))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.rowsRead").value(2))
+        .andExpect(jsonPath("$.accepted").value(1))
+        .andExpect(jsonPath("$.rejected[0].row").value(3));
+  }
+
+  /**
+   * Test importing an NDJSON body against the seeded sample data.
+   */
+  @Test
+  void testImportNdjsonEndpoint() throws Exception {
+    String ndjson = "{\"student_id\": 2, \"module_code\": \"COMP0012\", \"score\": 55}\n";
+
+    mockMvc.perform(post("/grades/import")
+        .contentType(GradeImportController.APPLICATION_NDJSON)
+        .content(ndjson))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.accepted").value(1))
+        .andExpect(jsonPath("$.rejectedCount").value(0));
+  }
+}
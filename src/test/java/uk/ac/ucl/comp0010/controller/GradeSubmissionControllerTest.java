@@ -0,0 +1,117 @@
+package uk.ac.ucl.comp0010.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import uk.ac.ucl.comp0010.service.GradeService;
+
+/**
+ * Integration tests for GradeSubmissionController.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithMockUser
+public class GradeSubmissionControllerTest {
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private GradeService gradeService;
+
+  private String awaitOutcome(String location) throws Exception {
+    long deadline = System.currentTimeMillis() + 5000;
+    String state;
+    do {
+      Thread.sleep(20);
+      String body = mockMvc.perform(get(location))
+          .andExpect(status().isOk())
+          .andReturn().getResponse().getContentAsString();
+      state = JsonPath.read(body, "$.status");
+    } while ("QUEUED".equals(state) && System.currentTimeMillis() < deadline);
+    return state;
+  }
+
+  /**
+   * Test a submission is accepted with a tracking ID and then saved in the background.
+   */
+  @Test
+  void testSubmissionAcceptedThenSaved() throws Exception {
+    MvcResult result = mockMvc.perform(post("/grades/async")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content("{\"student_id\": \"1\", \"module_code\": \"COMP0010\", \"score\": \"70\", "
+            + "\"academic_year\": \"2030-2031\"}"))
+        .andExpect(status().isAccepted())
+        .andExpect(jsonPath("$.status").value("QUEUED"))
+        .andExpect(jsonPath("$.tracking_id").isString())
+        .andExpect(header().exists("Location"))
+        .andReturn();
+
+    try {
+      assertEquals("SAVED", awaitOutcome(result.getResponse().getHeader("Location")));
+    } finally {
+      gradeService.getGradesByStudent(1).stream()
+          .filter(grade -> "2030-2031".equals(grade.getAcademicYear()))
+          .forEach(grade -> gradeService.deleteGrade(grade.getId()));
+    }
+  }
+
+  /**
+   * Test a submission for a module the student is not registered for is refused before it is
+   * queued.
+   */
+  @Test
+  void testUnregisteredSubmissionRefused() throws Exception {
+    mockMvc.perform(post("/grades/async")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content("{\"student_id\": \"3\", \"module_code\": \"COMP0010\", \"score\": \"70\"}"))
+        .andExpect(status().isForbidden())
+        .andExpect(content().string("Student 3 is not registered for module COMP0010"));
+  }
+
+  /**
+   * Test a submission for an unknown student is refused before it is queued.
+   */
+  @Test
+  void testUnknownStudentRefused() throws Exception {
+    mockMvc.perform(post("/grades/async")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content("{\"student_id\": \"999\", \"module_code\": \"COMP0010\", \"score\": \"70\"}"))
+        .andExpect(status().isNotFound())
+        .andExpect(content().string("Student not found: 999"));
+  }
+
+  /**
+   * Test a submission with missing parameters is refused immediately.
+   */
+  @Test
+  void testMissingParameters() throws Exception {
+    mockMvc.perform(post("/grades/async")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content("{\"student_id\": \"1\"}"))
+        .andExpect(status().isBadRequest());
+  }
+
+  /**
+   * Test an unknown tracking ID.
+   */
+  @Test
+  void testUnknownTrackingId() throws Exception {
+    mockMvc.perform(get("/grades/async/unknown"))
+        .andExpect(status().isNotFound());
+  }
+}
@@ -0,0 +1,161 @@
+package uk.ac.ucl.comp0010.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import uk.ac.ucl.comp0010.model.Grade;
+import uk.ac.ucl.comp0010.model.Student;
+import uk.ac.ucl.comp0010.repository.GradeRepository;
+import uk.ac.ucl.comp0010.repository.ModuleRepository;
+import uk.ac.ucl.comp0010.repository.StudentRepository;
+import uk.ac.ucl.comp0010.service.GradeService;
+
+/**
+ * Integration tests for ReactiveGradeController against the seeded sample data.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithMockUser
+public class ReactiveGradeControllerTest {
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @Autowired
+  private StudentRepository studentRepository;
+
+  @Autowired
+  private ModuleRepository moduleRepository;
+
+  @Autowired
+  private GradeRepository gradeRepository;
+
+  @Autowired
+  private GradeService gradeService;
+
+  private String stream(String uri, MediaType accept) throws Exception {
+    MvcResult result = mockMvc.perform(get(uri).accept(accept))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+    result.getAsyncResult();
+    assertEquals(200, result.getResponse().getStatus());
+    return result.getResponse().getContentAsString();
+  }
+
+  private MvcResult average(String uri) throws Exception {
+    return mockMvc.perform(get(uri))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+  }
+
+  /**
+   * Test a module's grades stream as one JSON document per line.
+   */
+  @Test
+  void testModuleGradesStreamAsNdjson() throws Exception {
+    String body = stream("/reactive/grades/module/COMP0011", MediaType.APPLICATION_NDJSON);
+
+    String[] lines = body.trim().split("\n");
+    assertEquals(2, lines.length);
+    assertTrue(lines[0].contains("\"score\":92"));
+    assertTrue(lines[0].contains("\"student_name\":\"John Doe\""));
+    assertTrue(lines[1].contains("\"score\":95"));
+    assertTrue(lines[1].contains("\"module_name\":\"Mathematics and Statistics\""));
+  }
+
+  /**
+   * Test a student's grades can be streamed as server-sent events.
+   */
+  @Test
+  void testStudentGradesStreamAsEvents() throws Exception {
+    String body = stream("/reactive/grades/student/2", MediaType.TEXT_EVENT_STREAM);
+
+    assertTrue(body.startsWith("data:"));
+    assertTrue(body.contains("\"module_code\":\"COMP0010\""));
+    assertTrue(body.contains("\"module_code\":\"COMP0012\""));
+  }
+
+  /**
+   * Test a student with a missing name part streams the same name as the blocking summary
+   * view.
+   */
+  @Test
+  void testStudentNameMatchesSummaryView() throws Exception {
+    Student student = studentRepository.save(
+        new Student(950, "Ann", null, "ann950", "ann950@ucl.ac.uk"));
+    Grade grade = gradeRepository.save(
+        new Grade(70, student, moduleRepository.findById("COMP0010").get()));
+    try {
+      JsonNode streamed = objectMapper.readTree(
+          stream("/reactive/grades/student/950", MediaType.APPLICATION_NDJSON));
+      JsonNode summary = objectMapper.readTree(mockMvc.perform(
+          get("/grades/student/950").param("view", "summary"))
+          .andReturn().getResponse().getContentAsString()).get(0);
+
+      assertEquals(summary.get("student_name"), streamed.get("student_name"));
+      assertFalse(streamed.path("student_name").isTextual());
+    } finally {
+      gradeService.deleteGrade(grade.getId());
+      studentRepository.deleteById(950);
+    }
+  }
+
+  /**
+   * Test an unknown student streams no grades.
+   */
+  @Test
+  void testUnknownStudentStreamsNothing() throws Exception {
+    assertEquals("", stream("/reactive/grades/student/99999", MediaType.APPLICATION_NDJSON));
+  }
+
+  /**
+   * Test the module average endpoint.
+   */
+  @Test
+  void testModuleAverage() throws Exception {
+    mockMvc.perform(asyncDispatch(average("/reactive/grades/module/COMP0011/average")))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.module_code").value("COMP0011"))
+        .andExpect(jsonPath("$.average").value(93.5));
+  }
+
+  /**
+   * Test the student average endpoint for a student without grades.
+   */
+  @Test
+  void testStudentAverageNoGrades() throws Exception {
+    mockMvc.perform(asyncDispatch(average("/reactive/grades/student/99999/average")))
+        .andExpect(status().isNotFound())
+        .andExpect(content().string("No grades available for student ID: 99999"));
+  }
+
+  /**
+   * Test the academic year average endpoint for a year without grades.
+   */
+  @Test
+  void testAcademicYearAverageNoGrades() throws Exception {
+    mockMvc.perform(asyncDispatch(average("/reactive/grades/academic-year/1900-1901/average")))
+        .andExpect(status().isNotFound())
+        .andExpect(content().string("No grades available for academic year: 1900-1901"));
+  }
+}
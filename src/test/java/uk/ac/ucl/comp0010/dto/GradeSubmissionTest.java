@@ -0,0 +1,97 @@
+package uk.ac.ucl.comp0010.dto;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the GradeSubmission and GradeBatchResult DTOs.
+ */
+public class GradeSubmissionTest {
+
+  /**
+   * Test parsing a complete submission.
+   */
+  @Test
+  void testFromParams() {
+    Map<String, Object> params = new HashMap<>();
+    params.put("student_id", "1");
+    params.put("module_code", " COMP0010 ");
+    params.put("score", 85);
+    params.put("academic_year", "2024-2025");
+
+    GradeSubmission submission = GradeSubmission.fromParams(3, params);
+
+    assertEquals(3, submission.getRow());
+    assertEquals(1, submission.getStudentId());
+    assertEquals("COMP0010", submission.getModuleCode());
+    assertEquals(85, submission.getScore());
+    assertEquals("2024-2025", submission.getAcademicYear());
+  }
+
+  /**
+   * Test parsing a submission without an academic year.
+   */
+  @Test
+  void testFromParamsWithoutAcademicYear() {
+    Map<String, String> params = new HashMap<>();
+    params.put("student_id", "1");
+    params.put("module_code", "COMP0010");
+    params.put("score", "85");
+
+    assertNull(GradeSubmission.fromParams(1, params).getAcademicYear());
+  }
+
+  /**
+   * Test parsing a submission with a missing parameter.
+   */
+  @Test
+  void testFromParamsMissingScore() {
+    Map<String, String> params = new HashMap<>();
+    params.put("student_id", "1");
+    params.put("module_code", "COMP0010");
+
+    IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+        () -> GradeSubmission.fromParams(1, params));
+    assertEquals("Missing required parameters", e.getMessage());
+  }
+
+  /**
+   * Test parsing a submission with an invalid number.
+   */
+  @Test
+  void testFromParamsInvalidNumber() {
+    Map<String, String> params = new HashMap<>();
+    params.put("student_id", "abc");
+    params.put("module_code", "COMP0010");
+    params.put("score", "85");
+
+    IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+        () -> GradeSubmission.fromParams(1, params));
+    assertEquals("Invalid number format", e.getMessage());
+  }
+
+  /**
+   * Test merging batch results keeps rejected rows in row order.
+   */
+  @Test
+  void testBatchResultMerge() {
+    GradeBatchResult result = new GradeBatchResult();
+    result.accept(2);
+    result.reject(4, "later");
+    GradeBatchResult other = new GradeBatchResult();
+    other.accept(1);
+    other.reject(1, "earlier");
+
+    result.merge(other);
+
+    assertEquals(3, result.getAccepted());
+    assertEquals(2, result.getRejected().size());
+    assertEquals(1, result.getRejected().get(0).getRow());
+    assertEquals("earlier", result.getRejected().get(0).getReason());
+  }
+}
@@ -0,0 +1,94 @@
+package uk.ac.ucl.comp0010.dto;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the SyntheticDataSet DTO.
+ */
+public class SyntheticDataSetTest {
+
+  /**
+   * Test each student is registered for distinct modules.
+   */
+  @Test
+  void testRegisteredModulesAreDistinct() {
+    SyntheticDataSet dataSet = new SyntheticDataSet(500, 60, 12, 7L);
+
+    for (int s = 1; s <= dataSet.getStudents(); s++) {
+      Set<String> modules = new HashSet<>();
+      for (int i = 0; i < dataSet.getModulesPerStudent(); i++) {
+        modules.add(dataSet.registeredModule(s, i));
+      }
+      assertEquals(dataSet.getModulesPerStudent(), modules.size());
+    }
+  }
+
+  /**
+   * Test students taking every module are registered for all of them.
+   */
+  @Test
+  void testEveryModuleTaken() {
+    SyntheticDataSet dataSet = new SyntheticDataSet(3, 10, 10, 7L);
+
+    Set<Integer> modules = new HashSet<>();
+    for (int i = 0; i < 10; i++) {
+      modules.add(dataSet.moduleIndex(2, i));
+    }
+    assertEquals(10, modules.size());
+  }
+
+  /**
+   * Test the same spec describes the same data and a different seed does not.
+   */
+  @Test
+  void testDeterministic() {
+    SyntheticDataSet first = new SyntheticDataSet(1000, 100, 5, 42L);
+    SyntheticDataSet second = new SyntheticDataSet(1000, 100, 5, 42L);
+    SyntheticDataSet other = new SyntheticDataSet(1000, 100, 5, 43L);
+
+    int differences = 0;
+    for (int s = 1; s <= 1000; s++) {
+      assertEquals(first.registeredModule(s, 0), second.registeredModule(s, 0));
+      assertEquals(first.academicYear(s), second.academicYear(s));
+      if (!first.registeredModule(s, 0).equals(other.registeredModule(s, 0))) {
+        differences++;
+      }
+    }
+    assertTrue(differences > 500);
+  }
+
+  /**
+   * Test module codes are unique and fit the module code column.
+   */
+  @Test
+  void testModuleCodes() {
+    SyntheticDataSet dataSet = new SyntheticDataSet(1, 45000, 1, 1L);
+
+    assertEquals("COMP1000", dataSet.moduleCode(0));
+    assertEquals("MATH1000", dataSet.moduleCode(1));
+    assertEquals("COMP1001", dataSet.moduleCode(5));
+    Set<String> codes = new HashSet<>();
+    for (int m = 0; m < dataSet.getModules(); m++) {
+      String code = dataSet.moduleCode(m);
+      assertTrue(code.length() <= 10);
+      codes.add(code);
+    }
+    assertEquals(dataSet.getModules(), codes.size());
+  }
+
+  /**
+   * Test invalid specs are rejected.
+   */
+  @Test
+  void testInvalidSpec() {
+    assertThrows(IllegalArgumentException.class, () -> new SyntheticDataSet(0, 10, 1, 1L));
+    assertThrows(IllegalArgumentException.class, () -> new SyntheticDataSet(10, 10, 11, 1L));
+    assertThrows(IllegalArgumentException.class, () -> new SyntheticDataSet(10, 45001, 1, 1L));
+  }
+}
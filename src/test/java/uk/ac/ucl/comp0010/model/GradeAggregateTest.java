@@ -0,0 +1,37 @@
+package uk.ac.ucl.comp0010.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.Test;
+import uk.ac.ucl.comp0010.model.GradeAggregate.Scope;
+
+/**
+ * Unit tests for the GradeAggregate model class.
+ */
+public class GradeAggregateTest {
+
+  /**
+   * Test the constructor derives the ID from the scope and key.
+   */
+  @Test
+  void testConstructor() {
+    GradeAggregate aggregate = new GradeAggregate(Scope.MODULE, "COMP0010", 2, 150, 11300);
+
+    assertEquals("MODULE:COMP0010", aggregate.getId());
+    assertEquals(Scope.MODULE, aggregate.getScope());
+    assertEquals("COMP0010", aggregate.getKey());
+    assertEquals(2, aggregate.getCount());
+    assertEquals(150, aggregate.getSum());
+    assertEquals(11300, aggregate.getSumOfSquares());
+  }
+
+  /**
+   * Test the average of the totals.
+   */
+  @Test
+  void testAverage() {
+    assertEquals(75.0, new GradeAggregate(Scope.STUDENT, "1", 2, 150, 11300).getAverage());
+    assertNull(new GradeAggregate(Scope.STUDENT, "1", 0, 0, 0).getAverage());
+  }
+}
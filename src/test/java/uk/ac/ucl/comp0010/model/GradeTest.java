@@ -2,9 +2,11 @@ package uk.ac.ucl.comp0010.model;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import uk.ac.ucl.comp0010.event.GradeChangedEvent;
 
 /**
  * Unit tests for the Grade model class.
@@ -120,4 +122,30 @@ public class GradeTest {
     assertEquals(student, testGrade.getStudent());
     assertEquals(module, testGrade.getModule());
   }
+
+  /**
+   * Test the domain events describe each saved change once.
+   */
+  @Test
+  void testDomainEvents() {
+    Grade testGrade = new Grade(70, "2024-2025", student, module);
+    testGrade.setId(5);
+
+    GradeChangedEvent added = testGrade.domainEvents().iterator().next();
+    assertTrue(added.isAdded());
+    assertEquals(70, added.getAfter().getScore());
+    testGrade.clearDomainEvents();
+    assertTrue(testGrade.domainEvents().isEmpty());
+
+    testGrade.setScore(75);
+    GradeChangedEvent changed = testGrade.domainEvents().iterator().next();
+    assertEquals(70, changed.getBefore().getScore());
+    assertEquals(75, changed.getAfter().getScore());
+    testGrade.clearDomainEvents();
+
+    testGrade.markRemoved();
+    GradeChangedEvent removed = testGrade.domainEvents().iterator().next();
+    assertTrue(removed.isRemoved());
+    assertEquals(75, removed.getBefore().getScore());
+  }
 }
@@ -2,6 +2,7 @@ package uk.ac.ucl.comp0010.model;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -77,4 +78,17 @@ public class ModuleTest {
     module.setMnc(false);
     assertEquals(false, module.getMnc());
   }
+
+  /**
+   * Test credits, and the default used when none are recorded.
+   */
+  @Test
+  void testCredits() {
+    assertNull(module.getCredits());
+    assertEquals(Module.DEFAULT_CREDITS, module.getCreditsOrDefault());
+
+    Module doubleModule = new Module("COMP0013", "Project", true, 30);
+    assertEquals(30, doubleModule.getCredits());
+    assertEquals(30, doubleModule.getCreditsOrDefault());
+  }
 }
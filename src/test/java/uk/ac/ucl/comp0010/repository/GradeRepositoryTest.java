@@ -1,14 +1,25 @@
 package uk.ac.ucl.comp0010.repository;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.List;
 import java.util.Optional;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import uk.ac.ucl.comp0010.dto.GradeCursor;
+import uk.ac.ucl.comp0010.dto.GradePage;
+import uk.ac.ucl.comp0010.dto.GradeRow;
+import uk.ac.ucl.comp0010.dto.GradeStatistics;
 import uk.ac.ucl.comp0010.model.Grade;
 import uk.ac.ucl.comp0010.model.Module;
 import uk.ac.ucl.comp0010.model.Student;
@@ -28,8 +39,12 @@ public class GradeRepositoryTest {
   @Autowired
   private ModuleRepository moduleRepository;
 
+  @Autowired
+  private TestEntityManager entityManager;
+
   private Student student;
   private Module module;
+  private Statistics statistics;
 
   /**
    * Set up test data before each test.
@@ -37,10 +52,37 @@ public class GradeRepositoryTest {
   @BeforeEach
   void setUp() {
     student = new Student(100, "Test", "Student", "tstudent", "test@ucl.ac.uk");
-    studentRepository.save(student);
+    student = studentRepository.save(student);
 
     module = new Module("TEST100", "Test Module", true);
-    moduleRepository.save(module);
+    module = moduleRepository.save(module);
+
+    statistics = entityManager.getEntityManager().getEntityManagerFactory()
+        .unwrap(SessionFactory.class).getStatistics();
+    statistics.setStatisticsEnabled(true);
+  }
+
+  /**
+   * Turn statistics collection off again for other tests sharing the context.
+   */
+  @AfterEach
+  void tearDown() {
+    statistics.setStatisticsEnabled(false);
+  }
+
+  /**
+   * Saves grades for several students in the test module and detaches everything, so the
+   * next query has to load the grades and their associations from the database.
+   */
+  private void saveGradesForStudents(int students) {
+    for (int i = 1; i <= students; i++) {
+      Student other = studentRepository.save(
+          new Student(100 + i, "Other", "Student" + i, "ostudent" + i, "o" + i + "@ucl.ac.uk"));
+      gradeRepository.save(new Grade(50 + i, other, module));
+    }
+    entityManager.flush();
+    entityManager.clear();
+    statistics.clear();
   }
 
   /**
@@ -97,4 +139,141 @@ public class GradeRepositoryTest {
     long newCount = gradeRepository.count();
     assertEquals(initialCount + 1, newCount);
   }
+
+  /**
+   * Test finding grades by student ID.
+   */
+  @Test
+  void testFindByStudentId() {
+    Student other = new Student(101, "Other", "Student", "ostudent", "other@ucl.ac.uk");
+    other = studentRepository.save(other);
+    gradeRepository.save(new Grade(70, student, module));
+    gradeRepository.save(new Grade(60, student, module));
+    gradeRepository.save(new Grade(50, other, module));
+
+    List<Grade> found = gradeRepository.findByStudentId(student.getId());
+
+    assertEquals(2, found.size());
+    assertTrue(found.stream().allMatch(g -> g.getStudent().getId().equals(student.getId())));
+  }
+
+  /**
+   * Test finding grades by module code.
+   */
+  @Test
+  void testFindByModuleCode() {
+    Module other = new Module("TEST101", "Other Module", false);
+    other = moduleRepository.save(other);
+    gradeRepository.save(new Grade(70, student, module));
+    gradeRepository.save(new Grade(60, student, other));
+
+    List<Grade> found = gradeRepository.findByModuleCode(module.getCode());
+
+    assertEquals(1, found.size());
+    assertEquals(70, found.get(0).getScore());
+  }
+
+  /**
+   * Test listing a module's grades loads their students and modules in one statement.
+   */
+  @Test
+  void testFindByModuleCodeFetchesAssociationsInOneQuery() {
+    saveGradesForStudents(5);
+
+    List<Grade> found = gradeRepository.findByModuleCode(module.getCode());
+    found.forEach(g -> assertNotNull(g.getStudent().getFirstName() + g.getModule().getName()));
+
+    assertEquals(5, found.size());
+    assertEquals(1, statistics.getPrepareStatementCount());
+  }
+
+  /**
+   * Test the grades of several students are loaded with their associations in one statement.
+   */
+  @Test
+  void testFindByStudentIdInFetchesAssociationsInOneQuery() {
+    saveGradesForStudents(5);
+
+    List<Grade> found = gradeRepository.findByStudentIdInOrderById(List.of(101, 103, 105, 999));
+    found.forEach(g -> assertTrue(Hibernate.isInitialized(g.getStudent())));
+
+    assertEquals(List.of(101, 103, 105), found.stream().map(g -> g.getStudent().getId()).toList());
+    assertEquals(1, statistics.getPrepareStatementCount());
+  }
+
+  /**
+   * Test the grade rows of several modules are read in one statement.
+   */
+  @Test
+  void testFindRowsByModuleCodeInUsesOneQuery() {
+    saveGradesForStudents(4);
+
+    List<GradeRow> rows = gradeRepository.findRowsByModuleCodeIn(List.of("TEST100", "NONE"));
+
+    assertEquals(4, rows.size());
+    assertEquals(1, statistics.getPrepareStatementCount());
+  }
+
+  /**
+   * Test a keyset page of grades loads their students and modules in one statement.
+   */
+  @Test
+  void testFindPageFetchesAssociationsInOneQuery() {
+    saveGradesForStudents(5);
+
+    GradePage<Grade> page = gradeRepository.findPageByModuleCode(module.getCode(),
+        GradeCursor.of("score", null, null, 3), Grade.class);
+    page.getContent().forEach(g -> assertTrue(Hibernate.isInitialized(g.getStudent())));
+
+    assertEquals(3, page.getContent().size());
+    assertEquals(1, statistics.getPrepareStatementCount());
+  }
+
+  /**
+   * Test finding a grade by ID fetches its student and module in the same statement.
+   */
+  @Test
+  void testFindByIdFetchesAssociationsInOneQuery() {
+    Integer id = gradeRepository.save(new Grade(64, student, module)).getId();
+    entityManager.flush();
+    entityManager.clear();
+    statistics.clear();
+
+    Grade found = gradeRepository.findById(id).orElseThrow();
+
+    assertEquals("Test Module", found.getModule().getName());
+    assertEquals("Test", found.getStudent().getFirstName());
+    assertEquals(1, statistics.getPrepareStatementCount());
+  }
+
+  /**
+   * Test the student and module of a grade are not loaded unless requested.
+   */
+  @Test
+  void testAssociationsAreLazy() {
+    saveGradesForStudents(3);
+
+    Iterable<Grade> all = gradeRepository.findAll();
+    all.forEach(g -> assertFalse(Hibernate.isInitialized(g.getStudent())));
+
+    assertEquals(1, statistics.getPrepareStatementCount());
+  }
+
+  /**
+   * Test grades without a score are left out of the count as well as the average, so the
+   * standard deviation divides by the number of scores.
+   */
+  @Test
+  void testStatisticsSkipUnscoredGrades() {
+    gradeRepository.save(new Grade(60, student, module));
+    gradeRepository.save(new Grade(80, student, module));
+    gradeRepository.save(new Grade(null, student, module));
+
+    GradeStatistics stats = gradeRepository.findStatisticsByModuleCode("TEST100");
+
+    assertEquals(2, stats.getCount());
+    assertEquals(70.0, stats.getAverage());
+    assertEquals(10.0, stats.getStandardDeviation(), 1e-9);
+    assertEquals(2, gradeRepository.findStatisticsByStudentId(100).getCount());
+  }
 }
@@ -1,14 +1,19 @@
 package uk.ac.ucl.comp0010.repository;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.List;
 import java.util.Optional;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import uk.ac.ucl.comp0010.dto.RegistrationKey;
 import uk.ac.ucl.comp0010.model.Module;
 import uk.ac.ucl.comp0010.model.Registration;
 import uk.ac.ucl.comp0010.model.Student;
@@ -97,4 +102,44 @@ public class RegistrationRepositoryTest {
     long newCount = registrationRepository.count();
     assertEquals(initialCount + 1, newCount);
   }
+
+  /**
+   * Test checking whether a registration exists.
+   */
+  @Test
+  void testExistsByStudentIdAndModuleCode() {
+    registrationRepository.save(new Registration(student, module));
+
+    assertTrue(registrationRepository.existsByStudentIdAndModuleCode(200, "TEST200"));
+    assertFalse(registrationRepository.existsByStudentIdAndModuleCode(200, "OTHER"));
+    assertFalse(registrationRepository.existsByStudentIdAndModuleCode(201, "TEST200"));
+  }
+
+  /**
+   * Test that a student cannot be registered twice for the same module.
+   */
+  @Test
+  void testDuplicateRegistrationRejected() {
+    registrationRepository.save(new Registration(student, module));
+
+    assertThrows(DataIntegrityViolationException.class, () -> {
+      registrationRepository.save(new Registration(student, module));
+      registrationRepository.count();
+    });
+  }
+
+  /**
+   * Test finding registration keys for a set of students and modules.
+   */
+  @Test
+  void testFindKeys() {
+    registrationRepository.save(new Registration(student, module));
+
+    List<RegistrationKey> keys = registrationRepository.findKeys(
+        List.of(200, 201), List.of("TEST200", "OTHER"));
+
+    assertEquals(1, keys.size());
+    assertEquals(200, keys.get(0).getStudentId());
+    assertEquals("TEST200", keys.get(0).getModuleCode());
+  }
 }
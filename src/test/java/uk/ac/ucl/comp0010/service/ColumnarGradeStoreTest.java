@@ -0,0 +1,351 @@
+package uk.ac.ucl.comp0010.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.unit.DataSize;
+import uk.ac.ucl.comp0010.dto.GradeRow;
+import uk.ac.ucl.comp0010.dto.GradeStatistics;
+import uk.ac.ucl.comp0010.event.GradeChangedEvent;
+import uk.ac.ucl.comp0010.model.GradeAggregate.Scope;
+import uk.ac.ucl.comp0010.service.ColumnStorage.Mode;
+
+/**
+ * Unit tests for ColumnarGradeStore, fed with grade change events and loaded from a grade
+ * table in a private in-memory database.
+ */
+public class ColumnarGradeStoreTest {
+
+  @TempDir
+  Path directory;
+
+  private JdbcTemplate jdbcTemplate;
+  private ColumnarGradeStore store;
+
+  /**
+   * Set up an empty grade table and an empty store before each test.
+   */
+  @BeforeEach
+  void setUp() {
+    jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(
+        "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", ""));
+    jdbcTemplate.execute("CREATE TABLE grade (id INT PRIMARY KEY, student_id INT, "
+        + "module_code VARCHAR(20), score INT, academic_year VARCHAR(20))");
+    store = newStore(Mode.HEAP, DataSize.ofMegabytes(64));
+  }
+
+  /**
+   * Drop the database after each test.
+   */
+  @AfterEach
+  void tearDown() {
+    jdbcTemplate.execute("SHUTDOWN");
+  }
+
+  private ColumnarGradeStore newStore(Mode mode, DataSize maxSize) {
+    return new ColumnarGradeStore(jdbcTemplate, mode, directory.toString(), maxSize);
+  }
+
+  private void insert(int count) {
+    for (int id = 1; id <= count; id++) {
+      jdbcTemplate.update("INSERT INTO grade VALUES (?, ?, ?, ?, ?)",
+          id, id % 7, "COMP00" + (10 + id % 3), id % 101, "2024-2025");
+    }
+  }
+
+  private Set<String> segmentFiles() throws IOException {
+    try (Stream<Path> files = Files.list(directory)) {
+      return files.map(file -> file.getFileName().toString())
+          .filter(name -> name.endsWith(".bin"))
+          .collect(Collectors.toSet());
+    }
+  }
+
+  private void add(int id, int studentId, String moduleCode, Integer score, String year) {
+    store.onGradeChanged(new GradeChangedEvent(null,
+        new GradeRow(id, studentId, moduleCode, score, year)));
+  }
+
+  /**
+   * Test statistics are computed per student, module and academic year.
+   */
+  @Test
+  void testStatisticsByScope() {
+    add(1, 1, "COMP0010", 85, "2024-2025");
+    add(2, 1, "COMP0011", 92, "2024-2025");
+    add(3, 2, "COMP0010", 78, "2023-2024");
+    add(4, 2, "COMP0011", null, "2023-2024");
+
+    GradeStatistics student = store.getStatistics(Scope.STUDENT, 1);
+    assertEquals(2, student.getCount());
+    assertEquals(88.5, student.getAverage());
+    assertEquals(85, student.getMin());
+    assertEquals(92, student.getMax());
+    assertEquals(3.5, student.getStandardDeviation(), 1e-9);
+
+    assertEquals(81.5, store.getStatistics(Scope.MODULE, "COMP0010").getAverage());
+    assertEquals(1, store.getStatistics(Scope.ACADEMIC_YEAR, "2023-2024").getCount());
+    assertEquals(4, store.size());
+
+    GradeStatistics none = store.getStatistics(Scope.MODULE, "COMP9999");
+    assertEquals(0, none.getCount());
+    assertNull(none.getAverage());
+  }
+
+  /**
+   * Test updates and deletions replace and remove rows.
+   */
+  @Test
+  void testUpdateAndDelete() {
+    add(1, 1, "COMP0010", 85, "2024-2025");
+    add(2, 2, "COMP0010", 60, "2024-2025");
+    GradeRow before = new GradeRow(1, 1, "COMP0010", 85, "2024-2025");
+    store.onGradeChanged(new GradeChangedEvent(before,
+        new GradeRow(1, 1, "COMP0012", 40, "2024-2025")));
+    store.onGradeChanged(new GradeChangedEvent(new GradeRow(2, 2, "COMP0010", 60, "2024-2025"),
+        null));
+
+    assertEquals(1, store.size());
+    assertEquals(0, store.getStatistics(Scope.MODULE, "COMP0010").getCount());
+    assertEquals(40.0, store.getStatistics(Scope.MODULE, "COMP0012").getAverage());
+  }
+
+  /**
+   * Test the histogram counts each score and percentiles use the nearest rank.
+   */
+  @Test
+  void testHistogramAndPercentiles() {
+    int[] scores = {40, 55, 55, 70, 100, 120};
+    for (int i = 0; i < scores.length; i++) {
+      add(i + 1, i + 1, "COMP0010", scores[i], "2024-2025");
+    }
+
+    long[] histogram = store.getHistogram(Scope.MODULE, "COMP0010");
+    assertEquals(ColumnarGradeStore.HISTOGRAM_SIZE, histogram.length);
+    assertEquals(2, histogram[55]);
+    assertEquals(2, histogram[100]);
+    assertEquals(40, ColumnarGradeStore.percentile(histogram, 0));
+    assertEquals(55, ColumnarGradeStore.percentile(histogram, 50));
+    assertEquals(70, ColumnarGradeStore.percentile(histogram, 60));
+    assertEquals(100, ColumnarGradeStore.percentile(histogram, 100));
+    assertEquals(-1, ColumnarGradeStore.percentile(new long[101], 50));
+    assertThrows(IllegalArgumentException.class,
+        () -> ColumnarGradeStore.percentile(histogram, 101));
+  }
+
+  /**
+   * Test random inserts, updates and deletes match a simple model with every kind of storage.
+   *
+   * @param mode where the segments are allocated
+   */
+  @ParameterizedTest
+  @EnumSource(Mode.class)
+  void testRandomChangesMatchModel(Mode mode) {
+    store = newStore(mode, DataSize.ofMegabytes(64));
+    assertEquals(0, store.open());
+    Random random = new Random(2010);
+    Map<Integer, GradeRow> model = new HashMap<>();
+    for (int step = 0; step < 20_000; step++) {
+      int id = 1 + random.nextInt(3_000) * 50;
+      GradeRow before = model.get(id);
+      GradeRow after = random.nextInt(4) == 0 ? null
+          : new GradeRow(id, random.nextInt(20), "MOD" + random.nextInt(10),
+              random.nextInt(101), "20" + (20 + random.nextInt(4)));
+      if (before == null && after == null) {
+        continue;
+      }
+      store.onGradeChanged(new GradeChangedEvent(before, after));
+      if (after == null) {
+        model.remove(id);
+      } else {
+        model.put(id, after);
+      }
+    }
+
+    assertEquals(model.size(), store.size());
+    for (int module = 0; module < 10; module++) {
+      long[] expected = new long[ColumnarGradeStore.HISTOGRAM_SIZE];
+      String code = "MOD" + module;
+      model.values().stream().filter(row -> row.getModuleCode().equals(code))
+          .forEach(row -> expected[row.getScore()]++);
+      assertArrayEquals(expected, store.getHistogram(Scope.MODULE, code));
+    }
+  }
+
+  /**
+   * Test a reload reads the grade table and makes the store available.
+   */
+  @Test
+  void testReloadReadsGradeTable() {
+    insert(300);
+    assertFalse(store.isAvailable());
+
+    assertEquals(300, store.open());
+    assertTrue(store.isAvailable());
+    assertEquals(300, store.size());
+    assertEquals(jdbcTemplate.queryForObject(
+        "SELECT AVG(CAST(score AS DOUBLE)) FROM grade WHERE module_code = 'COMP0010'",
+        Double.class), store.getStatistics(Scope.MODULE, "COMP0010").getAverage(), 1e-9);
+  }
+
+  /**
+   * Test mapped files saved on a clean shutdown are reopened rather than reloaded, with
+   * changes committed after the shutdown still applied.
+   *
+   * @throws IOException if the directory cannot be listed
+   */
+  @Test
+  void testMappedStoreReopensAfterCleanShutdown() throws IOException {
+    insert(500);
+    store = newStore(Mode.MAPPED, DataSize.ofMegabytes(64));
+    store.open();
+    add(501, 1, "COMP0012", 40, "2025-2026");
+    jdbcTemplate.update("INSERT INTO grade VALUES (501, 1, 'COMP0012', 40, '2025-2026')");
+    store.close();
+    final Set<String> saved = segmentFiles();
+
+    ColumnarGradeStore reopened = newStore(Mode.MAPPED, DataSize.ofMegabytes(64));
+    reopened.onGradeChanged(new GradeChangedEvent(new GradeRow(501, 1, "COMP0012", 40,
+        "2025-2026"), null));
+    jdbcTemplate.update("DELETE FROM grade WHERE id = 501");
+    assertEquals(500, reopened.open());
+    assertEquals(saved, segmentFiles());
+    assertEquals(0, reopened.getStatistics(Scope.ACADEMIC_YEAR, "2025-2026").getCount());
+    assertEquals(store.getStatistics(Scope.STUDENT, 3).getAverage(),
+        reopened.getStatistics(Scope.STUDENT, 3).getAverage());
+  }
+
+  /**
+   * Test mapped files are reloaded when the grade table changed while the application was
+   * stopped, and after a shutdown that did not save them.
+   *
+   * @throws IOException if the directory cannot be listed
+   */
+  @Test
+  void testMappedStoreReloadsWhenStale() throws IOException {
+    insert(200);
+    store = newStore(Mode.MAPPED, DataSize.ofMegabytes(64));
+    store.open();
+    store.close();
+    final Set<String> saved = segmentFiles();
+    jdbcTemplate.update("UPDATE grade SET score = 0 WHERE id = 1");
+
+    ColumnarGradeStore reloaded = newStore(Mode.MAPPED, DataSize.ofMegabytes(64));
+    assertEquals(200, reloaded.open());
+    assertNotEquals(saved, segmentFiles());
+    assertEquals(7, segmentFiles().size());
+
+    ColumnarGradeStore afterCrash = newStore(Mode.MAPPED, DataSize.ofMegabytes(64));
+    assertEquals(200, afterCrash.open());
+    assertEquals(7, segmentFiles().size());
+  }
+
+  /**
+   * Test mapped files are reloaded when grades were changed in a way that keeps their count,
+   * IDs and score total.
+   */
+  @Test
+  void testMappedStoreReloadsWhenColumnsSwapped() {
+    insert(200);
+    store = newStore(Mode.MAPPED, DataSize.ofMegabytes(64));
+    store.open();
+    store.close();
+    jdbcTemplate.update("UPDATE grade SET module_code = 'COMP0099' WHERE id = 1");
+    jdbcTemplate.update("UPDATE grade SET score = CASE id WHEN 2 THEN 3 ELSE 2 END "
+        + "WHERE id IN (2, 3)");
+
+    ColumnarGradeStore reopened = newStore(Mode.MAPPED, DataSize.ofMegabytes(64));
+    assertEquals(200, reopened.open());
+    assertEquals(1, reopened.getStatistics(Scope.MODULE, "COMP0099").getCount());
+    assertEquals(3, reopened.getStatistics(Scope.STUDENT, 2).getMin());
+  }
+
+  /**
+   * Test the scheduled check reloads a copy that missed or misordered changes, and leaves a
+   * matching copy alone.
+   */
+  @Test
+  void testReconcileReloadsDrift() {
+    insert(100);
+    store.open();
+    assertFalse(store.reconcile());
+
+    jdbcTemplate.update("UPDATE grade SET academic_year = '2025-2026' WHERE id = 5");
+    jdbcTemplate.update("DELETE FROM grade WHERE id = 6");
+    add(101, 1, "COMP0010", 50, "2024-2025");
+    assertTrue(store.reconcile());
+    assertEquals(99, store.size());
+    assertEquals(1, store.getStatistics(Scope.ACADEMIC_YEAR, "2025-2026").getCount());
+    assertEquals(98, store.getStatistics(Scope.ACADEMIC_YEAR, "2024-2025").getCount());
+    assertFalse(store.reconcile());
+  }
+
+  /**
+   * Test a store that outgrows its cap becomes unavailable until a reload fits.
+   */
+  @Test
+  void testOverCapacityMakesStoreUnavailable() {
+    insert(1000);
+    store = newStore(Mode.DIRECT, DataSize.ofKilobytes(32));
+    assertEquals(0, store.open());
+    assertFalse(store.isAvailable());
+    assertEquals(0, store.size());
+
+    jdbcTemplate.update("DELETE FROM grade WHERE id > 500");
+    assertEquals(500, store.reload());
+    assertTrue(store.isAvailable());
+    assertTrue(store.getSegmentBytes() <= DataSize.ofKilobytes(32).toBytes());
+
+    for (int id = 501; id <= 1000; id++) {
+      add(id, 1, "COMP0010", 50, "2024-2025");
+    }
+    assertFalse(store.isAvailable());
+    assertEquals(0, store.getStatistics(Scope.STUDENT, 1).getCount());
+  }
+
+  /**
+   * Test the store is not current inside a transaction that changed a grade.
+   */
+  @Test
+  void testNotCurrentInTransactionWithChanges() {
+    store.open();
+    assertTrue(store.isCurrent());
+
+    TransactionSynchronizationManager.initSynchronization();
+    try {
+      assertTrue(store.isCurrent());
+      store.onGradeChangedInTransaction(new GradeChangedEvent(null,
+          new GradeRow(1, 1, "COMP0010", 50, "2024-2025")));
+      assertFalse(store.isCurrent());
+      TransactionSynchronizationManager.getSynchronizations()
+          .forEach(synchronization -> synchronization.afterCompletion(0));
+      assertTrue(store.isCurrent());
+    } finally {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+  }
+}
@@ -0,0 +1,63 @@
+package uk.ac.ucl.comp0010.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.ZipFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import uk.ac.ucl.comp0010.model.Student;
+import uk.ac.ucl.comp0010.repository.StudentRepository;
+
+/**
+ * Integration tests for DatabaseSnapshotService against a file database.
+ */
+@SpringBootTest(properties = "grades.persistent.snapshots-kept=2")
+@ActiveProfiles("persistent")
+public class DatabaseSnapshotServiceTest {
+
+  @TempDir
+  static Path dataDirectory;
+
+  @Autowired
+  private DatabaseSnapshotService snapshotService;
+
+  @Autowired
+  private StudentRepository studentRepository;
+
+  /**
+   * Point the persistent profile at a temporary directory.
+   *
+   * @param registry the property registry
+   */
+  @DynamicPropertySource
+  static void dataDirectory(DynamicPropertyRegistry registry) {
+    registry.add("grades.persistent.dir", () -> dataDirectory.toString());
+  }
+
+  /**
+   * Test a snapshot holds the database file and only the newest snapshots are kept.
+   */
+  @Test
+  void testSnapshotWrittenAndPruned() throws Exception {
+    studentRepository.save(new Student(1, "John", "Doe", "jdoe", "john.doe@ucl.ac.uk"));
+
+    Path first = snapshotService.snapshot();
+    Path second = snapshotService.snapshot();
+    Path third = snapshotService.snapshot();
+
+    List<Path> snapshots = snapshotService.listSnapshots();
+    assertEquals(List.of(second, third), snapshots);
+    assertTrue(!first.toFile().exists());
+    try (ZipFile zip = new ZipFile(third.toFile())) {
+      assertTrue(zip.getEntry("grades.mv.db") != null);
+    }
+  }
+}
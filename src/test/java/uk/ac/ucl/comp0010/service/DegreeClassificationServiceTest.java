@@ -0,0 +1,193 @@
+package uk.ac.ucl.comp0010.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import uk.ac.ucl.comp0010.dto.DegreeClassification;
+import uk.ac.ucl.comp0010.dto.DegreeClassification.DegreeClass;
+import uk.ac.ucl.comp0010.exception.NoGradeAvailableException;
+import uk.ac.ucl.comp0010.model.Grade;
+import uk.ac.ucl.comp0010.model.Module;
+import uk.ac.ucl.comp0010.model.Student;
+import uk.ac.ucl.comp0010.repository.GradeRepository;
+import uk.ac.ucl.comp0010.repository.ModuleRepository;
+import uk.ac.ucl.comp0010.repository.StudentRepository;
+
+/**
+ * Integration tests for DegreeClassificationService.
+ */
+@SpringBootTest
+@Transactional
+class DegreeClassificationServiceTest {
+
+  private static final String YEAR = "1980-1981";
+
+  @Autowired
+  private DegreeClassificationService classificationService;
+
+  @Autowired
+  private StudentRepository studentRepository;
+
+  @Autowired
+  private ModuleRepository moduleRepository;
+
+  @Autowired
+  private GradeRepository gradeRepository;
+
+  private Module core;
+  private Module optional1;
+  private Module optional2;
+  private Module optional3;
+
+  /**
+   * Set up a mandatory non-condonable double module and three optional modules.
+   */
+  @BeforeEach
+  void setUp() {
+    core = moduleRepository.save(new Module("CLS001", "Core Module", true, 30));
+    optional1 = moduleRepository.save(new Module("CLS002", "Optional Module 1", false, 15));
+    optional2 = moduleRepository.save(new Module("CLS003", "Optional Module 2", false, 15));
+    optional3 = moduleRepository.save(new Module("CLS004", "Optional Module 3", false, null));
+  }
+
+  private Student student(int id) {
+    return studentRepository.save(
+        new Student(id, "Class", "Student" + id, "cstudent" + id, "class" + id + "@ucl.ac.uk"));
+  }
+
+  private void grade(Student student, Module module, Integer score) {
+    gradeRepository.save(new Grade(score, YEAR, student, module));
+  }
+
+  /**
+   * Test averages are weighted by credits and use the best attempt at a retaken module.
+   */
+  @Test
+  void testWeightedAverageUsesBestAttempt() throws Exception {
+    Student student = student(4001);
+    grade(student, core, 75);
+    grade(student, optional1, 45);
+    grade(student, optional1, 65);
+    grade(student, optional2, null);
+
+    DegreeClassification classification = classificationService.classifyStudent(4001);
+    assertEquals((75.0 * 30 + 65 * 15) / 45, classification.getWeightedAverage(), 0.001);
+    assertEquals(45, classification.getCredits());
+    assertEquals(DegreeClass.FIRST, classification.getDegreeClass());
+  }
+
+  /**
+   * Test a failed mandatory non-condonable module fails the degree whatever the average.
+   */
+  @Test
+  void testMncFailureIsNotCondoned() throws Exception {
+    Student student = student(4002);
+    grade(student, core, 35);
+    grade(student, optional1, 95);
+    grade(student, optional2, 95);
+
+    DegreeClassification classification = classificationService.classifyStudent(4002);
+    assertEquals(DegreeClass.FAIL, classification.getDegreeClass());
+    assertEquals(List.of("CLS001"), classification.getFailedModules());
+  }
+
+  /**
+   * Test failures are condoned up to the credit limit and above the condone floor only.
+   */
+  @Test
+  void testCondonement() throws Exception {
+    Student condoned = student(4003);
+    grade(condoned, core, 62);
+    grade(condoned, optional1, 35);
+    grade(condoned, optional2, 58);
+    DegreeClassification classification = classificationService.classifyStudent(4003);
+    assertEquals(15, classification.getCondonedCredits());
+    assertTrue(classification.getFailedModules().isEmpty());
+    assertEquals(DegreeClass.LOWER_SECOND, classification.getDegreeClass());
+
+    Student tooMany = student(4004);
+    grade(tooMany, core, 80);
+    grade(tooMany, optional1, 35);
+    grade(tooMany, optional2, 32);
+    grade(tooMany, optional3, 36);
+    classification = classificationService.classifyStudent(4004);
+    assertEquals(DegreeClass.FAIL, classification.getDegreeClass());
+    assertEquals(List.of("CLS002", "CLS003", "CLS004"), classification.getFailedModules());
+
+    Student belowFloor = student(4005);
+    grade(belowFloor, core, 80);
+    grade(belowFloor, optional1, 25);
+    classification = classificationService.classifyStudent(4005);
+    assertEquals(DegreeClass.FAIL, classification.getDegreeClass());
+    assertEquals(List.of("CLS002"), classification.getFailedModules());
+  }
+
+  /**
+   * Test a cohort large enough to be split across fork/join tasks is classified in student
+   * order, with the same results as classifying each student alone.
+   */
+  @Test
+  void testCohortClassifiedInParallel() throws Exception {
+    int students = DegreeClassificationService.STUDENTS_PER_TASK * 3 + 7;
+    List<Student> cohortStudents = new ArrayList<>();
+    for (int i = 0; i < students; i++) {
+      int id = 5001 + i;
+      cohortStudents.add(new Student(id, "Class", "Student" + id, "cstudent" + id,
+          "class" + id + "@ucl.ac.uk"));
+    }
+    List<Grade> grades = new ArrayList<>();
+    for (Student student : studentRepository.saveAll(cohortStudents)) {
+      int i = student.getId() - 5001;
+      grades.add(new Grade(20 + i % 75, YEAR, student, optional1));
+      grades.add(new Grade(40 + i % 60, YEAR, student, core));
+    }
+    gradeRepository.saveAll(grades);
+
+    List<DegreeClassification> cohort = classificationService.classifyCohort(YEAR);
+    assertEquals(students, cohort.size());
+    for (int i = 0; i < students; i++) {
+      DegreeClassification classification = cohort.get(i);
+      assertEquals(5001 + i, classification.getStudentId());
+      if (i % 50 == 0) {
+        assertEquals(classificationService.classifyStudent(5001 + i).getDegreeClass(),
+            classification.getDegreeClass());
+      }
+      int optional = 20 + i % 75;
+      double average = (optional * 15.0 + (40 + i % 60) * 30) / 45;
+      assertEquals(average, classification.getWeightedAverage(), 0.001);
+      assertEquals(optional < 30 ? DegreeClass.FAIL : DegreeClass.forAverage(average),
+          classification.getDegreeClass());
+    }
+    assertTrue(classificationService.classifyCohort("1970-1971").isEmpty());
+  }
+
+  /**
+   * Test a student without scored grades cannot be classified.
+   */
+  @Test
+  void testNoGrades() {
+    grade(student(4006), optional1, null);
+    assertThrows(NoGradeAvailableException.class,
+        () -> classificationService.classifyStudent(4006));
+  }
+
+  /**
+   * Test the class boundaries of the weighted average.
+   */
+  @Test
+  void testDegreeClassBoundaries() {
+    assertEquals(DegreeClass.FIRST, DegreeClass.forAverage(70));
+    assertEquals(DegreeClass.UPPER_SECOND, DegreeClass.forAverage(69.99));
+    assertEquals(DegreeClass.LOWER_SECOND, DegreeClass.forAverage(50));
+    assertEquals(DegreeClass.THIRD, DegreeClass.forAverage(40));
+    assertEquals(DegreeClass.FAIL, DegreeClass.forAverage(39.5));
+  }
+}
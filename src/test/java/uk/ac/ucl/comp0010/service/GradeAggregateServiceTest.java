@@ -0,0 +1,247 @@
+package uk.ac.ucl.comp0010.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import uk.ac.ucl.comp0010.exception.NoGradeAvailableException;
+import uk.ac.ucl.comp0010.model.Grade;
+import uk.ac.ucl.comp0010.model.GradeAggregate;
+import uk.ac.ucl.comp0010.model.GradeAggregate.Scope;
+import uk.ac.ucl.comp0010.model.GradeHistogramBucket;
+import uk.ac.ucl.comp0010.model.Module;
+import uk.ac.ucl.comp0010.model.Registration;
+import uk.ac.ucl.comp0010.model.Student;
+import uk.ac.ucl.comp0010.repository.GradeRepository;
+import uk.ac.ucl.comp0010.repository.ModuleRepository;
+import uk.ac.ucl.comp0010.repository.RegistrationRepository;
+import uk.ac.ucl.comp0010.repository.StudentRepository;
+
+/**
+ * Integration tests for GradeAggregateService.
+ */
+@SpringBootTest
+@Transactional
+class GradeAggregateServiceTest {
+
+  @Autowired
+  private GradeAggregateService gradeAggregateService;
+
+  @Autowired
+  private GradeService gradeService;
+
+  @Autowired
+  private StudentRepository studentRepository;
+
+  @Autowired
+  private ModuleRepository moduleRepository;
+
+  @Autowired
+  private RegistrationRepository registrationRepository;
+
+  @Autowired
+  private GradeRepository gradeRepository;
+
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  private Student student;
+  private Module module;
+
+  /**
+   * Set up test data before each test.
+   */
+  @BeforeEach
+  void setUp() {
+    student = studentRepository.save(
+        new Student(3001, "Aggregate", "Student", "astudent", "agg@ucl.ac.uk"));
+    module = moduleRepository.save(new Module("AGG001", "Aggregate Module", false));
+    registrationRepository.save(new Registration(student, module));
+  }
+
+  /**
+   * Test adding, updating and deleting grades through the service keeps averages current.
+   */
+  @Test
+  void testAveragesFollowServiceChanges() throws Exception {
+    gradeService.addGradeWithValidation(3001, "AGG001", 60, "1990-1991");
+    Grade second = gradeService.addGradeWithValidation(3001, "AGG001", 80, "1990-1991");
+    assertEquals(70.0, gradeService.calculateStudentAverage(3001), 0.001);
+    assertEquals(70.0, gradeService.calculateModuleAverage("AGG001"), 0.001);
+    assertEquals(70.0, gradeService.calculateAcademicYearAverage("1990-1991"), 0.001);
+
+    gradeService.updateGrade(second.getId(), 100);
+    assertEquals(80.0, gradeService.calculateModuleAverage("AGG001"), 0.001);
+
+    gradeService.deleteGrade(second.getId());
+    assertEquals(60.0, gradeService.calculateStudentAverage(3001), 0.001);
+    assertTrue(gradeAggregateService.verify().isEmpty());
+  }
+
+  /**
+   * Test grades saved directly through the repository and in batches are also counted.
+   */
+  @Test
+  void testAveragesFollowRepositorySaves() throws Exception {
+    gradeRepository.save(new Grade(50, "1990-1991", student, module));
+    gradeRepository.saveAll(List.of(
+        new Grade(70, "1990-1991", student, module),
+        new Grade(null, "1990-1991", student, module)));
+
+    assertEquals(60.0, gradeService.calculateStudentAverage(3001), 0.001);
+    assertTrue(gradeAggregateService.verify().isEmpty());
+  }
+
+  /**
+   * Test an aggregate with no remaining grades reports no average.
+   */
+  @Test
+  void testNoGradesAfterDelete() throws Exception {
+    Grade grade = gradeService.addGradeWithValidation(3001, "AGG001", 60, null);
+    gradeService.deleteGrade(grade.getId());
+
+    assertThrows(NoGradeAvailableException.class,
+        () -> gradeService.calculateStudentAverage(3001));
+  }
+
+  /**
+   * Test the module histogram and the student average histogram follow grade changes.
+   */
+  @Test
+  void testHistogramsFollowServiceChanges() throws Exception {
+    String moduleHistogram = GradeHistogramBucket.forModule("AGG001");
+    long[] averages = gradeAggregateService.getHistogram(GradeHistogramBucket.STUDENT_AVERAGES);
+
+    gradeService.addGradeWithValidation(3001, "AGG001", 60, "1990-1991");
+    Grade second = gradeService.addGradeWithValidation(3001, "AGG001", 80, "1990-1991");
+    long[] module = gradeAggregateService.getHistogram(moduleHistogram);
+    assertEquals(1, module[60]);
+    assertEquals(1, module[80]);
+    long[] moved = gradeAggregateService.getHistogram(GradeHistogramBucket.STUDENT_AVERAGES);
+    assertEquals(averages[60], moved[60]);
+    assertEquals(averages[70] + 1, moved[70]);
+
+    gradeService.updateGrade(second.getId(), 150);
+    module = gradeAggregateService.getHistogram(moduleHistogram);
+    assertEquals(0, module[80]);
+    assertEquals(1, module[100]);
+    moved = gradeAggregateService.getHistogram(GradeHistogramBucket.STUDENT_AVERAGES);
+    assertEquals(averages[70], moved[70]);
+    assertEquals(averages[100] + 1, moved[100]);
+
+    gradeService.deleteGrade(second.getId());
+    moved = gradeAggregateService.getHistogram(GradeHistogramBucket.STUDENT_AVERAGES);
+    assertEquals(averages[60] + 1, moved[60]);
+    assertEquals(averages[100], moved[100]);
+    assertTrue(gradeAggregateService.verify().isEmpty());
+  }
+
+  /**
+   * Test verify reports aggregates changed behind the service's back and rebuild fixes them.
+   */
+  @Test
+  void testVerifyAndRebuild() throws Exception {
+    Grade grade = gradeService.addGradeWithValidation(3001, "AGG001", 60, "1990-1991");
+    assertTrue(gradeAggregateService.verify().isEmpty());
+
+    entityManager.flush();
+    entityManager.createNativeQuery("UPDATE grade SET score = 90 WHERE id = :id")
+        .setParameter("id", grade.getId())
+        .executeUpdate();
+
+    List<String> drifted = gradeAggregateService.verify();
+    assertTrue(drifted.contains(GradeAggregate.id(Scope.STUDENT, 3001)));
+    assertTrue(drifted.contains(GradeAggregate.id(Scope.MODULE, "AGG001")));
+    assertTrue(drifted.contains(GradeAggregate.id(Scope.ACADEMIC_YEAR, "1990-1991")));
+    assertTrue(drifted.contains(
+        GradeHistogramBucket.id(GradeHistogramBucket.forModule("AGG001"), 90)));
+
+    assertEquals(drifted.size(), gradeAggregateService.reconcile());
+    assertTrue(gradeAggregateService.verify().isEmpty());
+    assertEquals(90.0, gradeService.calculateStudentAverage(3001), 0.001);
+    assertEquals(1, gradeAggregateService.getHistogram(
+        GradeHistogramBucket.forModule("AGG001"))[90]);
+  }
+
+  /**
+   * Test two transactions writing the first grades of a new module both commit, the second
+   * waiting for the first to create the aggregate rows, and a rebuild started meanwhile waits
+   * for both rather than deleting their changes.
+   */
+  @Test
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)
+  void testConcurrentFirstGradesAndRebuild() throws Exception {
+    TransactionTemplate transactions = new TransactionTemplate(transactionManager);
+    moduleRepository.save(new Module("AGGRACE", "Race Module", false));
+    CountDownLatch firstApplied = new CountDownLatch(1);
+    CountDownLatch releaseFirst = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(3);
+    try {
+      Future<?> first = executor.submit(() -> transactions.executeWithoutResult(status -> {
+        gradeRepository.save(new Grade(60, "1990-1991", student, moduleRepository
+            .findById("AGGRACE").get()));
+        gradeAggregateService.getAverage(Scope.MODULE, "AGGRACE");
+        firstApplied.countDown();
+        await(releaseFirst);
+      }));
+      firstApplied.await();
+      Future<?> second = executor.submit(() -> transactions.executeWithoutResult(status ->
+          gradeRepository.save(new Grade(80, "1990-1991", studentRepository.findById(1).get(),
+              moduleRepository.findById("AGGRACE").get()))));
+      Thread.sleep(200);
+      Future<Integer> rebuild = executor.submit(gradeAggregateService::rebuild);
+      Thread.sleep(200);
+      assertFalse(second.isDone());
+      assertFalse(rebuild.isDone());
+
+      releaseFirst.countDown();
+      first.get(10, TimeUnit.SECONDS);
+      second.get(10, TimeUnit.SECONDS);
+      rebuild.get(10, TimeUnit.SECONDS);
+
+      assertEquals(70.0, gradeService.calculateModuleAverage("AGGRACE"), 0.001);
+      assertEquals(1, gradeAggregateService.getHistogram(
+          GradeHistogramBucket.forModule("AGGRACE"))[80]);
+      assertTrue(gradeAggregateService.verify().isEmpty());
+    } finally {
+      releaseFirst.countDown();
+      executor.shutdown();
+      transactions.executeWithoutResult(status -> {
+        gradeRepository.deleteAll(gradeRepository.findByModuleCode("AGGRACE"));
+        entityManager.createQuery("DELETE FROM Registration r WHERE r.student.id = 3001")
+            .executeUpdate();
+      });
+      moduleRepository.deleteById("AGGRACE");
+      moduleRepository.deleteById("AGG001");
+      studentRepository.deleteById(3001);
+    }
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,102 @@
+package uk.ac.ucl.comp0010.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import uk.ac.ucl.comp0010.model.Grade;
+import uk.ac.ucl.comp0010.model.Module;
+import uk.ac.ucl.comp0010.model.Student;
+import uk.ac.ucl.comp0010.repository.GradeRepository;
+import uk.ac.ucl.comp0010.repository.ModuleRepository;
+import uk.ac.ucl.comp0010.repository.StudentRepository;
+
+/**
+ * Integration tests for GradeExportService.
+ */
+@SpringBootTest
+@Transactional
+class GradeExportServiceTest {
+
+  @Autowired
+  private GradeExportService exportService;
+
+  @Autowired
+  private StudentRepository studentRepository;
+
+  @Autowired
+  private ModuleRepository moduleRepository;
+
+  @Autowired
+  private GradeRepository gradeRepository;
+
+  private Grade first;
+  private Grade second;
+
+  /**
+   * Set up test data before each test.
+   */
+  @BeforeEach
+  void setUp() {
+    Student student = studentRepository.save(
+        new Student(3001, "Export", "Student", "estudent", "export@ucl.ac.uk"));
+    Module module = moduleRepository.save(new Module("EXP001", "Export, Module", false));
+    first = gradeRepository.save(new Grade(66, "1999-2000", student, module));
+    second = gradeRepository.save(new Grade(77, null, student, module));
+  }
+
+  /**
+   * Test exporting a module as CSV.
+   */
+  @Test
+  void testExportModuleCsv() throws IOException {
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+    long count = exportService.exportModule("EXP001", GradeExportService.Format.CSV, output);
+
+    String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+    assertEquals(2, count);
+    assertEquals(3, lines.length);
+    assertEquals(GradeExportService.CSV_HEADER, lines[0]);
+    assertEquals(first.getId() + ",3001,EXP001,66,1999-2000", lines[1]);
+    assertEquals(second.getId() + ",3001,EXP001,77,", lines[2]);
+  }
+
+  /**
+   * Test exporting an academic year cohort as NDJSON.
+   */
+  @Test
+  void testExportAcademicYearNdjson() throws IOException {
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+    long count = exportService.exportAcademicYear("1999-2000",
+        GradeExportService.Format.NDJSON, output);
+
+    String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+    assertEquals(1, count);
+    assertEquals(1, lines.length);
+    assertTrue(lines[0].contains("\"student_id\":3001"));
+    assertTrue(lines[0].contains("\"module_code\":\"EXP001\""));
+    assertTrue(lines[0].contains("\"academic_year\":\"1999-2000\""));
+  }
+
+  /**
+   * Test looking up export formats by name.
+   */
+  @Test
+  void testFormatFromName() {
+    assertEquals(GradeExportService.Format.CSV, GradeExportService.Format.fromName("csv"));
+    assertEquals("application/x-ndjson",
+        GradeExportService.Format.fromName("NDJSON").getMediaType());
+    assertThrows(IllegalArgumentException.class,
+        () -> GradeExportService.Format.fromName("xml"));
+  }
+}
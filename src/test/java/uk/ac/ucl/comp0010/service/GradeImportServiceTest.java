@@ -0,0 +1,183 @@
+package uk.ac.ucl.comp0010.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import uk.ac.ucl.comp0010.dto.GradeImportReport;
+import uk.ac.ucl.comp0010.model.Module;
+import uk.ac.ucl.comp0010.model.Registration;
+import uk.ac.ucl.comp0010.model.Student;
+import uk.ac.ucl.comp0010.repository.ModuleRepository;
+import uk.ac.ucl.comp0010.repository.RegistrationRepository;
+import uk.ac.ucl.comp0010.repository.StudentRepository;
+
+/**
+ * Integration tests for GradeImportService.
+ */
+@SpringBootTest
+@Transactional
+class GradeImportServiceTest {
+
+  @Autowired
+  private GradeService gradeService;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @Autowired
+  private StudentRepository studentRepository;
+
+  @Autowired
+  private ModuleRepository moduleRepository;
+
+  @Autowired
+  private RegistrationRepository registrationRepository;
+
+  private GradeImportService importService;
+
+  /**
+   * Set up test data and an import service with a small chunk size.
+   */
+  @BeforeEach
+  void setUp() {
+    Student student = studentRepository.save(
+        new Student(2001, "Import", "Student", "istudent", "import@ucl.ac.uk"));
+    Module module = moduleRepository.save(new Module("IMP001", "Import Module", false));
+    moduleRepository.save(new Module("IMP002", "Other Module", false));
+    registrationRepository.save(new Registration(student, module));
+
+    importService = new GradeImportService(gradeService, objectMapper, 2);
+  }
+
+  /**
+   * Test importing CSV with a header row across several chunks.
+   */
+  @Test
+  void testImportCsvWithHeader() throws IOException {
+    String csv = "student_id,module_code,score,academic_year\n"
+        + "2001,IMP001,70,2024-2025\n"
+        + "2001,IMP001,71,2024-2025\n"
+        + "\n"
+        + "2001,IMP002,72,2024-2025\n"
+        + "2001,IMP001,abc,2024-2025\n"
+        + "\"2001\",\"IMP001\",73,\n";
+
+    GradeImportReport report = importService.importCsv(stream(csv));
+
+    assertEquals(5, report.getRowsRead());
+    assertEquals(3, report.getAccepted());
+    assertEquals(2, report.getRejectedCount());
+    assertEquals(2, report.getChunksCommitted());
+    assertEquals(5, report.getRejected().get(0).getRow());
+    assertEquals(6, report.getRejected().get(1).getRow());
+    assertFalse(report.isRejectedTruncated());
+    assertEquals(3, gradeService.getGradesByStudent(2001).size());
+  }
+
+  /**
+   * Test importing CSV without a header row uses the default column order.
+   */
+  @Test
+  void testImportCsvWithoutHeader() throws IOException {
+    GradeImportReport report = importService.importCsv(stream("2001,IMP001,65\n"));
+
+    assertEquals(1, report.getAccepted());
+    assertEquals(65, gradeService.getGradesByStudent(2001).get(0).getScore());
+  }
+
+  /**
+   * Test importing NDJSON with an invalid line.
+   */
+  @Test
+  void testImportNdjson() throws IOException {
+    String ndjson = "{\"student_id\": 2001, \"module_code\": \"IMP001\", \"score\": 80}\n"
+        + "not json\n"
+        + "{\"student_id\": \"2001\", \"module_code\": \"IMP001\"}\n";
+
+    GradeImportReport report = importService.importNdjson(stream(ndjson));
+
+    assertEquals(3, report.getRowsRead());
+    assertEquals(1, report.getAccepted());
+    assertEquals(2, report.getRejectedCount());
+    assertEquals("Invalid JSON", report.getRejected().get(0).getReason());
+    assertEquals("Missing required parameters", report.getRejected().get(1).getReason());
+  }
+
+  /**
+   * Test quoted CSV fields keep their commas, doubled quotes and line breaks, as the export
+   * writes them, and later rows keep the line number they start on.
+   */
+  @Test
+  void testImportCsvQuotedFields() throws IOException {
+    String csv = "student_id,module_code,score,academic_year\n"
+        + "2001, \"IMP001\" ,70,\"2024, \"\"resit\"\"\nterm\"\n"
+        + "2001,IMP001,abc,2024-2025\n"
+        + "2001,IMP001,71,\"2024\n";
+
+    GradeImportReport report = importService.importCsv(stream(csv));
+
+    assertEquals(3, report.getRowsRead());
+    assertEquals(1, report.getAccepted());
+    assertEquals(4, report.getRejected().get(0).getRow());
+    assertEquals("Unterminated quoted field", report.getRejected().get(1).getReason());
+    assertEquals("2024, \"resit\"\nterm",
+        gradeService.getGradesByStudent(2001).get(0).getAcademicYear());
+  }
+
+  /**
+   * Test an NDJSON line that is not an object is rejected rather than failing the import.
+   */
+  @Test
+  void testImportNdjsonNullLine() throws IOException {
+    String ndjson = "null\n"
+        + "{\"student_id\": 2001, \"module_code\": \"IMP001\", \"score\": 80}\n";
+
+    GradeImportReport report = importService.importNdjson(stream(ndjson));
+
+    assertEquals(1, report.getAccepted());
+    assertEquals("Expected a JSON object", report.getRejected().get(0).getReason());
+  }
+
+  /**
+   * Test that only a bounded number of rejected rows are listed.
+   */
+  @Test
+  void testRejectedRowsAreTruncated() throws IOException {
+    StringBuilder csv = new StringBuilder();
+    int rows = GradeImportReport.MAX_REPORTED_REJECTS + 5;
+    for (int i = 0; i < rows; i++) {
+      csv.append("x,IMP001,50\n");
+    }
+
+    GradeImportReport report = importService.importCsv(stream(csv.toString()));
+
+    assertEquals(rows, report.getRejectedCount());
+    assertEquals(GradeImportReport.MAX_REPORTED_REJECTS, report.getRejected().size());
+    assertTrue(report.isRejectedTruncated());
+  }
+
+  /**
+   * Test that an invalid chunk size is rejected.
+   */
+  @Test
+  void testInvalidChunkSize() {
+    assertThrows(IllegalArgumentException.class,
+        () -> new GradeImportService(gradeService, objectMapper, 0));
+  }
+
+  private static InputStream stream(String content) {
+    return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+  }
+}
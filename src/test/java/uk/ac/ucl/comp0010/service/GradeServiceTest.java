@@ -2,18 +2,42 @@ package uk.ac.ucl.comp0010.service;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
+import jakarta.persistence.EntityManager;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.transaction.annotation.Transactional;
+import uk.ac.ucl.comp0010.config.CacheConfig;
+import uk.ac.ucl.comp0010.dto.GradeBatchResult;
+import uk.ac.ucl.comp0010.dto.GradeCursor;
+import uk.ac.ucl.comp0010.dto.GradeDistribution;
+import uk.ac.ucl.comp0010.dto.GradePage;
+import uk.ac.ucl.comp0010.dto.GradeRow;
+import uk.ac.ucl.comp0010.dto.GradeStatistics;
+import uk.ac.ucl.comp0010.dto.GradeSubmission;
+import uk.ac.ucl.comp0010.dto.GradeSummary;
+import uk.ac.ucl.comp0010.dto.GradeView;
+import uk.ac.ucl.comp0010.dto.QueuedGrade;
+import uk.ac.ucl.comp0010.dto.StudentRank;
 import uk.ac.ucl.comp0010.exception.NoGradeAvailableException;
 import uk.ac.ucl.comp0010.exception.NoRegistrationException;
 import uk.ac.ucl.comp0010.model.Grade;
+import uk.ac.ucl.comp0010.model.GradeAggregate.Scope;
 import uk.ac.ucl.comp0010.model.Module;
 import uk.ac.ucl.comp0010.model.Registration;
 import uk.ac.ucl.comp0010.model.Student;
@@ -44,6 +68,15 @@ class GradeServiceTest {
   @Autowired
   private RegistrationRepository registrationRepository;
 
+  @Autowired
+  private GradeAggregateService gradeAggregateService;
+
+  @Autowired
+  private CaffeineCacheManager caffeineCacheManager;
+
+  @Autowired
+  private EntityManager entityManager;
+
   private Student student1;
   private Student student2;
   private Module module1;
@@ -127,6 +160,183 @@ class GradeServiceTest {
     });
   }
 
+  /**
+   * Test averages of several students and modules are read together.
+   */
+  @Test
+  void testBatchAverages() {
+    Map<Integer, Double> students = gradeService.calculateStudentAverages(List.of(1001, 1002,
+        9999));
+    assertEquals(2, students.size());
+    assertEquals(85.0, students.get(1001), 0.001);
+    assertEquals(75.0, students.get(1002), 0.001);
+
+    Map<String, Double> modules = gradeService.calculateModuleAverages(List.of("TEST101"));
+    assertEquals(77.5, modules.get("TEST101"), 0.001);
+  }
+
+  /**
+   * Test the grades of several students and modules are grouped in request order.
+   */
+  @Test
+  void testBatchGrades() {
+    Map<Integer, List<?>> students = gradeService.getGradesByStudents(
+        List.of(1002, 9999, 1001, 1002), GradeView.IDS);
+    assertEquals(List.of(1002, 9999, 1001), new ArrayList<>(students.keySet()));
+    assertEquals(1, students.get(1002).size());
+    assertTrue(students.get(9999).isEmpty());
+    assertEquals(2, students.get(1001).size());
+    assertEquals(1001, ((GradeRow) students.get(1001).get(0)).getStudentId());
+
+    Map<String, List<?>> modules = gradeService.getGradesByModules(
+        List.of("TEST102", "TEST101"), GradeView.SUMMARY);
+    assertEquals(List.of("TEST102", "TEST101"), new ArrayList<>(modules.keySet()));
+    assertEquals(2, modules.get("TEST101").size());
+    assertEquals("TEST102", ((GradeSummary) modules.get("TEST102").get(0)).getModuleCode());
+
+    Map<String, List<?>> full = gradeService.getGradesByModules(List.of("TEST102"),
+        GradeView.FULL);
+    assertEquals(90, ((Grade) full.get("TEST102").get(0)).getScore());
+    assertTrue(gradeService.getGradesByStudents(List.of(), GradeView.FULL).isEmpty());
+  }
+
+  /**
+   * Test a batch read larger than the maximum is rejected.
+   */
+  @Test
+  void testBatchReadTooLarge() {
+    List<Integer> ids = new ArrayList<>();
+    for (int i = 0; i <= GradeService.MAX_BATCH_READ; i++) {
+      ids.add(i);
+    }
+    assertThrows(IllegalArgumentException.class,
+        () -> gradeService.getGradesByStudents(ids, GradeView.IDS));
+  }
+
+  /**
+   * Test module statistics are computed from the database aggregate.
+   */
+  @Test
+  void testGetModuleStatistics() throws NoGradeAvailableException {
+    GradeStatistics statistics = gradeService.getModuleStatistics("TEST101");
+    assertEquals(2, statistics.getCount());
+    assertEquals(77.5, statistics.getAverage(), 0.01);
+    assertEquals(75, statistics.getMin());
+    assertEquals(80, statistics.getMax());
+    assertEquals(2.5, statistics.getStandardDeviation(), 0.01);
+  }
+
+  /**
+   * Test module statistics for a module with no grades.
+   */
+  @Test
+  void testGetModuleStatisticsNoGrades() {
+    assertThrows(NoGradeAvailableException.class, () -> {
+      gradeService.getModuleStatistics("NOGRADES");
+    });
+  }
+
+  /**
+   * Test student statistics are computed from the database aggregate.
+   */
+  @Test
+  void testGetStudentStatistics() throws NoGradeAvailableException {
+    GradeStatistics statistics = gradeService.getStudentStatistics(1001);
+    assertEquals(2, statistics.getCount());
+    assertEquals(85.0, statistics.getAverage(), 0.01);
+    assertEquals(5.0, statistics.getStandardDeviation(), 0.01);
+  }
+
+  /**
+   * Test the module distribution is read from its maintained histogram.
+   */
+  @Test
+  void testGetModuleDistribution() throws NoGradeAvailableException {
+    GradeDistribution distribution = gradeService.getModuleDistribution("TEST101");
+
+    assertEquals(2, distribution.getCount());
+    assertEquals(77.5, distribution.getAverage(), 0.001);
+    assertEquals(75, distribution.percentile(50));
+    assertEquals(80, distribution.percentile(90));
+    assertEquals(1, distribution.getHistogram()[80]);
+    assertThrows(NoGradeAvailableException.class,
+        () -> gradeService.getModuleDistribution("NONEXISTENT"));
+  }
+
+  /**
+   * Test students are ranked within a module and by average across modules.
+   */
+  @Test
+  void testGetStudentRank() throws NoGradeAvailableException {
+    StudentRank first = gradeService.getStudentRank(1001, "TEST101");
+    assertEquals(80.0, first.getScore(), 0.001);
+    assertEquals(1, first.getRank());
+    assertEquals(2, first.getCohortSize());
+    assertEquals(100.0, first.getPercentile(), 0.001);
+    StudentRank second = gradeService.getStudentRank(1002, "TEST101");
+    assertEquals(2, second.getRank());
+    assertEquals(50.0, second.getPercentile(), 0.001);
+
+    // Other students exist in the shared database, so compare the two test students.
+    StudentRank higher = gradeService.getStudentRank(1001);
+    StudentRank lower = gradeService.getStudentRank(1002);
+    assertEquals(85.0, higher.getScore(), 0.001);
+    assertEquals(higher.getCohortSize(), lower.getCohortSize());
+    assertTrue(higher.getRank() < lower.getRank());
+    assertTrue(higher.getPercentile() > lower.getPercentile());
+
+    assertThrows(NoGradeAvailableException.class,
+        () -> gradeService.getStudentRank(1002, "TEST102"));
+  }
+
+  /**
+   * Test statistics are scanned from the columnar store when it is current.
+   */
+  @Test
+  void testStatisticsFromCurrentColumnarStore() throws NoGradeAvailableException {
+    ColumnarGradeStore store = mock(ColumnarGradeStore.class);
+    when(store.isCurrent()).thenReturn(true);
+    when(store.getStatistics(Scope.MODULE, "TEST101"))
+        .thenReturn(new GradeStatistics(3L, 70.0, 60, 80, 14_900L));
+    when(store.getStatistics(Scope.STUDENT, 1001))
+        .thenReturn(new GradeStatistics(0L, null, null, null, null));
+
+    GradeService service = withColumnarStore(store);
+    assertEquals(3, service.getModuleStatistics("TEST101").getCount());
+    assertThrows(NoGradeAvailableException.class, () -> service.getStudentStatistics(1001));
+  }
+
+  /**
+   * Test statistics fall back to the database when the columnar store is not current, such as
+   * over its memory cap or inside a transaction that changed grades.
+   */
+  @Test
+  void testStatisticsFallBackToDatabase() throws NoGradeAvailableException {
+    ColumnarGradeStore store = mock(ColumnarGradeStore.class);
+    when(store.isCurrent()).thenReturn(false);
+
+    GradeService service = withColumnarStore(store);
+    assertEquals(2, service.getModuleStatistics("TEST101").getCount());
+    assertEquals(85.0, service.getStudentStatistics(1001).getAverage(), 0.01);
+  }
+
+  private GradeService withColumnarStore(ColumnarGradeStore store) {
+    return new GradeService(gradeRepository, studentRepository, moduleRepository,
+        registrationRepository, gradeAggregateService,
+        new StaticListableBeanFactory(Map.of("columnarGradeStore", store))
+            .getBeanProvider(ColumnarGradeStore.class));
+  }
+
+  /**
+   * Test statistics built from an empty aggregate row.
+   */
+  @Test
+  void testEmptyStatistics() {
+    GradeStatistics statistics = new GradeStatistics(0L, null, null, null, null);
+    assertEquals(0, statistics.getCount());
+    assertNull(statistics.getStandardDeviation());
+  }
+
   /**
    * Test getting grades by student.
    */
@@ -145,6 +355,128 @@ class GradeServiceTest {
     assertEquals(2, grades.size());
   }
 
+  /**
+   * Test paging through a module's grades ordered by score.
+   */
+  @Test
+  void testGetGradesByModulePagedByScore() {
+    gradeRepository.save(new Grade(75, "2023-2024", student2, module1));
+    gradeRepository.save(new Grade(95, null, student2, module1));
+
+    List<Integer> scores = new ArrayList<>();
+    String cursor = null;
+    int pages = 0;
+    do {
+      GradePage<?> page = gradeService.getGradesByModule("TEST101",
+          GradeCursor.of("score", "desc", cursor, 3), GradeView.FULL);
+      page.getContent().forEach(g -> scores.add(((Grade) g).getScore()));
+      cursor = page.getNextCursor();
+      pages++;
+    } while (cursor != null);
+
+    assertEquals(List.of(95, 80, 75, 75), scores);
+    assertEquals(2, pages);
+  }
+
+  /**
+   * Test paging through a student's grades ordered by academic year.
+   */
+  @Test
+  void testGetGradesByStudentPagedByAcademicYear() {
+    gradeRepository.save(new Grade(60, "2022-2023", student1, module1));
+
+    GradePage<?> first = gradeService.getGradesByStudent(1001,
+        GradeCursor.of("academic_year", null, null, 1), GradeView.FULL);
+    assertEquals("2022-2023", ((Grade) first.getContent().get(0)).getAcademicYear());
+    assertTrue(first.hasNext());
+
+    GradePage<?> second = gradeService.getGradesByStudent(1001,
+        GradeCursor.of("academic_year", null, first.getNextCursor(), 5), GradeView.FULL);
+    assertEquals(2, second.getContent().size());
+    assertFalse(second.hasNext());
+  }
+
+  /**
+   * Test paging by academic year visits grades without a year.
+   */
+  @Test
+  void testPagedByAcademicYearWithMissingYear() {
+    gradeRepository.save(new Grade(60, null, student1, module1));
+
+    int seen = 0;
+    String cursor = null;
+    do {
+      GradePage<?> page = gradeService.getGradesByStudent(1001,
+          GradeCursor.of("academic_year", null, cursor, 1), GradeView.FULL);
+      seen += page.getContent().size();
+      cursor = page.getNextCursor();
+    } while (cursor != null && seen < 10);
+
+    assertEquals(3, seen);
+  }
+
+  /**
+   * Test the summary view carries names instead of full student and module objects.
+   */
+  @Test
+  void testGetGradesByModuleSummaryView() {
+    List<?> grades = gradeService.getGradesByModule("TEST101", GradeView.SUMMARY);
+    assertEquals(2, grades.size());
+    GradeSummary summary = (GradeSummary) grades.get(0);
+    assertEquals("TEST101", summary.getModuleCode());
+    assertEquals("Test Module 1", summary.getModuleName());
+    assertTrue(summary.getStudentName().startsWith("Test Student"));
+  }
+
+  /**
+   * Test the ids view, listed and paged.
+   */
+  @Test
+  void testGetGradesByStudentIdsView() {
+    List<?> grades = gradeService.getGradesByStudent(1001, GradeView.IDS);
+    assertEquals(2, grades.size());
+    GradeRow row = (GradeRow) grades.get(0);
+    assertEquals(1001, row.getStudentId());
+
+    GradePage<?> page = gradeService.getGradesByStudent(1001,
+        GradeCursor.of("score", "desc", null, 1), GradeView.IDS);
+    assertEquals(1, page.getContent().size());
+    assertTrue(page.getContent().get(0) instanceof GradeRow);
+    assertTrue(page.hasNext());
+
+    GradePage<?> summaries = gradeService.getGradesByStudent(1001,
+        GradeCursor.of("score", "desc", page.getNextCursor(), 5), GradeView.SUMMARY);
+    assertEquals(1, summaries.getContent().size());
+    assertTrue(summaries.getContent().get(0) instanceof GradeSummary);
+    assertFalse(summaries.hasNext());
+  }
+
+  /**
+   * Test view parameter parsing.
+   */
+  @Test
+  void testGradeViewFromParameter() {
+    assertEquals(GradeView.FULL, GradeView.fromParameter(null));
+    assertEquals(GradeView.SUMMARY, GradeView.fromParameter("summary"));
+    assertThrows(IllegalArgumentException.class, () -> GradeView.fromParameter("all"));
+  }
+
+  /**
+   * Test invalid paging parameters are rejected.
+   */
+  @Test
+  void testInvalidPagingParameters() {
+    assertThrows(IllegalArgumentException.class, () -> GradeCursor.of("name", null, null, 10));
+    assertThrows(IllegalArgumentException.class, () -> GradeCursor.of(null, "up", null, 10));
+    assertThrows(IllegalArgumentException.class, () -> GradeCursor.of(null, null, null, 0));
+    assertThrows(IllegalArgumentException.class,
+        () -> GradeCursor.of(null, null, "not-a-cursor!", 10));
+    String idCursor = gradeService.getGradesByStudent(1001,
+        GradeCursor.of(null, null, null, 1), GradeView.FULL).getNextCursor();
+    assertThrows(IllegalArgumentException.class,
+        () -> GradeCursor.of("score", null, idCursor, 10));
+  }
+
   /**
    * Test validating student registration - registered.
    */
@@ -173,6 +505,32 @@ class GradeServiceTest {
     assertEquals("2024-2025", grade.getAcademicYear());
   }
 
+  /**
+   * Test adding grade with validation against a warm cache reads neither the student nor the
+   * module: only the registration check and the insert reach the database.
+   */
+  @Test
+  void testAddGradeWithValidationCachedStatements() throws NoRegistrationException {
+    Cache students = caffeineCacheManager.getCache(CacheConfig.STUDENTS);
+    Cache modules = caffeineCacheManager.getCache(CacheConfig.MODULES);
+    students.put(1002, student2);
+    modules.put("TEST101", module1);
+    entityManager.flush();
+    entityManager.clear();
+    Statistics statistics = entityManager.getEntityManagerFactory()
+        .unwrap(SessionFactory.class).getStatistics();
+    statistics.setStatisticsEnabled(true);
+    try {
+      statistics.clear();
+      gradeService.addGradeWithValidation(1002, "TEST101", 88, "2024-2025");
+      assertEquals(2, statistics.getPrepareStatementCount());
+    } finally {
+      statistics.setStatisticsEnabled(false);
+      students.evict(1002);
+      modules.evict("TEST101");
+    }
+  }
+
   /**
    * Test adding grade with validation - not registered.
    */
@@ -183,6 +541,72 @@ class GradeServiceTest {
     });
   }
 
+  /**
+   * Test adding a batch of grades reports rejected rows and saves the rest.
+   */
+  @Test
+  void testAddGradesInBatch() {
+    List<GradeSubmission> submissions = List.of(
+        new GradeSubmission(1, 1002, "TEST101", 60, "2024-2025"),
+        new GradeSubmission(2, 1002, "TEST102", 61, "2024-2025"),
+        new GradeSubmission(3, 9999, "TEST101", 62, "2024-2025"),
+        new GradeSubmission(4, 1001, "NOPE", 63, "2024-2025"),
+        new GradeSubmission(5, 1001, "TEST102", 64, "2024-2025"));
+
+    GradeBatchResult result = gradeService.addGradesInBatch(submissions);
+
+    assertEquals(2, result.getAccepted());
+    assertEquals(3, result.getRejected().size());
+    assertEquals(2, result.getRejected().get(0).getRow());
+    assertEquals("Student 1002 is not registered for module TEST102",
+        result.getRejected().get(0).getReason());
+    assertEquals("Student not found: 9999", result.getRejected().get(1).getReason());
+    assertEquals("Module not found: NOPE", result.getRejected().get(2).getReason());
+    assertEquals(2, gradeService.getGradesByStudent(1002).size());
+    assertEquals(3, gradeService.getGradesByStudent(1001).size());
+  }
+
+  /**
+   * Test a queued grade replayed after it was saved is counted as accepted but not added
+   * again.
+   */
+  @Test
+  void testAddQueuedGradesOnce() {
+    List<QueuedGrade> batch = List.of(new QueuedGrade("replayed",
+        new GradeSubmission(1, 1002, "TEST101", 66, "2024-2025")));
+
+    assertEquals(1, gradeService.addQueuedGrades(batch).getAccepted());
+    GradeBatchResult replayed = gradeService.addQueuedGrades(batch);
+
+    assertEquals(1, replayed.getAccepted());
+    assertTrue(replayed.getRejected().isEmpty());
+    assertEquals(2, gradeService.getGradesByStudent(1002).size());
+  }
+
+  /**
+   * Test adding an empty batch.
+   */
+  @Test
+  void testAddGradesInBatchEmpty() {
+    GradeBatchResult result = gradeService.addGradesInBatch(List.of());
+    assertEquals(0, result.getAccepted());
+    assertTrue(result.getRejected().isEmpty());
+  }
+
+  /**
+   * Test adding a batch that exceeds the maximum size.
+   */
+  @Test
+  void testAddGradesInBatchTooLarge() {
+    List<GradeSubmission> submissions = new ArrayList<>();
+    for (int i = 0; i <= GradeService.MAX_BATCH_SIZE; i++) {
+      submissions.add(new GradeSubmission(i + 1, 1001, "TEST101", 50, null));
+    }
+    assertThrows(IllegalArgumentException.class, () -> {
+      gradeService.addGradesInBatch(submissions);
+    });
+  }
+
   /**
    * Test deleting grade that exists.
    */
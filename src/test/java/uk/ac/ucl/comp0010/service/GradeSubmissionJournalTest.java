@@ -0,0 +1,108 @@
+package uk.ac.ucl.comp0010.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import uk.ac.ucl.comp0010.dto.GradeSubmission;
+import uk.ac.ucl.comp0010.dto.QueuedGrade;
+
+/**
+ * Unit tests for GradeSubmissionJournal.
+ */
+public class GradeSubmissionJournalTest {
+
+  @TempDir
+  private Path dir;
+
+  private static QueuedGrade grade(long seq, String academicYear) {
+    return new QueuedGrade("id-" + seq,
+        new GradeSubmission(seq, 1, "COMP0010", 60 + (int) seq, academicYear));
+  }
+
+  /**
+   * Test uncommitted submissions are handed back when the journal is reopened.
+   */
+  @Test
+  void testUncommittedSubmissionsReplayed() throws Exception {
+    Path path = dir.resolve("grades.journal");
+    try (GradeSubmissionJournal journal = new GradeSubmissionJournal(path, true)) {
+      assertTrue(journal.open().isEmpty());
+      journal.append(grade(1, "2024-2025"));
+      journal.append(grade(2, null));
+      journal.append(grade(3, "2023-2024"));
+      journal.commit(List.of(1L, 3L));
+    }
+
+    try (GradeSubmissionJournal journal = new GradeSubmissionJournal(path, false)) {
+      List<QueuedGrade> pending = journal.open();
+      assertEquals(1, pending.size());
+      QueuedGrade replayed = pending.get(0);
+      assertEquals("id-2", replayed.getTrackingId());
+      assertEquals(2L, replayed.getSequence());
+      assertEquals(1, replayed.getSubmission().getStudentId());
+      assertEquals("COMP0010", replayed.getSubmission().getModuleCode());
+      assertEquals(62, replayed.getSubmission().getScore());
+      assertNull(replayed.getSubmission().getAcademicYear());
+    }
+
+    assertEquals(1, Files.readAllLines(path).size());
+  }
+
+  /**
+   * Test a line torn by a crash mid-write is skipped.
+   */
+  @Test
+  void testTornLineSkipped() throws Exception {
+    Path path = dir.resolve("grades.journal");
+    try (GradeSubmissionJournal journal = new GradeSubmissionJournal(path, false)) {
+      journal.open();
+      journal.append(grade(1, "2024-2025"));
+    }
+    Files.writeString(path, "{\"op\":\"accept\",\"seq\":2,\"id\":\"id-",
+        StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+    try (GradeSubmissionJournal journal = new GradeSubmissionJournal(path, false)) {
+      List<QueuedGrade> pending = journal.open();
+      assertEquals(1, pending.size());
+      assertEquals("id-1", pending.get(0).getTrackingId());
+    }
+  }
+
+  /**
+   * Test writing before the journal is opened fails.
+   */
+  @Test
+  void testAppendBeforeOpen() {
+    GradeSubmissionJournal journal = new GradeSubmissionJournal(dir.resolve("j"), false);
+    assertThrows(IllegalStateException.class, () -> journal.append(grade(1, null)));
+  }
+
+  /**
+   * Test one force covers every line appended before it, and forcing needs an open journal.
+   */
+  @Test
+  void testForceCoversEarlierAppends() throws Exception {
+    Path path = dir.resolve("grades.journal");
+    GradeSubmissionJournal unopened = new GradeSubmissionJournal(path, true);
+    assertThrows(IllegalStateException.class, () -> unopened.force(1));
+
+    try (GradeSubmissionJournal journal = new GradeSubmissionJournal(path, true)) {
+      journal.open();
+      long first = journal.append(grade(1, null));
+      long second = journal.append(grade(2, null));
+      assertTrue(second > first);
+      journal.force(second);
+      journal.close();
+      journal.force(first);
+    }
+  }
+}
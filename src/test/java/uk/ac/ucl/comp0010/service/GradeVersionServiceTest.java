@@ -0,0 +1,96 @@
+package uk.ac.ucl.comp0010.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.MonthDay;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import uk.ac.ucl.comp0010.dto.GradeRow;
+import uk.ac.ucl.comp0010.event.GradeChangedEvent;
+
+/**
+ * Unit tests for GradeVersionService.
+ */
+public class GradeVersionServiceTest {
+
+  private GradeVersionService versions;
+
+  /**
+   * Set up a service whose academic years close on 1 October.
+   */
+  @BeforeEach
+  void setUp() {
+    versions = new GradeVersionService(MonthDay.of(10, 1), Duration.ofDays(7));
+  }
+
+  /**
+   * Test a grade change moves the tags of the student, module and year it touches only.
+   */
+  @Test
+  void testGradeChangeBumpsAffectedTags() {
+    String student = versions.studentTag(1);
+    String otherStudent = versions.studentTag(2);
+    String module = versions.moduleTag("COMP0010");
+    String oldModule = versions.moduleTag("COMP0011");
+    String year = versions.academicYearTag("2024-2025");
+    String all = versions.allTag();
+
+    versions.onGradeChanged(new GradeChangedEvent(
+        new GradeRow(1, 1, "COMP0011", 60, "2024-2025"),
+        new GradeRow(1, 1, "COMP0010", 60, "2024-2025")));
+
+    assertNotEquals(student, versions.studentTag(1));
+    assertEquals(otherStudent, versions.studentTag(2));
+    assertNotEquals(module, versions.moduleTag("COMP0010"));
+    assertNotEquals(oldModule, versions.moduleTag("COMP0011"));
+    assertNotEquals(year, versions.academicYearTag("2024-2025"));
+    assertNotEquals(all, versions.allTag());
+    assertTrue(versions.studentTag(1).startsWith("W/\""));
+  }
+
+  /**
+   * Test the tag of several students changes when any of them changes.
+   */
+  @Test
+  void testStudentsTag() {
+    String tag = versions.studentsTag(List.of(1, 2, 2));
+    versions.onGradeChanged(new GradeChangedEvent(null, new GradeRow(1, 2, "COMP0010", 70,
+        null)));
+
+    assertNotEquals(tag, versions.studentsTag(List.of(1, 2, 2)));
+    assertEquals(versions.modulesTag(List.of("COMP0010")), versions.moduleTag("COMP0010"));
+  }
+
+  /**
+   * Test invalidating outside a transaction makes every tag stale at once.
+   */
+  @Test
+  void testInvalidateAll() {
+    String student = versions.studentTag(1);
+    String module = versions.moduleTag("COMP0010");
+
+    versions.invalidateAll();
+
+    assertNotEquals(student, versions.studentTag(1));
+    assertNotEquals(module, versions.moduleTag("COMP0010"));
+  }
+
+  /**
+   * Test an academic year closes on the configured day of its final calendar year.
+   */
+  @Test
+  void testIsClosed() {
+    assertFalse(versions.isClosed("2024-2025", LocalDate.of(2025, 9, 30)));
+    assertTrue(versions.isClosed("2024-2025", LocalDate.of(2025, 10, 1)));
+    assertFalse(versions.isClosed("not-a-year", LocalDate.of(2025, 10, 1)));
+    assertFalse(versions.isClosed(null, LocalDate.of(2025, 10, 1)));
+    assertEquals("no-cache, private",
+        versions.academicYearCacheControl("2999-3000").getHeaderValue());
+  }
+}
@@ -0,0 +1,308 @@
+package uk.ac.ucl.comp0010.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.CannotAcquireLockException;
+import uk.ac.ucl.comp0010.dto.GradeBatchResult;
+import uk.ac.ucl.comp0010.dto.GradeSubmission;
+import uk.ac.ucl.comp0010.dto.QueuedGrade;
+import uk.ac.ucl.comp0010.dto.SubmissionStatus;
+import uk.ac.ucl.comp0010.dto.SubmissionStatus.State;
+import uk.ac.ucl.comp0010.exception.NoRegistrationException;
+
+/**
+ * Unit tests for GradeWriteBehindService.
+ */
+public class GradeWriteBehindServiceTest {
+
+  @TempDir
+  private Path dir;
+
+  private GradeService gradeService;
+  private GradeWriteBehindService service;
+
+  /**
+   * Set up a mocked grade service before each test.
+   */
+  @BeforeEach
+  void setUp() {
+    gradeService = mock(GradeService.class);
+  }
+
+  /**
+   * Stop the batcher after each test.
+   */
+  @AfterEach
+  void tearDown() {
+    if (service != null && service.isRunning()) {
+      service.stop();
+    }
+  }
+
+  private GradeWriteBehindService service(int capacity, String journal) {
+    return new GradeWriteBehindService(gradeService, new SimpleMeterRegistry(), capacity, 10,
+        Duration.ofMillis(50), journal, false);
+  }
+
+  private static Map<String, String> params(String studentId, String score) {
+    return Map.of("student_id", studentId, "module_code", "COMP0010", "score", score);
+  }
+
+  private SubmissionStatus awaitOutcome(GradeWriteBehindService target, String trackingId)
+      throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    SubmissionStatus status = target.getStatus(trackingId).orElseThrow();
+    while (status.getState() == State.QUEUED && System.nanoTime() < deadline) {
+      Thread.sleep(10);
+      status = target.getStatus(trackingId).orElseThrow();
+    }
+    return status;
+  }
+
+  /**
+   * Test queued grades are saved together and rejections are reported per submission.
+   */
+  @Test
+  void testBatchOutcomeReportedPerSubmission() throws Exception {
+    GradeBatchResult result = new GradeBatchResult();
+    result.accept(1);
+    result.reject(1, "Student 1 is not registered for module COMP0010");
+    when(gradeService.addQueuedGrades(anyList())).thenReturn(result);
+    service = service(10, "");
+    service.start();
+
+    SubmissionStatus first = service.submit(params("1", "70"));
+    SubmissionStatus second = service.submit(params("2", "80"));
+    assertEquals(State.QUEUED, first.getState());
+
+    SubmissionStatus rejected = awaitOutcome(service, first.getTrackingId());
+    assertEquals(State.REJECTED, rejected.getState());
+    assertEquals("Student 1 is not registered for module COMP0010", rejected.getReason());
+    assertEquals(State.SAVED, awaitOutcome(service, second.getTrackingId()).getState());
+  }
+
+  /**
+   * Test submissions are refused once the queue is full.
+   */
+  @Test
+  void testFullQueueRejects() throws Exception {
+    CountDownLatch saving = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    when(gradeService.addQueuedGrades(anyList())).thenAnswer(invocation -> {
+      saving.countDown();
+      release.await();
+      return new GradeBatchResult();
+    });
+    service = service(1, "");
+    service.start();
+
+    service.submit(params("1", "70"));
+    assertTrue(saving.await(5, TimeUnit.SECONDS));
+    service.submit(params("2", "70"));
+    assertThrows(RejectedExecutionException.class, () -> service.submit(params("3", "70")));
+
+    release.countDown();
+  }
+
+  /**
+   * Test invalid parameters are rejected before queueing.
+   */
+  @Test
+  void testInvalidSubmission() {
+    service = service(10, "");
+    service.start();
+
+    assertThrows(IllegalArgumentException.class,
+        () -> service.submit(Map.of("student_id", "x", "module_code", "COMP0010", "score", "1")));
+    assertThrows(IllegalArgumentException.class,
+        () -> service.submit(Map.of("student_id", "1")));
+  }
+
+  /**
+   * Test a submission for an unknown student or an unregistered module is refused before it
+   * is journaled or queued.
+   */
+  @Test
+  void testUnknownOrUnregisteredRefused() throws Exception {
+    Path journal = dir.resolve("grades.journal");
+    doThrow(new NoSuchElementException("Student not found: 9"))
+        .when(gradeService).checkGrade(9, "COMP0010");
+    doThrow(new NoRegistrationException("Student 3 is not registered for module COMP0010"))
+        .when(gradeService).checkGrade(3, "COMP0010");
+    service = service(10, journal.toString());
+    service.start();
+
+    assertThrows(NoSuchElementException.class, () -> service.submit(params("9", "70")));
+    assertThrows(NoRegistrationException.class, () -> service.submit(params("3", "70")));
+    service.stop();
+
+    verify(gradeService, never()).addQueuedGrades(anyList());
+    try (GradeSubmissionJournal reopened = new GradeSubmissionJournal(journal, false)) {
+      assertTrue(reopened.open().isEmpty());
+    }
+  }
+
+  /**
+   * Test nothing is accepted before the service starts.
+   */
+  @Test
+  void testNotStarted() {
+    service = service(10, "");
+
+    assertThrows(RejectedExecutionException.class, () -> service.submit(params("1", "70")));
+  }
+
+  /**
+   * Test a batch that keeps failing is saved one submission at a time, so only the submission
+   * that cannot be saved fails.
+   */
+  @Test
+  void testFailedBatchSavedOneAtATime() throws Exception {
+    when(gradeService.addQueuedGrades(anyList())).thenAnswer(invocation -> {
+      List<QueuedGrade> batch = invocation.getArgument(0);
+      if (batch.size() > 1 || batch.get(0).getSubmission().getScore() == 0) {
+        throw new IllegalStateException("constraint violated");
+      }
+      GradeBatchResult result = new GradeBatchResult();
+      result.accept(1);
+      return result;
+    });
+    service = service(10, "");
+    service.start();
+
+    SubmissionStatus first = service.submit(params("1", "70"));
+    SubmissionStatus bad = service.submit(params("2", "0"));
+    SubmissionStatus third = service.submit(params("3", "80"));
+
+    assertEquals(State.SAVED, awaitOutcome(service, first.getTrackingId()).getState());
+    SubmissionStatus failed = awaitOutcome(service, bad.getTrackingId());
+    assertEquals(State.FAILED, failed.getState());
+    assertEquals("constraint violated", failed.getReason());
+    assertEquals(State.SAVED, awaitOutcome(service, third.getTrackingId()).getState());
+  }
+
+  /**
+   * Test a batch that fails with a transient database error is retried.
+   */
+  @Test
+  void testTransientFailureRetried() throws Exception {
+    GradeBatchResult result = new GradeBatchResult();
+    result.accept(1);
+    when(gradeService.addQueuedGrades(anyList()))
+        .thenThrow(new CannotAcquireLockException("busy"))
+        .thenReturn(result);
+    service = service(10, "");
+    service.start();
+
+    SubmissionStatus submitted = service.submit(params("1", "70"));
+
+    assertEquals(State.SAVED, awaitOutcome(service, submitted.getTrackingId()).getState());
+    verify(gradeService, times(2)).addQueuedGrades(anyList());
+  }
+
+  /**
+   * Test a journaled submission that was never saved is saved on the next start.
+   */
+  @Test
+  @SuppressWarnings("unchecked")
+  void testJournaledSubmissionReplayed() throws Exception {
+    Path journal = dir.resolve("grades.journal");
+    try (GradeSubmissionJournal accepted = new GradeSubmissionJournal(journal, true)) {
+      accepted.open();
+      accepted.force(accepted.append(
+          new QueuedGrade("queued", new GradeSubmission(1, 1, "COMP0010", 70, null))));
+    }
+
+    GradeBatchResult result = new GradeBatchResult();
+    result.accept(1);
+    when(gradeService.addQueuedGrades(anyList())).thenReturn(result);
+    service = service(10, journal.toString());
+    service.start();
+
+    ArgumentCaptor<List<QueuedGrade>> batch = ArgumentCaptor.forClass(List.class);
+    verify(gradeService).addQueuedGrades(batch.capture());
+    assertEquals(1, batch.getValue().size());
+    assertEquals(70, batch.getValue().get(0).getSubmission().getScore());
+    assertEquals(State.SAVED, service.getStatus("queued").orElseThrow().getState());
+  }
+
+  /**
+   * Test a journaled submission reported as failed is not saved on the next start.
+   */
+  @Test
+  void testFailedSubmissionNotReplayed() throws Exception {
+    String journal = dir.resolve("grades.journal").toString();
+    when(gradeService.addQueuedGrades(anyList())).thenThrow(new IllegalStateException("down"));
+    service = service(10, journal);
+    service.start();
+    SubmissionStatus submitted = service.submit(params("1", "70"));
+    assertEquals(State.FAILED, awaitOutcome(service, submitted.getTrackingId()).getState());
+    service.stop();
+
+    gradeService = mock(GradeService.class);
+    service = service(10, journal);
+    service.start();
+
+    verify(gradeService, never()).addQueuedGrades(anyList());
+  }
+
+  /**
+   * Test submissions from many threads are all journaled and saved when each is forced to
+   * disk.
+   */
+  @Test
+  void testConcurrentForcedSubmissions() throws Exception {
+    Path journal = dir.resolve("grades.journal");
+    when(gradeService.addQueuedGrades(anyList())).thenAnswer(invocation -> {
+      GradeBatchResult result = new GradeBatchResult();
+      result.accept(invocation.<List<?>>getArgument(0).size());
+      return result;
+    });
+    service = new GradeWriteBehindService(gradeService, new SimpleMeterRegistry(), 1000, 10,
+        Duration.ofMillis(5), journal.toString(), true);
+    service.start();
+
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    List<Future<SubmissionStatus>> submitted = new ArrayList<>();
+    for (int i = 0; i < 200; i++) {
+      String studentId = String.valueOf(i);
+      submitted.add(executor.submit(() -> service.submit(params(studentId, "70"))));
+    }
+    executor.shutdown();
+    for (Future<SubmissionStatus> status : submitted) {
+      assertEquals(State.SAVED, awaitOutcome(service, status.get().getTrackingId()).getState());
+    }
+    service.stop();
+
+    try (GradeSubmissionJournal reopened = new GradeSubmissionJournal(journal, false)) {
+      assertTrue(reopened.open().isEmpty());
+    }
+  }
+}
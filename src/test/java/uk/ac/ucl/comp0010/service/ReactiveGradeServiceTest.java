@@ -0,0 +1,81 @@
+package uk.ac.ucl.comp0010.service;
+
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import uk.ac.ucl.comp0010.dto.GradeSummary;
+import uk.ac.ucl.comp0010.exception.NoGradeAvailableException;
+import uk.ac.ucl.comp0010.repository.ReactiveGradeRepository;
+
+/**
+ * Unit tests for ReactiveGradeService.
+ */
+public class ReactiveGradeServiceTest {
+
+  @Mock
+  private ReactiveGradeRepository reactiveGradeRepository;
+
+  @InjectMocks
+  private ReactiveGradeService reactiveGradeService;
+
+  /**
+   * Set up mocks before each test.
+   */
+  @BeforeEach
+  void setUp() {
+    MockitoAnnotations.openMocks(this);
+  }
+
+  /**
+   * Test grades stream one at a time as they are requested.
+   */
+  @Test
+  void testGradesStreamOnDemand() {
+    GradeSummary first = new GradeSummary(1, 85, "2024-2025", 1, "John Doe", "COMP0010",
+        "Software Engineering");
+    GradeSummary second = new GradeSummary(2, 92, "2024-2025", 1, "John Doe", "COMP0011",
+        "Mathematics and Statistics");
+    when(reactiveGradeRepository.findSummariesByStudentId(1))
+        .thenReturn(Flux.just(first, second));
+
+    StepVerifier.create(reactiveGradeService.getGradesByStudent(1), 0)
+        .thenRequest(1)
+        .expectNext(first)
+        .thenRequest(1)
+        .expectNext(second)
+        .verifyComplete();
+  }
+
+  /**
+   * Test the module average is read from the module aggregate.
+   */
+  @Test
+  void testModuleAverage() {
+    when(reactiveGradeRepository.findAverageById("MODULE:COMP0011"))
+        .thenReturn(Mono.just(93.5));
+
+    StepVerifier.create(reactiveGradeService.calculateModuleAverage("COMP0011"))
+        .expectNext(93.5)
+        .verifyComplete();
+  }
+
+  /**
+   * Test a student without grades fails with NoGradeAvailableException.
+   */
+  @Test
+  void testStudentAverageNoGrades() {
+    when(reactiveGradeRepository.findAverageById("STUDENT:7")).thenReturn(Mono.empty());
+
+    StepVerifier.create(reactiveGradeService.calculateStudentAverage(7))
+        .expectErrorMatches(e -> e instanceof NoGradeAvailableException
+            && e.getMessage().equals("No grades available for student ID: 7"))
+        .verify();
+  }
+}
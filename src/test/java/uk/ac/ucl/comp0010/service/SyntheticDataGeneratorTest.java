@@ -0,0 +1,99 @@
+package uk.ac.ucl.comp0010.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+import uk.ac.ucl.comp0010.dto.SyntheticDataSet;
+
+/**
+ * Integration tests for SyntheticDataGenerator.
+ * Each test runs in a transaction that is rolled back, restoring the seed data.
+ */
+@SpringBootTest
+@Transactional
+class SyntheticDataGeneratorTest {
+
+  private static final String GRADES_SQL = "SELECT student_id, module_code, score, "
+      + "academic_year FROM grade ORDER BY student_id, module_code";
+
+  @Autowired
+  private SyntheticDataGenerator generator;
+
+  @Autowired
+  private GradeAggregateService gradeAggregateService;
+
+  @Autowired
+  private GradeService gradeService;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  private final SyntheticDataSet dataSet = new SyntheticDataSet(200, 30, 6, 11L);
+
+  /**
+   * Test the data set replaces the seed data with the requested number of rows.
+   */
+  @Test
+  void testLoad() {
+    long grades = generator.load(dataSet);
+
+    assertEquals(200, count("student"));
+    assertEquals(30, count("module"));
+    assertEquals(1200, count("registration"));
+    assertEquals(grades, count("grade"));
+    assertTrue(grades > 1000 && grades < 1200);
+    assertEquals(0, jdbcTemplate.queryForObject(
+        "SELECT COUNT(*) FROM grade WHERE score < 0 OR score > 100", Long.class));
+  }
+
+  /**
+   * Test every registration matches the data set and every grade has a registration.
+   */
+  @Test
+  void testRegistrationsMatchDataSet() {
+    generator.load(dataSet);
+
+    for (int s = 1; s <= 200; s += 37) {
+      for (int i = 0; i < dataSet.getModulesPerStudent(); i++) {
+        assertTrue(gradeService.isStudentRegistered(s, dataSet.registeredModule(s, i)));
+      }
+    }
+    assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM grade g "
+        + "WHERE NOT EXISTS (SELECT 1 FROM registration r "
+        + "WHERE r.student_id = g.student_id AND r.module_code = g.module_code)", Long.class));
+  }
+
+  /**
+   * Test loading the same data set again produces the same grades.
+   */
+  @Test
+  void testDeterministic() {
+    generator.load(dataSet);
+    List<Map<String, Object>> first = jdbcTemplate.queryForList(GRADES_SQL);
+
+    generator.load(dataSet);
+
+    assertEquals(first, jdbcTemplate.queryForList(GRADES_SQL));
+  }
+
+  /**
+   * Test the grade aggregates are rebuilt for the loaded grades.
+   */
+  @Test
+  void testAggregatesRebuilt() {
+    generator.load(dataSet);
+
+    assertEquals(List.of(), gradeAggregateService.verify());
+  }
+
+  private long count(String table) {
+    return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Long.class);
+  }
+}